@@ -0,0 +1,207 @@
+package co.unicauca.gateway.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import co.unicauca.gateway.logging.AccessLogWriter;
+import co.unicauca.gateway.logging.RequestResponseLoggingFilter;
+import co.unicauca.gateway.security.JwtClaimsCache;
+import co.unicauca.gateway.security.JwtGatewayFilter;
+import co.unicauca.gateway.security.JwtUtils;
+import co.unicauca.gateway.security.RoleFilter;
+import co.unicauca.gateway.security.RouteAuthorizationTable;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por petición de la cadena RequestResponseLoggingFilter → JwtGatewayFilter
+ * → RoleFilter, tal como se aplica en la ruta de submissions.
+ *
+ * Escenarios (scenario):
+ * - public: ruta pública, sin token
+ * - valid: token válido con claims ya en JwtClaimsCache (estado estable)
+ * - valid-uncached: token válido verificando la firma en cada petición
+ * - expired / malformed / missing: peticiones rechazadas con 401
+ *
+ * extraHeaders añade headers de ~64 bytes (trazas, cookies de proxies) para
+ * medir el efecto del tamaño de la petición. exchangeBaseline mide solo la
+ * creación del exchange simulado; la diferencia con filterChain es el coste
+ * de los filtros.
+ *
+ * Los logs de la aplicación se silencian (nivel ERROR) para no medir la
+ * consola; el access log se publica en su ring buffer como en producción.
+ *
+ * Ejecución:
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="GatewayFilterChain -prof gc"
+ *
+ * @author Gateway Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GatewayFilterChainBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-for-jwt-validation-minimum-256-bits";
+    private static final String PROTECTED_PATH = "/api/submissions/formatoA";
+    private static final String PUBLIC_PATH = "/api/auth/login";
+
+    @Param({"public", "valid", "valid-uncached", "expired", "malformed", "missing"})
+    public String scenario;
+
+    @Param({"0", "32"})
+    public int extraHeaders;
+
+    private MockServerHttpRequest request;
+    private Route route;
+    private GatewayFilterChain chain;
+    private GatewayFilterChain terminal;
+    private JwtClaimsCache claimsCache;
+    private AccessLogWriter accessLogWriter;
+
+    @Setup
+    public void setUp() {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).setLevel(Level.ERROR);
+
+        MockEnvironment environment = new MockEnvironment();
+        environment.setProperty("gateway.security.publicPaths[0]", PUBLIC_PATH);
+        environment.setProperty("gateway.security.publicPaths[1]", "/api/gateway/health");
+        environment.setProperty("gateway.security.roleRules[0].path", PROTECTED_PATH);
+        environment.setProperty("gateway.security.roleRules[0].roles[0]", "DOCENTE");
+        RouteAuthorizationTable authorizationTable = new RouteAuthorizationTable(environment);
+
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        claimsCache = new JwtClaimsCache(jwtUtils, new SimpleMeterRegistry(), 10000, 300);
+
+        RoleFilter roleFilter = new RoleFilter(authorizationTable);
+        ReflectionTestUtils.setField(roleFilter, "enforceRoleCheck", true);
+
+        accessLogWriter = new AccessLogWriter(new SimpleMeterRegistry(), environment, 8192, 512, 100, 1.0);
+        accessLogWriter.start();
+
+        List<GatewayFilter> filters = List.of(
+                new RequestResponseLoggingFilter(accessLogWriter).apply(new RequestResponseLoggingFilter.Config()),
+                new JwtGatewayFilter(jwtUtils, claimsCache, authorizationTable).apply(new JwtGatewayFilter.Config()),
+                roleFilter.apply(new RoleFilter.Config()));
+
+        terminal = exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        };
+        chain = new FilterChain(filters, 0, terminal);
+        route = Route.async()
+                .id("submission-service")
+                .uri("lb://submission-service")
+                .predicate(exchange -> true)
+                .build();
+        request = buildRequest();
+    }
+
+    @TearDown
+    public void tearDown() {
+        accessLogWriter.stop();
+    }
+
+    private MockServerHttpRequest buildRequest() {
+        MockServerHttpRequest.BaseBuilder<?> builder = MockServerHttpRequest
+                .get("public".equals(scenario) ? PUBLIC_PATH : PROTECTED_PATH)
+                .header(HttpHeaders.ACCEPT, "application/json")
+                .header(HttpHeaders.USER_AGENT, "Mozilla/5.0 (X11; Linux x86_64) Gecko/20100101 Firefox/128.0")
+                .header("X-Forwarded-For", "10.0.0.15, 10.0.0.1");
+
+        String authorization = switch (scenario) {
+            case "valid", "valid-uncached" -> "Bearer " + token(System.currentTimeMillis() + 3_600_000);
+            case "expired" -> "Bearer " + token(System.currentTimeMillis() - 60_000);
+            case "malformed" -> "Bearer eyJhbGciOiJIUzI1NiJ9.not-a-payload.invalid-signature";
+            default -> null;
+        };
+        if (authorization != null) {
+            builder.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+
+        for (int i = 0; i < extraHeaders; i++) {
+            builder.header("X-Benchmark-Header-" + i, "v".repeat(64));
+        }
+        return builder.build();
+    }
+
+    private static String token(long expiresAtMillis) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.builder()
+                .subject("docente@unicauca.edu.co")
+                .claim("userId", 123)
+                .claim("rol", "DOCENTE")
+                .claim("email", "docente@unicauca.edu.co")
+                .expiration(new Date(expiresAtMillis))
+                .signWith(key)
+                .compact();
+    }
+
+    private MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+
+    @Benchmark
+    public void filterChain(Blackhole bh) {
+        if ("valid-uncached".equals(scenario)) {
+            claimsCache.clear();
+        }
+        MockServerWebExchange exchange = exchange();
+        chain.filter(exchange).block();
+        bh.consume(exchange.getResponse().getStatusCode());
+    }
+
+    @Benchmark
+    public void exchangeBaseline(Blackhole bh) {
+        MockServerWebExchange exchange = exchange();
+        terminal.filter(exchange).block();
+        bh.consume(exchange.getResponse().getStatusCode());
+    }
+
+    /**
+     * Cadena inmutable equivalente a la de Spring Cloud Gateway, sin el enrutado.
+     */
+    private record FilterChain(List<GatewayFilter> filters, int index, GatewayFilterChain terminal)
+            implements GatewayFilterChain {
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange) {
+            if (index == filters.size()) {
+                return terminal.filter(exchange);
+            }
+            return filters.get(index).filter(exchange, new FilterChain(filters, index + 1, terminal));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package co.unicauca.gateway.benchmark;
+
+import co.unicauca.gateway.security.RouteAuthorizationTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la resolución de rutas públicas y roles de RouteAuthorizationTable
+ * con los recorridos lineales que usaban JwtGatewayFilter.isPublicPath y
+ * RoleFilter.getRequiredRoles antes de la tabla compilada.
+ *
+ * Ejecución:
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="RouteAuthorization -prof gc"
+ *
+ * @author Gateway Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RouteAuthorizationBenchmark {
+
+    // Mismas rutas públicas que application-prod.yml
+    private static final List<String> PUBLIC_PATHS = List.of(
+            "/api/identity/auth/login",
+            "/api/identity/auth/register",
+            "/api/auth/login",
+            "/api/auth/register",
+            "/api/auth/roles",
+            "/api/gateway/health",
+            "/api/gateway/info",
+            "/actuator/health",
+            "/swagger-ui/**",
+            "/v3/api-docs/**");
+
+    @Param({
+            "/api/auth/login",
+            "/v3/api-docs/swagger-config",
+            "/api/submissions/formatoA",
+            "/api/submissions/formatoA/42/nueva-version"
+    })
+    public String path;
+
+    private RouteAuthorizationTable table;
+    private Map<String, List<String>> legacyRoleRequirements;
+
+    @Setup
+    public void setUp() {
+        MockEnvironment environment = new MockEnvironment();
+        for (int i = 0; i < PUBLIC_PATHS.size(); i++) {
+            environment.setProperty("gateway.security.publicPaths[" + i + "]", PUBLIC_PATHS.get(i));
+        }
+        environment.setProperty("gateway.security.roleRules[0].path", "/api/submissions/formatoA");
+        environment.setProperty("gateway.security.roleRules[0].roles[0]", "DOCENTE");
+        environment.setProperty("gateway.security.roleRules[1].path", "/api/submissions/anteproyecto");
+        environment.setProperty("gateway.security.roleRules[1].roles[0]", "ESTUDIANTE");
+        environment.setProperty("gateway.security.roleRules[1].roles[1]", "DOCENTE");
+        environment.setProperty("gateway.security.roleRules[2].path", "/api/submissions/formatoA/**");
+        environment.setProperty("gateway.security.roleRules[2].roles[0]", "DOCENTE");
+        table = new RouteAuthorizationTable(environment);
+
+        legacyRoleRequirements = new HashMap<>();
+        legacyRoleRequirements.put("/api/submissions/formatoA", List.of("DOCENTE"));
+        legacyRoleRequirements.put("/api/submissions/anteproyecto", List.of("ESTUDIANTE", "DOCENTE"));
+        legacyRoleRequirements.put("/api/submissions/formatoA/**", List.of("DOCENTE"));
+    }
+
+    @Benchmark
+    public void compiledTable(Blackhole bh) {
+        bh.consume(table.isPublic(path));
+        bh.consume(table.requiredRoles(HttpMethod.POST, path));
+    }
+
+    @Benchmark
+    public void legacyLinearScan(Blackhole bh) {
+        bh.consume(legacyIsPublicPath(path));
+        bh.consume(legacyGetRequiredRoles(path));
+    }
+
+    /**
+     * Copia de JwtGatewayFilter.isPublicPath previa a la tabla compilada.
+     */
+    private boolean legacyIsPublicPath(String path) {
+        for (String publicPath : PUBLIC_PATHS) {
+            String pattern = publicPath.trim();
+            if (pattern.endsWith("/**")) {
+                String prefix = pattern.substring(0, pattern.length() - 3);
+                if (path.startsWith(prefix)) {
+                    return true;
+                }
+            } else if (pattern.equals(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copia de RoleFilter.getRequiredRoles previa a la tabla compilada.
+     */
+    private List<String> legacyGetRequiredRoles(String path) {
+        if (legacyRoleRequirements.containsKey(path)) {
+            return legacyRoleRequirements.get(path);
+        }
+        for (Map.Entry<String, List<String>> entry : legacyRoleRequirements.entrySet()) {
+            String pattern = entry.getKey();
+            if (pattern.endsWith("/*") || pattern.endsWith("/**")) {
+                String prefix = pattern.substring(0, pattern.lastIndexOf('/'));
+                if (path.startsWith(prefix)) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,253 @@
+package co.unicauca.gateway.aggregation;
+
+import co.unicauca.gateway.loadbalancer.ServiceEndpoint;
+import co.unicauca.gateway.loadbalancer.ServiceInstanceRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Vista consolidada de un proyecto de grado a partir de varios servicios.
+ *
+ * Sustituye las llamadas secuenciales del frontend por una sola petición al
+ * gateway, que consulta en paralelo:
+ * - formatoA: submission-service GET /api/submissions/formatoA/proyecto/{id} (última versión)
+ * - asignacion: review-service GET /review/asignaciones/anteproyecto/{anteproyectoId}
+ * - historial: progress-tracking-service GET /api/progress/proyectos/{id}/historial
+ *
+ * La asignación se indexa por anteproyecto y no por proyecto, así que esa
+ * sección resuelve primero el anteproyectoId con submission-service
+ * (GET /api/submissions/anteproyecto/proyecto/{id}); si el proyecto aún no
+ * tiene anteproyecto la sección queda como not_found.
+ *
+ * Cada sección tiene su propio timeout (que incluye la resolución del id) y
+ * nunca hace fallar a las demás: si
+ * un servicio no responde a tiempo o devuelve un error, la sección queda en
+ * null y el motivo se informa en "errors" (respuesta parcial). La latencia
+ * total queda acotada por la sección más lenta.
+ *
+ * Las réplicas se eligen con {@link ServiceInstanceRegistry}, igual que en
+ * las rutas lb:// del gateway.
+ *
+ * Métricas: gateway.aggregation.sections (tags section, result=ok|not_found|forbidden|error|timeout|unavailable)
+ *
+ * @author Gateway Team
+ */
+@Component
+public class ProjectOverviewAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectOverviewAggregator.class);
+
+    // Headers de identidad que se reenvían a los servicios consultados
+    private static final List<String> FORWARDED_HEADERS = List.of(
+            HttpHeaders.AUTHORIZATION, "X-User-Id", "X-User-Role", "X-User-Email");
+
+    private final ServiceInstanceRegistry registry;
+    private final WebClient webClient;
+    private final MeterRegistry meterRegistry;
+    private final List<Section> sections;
+
+    public ProjectOverviewAggregator(
+            ServiceInstanceRegistry registry,
+            WebClient webClient,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.aggregation.timeouts.formato-a:2s}") Duration formatoATimeout,
+            @Value("${gateway.aggregation.timeouts.asignacion:2s}") Duration asignacionTimeout,
+            @Value("${gateway.aggregation.timeouts.historial:1s}") Duration historialTimeout) {
+        this.registry = registry;
+        this.webClient = webClient;
+        this.meterRegistry = meterRegistry;
+        this.sections = List.of(
+                new Section("formatoA", "submission-service", "/api/submissions/formatoA/proyecto/{id}",
+                        null, formatoATimeout),
+                new Section("asignacion", "review-service", "/review/asignaciones/anteproyecto/{id}",
+                        new Lookup("submission-service", "/api/submissions/anteproyecto/proyecto/{id}", "id"),
+                        asignacionTimeout),
+                new Section("historial", "progress-service", "/api/progress/proyectos/{id}/historial",
+                        null, historialTimeout));
+    }
+
+    /**
+     * Consulta todas las secciones en paralelo y las combina en un documento.
+     *
+     * @param projectId Id del proyecto
+     * @param headers   Headers de la petición original (se reenvían los de identidad)
+     * @return Documento con projectId, una clave por sección, complete y errors
+     */
+    public Mono<Map<String, Object>> overview(long projectId, HttpHeaders headers) {
+        List<Mono<SectionResult>> calls = sections.stream()
+                .map(section -> Mono.defer(() -> fetch(section, projectId, headers)))
+                .toList();
+
+        return Mono.zip(calls, results -> {
+            Map<String, Object> overview = new LinkedHashMap<>();
+            Map<String, String> errors = new LinkedHashMap<>();
+            overview.put("projectId", projectId);
+            for (Object result : results) {
+                SectionResult section = (SectionResult) result;
+                overview.put(section.name(), section.body());
+                if (section.error() != null) {
+                    errors.put(section.name(), section.error());
+                }
+            }
+            overview.put("complete", errors.isEmpty());
+            overview.put("errors", errors);
+            overview.put("timestamp", Instant.now().toString());
+            return overview;
+        });
+    }
+
+    /**
+     * Indica si al menos una sección del documento se obtuvo correctamente.
+     */
+    public boolean hasAnySection(Map<String, Object> overview) {
+        return sections.stream().anyMatch(section -> overview.get(section.name()) != null);
+    }
+
+    private Mono<SectionResult> fetch(Section section, long projectId, HttpHeaders headers) {
+        long deadline = System.nanoTime() + section.timeout().toNanos();
+        Lookup lookup = section.lookup();
+        Mono<Reply> reply = lookup == null
+                ? get(section, section.serviceId(), section.path(), projectId, deadline, headers)
+                : get(section, lookup.serviceId(), lookup.path(), projectId, deadline, headers)
+                        .flatMap(resolved -> {
+                            if (resolved.error() != null) {
+                                return Mono.just(resolved);
+                            }
+                            JsonNode id = resolved.body() != null ? resolved.body().get(lookup.idField()) : null;
+                            if (id == null || !id.canConvertToLong()) {
+                                return Mono.just(new Reply(null, "not_found"));
+                            }
+                            return get(section, section.serviceId(), section.path(), id.asLong(), deadline, headers);
+                        });
+        return reply.map(result -> result.error() == null ? ok(section, result.body()) : failed(section, result.error()));
+    }
+
+    /**
+     * Llamada a una réplica de serviceId con lo que queda del timeout de la sección.
+     */
+    private Mono<Reply> get(Section section, String serviceId, String path, long id, long deadline,
+                            HttpHeaders headers) {
+        ServiceEndpoint endpoint = registry.choose(serviceId);
+        if (endpoint == null) {
+            return Mono.just(new Reply(null, "unavailable"));
+        }
+
+        URI uri = UriComponentsBuilder.fromUri(endpoint.getUri())
+                .path(path)
+                .buildAndExpand(id)
+                .toUri();
+
+        AtomicBoolean released = new AtomicBoolean(false);
+        long start = System.nanoTime();
+        Consumer<Boolean> release = failed -> {
+            if (released.compareAndSet(false, true)) {
+                registry.release(endpoint, System.nanoTime() - start, failed);
+            }
+        };
+        registry.acquire(endpoint);
+
+        return webClient.get()
+                .uri(uri)
+                .headers(forwarded -> FORWARDED_HEADERS.forEach(name -> {
+                    String value = headers.getFirst(name);
+                    if (value != null && !value.isEmpty()) {
+                        forwarded.set(name, value);
+                    }
+                }))
+                .exchangeToMono(response -> {
+                    HttpStatusCode status = response.statusCode();
+                    release.accept(status.is5xxServerError());
+                    if (status.is2xxSuccessful()) {
+                        return response.bodyToMono(JsonNode.class)
+                                .map(body -> new Reply(body, null))
+                                .switchIfEmpty(Mono.fromSupplier(() -> new Reply(null, null)));
+                    }
+                    return response.releaseBody().thenReturn(new Reply(null, errorFor(status)));
+                })
+                .timeout(Duration.ofNanos(Math.max(0, deadline - start)))
+                .doOnCancel(() -> release.accept(false))
+                .onErrorResume(e -> {
+                    release.accept(true);
+                    boolean timeout = e instanceof TimeoutException;
+                    log.warn("Sección {} ({}) sin respuesta de {} tras {}ms: {}",
+                            section.name(), uri.getPath(), endpoint,
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e.toString());
+                    return Mono.just(new Reply(null, timeout ? "timeout" : "unavailable"));
+                });
+    }
+
+    private SectionResult ok(Section section, JsonNode body) {
+        record(section, "ok");
+        return new SectionResult(section.name(), body, null);
+    }
+
+    private SectionResult failed(Section section, String error) {
+        record(section, error);
+        return new SectionResult(section.name(), null, error);
+    }
+
+    private void record(Section section, String result) {
+        meterRegistry.counter("gateway.aggregation.sections", "section", section.name(), "result", result)
+                .increment();
+    }
+
+    private static String errorFor(HttpStatusCode status) {
+        if (status.value() == 404) {
+            return "not_found";
+        }
+        if (status.value() == 401 || status.value() == 403) {
+            return "forbidden";
+        }
+        return "error";
+    }
+
+    /**
+     * Sección del documento y servicio que la provee.
+     *
+     * @param path   Path con el placeholder {id}: el del proyecto, o el resuelto por lookup
+     * @param lookup Resolución previa del id a partir del proyecto (null si el path es por proyecto)
+     */
+    private record Section(String name, String serviceId, String path, Lookup lookup, Duration timeout) {
+    }
+
+    /**
+     * Consulta que obtiene, a partir del id del proyecto, el id que espera una sección.
+     *
+     * @param path    Path con el placeholder {id} del proyecto
+     * @param idField Campo del JSON de respuesta con el id resuelto
+     */
+    private record Lookup(String serviceId, String path, String idField) {
+    }
+
+    /**
+     * Respuesta de una llamada: body si se obtuvo, error si no.
+     */
+    private record Reply(JsonNode body, String error) {
+    }
+
+    /**
+     * Resultado de una sección: body si se obtuvo, error si no.
+     */
+    private record SectionResult(String name, JsonNode body, String error) {
+    }
+}
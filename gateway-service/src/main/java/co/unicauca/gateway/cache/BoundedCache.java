@@ -0,0 +1,166 @@
+package co.unicauca.gateway.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+
+/**
+ * Almacén clave-valor en memoria con tamaño máximo y expiración por entrada.
+ *
+ * Pensado para las caches del gateway (respuestas, últimas respuestas buenas,
+ * claves de idempotencia), donde importa más acotar la memoria que una
+ * política de expulsión exacta:
+ * - Las entradas expiradas se descartan al leerlas o al necesitar espacio
+ * - Al llegar a maxEntries se purgan primero las expiradas y luego entradas
+ *   arbitrarias hasta quedar por debajo del límite
+ *
+ * Es thread-safe y no bloquea en lecturas.
+ *
+ * @param <V> Tipo de los valores almacenados
+ * @author Gateway Team
+ */
+public class BoundedCache<V> {
+
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Obtiene un valor vigente.
+     *
+     * @return El valor, o null si no existe o ya expiró
+     */
+    public V get(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis > System.currentTimeMillis()) {
+            return entry.value;
+        }
+        if (entries.remove(key, entry)) {
+            evictions.increment();
+        }
+        return null;
+    }
+
+    /**
+     * Almacena un valor durante ttlMillis.
+     */
+    public void put(String key, V value, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        if (!entries.containsKey(key)) {
+            makeRoom(now);
+        }
+        entries.put(key, new Entry<>(value, now + ttlMillis));
+    }
+
+    /**
+     * Almacena un valor solo si no existe uno vigente para la clave.
+     *
+     * @return El valor vigente previo, o null si se almacenó el nuevo
+     */
+    public V putIfAbsent(String key, V value, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        makeRoom(now);
+
+        Entry<V> fresh = new Entry<>(value, now + ttlMillis);
+        Entry<V> result = entries.merge(key, fresh,
+                (existing, candidate) -> existing.expiresAtMillis > now ? existing : candidate);
+        return result == fresh ? null : result.value;
+    }
+
+    /**
+     * Elimina una entrada.
+     *
+     * @return El valor eliminado (aunque estuviera expirado), o null
+     */
+    public V remove(String key) {
+        Entry<V> entry = entries.remove(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * Elimina una entrada solo si sigue asociada al valor dado.
+     */
+    public boolean remove(String key, V value) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && entry.value == value && entries.remove(key, entry);
+    }
+
+    /**
+     * Elimina todas las entradas que cumplen la condición.
+     *
+     * @return Número de entradas eliminadas
+     */
+    public int invalidateIf(BiPredicate<String, V> condition) {
+        int removed = 0;
+        Iterator<Map.Entry<String, Entry<V>>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry<V>> e = it.next();
+            if (condition.test(e.getKey(), e.getValue().value)) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Recorre los valores vigentes.
+     */
+    public void forEach(BiConsumer<String, V> action) {
+        long now = System.currentTimeMillis();
+        entries.forEach((key, entry) -> {
+            if (entry.expiresAtMillis > now) {
+                action.accept(key, entry.value);
+            }
+        });
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Total de entradas expulsadas por expiración o por falta de espacio.
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private void makeRoom(long now) {
+        if (entries.size() < maxEntries) {
+            return;
+        }
+
+        entries.entrySet().removeIf(e -> {
+            boolean expired = e.getValue().expiresAtMillis <= now;
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+
+        Iterator<String> it = entries.keySet().iterator();
+        while (entries.size() >= maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+    }
+}
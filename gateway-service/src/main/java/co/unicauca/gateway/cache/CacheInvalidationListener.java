@@ -0,0 +1,64 @@
+package co.unicauca.gateway.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumidor de eventos de submission-service que invalida la cache de respuestas.
+ *
+ * Escucha una cola exclusiva por instancia del gateway (declarada en
+ * CacheInvalidationRabbitConfig) enlazada a:
+ * - formato-a-exchange (formato-a.enviado, formato-a.reenviado) → /api/submissions/formatoA
+ * - anteproyecto-exchange (anteproyecto.enviado) → /api/submissions/anteproyecto
+ *
+ * El contenido del evento no se interpreta: se invalida la familia completa,
+ * porque los listados y las vistas por id cambian con cualquier envío.
+ *
+ * Se activa con gateway.cache.invalidation.enabled=true.
+ *
+ * @author Gateway Team
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.cache.invalidation.enabled", havingValue = "true")
+public class CacheInvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+    static final String FORMATO_A_PATH = "/api/submissions/formatoA";
+    static final String ANTEPROYECTO_PATH = "/api/submissions/anteproyecto";
+
+    private final ResponseCacheFilter responseCache;
+
+    @Value("${gateway.cache.invalidation.formato-a-exchange:formato-a-exchange}")
+    private String formatoAExchange;
+
+    @Value("${gateway.cache.invalidation.anteproyecto-exchange:anteproyecto-exchange}")
+    private String anteproyectoExchange;
+
+    public CacheInvalidationListener(ResponseCacheFilter responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @RabbitListener(queues = "#{cacheInvalidationQueue.name}")
+    public void onSubmissionEvent(Message message) {
+        String exchange = message.getMessageProperties().getReceivedExchange();
+        String routingKey = message.getMessageProperties().getReceivedRoutingKey();
+
+        int removed;
+        if (formatoAExchange.equals(exchange)) {
+            removed = responseCache.invalidate(FORMATO_A_PATH);
+        } else if (anteproyectoExchange.equals(exchange)) {
+            removed = responseCache.invalidate(ANTEPROYECTO_PATH);
+        } else {
+            log.debug("Evento ignorado por la cache: exchange={}, routingKey={}", exchange, routingKey);
+            return;
+        }
+
+        log.info("Evento {} recibido: {} respuestas invalidadas", routingKey, removed);
+    }
+}
@@ -0,0 +1,126 @@
+package co.unicauca.gateway.cache;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Copia inmutable de una respuesta del backend (estado, headers y cuerpo).
+ *
+ * Se usa para servir respuestas desde memoria sin volver al backend.
+ * Los headers hop-by-hop y los dependientes de la conexión no se copian.
+ *
+ * @param path      Path de la petición que originó la respuesta
+ * @param status    Código HTTP
+ * @param headers   Headers de la respuesta (solo lectura)
+ * @param body      Cuerpo completo
+ * @param etag      ETag fuerte calculado sobre el cuerpo
+ * @param createdAt Instante de captura (epoch millis)
+ * @author Gateway Team
+ */
+public record CachedResponse(String path, HttpStatusCode status, HttpHeaders headers,
+                             byte[] body, String etag, long createdAt) {
+
+    // Headers que no deben reutilizarse al servir una copia
+    private static final List<String> EXCLUDED_HEADERS = List.of(
+            HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONNECTION,
+            HttpHeaders.SET_COOKIE,
+            HttpHeaders.DATE,
+            HttpHeaders.ETAG,
+            HttpHeaders.RETRY_AFTER,
+            HttpHeaders.WARNING,
+            "Age",
+            "Keep-Alive",
+            "X-Cache",
+            "RateLimit-Limit",
+            "RateLimit-Remaining",
+            "RateLimit-Reset",
+            "RateLimit-Policy");
+
+    /**
+     * Captura una respuesta ya escrita por el backend.
+     */
+    public static CachedResponse capture(String path, ServerHttpResponse response, byte[] body) {
+        return of(path, response.getStatusCode(), response.getHeaders(), body);
+    }
+
+    /**
+     * Crea una copia a partir de estado, headers y cuerpo (p.ej. de una respuesta de WebClient).
+     */
+    public static CachedResponse of(String path, HttpStatusCode status, HttpHeaders headers, byte[] body) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (EXCLUDED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                copy.addAll(name, values);
+            }
+        });
+
+        return new CachedResponse(path, status, HttpHeaders.readOnlyHttpHeaders(copy),
+                body, strongEtag(body), System.currentTimeMillis());
+    }
+
+    /**
+     * Edad de la copia en segundos (para el header Age).
+     */
+    public long ageSeconds() {
+        return Math.max(0, (System.currentTimeMillis() - createdAt) / 1000);
+    }
+
+    /**
+     * Escribe esta copia como respuesta del exchange.
+     */
+    public Mono<Void> writeTo(ServerHttpResponse response) {
+        response.setStatusCode(status);
+        response.getHeaders().putAll(headers);
+        response.getHeaders().setETag(etag);
+        response.getHeaders().setContentLength(body.length);
+
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    /**
+     * Calcula un ETag fuerte a partir del SHA-256 del cuerpo.
+     */
+    public static String strongEtag(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Evalúa un header If-None-Match contra el ETag (comparación débil, RFC 9110).
+     */
+    public static boolean matchesIfNoneMatch(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        if ("*".equals(ifNoneMatch.trim())) {
+            return true;
+        }
+
+        String opaque = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            if (opaqueTag(candidate.trim()).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,149 @@
+package co.unicauca.gateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decorador de respuesta que captura el cuerpo escrito por el backend.
+ *
+ * Retiene los fragmentos del cuerpo mientras su tamaño acumulado no supere
+ * maxBytes. Si el cuerpo termina dentro del límite, entrega la copia al
+ * {@link Handler}, que decide qué se escribe finalmente (el mismo cuerpo, uno
+ * vacío para un 304, etc.). En cuanto se supera el límite, el handler recibe
+ * {@link Handler#onNotCaptured}, se escriben los fragmentos retenidos y el
+ * resto del cuerpo pasa en streaming sin acumularse en memoria.
+ *
+ * Nada llega al cliente antes de esa decisión, así que el handler aún puede
+ * cambiar estado y headers de la respuesta.
+ *
+ * @author Gateway Team
+ */
+public class CapturingResponseDecorator extends ServerHttpResponseDecorator {
+
+    private final int maxBytes;
+    private final Handler handler;
+    private final AtomicBoolean handled = new AtomicBoolean(false);
+
+    public CapturingResponseDecorator(ServerHttpResponse delegate, int maxBytes, Handler handler) {
+        super(delegate);
+        this.maxBytes = maxBytes;
+        this.handler = handler;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        if (!handled.compareAndSet(false, true)) {
+            return getDelegate().writeWith(body);
+        }
+
+        // Los fragmentos llegan en secuencia: el estado no necesita sincronización
+        List<DataBuffer> seen = new ArrayList<>();
+        long[] size = {0};
+        boolean[] overflowed = {false};
+
+        Flux<DataBuffer> written = Flux.<DataBuffer>from(body)
+                .concatMap(buffer -> {
+                    if (overflowed[0]) {
+                        return Mono.just(buffer);
+                    }
+                    seen.add(buffer);
+                    size[0] += buffer.readableByteCount();
+                    if (size[0] <= maxBytes) {
+                        return Mono.<DataBuffer>empty();
+                    }
+                    overflowed[0] = true;
+                    handler.onNotCaptured(getDelegate());
+                    List<DataBuffer> held = new ArrayList<>(seen);
+                    seen.clear();
+                    return Flux.fromIterable(held);
+                })
+                .concatWith(Mono.defer(() -> overflowed[0] ? Mono.empty() : captured(seen, (int) size[0])))
+                .doFinally(signal -> {
+                    // Cancelación o error antes de decidir: liberar lo retenido
+                    seen.forEach(DataBufferUtils::release);
+                    seen.clear();
+                });
+
+        return getDelegate().writeWith(written);
+    }
+
+    private Mono<DataBuffer> captured(List<DataBuffer> buffers, int size) {
+        byte[] bytes = handler.onCaptured(getDelegate(), copy(buffers, size));
+        buffers.clear();
+        if (bytes == null || bytes.length == 0) {
+            getDelegate().getHeaders().remove("Content-Length");
+            return Mono.empty();
+        }
+        getDelegate().getHeaders().setContentLength(bytes.length);
+        return Mono.just(getDelegate().bufferFactory().wrap(bytes));
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        // Respuestas en streaming (SSE, etc.) no se capturan
+        if (handled.compareAndSet(false, true)) {
+            handler.onNotCaptured(getDelegate());
+        }
+        return getDelegate().writeAndFlushWith(body);
+    }
+
+    @Override
+    public Mono<Void> setComplete() {
+        // Respuesta sin cuerpo (p.ej. 204): se captura como cuerpo vacío
+        if (handled.compareAndSet(false, true)) {
+            return writeBytes(handler.onCaptured(getDelegate(), new byte[0]));
+        }
+        return getDelegate().setComplete();
+    }
+
+    private Mono<Void> writeBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            getDelegate().getHeaders().remove("Content-Length");
+            return getDelegate().setComplete();
+        }
+        getDelegate().getHeaders().setContentLength(bytes.length);
+        return getDelegate().writeWith(Mono.just(getDelegate().bufferFactory().wrap(bytes)));
+    }
+
+    private static byte[] copy(List<DataBuffer> buffers, int size) {
+        byte[] bytes = new byte[size];
+        int offset = 0;
+        for (DataBuffer buffer : buffers) {
+            int count = buffer.readableByteCount();
+            buffer.read(bytes, offset, count);
+            offset += count;
+            DataBufferUtils.release(buffer);
+        }
+        return bytes;
+    }
+
+    /**
+     * Receptor de la respuesta capturada.
+     */
+    public interface Handler {
+
+        /**
+         * Invocado con el cuerpo completo antes de escribirlo al cliente.
+         *
+         * Puede modificar estado y headers de la respuesta.
+         *
+         * @return Cuerpo a escribir finalmente (vacío o null = sin cuerpo)
+         */
+        byte[] onCaptured(ServerHttpResponse response, byte[] body);
+
+        /**
+         * Invocado cuando la respuesta no se pudo capturar (demasiado grande o streaming).
+         */
+        default void onNotCaptured(ServerHttpResponse response) {
+        }
+    }
+}
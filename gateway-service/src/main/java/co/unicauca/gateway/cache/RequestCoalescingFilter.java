@@ -0,0 +1,184 @@
+package co.unicauca.gateway.cache;
+
+import co.unicauca.gateway.security.PathTrie;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Agrupa consultas GET idénticas y concurrentes en una sola llamada al backend
+ * (single-flight).
+ *
+ * Cuando un tablero de coordinación se abre en varias pestañas o por varios
+ * usuarios a la vez, todas piden el mismo listado en el mismo instante:
+ * - La primera petición de una clave (routeId + rol + path + query) es la
+ *   "líder" y viaja al backend
+ * - Las que llegan mientras la líder está en vuelo esperan su respuesta y
+ *   reciben una copia, sin generar tráfico al backend
+ * - Si la respuesta supera maxBodyBytes, es streaming, o la líder falla o se
+ *   cancela, las que esperaban hacen su propia llamada (nunca se pierde una
+ *   petición por agrupar). Con una respuesta grande se liberan en cuanto se
+ *   supera el límite, sin esperar a que la líder termine ni copiar su cuerpo
+ *
+ * Es opcional por ruta y solo actúa sobre los patrones configurados. Debe
+ * ubicarse después de JwtGatewayFilter/RoleFilter, de modo que cada petición
+ * se autentique y autorice individualmente.
+ *
+ * Métricas: gateway.coalescing.requests (result=leader|coalesced|fallback),
+ * gateway.coalescing.in-flight
+ *
+ * @author Gateway Team
+ */
+@Component
+public class RequestCoalescingFilter extends AbstractGatewayFilterFactory<RequestCoalescingFilter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestCoalescingFilter.class);
+
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter coalesced;
+    private final Counter fallbacks;
+
+    public RequestCoalescingFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.leaders = requestCounter(meterRegistry, "leader");
+        this.coalesced = requestCounter(meterRegistry, "coalesced");
+        this.fallbacks = requestCounter(meterRegistry, "fallback");
+        Gauge.builder("gateway.coalescing.in-flight", inFlight, Map::size)
+                .description("Consultas líderes actualmente en vuelo")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry registry, String result) {
+        return Counter.builder("gateway.coalescing.requests")
+                .description("Consultas GET evaluadas por el agrupador de peticiones")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        PathTrie<Boolean> coalescedPaths = new PathTrie<>();
+        config.getPaths().forEach(pattern -> coalescedPaths.put(pattern, Boolean.TRUE));
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String path = request.getURI().getPath();
+
+            if (!HttpMethod.GET.equals(request.getMethod()) || coalescedPaths.match(path) == null) {
+                return chain.filter(exchange);
+            }
+
+            String key = ResponseCacheFilter.cacheKey(exchange);
+            Flight flight = new Flight();
+            Flight existing = inFlight.putIfAbsent(key, flight);
+
+            if (existing != null) {
+                coalesced.increment();
+                log.debug("Petición agrupada con la que está en vuelo: {}", key);
+                return existing.result.asMono()
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(shared -> {
+                            if (shared.isPresent()) {
+                                return shared.get().writeTo(exchange.getResponse());
+                            }
+                            fallbacks.increment();
+                            return chain.filter(exchange);
+                        });
+            }
+
+            leaders.increment();
+            CapturingResponseDecorator decorated = new CapturingResponseDecorator(
+                    exchange.getResponse(), config.getMaxBodyBytes(), new CapturingResponseDecorator.Handler() {
+                        @Override
+                        public byte[] onCaptured(ServerHttpResponse response, byte[] body) {
+                            complete(key, flight, CachedResponse.capture(path, response, body));
+                            return body;
+                        }
+
+                        @Override
+                        public void onNotCaptured(ServerHttpResponse response) {
+                            complete(key, flight, null);
+                        }
+                    });
+
+            return chain.filter(exchange.mutate().response(decorated).build())
+                    // Error o cancelación antes de capturar: liberar a las que esperan
+                    .doFinally(signal -> complete(key, flight, null));
+        };
+    }
+
+    /**
+     * Número de claves con una petición líder en vuelo.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Publica el resultado de la líder (una sola vez) y libera la clave para
+     * que las siguientes peticiones inicien una nueva llamada.
+     *
+     * @param response Respuesta compartida, o null si las que esperan deben llamar por su cuenta
+     */
+    private void complete(String key, Flight flight, CachedResponse response) {
+        if (!flight.done.compareAndSet(false, true)) {
+            return;
+        }
+        inFlight.remove(key, flight);
+        if (response != null) {
+            flight.result.tryEmitValue(response);
+        } else {
+            flight.result.tryEmitEmpty();
+        }
+    }
+
+    private static final class Flight {
+        private final Sinks.One<CachedResponse> result = Sinks.one();
+        private final AtomicBoolean done = new AtomicBoolean(false);
+    }
+
+    /**
+     * Configuración por ruta.
+     */
+    public static class Config {
+        // Patrones de path GET que se agrupan (admite "*" y "**")
+        private List<String> paths = new ArrayList<>();
+        // Respuestas más grandes no se comparten
+        private int maxBodyBytes = 512 * 1024;
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public int getMaxBodyBytes() {
+            return maxBodyBytes;
+        }
+
+        public void setMaxBodyBytes(int maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+    }
+}
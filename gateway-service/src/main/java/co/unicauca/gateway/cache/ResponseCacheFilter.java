@@ -0,0 +1,257 @@
+package co.unicauca.gateway.cache;
+
+import co.unicauca.gateway.security.PathTrie;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cache de respuestas GET en el borde con soporte de ETag / 304.
+ *
+ * Pensado para las consultas que coordinadores y evaluadores refrescan
+ * continuamente (Formato A por id, listados de Formato A y anteproyectos):
+ * - Clave: routeId + rol del usuario (X-User-Role) + path + query
+ * - Solo se cachean respuestas 200 sin "Cache-Control: no-store/private"
+ * - Cada respuesta lleva un ETag fuerte (SHA-256 del cuerpo); si el cliente
+ *   envía If-None-Match coincidente se responde 304 sin tocar el backend
+ * - Las entradas expiran tras ttlSeconds y se invalidan por familia de recurso
+ *   (p.ej. /api/submissions/formatoA) ante escrituras exitosas que pasan por
+ *   el gateway o eventos de RabbitMQ (ver CacheInvalidationListener)
+ *
+ * Debe ubicarse después de JwtGatewayFilter/RoleFilter para que la
+ * autenticación y el rol se evalúen antes de servir desde cache.
+ *
+ * Métricas: gateway.response.cache.requests (result=hit|miss|not_modified),
+ * gateway.response.cache.evictions, gateway.response.cache.size
+ *
+ * @author Gateway Team
+ */
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private final BoundedCache<CachedResponse> store;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter notModified;
+
+    public ResponseCacheFilter(MeterRegistry meterRegistry,
+                               @Value("${gateway.cache.max-entries:2000}") int maxEntries) {
+        super(Config.class);
+        this.store = new BoundedCache<>(maxEntries);
+
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.notModified = requestCounter(meterRegistry, "not_modified");
+        FunctionCounter.builder("gateway.response.cache.evictions", store, BoundedCache::evictionCount)
+                .description("Respuestas expulsadas de la cache del gateway")
+                .register(meterRegistry);
+        Gauge.builder("gateway.response.cache.size", store, BoundedCache::size)
+                .description("Respuestas almacenadas en la cache del gateway")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry registry, String result) {
+        return Counter.builder("gateway.response.cache.requests")
+                .description("Consultas GET evaluadas por la cache del gateway")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        PathTrie<Boolean> cacheablePaths = new PathTrie<>();
+        config.getPaths().forEach(pattern -> cacheablePaths.put(pattern, Boolean.TRUE));
+        long ttlMillis = config.getTtlSeconds() * 1000;
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String path = request.getURI().getPath();
+
+            if (!HttpMethod.GET.equals(request.getMethod())) {
+                // Escrituras exitosas invalidan la familia del recurso modificado
+                return chain.filter(exchange).doOnSuccess(done -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (status != null && status.is2xxSuccessful()) {
+                        invalidate(resourceRoot(path));
+                    }
+                });
+            }
+
+            if (cacheablePaths.match(path) == null) {
+                return chain.filter(exchange);
+            }
+
+            String key = cacheKey(exchange);
+            String ifNoneMatch = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+            CachedResponse cached = store.get(key);
+
+            if (cached != null) {
+                ServerHttpResponse response = exchange.getResponse();
+                response.getHeaders().set(CACHE_STATUS_HEADER, "HIT");
+
+                if (CachedResponse.matchesIfNoneMatch(ifNoneMatch, cached.etag())) {
+                    notModified.increment();
+                    log.debug("Cache 304 para {}", key);
+                    return notModified(response, cached.etag(), cached.headers());
+                }
+
+                hits.increment();
+                log.debug("Cache HIT para {}", key);
+                return cached.writeTo(response);
+            }
+
+            misses.increment();
+            exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+
+            CapturingResponseDecorator decorated = new CapturingResponseDecorator(
+                    exchange.getResponse(), config.getMaxBodyBytes(), (response, body) -> {
+                        if (!isStorable(response.getStatusCode(), response.getHeaders())) {
+                            return body;
+                        }
+
+                        CachedResponse fresh = CachedResponse.capture(path, response, body);
+                        store.put(key, fresh, ttlMillis);
+                        response.getHeaders().setETag(fresh.etag());
+                        if (response.getHeaders().getCacheControl() == null) {
+                            response.getHeaders().setCacheControl("private, no-cache");
+                        }
+
+                        if (CachedResponse.matchesIfNoneMatch(ifNoneMatch, fresh.etag())) {
+                            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+                            return null;
+                        }
+                        return body;
+                    });
+
+            return chain.filter(exchange.mutate().response(decorated).build());
+        };
+    }
+
+    /**
+     * Invalida todas las respuestas cuyo path comienza con el prefijo dado.
+     *
+     * @return Número de entradas eliminadas
+     */
+    public int invalidate(String pathPrefix) {
+        int removed = store.invalidateIf((key, response) -> response.path().startsWith(pathPrefix));
+        if (removed > 0) {
+            log.debug("Cache invalidada para {}: {} entradas", pathPrefix, removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Número de respuestas actualmente en cache.
+     */
+    public int size() {
+        return store.size();
+    }
+
+    private Mono<Void> notModified(ServerHttpResponse response, String etag, HttpHeaders cachedHeaders) {
+        response.setStatusCode(HttpStatus.NOT_MODIFIED);
+        response.getHeaders().setETag(etag);
+        String cacheControl = cachedHeaders.getCacheControl();
+        response.getHeaders().setCacheControl(cacheControl != null ? cacheControl : "private, no-cache");
+        return response.setComplete();
+    }
+
+    /**
+     * Solo se almacenan respuestas 200 frescas (sin Warning de StaleResponseFilter)
+     * y sin "Cache-Control: no-store/private".
+     */
+    static boolean isStorable(HttpStatusCode status, HttpHeaders headers) {
+        if (status == null || status.value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.WARNING)) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        return cacheControl == null
+                || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+    }
+
+    /**
+     * Clave de una consulta: routeId + rol + path + query (compartida con RequestCoalescingFilter).
+     */
+    static String cacheKey(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String role = request.getHeaders().getFirst("X-User-Role");
+        String query = request.getURI().getRawQuery();
+
+        return (route != null ? route.getId() : "-")
+                + '|' + (role != null ? role : "anonymous")
+                + '|' + request.getURI().getRawPath()
+                + (query != null ? "?" + query : "");
+    }
+
+    /**
+     * Raíz del recurso afectado por una escritura: los tres primeros segmentos
+     * (p.ej. /api/submissions/formatoA/15/estado -> /api/submissions/formatoA).
+     */
+    static String resourceRoot(String path) {
+        int slashes = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/' && ++slashes == 4) {
+                return path.substring(0, i);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Configuración por ruta.
+     */
+    public static class Config {
+        // Patrones de path GET cacheables (admite "*" y "**")
+        private List<String> paths = new ArrayList<>();
+        private long ttlSeconds = 30;
+        private int maxBodyBytes = 256 * 1024;
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+
+        public int getMaxBodyBytes() {
+            return maxBodyBytes;
+        }
+
+        public void setMaxBodyBytes(int maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+    }
+}
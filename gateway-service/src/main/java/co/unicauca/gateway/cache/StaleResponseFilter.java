@@ -0,0 +1,401 @@
+package co.unicauca.gateway.cache;
+
+import co.unicauca.gateway.loadbalancer.LoadBalancingGlobalFilter;
+import co.unicauca.gateway.loadbalancer.ServiceEndpoint;
+import co.unicauca.gateway.loadbalancer.ServiceInstanceRegistry;
+import co.unicauca.gateway.security.PathTrie;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+
+/**
+ * Última respuesta buena de las consultas de lectura, servida cuando el
+ * backend no está disponible (stale-if-error).
+ *
+ * Se ubica antes del circuit breaker de la ruta:
+ * - Cada GET 200 de los paths configurados se guarda por clave (routeId + rol
+ *   + path + query, y opcionalmente la credencial) durante maxStaleSeconds
+ * - Si la respuesta que llega al cliente es la del fallback del circuit
+ *   breaker (circuito abierto, timeout o sin instancias) o un 502/503/504, y
+ *   existe copia, se sirve la copia con "Warning: 110 - "Response is Stale"",
+ *   "Age" y "X-Cache: STALE"
+ * - Las claves servidas así se refrescan en segundo plano en cuanto el
+ *   circuito pasa a HALF_OPEN, sin esperar a que un cliente las pida
+ *
+ * Con el circuito abierto las peticiones no llegan al backend, por lo que las
+ * lecturas siguen respondiendo durante reinicios cortos sin encolarse en
+ * conexiones muertas.
+ *
+ * En rutas sin JwtGatewayFilter (identity) el rol no es confiable y debe
+ * activarse keyByCredential para que una copia solo se sirva a quien
+ * presente el mismo header Authorization.
+ *
+ * Métricas: gateway.stale.responses (result=stored|served|refreshed|refresh_failed),
+ * gateway.stale.size
+ *
+ * @author Gateway Team
+ */
+@Component
+public class StaleResponseFilter extends AbstractGatewayFilterFactory<StaleResponseFilter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(StaleResponseFilter.class);
+
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    // Headers de la petición original que se repiten al refrescar una copia
+    private static final List<String> REFRESH_HEADERS = List.of(
+            HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_LANGUAGE,
+            "X-User-Id", "X-User-Role", "X-User-Email");
+
+    private final BoundedCache<StaleEntry> store;
+    // Claves servidas desde copia, por nombre de circuit breaker, pendientes de refresco
+    private final BoundedCache<String> pendingRefresh;
+    private final ServiceInstanceRegistry registry;
+    private final WebClient webClient;
+    private final Duration refreshTimeout;
+
+    private final Counter stored;
+    private final Counter served;
+    private final Counter refreshed;
+    private final Counter refreshFailed;
+
+    @Autowired
+    public StaleResponseFilter(ReactiveResilience4JCircuitBreakerFactory circuitBreakerFactory,
+                               ServiceInstanceRegistry registry,
+                               WebClient webClient,
+                               MeterRegistry meterRegistry,
+                               @Value("${gateway.cache.stale.max-entries:1000}") int maxEntries,
+                               @Value("${gateway.cache.stale.refresh-timeout-ms:2000}") long refreshTimeoutMs) {
+        this(circuitBreakerFactory.getCircuitBreakerRegistry(), registry, webClient, meterRegistry,
+                maxEntries, refreshTimeoutMs);
+    }
+
+    StaleResponseFilter(CircuitBreakerRegistry circuitBreakers,
+                        ServiceInstanceRegistry registry,
+                        WebClient webClient,
+                        MeterRegistry meterRegistry,
+                        int maxEntries,
+                        long refreshTimeoutMs) {
+        super(Config.class);
+        this.store = new BoundedCache<>(maxEntries);
+        this.pendingRefresh = new BoundedCache<>(maxEntries);
+        this.registry = registry;
+        this.webClient = webClient;
+        this.refreshTimeout = Duration.ofMillis(refreshTimeoutMs);
+
+        this.stored = responseCounter(meterRegistry, "stored");
+        this.served = responseCounter(meterRegistry, "served");
+        this.refreshed = responseCounter(meterRegistry, "refreshed");
+        this.refreshFailed = responseCounter(meterRegistry, "refresh_failed");
+        Gauge.builder("gateway.stale.size", store, BoundedCache::size)
+                .description("Últimas respuestas buenas disponibles para servir sin backend")
+                .register(meterRegistry);
+
+        // Los circuit breakers de las rutas se crean al recibir la primera petición
+        circuitBreakers.getAllCircuitBreakers().forEach(this::watch);
+        circuitBreakers.getEventPublisher()
+                .onEntryAdded(event -> watch(event.getAddedEntry()))
+                .onEntryReplaced(event -> watch(event.getNewEntry()));
+    }
+
+    private static Counter responseCounter(MeterRegistry registry, String result) {
+        return Counter.builder("gateway.stale.responses")
+                .description("Últimas respuestas buenas almacenadas, servidas y refrescadas")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        PathTrie<Boolean> stalePaths = new PathTrie<>();
+        config.getPaths().forEach(pattern -> stalePaths.put(pattern, Boolean.TRUE));
+        long maxStaleMillis = config.getMaxStaleSeconds() * 1000;
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String path = request.getURI().getPath();
+
+            if (!HttpMethod.GET.equals(request.getMethod()) || stalePaths.match(path) == null) {
+                return chain.filter(exchange);
+            }
+
+            String key = staleKey(exchange, config.isKeyByCredential());
+            HttpHeaders refreshHeaders = refreshHeaders(request.getHeaders());
+
+            CapturingResponseDecorator decorated = new CapturingResponseDecorator(
+                    exchange.getResponse(), config.getMaxBodyBytes(), (response, body) -> {
+                        if (isBackendUnavailable(exchange, response)) {
+                            StaleEntry stale = store.get(key);
+                            if (stale == null) {
+                                return body;
+                            }
+                            pendingRefresh.put(key, config.getName(), maxStaleMillis);
+                            return serveStale(response, stale.response(), key);
+                        }
+
+                        if (ResponseCacheFilter.isStorable(response.getStatusCode(), response.getHeaders())) {
+                            CachedResponse fresh = CachedResponse.capture(path, response, body);
+                            store.put(key, new StaleEntry(fresh, refreshTarget(exchange, refreshHeaders),
+                                    maxStaleMillis), maxStaleMillis);
+                            stored.increment();
+                        }
+                        return body;
+                    });
+
+            return chain.filter(exchange.mutate().response(decorated).build());
+        };
+    }
+
+    /**
+     * Número de respuestas disponibles como copia.
+     */
+    public int size() {
+        return store.size();
+    }
+
+    private byte[] serveStale(ServerHttpResponse response, CachedResponse stale, String key) {
+        served.increment();
+        log.warn("Backend no disponible, sirviendo copia de {}s para {}", stale.ageSeconds(), key);
+
+        HttpHeaders headers = response.getHeaders();
+        headers.remove(HttpHeaders.RETRY_AFTER);
+        headers.remove(HttpHeaders.CONTENT_TYPE);
+        response.setStatusCode(stale.status());
+        headers.putAll(stale.headers());
+        headers.setETag(stale.etag());
+        headers.set(HttpHeaders.WARNING, STALE_WARNING);
+        headers.set("Age", String.valueOf(stale.ageSeconds()));
+        headers.set(CACHE_STATUS_HEADER, "STALE");
+        return stale.body();
+    }
+
+    /**
+     * La respuesta es la del fallback del circuit breaker o un error de disponibilidad.
+     */
+    private static boolean isBackendUnavailable(ServerWebExchange exchange, ServerHttpResponse response) {
+        if (exchange.getAttribute(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR) != null) {
+            return true;
+        }
+        HttpStatusCode status = response.getStatusCode();
+        if (status == null) {
+            return false;
+        }
+        int code = status.value();
+        return code == 502 || code == 503 || code == 504;
+    }
+
+    private void watch(CircuitBreaker circuitBreaker) {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            if (event.getStateTransition().getToState() == CircuitBreaker.State.HALF_OPEN) {
+                refreshPending(circuitBreaker.getName());
+            }
+        });
+    }
+
+    /**
+     * Refresca en segundo plano las copias servidas mientras el circuito estaba abierto.
+     */
+    void refreshPending(String circuitBreakerName) {
+        List<String> keys = new ArrayList<>();
+        pendingRefresh.forEach((key, name) -> {
+            if (name.equals(circuitBreakerName)) {
+                keys.add(key);
+            }
+        });
+        if (!keys.isEmpty()) {
+            log.info("Circuito {} en HALF_OPEN, refrescando {} copias", circuitBreakerName, keys.size());
+        }
+
+        for (String key : keys) {
+            pendingRefresh.remove(key);
+            StaleEntry entry = store.get(key);
+            if (entry != null && entry.target() != null) {
+                refresh(key, entry).subscribe();
+            }
+        }
+    }
+
+    private Mono<Void> refresh(String key, StaleEntry entry) {
+        RefreshTarget target = entry.target();
+        ServiceEndpoint endpoint = registry.choose(target.serviceId());
+        if (endpoint == null) {
+            refreshFailed.increment();
+            return Mono.empty();
+        }
+
+        URI uri = LoadBalancingGlobalFilter.reconstructUri(target.url(), endpoint.getUri());
+        AtomicBoolean released = new AtomicBoolean(false);
+        long start = System.nanoTime();
+        Consumer<Boolean> release = failed -> {
+            if (released.compareAndSet(false, true)) {
+                registry.release(endpoint, System.nanoTime() - start, failed);
+            }
+        };
+        registry.acquire(endpoint);
+
+        return webClient.get()
+                .uri(uri)
+                .headers(headers -> headers.addAll(target.headers()))
+                .exchangeToMono(response -> {
+                    release.accept(response.statusCode().is5xxServerError());
+                    return response.toEntity(byte[].class);
+                })
+                .timeout(refreshTimeout)
+                .doOnCancel(() -> release.accept(false))
+                .doOnNext(response -> {
+                    if (!ResponseCacheFilter.isStorable(response.getStatusCode(), response.getHeaders())) {
+                        refreshFailed.increment();
+                        log.debug("Refresco de {} descartado: {}", key, response.getStatusCode());
+                        return;
+                    }
+                    byte[] body = response.getBody() != null ? response.getBody() : new byte[0];
+                    CachedResponse fresh = CachedResponse.of(entry.response().path(),
+                            response.getStatusCode(), response.getHeaders(), body);
+                    store.put(key, new StaleEntry(fresh, target, entry.ttlMillis()), entry.ttlMillis());
+                    refreshed.increment();
+                    log.debug("Copia de {} refrescada desde {}", key, endpoint);
+                })
+                .onErrorResume(e -> {
+                    release.accept(true);
+                    refreshFailed.increment();
+                    log.debug("Refresco de {} fallido: {}", key, e.toString());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Réplica y URL final de la petición, para repetirla al refrescar la copia.
+     */
+    private static RefreshTarget refreshTarget(ServerWebExchange exchange, HttpHeaders headers) {
+        ServiceEndpoint endpoint = exchange.getAttribute(LoadBalancingGlobalFilter.ENDPOINT_ATTR);
+        URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        if (endpoint == null || url == null) {
+            return null;
+        }
+        return new RefreshTarget(endpoint.getServiceId(), url, headers);
+    }
+
+    private static HttpHeaders refreshHeaders(HttpHeaders requestHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : REFRESH_HEADERS) {
+            List<String> values = requestHeaders.get(name);
+            if (values != null) {
+                headers.put(name, values);
+            }
+        }
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    /**
+     * Clave de la copia: la de ResponseCacheFilter más, si se pide, el hash del header Authorization.
+     */
+    static String staleKey(ServerWebExchange exchange, boolean keyByCredential) {
+        String key = ResponseCacheFilter.cacheKey(exchange);
+        if (!keyByCredential) {
+            return key;
+        }
+        String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        return key + '|' + (authorization != null
+                ? CachedResponse.strongEtag(authorization.getBytes(StandardCharsets.UTF_8))
+                : "anonymous");
+    }
+
+    /**
+     * Copia almacenada y cómo refrescarla.
+     *
+     * @param target Null si la petición no pasó por LoadBalancingGlobalFilter (no se refresca)
+     */
+    private record StaleEntry(CachedResponse response, RefreshTarget target, long ttlMillis) {
+    }
+
+    /**
+     * Petición a repetir para refrescar una copia.
+     */
+    private record RefreshTarget(String serviceId, URI url, HttpHeaders headers) {
+    }
+
+    /**
+     * Configuración por ruta.
+     */
+    public static class Config {
+        // Nombre del circuit breaker de la ruta (su paso a HALF_OPEN dispara los refrescos)
+        private String name;
+        // Patrones de path GET cuya última respuesta buena se conserva (admite "*" y "**")
+        private List<String> paths = new ArrayList<>();
+        private long maxStaleSeconds = 600;
+        private int maxBodyBytes = 256 * 1024;
+        private boolean keyByCredential = false;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public long getMaxStaleSeconds() {
+            return maxStaleSeconds;
+        }
+
+        public void setMaxStaleSeconds(long maxStaleSeconds) {
+            this.maxStaleSeconds = maxStaleSeconds;
+        }
+
+        public int getMaxBodyBytes() {
+            return maxBodyBytes;
+        }
+
+        public void setMaxBodyBytes(int maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+
+        public boolean isKeyByCredential() {
+            return keyByCredential;
+        }
+
+        public void setKeyByCredential(boolean keyByCredential) {
+            this.keyByCredential = keyByCredential;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package co.unicauca.gateway.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limitación adaptativa de concurrencia y descarte de carga por servicio backend.
+ *
+ * Acota las peticiones en vuelo hacia cada servicio con un
+ * {@link AdaptiveConcurrencyLimit} que se ajusta según la latencia observada.
+ * Cuando el servicio se degrada (p.ej. submission-service en un día de
+ * entrega de anteproyectos), el límite baja y el exceso se rechaza de
+ * inmediato con 503 + Retry-After, en lugar de acumular peticiones hasta que
+ * los timeouts se propaguen en cascada.
+ *
+ * Las lecturas (GET/HEAD/OPTIONS) tienen prioridad: las escrituras solo
+ * pueden ocupar writeShare del límite.
+ *
+ * El límite se comparte entre todas las rutas que usan el mismo nombre
+ * (p.ej. las dos rutas de identity-service).
+ *
+ * Métricas (tag service):
+ * - gateway.concurrency.limit
+ * - gateway.concurrency.in-flight
+ * - gateway.concurrency.rejections (tag priority=read|write)
+ *
+ * @author Gateway Team
+ */
+@Component
+public class AdaptiveConcurrencyFilter extends AbstractGatewayFilterFactory<AdaptiveConcurrencyFilter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String service = config.getName();
+        AdaptiveConcurrencyLimit limit = limits.computeIfAbsent(service, name -> register(name, config));
+        Counter readRejections = rejectionCounter(service, "read");
+        Counter writeRejections = rejectionCounter(service, "write");
+
+        return (exchange, chain) -> {
+            boolean write = isWrite(exchange.getRequest().getMethod());
+
+            if (!limit.tryAcquire(write)) {
+                (write ? writeRejections : readRejections).increment();
+                log.warn("Carga descartada para {}: {} en vuelo, límite {} ({})",
+                        service, limit.getInFlight(), limit.getLimit(), write ? "escritura" : "lectura");
+                return serviceUnavailable(exchange, service, config.getRetryAfterSeconds());
+            }
+
+            long start = System.nanoTime();
+            return chain.filter(exchange).doFinally(signal -> {
+                if (signal == SignalType.CANCEL) {
+                    limit.onCancel();
+                    return;
+                }
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                boolean failed = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                limit.onComplete(System.nanoTime() - start, failed);
+            });
+        };
+    }
+
+    /**
+     * Límite vigente de un servicio (o null si no hay rutas que lo usen).
+     */
+    public AdaptiveConcurrencyLimit limitFor(String service) {
+        return limits.get(service);
+    }
+
+    private AdaptiveConcurrencyLimit register(String service, Config config) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(
+                config.getInitialLimit(), config.getMinLimit(), config.getMaxLimit(), config.getWriteShare());
+
+        Gauge.builder("gateway.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Límite adaptativo de peticiones en vuelo hacia el servicio")
+                .tag("service", service)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Peticiones en vuelo hacia el servicio")
+                .tag("service", service)
+                .register(meterRegistry);
+
+        log.info("Límite de concurrencia adaptativo para {}: inicial={}, min={}, max={}, escrituras={}%",
+                service, config.getInitialLimit(), config.getMinLimit(), config.getMaxLimit(),
+                (int) (config.getWriteShare() * 100));
+        return limit;
+    }
+
+    private Counter rejectionCounter(String service, String priority) {
+        return Counter.builder("gateway.concurrency.rejections")
+                .description("Peticiones descartadas por el límite de concurrencia")
+                .tag("service", service)
+                .tag("priority", priority)
+                .register(meterRegistry);
+    }
+
+    private static boolean isWrite(HttpMethod method) {
+        return !(HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method));
+    }
+
+    /**
+     * Genera una respuesta 503 Service Unavailable con Retry-After y cuerpo JSON.
+     */
+    private Mono<Void> serviceUnavailable(ServerWebExchange exchange, String service, long retryAfterSeconds) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+
+        String jsonResponse = String.format(
+                "{\"error\":\"Service Unavailable\",\"message\":\"%s is overloaded. Retry after %d seconds\"}",
+                service, retryAfterSeconds
+        );
+
+        DataBuffer buffer = response.bufferFactory()
+                .wrap(jsonResponse.getBytes(StandardCharsets.UTF_8));
+
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    /**
+     * Configuración por ruta.
+     */
+    public static class Config {
+        // Nombre del servicio: las rutas con el mismo nombre comparten límite
+        private String name = "default";
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+        // Fracción del límite disponible para escrituras (subidas)
+        private double writeShare = 0.5;
+        private long retryAfterSeconds = 1;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getWriteShare() {
+            return writeShare;
+        }
+
+        public void setWriteShare(double writeShare) {
+            this.writeShare = writeShare;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(long retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package co.unicauca.gateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de concurrencia adaptativo para un servicio backend.
+ *
+ * El límite se ajusta con cada respuesta observada (estilo gradiente / AIMD):
+ * - Se mantiene una media móvil de largo plazo de la latencia (longRtt)
+ * - Si la latencia actual sube respecto a longRtt, el gradiente
+ *   (tolerance * longRtt / rtt, acotado a [0.5, 1]) reduce el límite
+ * - Si la latencia es estable y el límite se está usando, crece con un
+ *   margen de sqrt(límite) (incremento aditivo)
+ * - Errores 5xx, timeouts y fallbacks del circuit breaker reducen el límite
+ *   multiplicativamente (backoffRatio)
+ *
+ * Prioridades: las lecturas pueden usar todo el límite; las escrituras
+ * (subidas, POST/PUT/PATCH/DELETE) solo writeShare del límite, de modo que
+ * bajo presión se descartan primero y las consultas siguen atendiéndose.
+ *
+ * Las adquisiciones no bloquean (CAS sobre el contador de peticiones en
+ * vuelo); la actualización del límite es una sección crítica corta sin E/S.
+ *
+ * @author Gateway Team
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double LONG_RTT_SMOOTHING = 0.01;
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double writeShare;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // Protegidos por el monitor de esta instancia
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double writeShare) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.writeShare = writeShare;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Intenta reservar un hueco para una petición.
+     *
+     * @param write true para escrituras (menor prioridad)
+     * @return true si la petición puede continuar; debe liberarse con onComplete/onCancel
+     */
+    public boolean tryAcquire(boolean write) {
+        int allowed = allowedFor(write);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el hueco y ajusta el límite con la latencia observada.
+     *
+     * @param rttNanos Latencia de la petición
+     * @param failed   true si el backend falló (5xx, timeout, circuito abierto)
+     */
+    public void onComplete(long rttNanos, boolean failed) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        update(rttNanos, failed, inFlightAtCompletion);
+    }
+
+    /**
+     * Libera el hueco sin muestra de latencia (petición cancelada por el cliente).
+     */
+    public void onCancel() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    int allowedFor(boolean write) {
+        int current = (int) limit;
+        return write ? Math.max(1, (int) (current * writeShare)) : current;
+    }
+
+    private synchronized void update(long rttNanos, boolean failed, int inFlightAtCompletion) {
+        double current = limit;
+        double next;
+
+        if (failed) {
+            next = current * BACKOFF_RATIO;
+        } else {
+            if (rttNanos <= 0) {
+                return;
+            }
+            longRttNanos = longRttNanos == 0
+                    ? rttNanos
+                    : longRttNanos * (1 - LONG_RTT_SMOOTHING) + rttNanos * LONG_RTT_SMOOTHING;
+
+            // Tras una degradación prolongada, dejar que longRtt vuelva a la latencia actual
+            if (longRttNanos / rttNanos > 2) {
+                longRttNanos *= 0.95;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / rttNanos));
+            if (gradient < 1.0) {
+                // La latencia supera la tolerancia: reducir sin margen de cola
+                next = current * (1 - LIMIT_SMOOTHING) + current * gradient * LIMIT_SMOOTHING;
+            } else if (inFlightAtCompletion >= current / 2) {
+                next = current * (1 - LIMIT_SMOOTHING) + (current + Math.sqrt(current)) * LIMIT_SMOOTHING;
+            } else {
+                // Sin uso suficiente no hay evidencia para crecer
+                return;
+            }
+        }
+
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -0,0 +1,75 @@
+package co.unicauca.gateway.config;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración de RabbitMQ para invalidar la cache de respuestas del gateway.
+ *
+ * Cada instancia del gateway declara una cola anónima (exclusiva, auto-delete)
+ * enlazada a los exchanges que publica submission-service, de modo que todas
+ * las réplicas reciben todos los eventos:
+ * - formato-a-exchange     (routing: formato-a.enviado, formato-a.reenviado)
+ * - anteproyecto-exchange  (routing: anteproyecto.enviado)
+ *
+ * Los exchanges se declaran con los mismos parámetros que en submission-service
+ * (direct, durable), por lo que la declaración es idempotente.
+ *
+ * Se activa con gateway.cache.invalidation.enabled=true.
+ *
+ * @author Gateway Team
+ */
+@Configuration
+@ConditionalOnProperty(name = "gateway.cache.invalidation.enabled", havingValue = "true")
+public class CacheInvalidationRabbitConfig {
+
+    @Value("${gateway.cache.invalidation.formato-a-exchange:formato-a-exchange}")
+    private String formatoAExchange;
+
+    @Value("${gateway.cache.invalidation.anteproyecto-exchange:anteproyecto-exchange}")
+    private String anteproyectoExchange;
+
+    @Value("${gateway.cache.invalidation.formato-a-routing-keys:formato-a.enviado,formato-a.reenviado}")
+    private List<String> formatoARoutingKeys;
+
+    @Value("${gateway.cache.invalidation.anteproyecto-routing-keys:anteproyecto.enviado}")
+    private List<String> anteproyectoRoutingKeys;
+
+    /**
+     * Cola propia de esta instancia (se elimina al desconectarse).
+     */
+    @Bean
+    public Queue cacheInvalidationQueue() {
+        return new AnonymousQueue();
+    }
+
+    /**
+     * Exchanges de submission-service y bindings hacia la cola de invalidación.
+     */
+    @Bean
+    public Declarables cacheInvalidationBindings(Queue cacheInvalidationQueue) {
+        DirectExchange formatoA = new DirectExchange(formatoAExchange, true, false);
+        DirectExchange anteproyecto = new DirectExchange(anteproyectoExchange, true, false);
+
+        List<Declarable> declarables = new ArrayList<>();
+        declarables.add(formatoA);
+        declarables.add(anteproyecto);
+        formatoARoutingKeys.forEach(key ->
+                declarables.add(BindingBuilder.bind(cacheInvalidationQueue).to(formatoA).with(key)));
+        anteproyectoRoutingKeys.forEach(key ->
+                declarables.add(BindingBuilder.bind(cacheInvalidationQueue).to(anteproyecto).with(key)));
+
+        return new Declarables(declarables);
+    }
+}
@@ -0,0 +1,34 @@
+package co.unicauca.gateway.config;
+
+import co.unicauca.gateway.upload.UploadRejectedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Ajustes de los circuit breakers de Resilience4j usados en RouteConfig.
+ *
+ * Se mantienen los valores por defecto de Resilience4j; solo se excluyen de
+ * las estadísticas los errores que no son fallos del backend.
+ *
+ * @author Gateway Team
+ */
+@Configuration
+public class CircuitBreakerCustomizerConfig {
+
+    /**
+     * submissionService: las subidas rechazadas por MultipartUploadFilter
+     * (413/415) no deben abrir el circuito.
+     */
+    @Bean
+    public Customizer<ReactiveResilience4JCircuitBreakerFactory> submissionCircuitBreakerCustomizer() {
+        return factory -> factory.configure(builder -> builder
+                .circuitBreakerConfig(CircuitBreakerConfig.custom()
+                        .ignoreException(error -> UploadRejectedException.find(error) != null)
+                        .build())
+                .timeLimiterConfig(TimeLimiterConfig.ofDefaults()), "submissionService");
+    }
+}
@@ -0,0 +1,46 @@
+package co.unicauca.gateway.config;
+
+import co.unicauca.gateway.ratelimit.InMemoryRateLimitStore;
+import co.unicauca.gateway.ratelimit.RateLimitStore;
+import co.unicauca.gateway.ratelimit.RedisRateLimitStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Selección del almacén de buckets usado por RateLimitFilter.
+ *
+ * gateway.rate-limit.store:
+ * - memory (por defecto): buckets locales, suficiente con una sola instancia
+ * - redis: buckets compartidos entre réplicas (usa spring.data.redis.*)
+ *
+ * @author Gateway Team
+ */
+@Configuration
+public class RateLimitStoreConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitStoreConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.rate-limit.store", havingValue = "memory", matchIfMissing = true)
+    public RateLimitStore inMemoryRateLimitStore(
+            @Value("${gateway.rate-limit.max-keys:100000}") int maxKeys) {
+        log.info("Rate limiting con almacén en memoria (maxKeys={})", maxKeys);
+        return new InMemoryRateLimitStore(maxKeys);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.rate-limit.store", havingValue = "redis")
+    public RateLimitStore redisRateLimitStore(
+            ReactiveStringRedisTemplate redisTemplate,
+            @Value("${gateway.rate-limit.redis-timeout-ms:200}") long timeoutMs) {
+        log.info("Rate limiting con almacén compartido en Redis (timeout={}ms)", timeoutMs);
+        return new RedisRateLimitStore(redisTemplate, Duration.ofMillis(timeoutMs));
+    }
+}
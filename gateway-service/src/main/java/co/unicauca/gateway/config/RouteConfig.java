@@ -1,14 +1,27 @@
 package co.unicauca.gateway.config;
 
 
+import co.unicauca.gateway.cache.RequestCoalescingFilter;
+import co.unicauca.gateway.concurrency.AdaptiveConcurrencyFilter;
+import co.unicauca.gateway.hedging.HedgingFilter;
+import co.unicauca.gateway.idempotency.IdempotencyFilter;
+import co.unicauca.gateway.cache.ResponseCacheFilter;
+import co.unicauca.gateway.cache.StaleResponseFilter;
 import co.unicauca.gateway.logging.RequestResponseLoggingFilter;
+import co.unicauca.gateway.ratelimit.RateLimitFilter;
+import co.unicauca.gateway.routing.BackendConnectionPools;
 import co.unicauca.gateway.security.JwtGatewayFilter;
 import co.unicauca.gateway.security.RoleFilter;
+import co.unicauca.gateway.upload.MultipartUploadFilter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
 
 /**
  * Configuración de rutas del API Gateway.
@@ -22,6 +35,34 @@ import org.springframework.context.annotation.Configuration;
  * 1. RequestResponseLoggingFilter - logging de peticiones
  * 2. JwtGatewayFilter - validación JWT y extracción de claims
  * 3. RoleFilter - autorización por rol (opcional)
+ *    IdempotencyFilter - reproduce el resultado de POST/PATCH repetidos con el mismo
+ *    Idempotency-Key (solo submissions; las repeticiones no consumen rate limit)
+ * 4. RateLimitFilter - token bucket por usuario (o IP) y por ruta
+ * 5. MultipartUploadFilter - rechazo temprano de subidas grandes o no PDF (solo submissions)
+ * 6. ResponseCacheFilter - cache de consultas GET con ETag (solo submissions)
+ * 7. RequestCoalescingFilter - agrupa GETs idénticos concurrentes que no están en cache
+ * 8. AdaptiveConcurrencyFilter - límite adaptativo de peticiones en vuelo por servicio
+ *    (503 + Retry-After al saturarse; las lecturas tienen prioridad sobre las subidas)
+ * 9. HedgingFilter - duplica hacia otra réplica los GET por id que superan el p95
+ *    de latencia (solo submissions, con presupuesto de carga extra)
+ *
+ * StaleResponseFilter (antes del límite de concurrencia) conserva la última
+ * respuesta buena de las consultas de roles, búsqueda de usuarios y
+ * submissions, y la sirve con Warning/Age cuando el circuit breaker deriva
+ * al fallback o el servicio responde 502/503/504.
+ *
+ * Límites de rate limiting por ruta (gateway.rate-limit.*):
+ * - identity-service: por IP (rutas públicas, X-User-Id no es confiable)
+ * - submission-service: general por usuario + límite estricto para subidas (POST/PUT multipart)
+ * - notification-service: general por usuario
+ *
+ * Las rutas usan URIs lb://&lt;servicio&gt;: LoadBalancingGlobalFilter elige la
+ * réplica (power-of-two-choices por peticiones en vuelo y latencia EWMA) entre
+ * las instancias de gateway.loadbalancer.* o, por defecto, services.&lt;nombre&gt;.url.
+ *
+ * Cada ruta indica en su metadata el pool de conexiones hacia su backend
+ * (ver BackendConnectionPools): un servicio lento agota su propio pool sin
+ * dejar sin conexiones a los demás.
  *
  * Los filtros se aplican mediante el metodo filters() en cada ruta.
  *
@@ -30,25 +71,137 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class RouteConfig {
 
-    @Value("${services.identity.url}")
-    private String identityServiceUrl;
+    // Réplicas resueltas por LoadBalancingGlobalFilter (ver ServiceInstanceRegistry)
+    private static final String IDENTITY_SERVICE_URI = "lb://identity-service";
+    private static final String SUBMISSION_SERVICE_URI = "lb://submission-service";
+    private static final String NOTIFICATION_SERVICE_URI = "lb://notification-service";
+
+    @Value("${gateway.cache.ttl-seconds:30}")
+    private long cacheTtlSeconds;
+
+    @Value("${gateway.cache.stale.max-age-seconds:600}")
+    private long staleMaxAgeSeconds;
+
+    @Value("${gateway.idempotency.ttl-seconds:86400}")
+    private long idempotencyTtlSeconds;
+
+    @Value("${gateway.rate-limit.identity.replenish-rate:5}")
+    private double identityRate;
+
+    @Value("${gateway.rate-limit.identity.burst-capacity:10}")
+    private long identityBurst;
+
+    @Value("${gateway.rate-limit.submission.replenish-rate:20}")
+    private double submissionRate;
+
+    @Value("${gateway.rate-limit.submission.burst-capacity:40}")
+    private long submissionBurst;
+
+    @Value("${gateway.rate-limit.submission-uploads.replenish-rate:0.2}")
+    private double uploadRate;
+
+    @Value("${gateway.rate-limit.submission-uploads.burst-capacity:3}")
+    private long uploadBurst;
+
+    @Value("${gateway.rate-limit.notification.replenish-rate:20}")
+    private double notificationRate;
+
+    @Value("${gateway.rate-limit.notification.burst-capacity:40}")
+    private long notificationBurst;
+
+    @Value("${gateway.upload.max-request-size:20MB}")
+    private DataSize uploadMaxRequestSize;
+
+    @Value("${gateway.upload.max-file-size:15MB}")
+    private DataSize uploadMaxFileSize;
+
+    @Value("${gateway.concurrency.initial-limit:20}")
+    private int concurrencyInitialLimit;
+
+    @Value("${gateway.concurrency.max-limit:200}")
+    private int concurrencyMaxLimit;
+
+    @Value("${gateway.concurrency.write-share:0.5}")
+    private double concurrencyWriteShare;
 
-    @Value("${services.submission.url}")
-    private String submissionServiceUrl;
+    @Value("${gateway.hedging.percentile:0.95}")
+    private double hedgingPercentile;
 
-    @Value("${services.notification.url}")
-    private String notificationServiceUrl;
+    @Value("${gateway.hedging.min-delay-ms:10}")
+    private long hedgingMinDelayMs;
+
+    @Value("${gateway.hedging.max-delay-ms:2000}")
+    private long hedgingMaxDelayMs;
+
+    @Value("${gateway.hedging.budget-percent:5}")
+    private double hedgingBudgetPercent;
+
+    // Subidas multipart de submission-service (Formato A, nuevas versiones y anteproyecto)
+    private static final List<String> SUBMISSION_UPLOAD_PATHS = List.of(
+            "/api/submissions/formatoA",
+            "/api/submissions/formatoA/*/nueva-version",
+            "/api/submissions/anteproyecto");
+
+    // Escrituras de submission-service que aceptan Idempotency-Key (subidas y cambios de estado)
+    private static final List<String> IDEMPOTENT_SUBMISSION_PATHS = List.of(
+            "/api/submissions/formatoA",
+            "/api/submissions/formatoA/*/nueva-version",
+            "/api/submissions/formatoA/*/estado",
+            "/api/submissions/anteproyecto",
+            "/api/submissions/anteproyecto/*/estado");
+
+    // Consultas de submission-service que se sirven desde la cache del gateway
+    // (y cuyas peticiones concurrentes idénticas se agrupan en una sola llamada)
+    private static final List<String> CACHEABLE_SUBMISSION_PATHS = List.of(
+            "/api/submissions/formatoA",
+            "/api/submissions/formatoA/*",
+            "/api/submissions/anteproyecto",
+            "/api/submissions/anteproyecto/*");
+
+    // Consultas de identity-service que se sirven desde la última copia buena si el servicio cae
+    private static final List<String> STALE_IDENTITY_PATHS = List.of(
+            "/api/auth/roles",
+            "/api/auth/users/search");
+
+    // Consultas por id que se duplican hacia otra réplica si tardan más de lo habitual
+    private static final List<String> HEDGED_SUBMISSION_PATHS = List.of(
+            "/api/submissions/formatoA/*",
+            "/api/submissions/anteproyecto/*");
 
     private final JwtGatewayFilter jwtGatewayFilter;
     private final RoleFilter roleFilter;
     private final RequestResponseLoggingFilter loggingFilter;
+    private final ResponseCacheFilter responseCacheFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final RequestCoalescingFilter coalescingFilter;
+    private final MultipartUploadFilter uploadFilter;
+    private final AdaptiveConcurrencyFilter concurrencyFilter;
+    private final HedgingFilter hedgingFilter;
+    private final StaleResponseFilter staleResponseFilter;
+    private final IdempotencyFilter idempotencyFilter;
 
     public RouteConfig(JwtGatewayFilter jwtGatewayFilter,
                        RoleFilter roleFilter,
-                       RequestResponseLoggingFilter loggingFilter) {
+                       RequestResponseLoggingFilter loggingFilter,
+                       ResponseCacheFilter responseCacheFilter,
+                       RateLimitFilter rateLimitFilter,
+                       RequestCoalescingFilter coalescingFilter,
+                       MultipartUploadFilter uploadFilter,
+                       AdaptiveConcurrencyFilter concurrencyFilter,
+                       HedgingFilter hedgingFilter,
+                       StaleResponseFilter staleResponseFilter,
+                       IdempotencyFilter idempotencyFilter) {
         this.jwtGatewayFilter = jwtGatewayFilter;
         this.roleFilter = roleFilter;
         this.loggingFilter = loggingFilter;
+        this.responseCacheFilter = responseCacheFilter;
+        this.rateLimitFilter = rateLimitFilter;
+        this.coalescingFilter = coalescingFilter;
+        this.uploadFilter = uploadFilter;
+        this.concurrencyFilter = concurrencyFilter;
+        this.hedgingFilter = hedgingFilter;
+        this.staleResponseFilter = staleResponseFilter;
+        this.idempotencyFilter = idempotencyFilter;
     }
 
     /**
@@ -65,21 +218,29 @@ public class RouteConfig {
                         .path("/api/identity/**")
                         .filters(f -> f
                                 .filter(loggingFilter.apply(new RequestResponseLoggingFilter.Config()))
+                                .filter(rateLimit("identity-service", identityRate, identityBurst, false))
+                                .filter(concurrencyLimit("identity-service"))
                                 .circuitBreaker(config -> config
                                         .setName("identityService")
                                         .setFallbackUri("forward:/api/gateway/fallback/identity")))
-                        .uri(identityServiceUrl))
+                        .metadata(BackendConnectionPools.POOL_METADATA, "identity-service")
+                        .uri(IDENTITY_SERVICE_URI))
 
                 // Ruta alternativa para Identity Service (sin prefijo /identity)
                 .route("identity-service-shortcut", r -> r
                         .path("/api/auth/**")
                         .filters(f -> f
                                 .filter(loggingFilter.apply(new RequestResponseLoggingFilter.Config()))
+                                .filter(rateLimit("identity-service", identityRate, identityBurst, false))
+                                // Rol no validado en esta ruta: las copias se separan por credencial
+                                .filter(staleResponses("identityService", STALE_IDENTITY_PATHS, true))
+                                .filter(concurrencyLimit("identity-service"))
                                 .rewritePath("/api/auth/(?<segment>.*)", "/api/auth/${segment}")
                                 .circuitBreaker(config -> config
                                         .setName("identityService")
                                         .setFallbackUri("forward:/api/gateway/fallback/identity")))
-                        .uri(identityServiceUrl))
+                        .metadata(BackendConnectionPools.POOL_METADATA, "identity-service")
+                        .uri(IDENTITY_SERVICE_URI))
 
                 // Ruta hacia Submission Service (PROTEGIDA - requiere JWT)
                 .route("submission-service", r -> r
@@ -88,11 +249,45 @@ public class RouteConfig {
                                 .filter(loggingFilter.apply(new RequestResponseLoggingFilter.Config()))
                                 .filter(jwtGatewayFilter.apply(new JwtGatewayFilter.Config()))
                                 .filter(roleFilter.apply(new RoleFilter.Config()))
+                                .filter(idempotencyFilter.apply(c -> {
+                                    c.setPaths(IDEMPOTENT_SUBMISSION_PATHS);
+                                    c.setTtlSeconds(idempotencyTtlSeconds);
+                                }))
+                                .filter(rateLimit("submission-service", submissionRate, submissionBurst, true))
+                                .filter(rateLimitFilter.apply(c -> {
+                                    c.setName("submission-uploads");
+                                    c.setReplenishRate(uploadRate);
+                                    c.setBurstCapacity(uploadBurst);
+                                    c.setMethods(List.of("POST", "PUT"));
+                                    // Solo subidas: las demás escrituras usan el límite general
+                                    c.setContentTypes(List.of("multipart/*"));
+                                }))
+                                .filter(uploadFilter.apply(c -> {
+                                    c.setPaths(SUBMISSION_UPLOAD_PATHS);
+                                    c.setMaxRequestBytes(uploadMaxRequestSize.toBytes());
+                                    c.setMaxFileBytes(uploadMaxFileSize.toBytes());
+                                }))
+                                .filter(responseCacheFilter.apply(c -> {
+                                    c.setPaths(CACHEABLE_SUBMISSION_PATHS);
+                                    c.setTtlSeconds(cacheTtlSeconds);
+                                }))
+                                .filter(coalescingFilter.apply(c -> c.setPaths(CACHEABLE_SUBMISSION_PATHS)))
+                                .filter(staleResponses("submissionService", CACHEABLE_SUBMISSION_PATHS, false))
+                                .filter(concurrencyLimit("submission-service"))
+                                .filter(hedgingFilter.apply(c -> {
+                                    c.setName("submission-service");
+                                    c.setPaths(HEDGED_SUBMISSION_PATHS);
+                                    c.setPercentile(hedgingPercentile);
+                                    c.setMinDelayMs(hedgingMinDelayMs);
+                                    c.setMaxDelayMs(hedgingMaxDelayMs);
+                                    c.setBudgetPercent(hedgingBudgetPercent);
+                                }))
                                 .rewritePath("/api/submissions/(?<segment>.*)", "/api/submissions/${segment}")
                                 .circuitBreaker(config -> config
                                         .setName("submissionService")
                                         .setFallbackUri("forward:/api/gateway/fallback/submission")))
-                        .uri(submissionServiceUrl))
+                        .metadata(BackendConnectionPools.POOL_METADATA, "submission-service")
+                        .uri(SUBMISSION_SERVICE_URI))
 
                 // Ruta hacia Notification Service (PROTEGIDA - requiere JWT)
                 .route("notification-service", r -> r
@@ -101,12 +296,55 @@ public class RouteConfig {
                                 .filter(loggingFilter.apply(new RequestResponseLoggingFilter.Config()))
                                 .filter(jwtGatewayFilter.apply(new JwtGatewayFilter.Config()))
                                 .filter(roleFilter.apply(new RoleFilter.Config()))
+                                .filter(rateLimit("notification-service", notificationRate, notificationBurst, true))
+                                .filter(concurrencyLimit("notification-service"))
                                 .rewritePath("/api/notifications(?<segment>/.*)?", "/notifications${segment}")
                                 .circuitBreaker(config -> config
                                         .setName("notificationService")
                                         .setFallbackUri("forward:/api/gateway/fallback/notification")))
-                        .uri(notificationServiceUrl))
+                        .metadata(BackendConnectionPools.POOL_METADATA, "notification-service")
+                        .uri(NOTIFICATION_SERVICE_URI))
 
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Rate limiting general de una ruta (todos los métodos).
+     *
+     * @param keyByUser true si la ruta pasa por JwtGatewayFilter y X-User-Id es confiable
+     */
+    private GatewayFilter rateLimit(String name, double replenishRate, long burstCapacity, boolean keyByUser) {
+        return rateLimitFilter.apply(c -> {
+            c.setName(name);
+            c.setReplenishRate(replenishRate);
+            c.setBurstCapacity(burstCapacity);
+            c.setKeyByUser(keyByUser);
+        });
+    }
+
+    /**
+     * Última respuesta buena de las consultas de una ruta.
+     *
+     * @param circuitBreaker Nombre del circuit breaker de la ruta
+     */
+    private GatewayFilter staleResponses(String circuitBreaker, List<String> paths, boolean keyByCredential) {
+        return staleResponseFilter.apply(c -> {
+            c.setName(circuitBreaker);
+            c.setPaths(paths);
+            c.setMaxStaleSeconds(staleMaxAgeSeconds);
+            c.setKeyByCredential(keyByCredential);
+        });
+    }
+
+    /**
+     * Límite adaptativo de concurrencia hacia un servicio (compartido por sus rutas).
+     */
+    private GatewayFilter concurrencyLimit(String service) {
+        return concurrencyFilter.apply(c -> {
+            c.setName(service);
+            c.setInitialLimit(concurrencyInitialLimit);
+            c.setMaxLimit(concurrencyMaxLimit);
+            c.setWriteShare(concurrencyWriteShare);
+        });
+    }
+}
@@ -1,10 +1,14 @@
 package co.unicauca.gateway.controller;
 
+import co.unicauca.gateway.upload.UploadRejectedException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
@@ -92,8 +96,11 @@ public class HealthController {
      *
      * Se activa cuando el circuit breaker del identity service está abierto
      * o cuando el servicio no responde.
+     *
+     * Los fallbacks aceptan cualquier método: el gateway reenvía la petición
+     * original (p.ej. un POST de login) con su método.
      */
-    @GetMapping("/fallback/identity")
+    @RequestMapping("/fallback/identity")
     public Mono<ResponseEntity<Map<String, Object>>> identityFallback() {
         Map<String, Object> response = new HashMap<>();
         response.put("error", "Service Unavailable");
@@ -105,9 +112,22 @@ public class HealthController {
 
     /**
      * Fallback endpoint para Submission Service.
+     *
+     * Si la petición falló porque MultipartUploadFilter rechazó la subida,
+     * se responde con ese 413/415 en lugar de 503.
      */
-    @GetMapping("/fallback/submission")
-    public Mono<ResponseEntity<Map<String, Object>>> submissionFallback() {
+    @RequestMapping("/fallback/submission")
+    public Mono<ResponseEntity<Map<String, Object>>> submissionFallback(ServerWebExchange exchange) {
+        Throwable cause = exchange.getAttribute(ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+        UploadRejectedException rejected = UploadRejectedException.find(cause);
+        if (rejected != null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", HttpStatus.valueOf(rejected.getStatusCode().value()).getReasonPhrase());
+            response.put("message", rejected.getReason());
+            response.put("timestamp", Instant.now().toString());
+            return Mono.just(ResponseEntity.status(rejected.getStatusCode()).body(response));
+        }
+
         Map<String, Object> response = new HashMap<>();
         response.put("error", "Service Unavailable");
         response.put("message", "Submission service is temporarily unavailable");
@@ -119,7 +139,7 @@ public class HealthController {
     /**
      * Fallback endpoint para Notification Service.
      */
-    @GetMapping("/fallback/notification")
+    @RequestMapping("/fallback/notification")
     public Mono<ResponseEntity<Map<String, Object>>> notificationFallback() {
         Map<String, Object> response = new HashMap<>();
         response.put("error", "Service Unavailable");
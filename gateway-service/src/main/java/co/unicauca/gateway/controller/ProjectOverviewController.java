@@ -0,0 +1,107 @@
+package co.unicauca.gateway.controller;
+
+import co.unicauca.gateway.aggregation.ProjectOverviewAggregator;
+import co.unicauca.gateway.security.JwtClaimsCache;
+import co.unicauca.gateway.security.JwtUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Endpoints compuestos del gateway para el frontend.
+ *
+ * Endpoints disponibles:
+ * - GET /api/gateway/projects/{id}/overview - Formato A, asignación de
+ *   evaluadores e historial de un proyecto en una sola respuesta
+ *
+ * Los controladores del gateway no pasan por los filtros de las rutas, por
+ * lo que el JWT se valida aquí (con la misma cache de claims que
+ * JwtGatewayFilter) y los headers X-User-* se reenvían a cada servicio,
+ * que aplica sus propias reglas de autorización.
+ *
+ * Respuestas:
+ * - 200 con complete=true, o complete=false y "errors" si alguna sección faltó
+ * - 401 si el token falta o es inválido
+ * - 503 si ninguna sección pudo obtenerse
+ *
+ * @author Gateway Team
+ */
+@RestController
+@RequestMapping("/api/gateway/projects")
+public class ProjectOverviewController {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectOverviewController.class);
+
+    private final ProjectOverviewAggregator aggregator;
+    private final JwtUtils jwtUtils;
+    private final JwtClaimsCache claimsCache;
+
+    public ProjectOverviewController(ProjectOverviewAggregator aggregator,
+                                     JwtUtils jwtUtils,
+                                     JwtClaimsCache claimsCache) {
+        this.aggregator = aggregator;
+        this.jwtUtils = jwtUtils;
+        this.claimsCache = claimsCache;
+    }
+
+    /**
+     * Vista consolidada de un proyecto.
+     *
+     * Respuesta:
+     * {
+     *   "projectId": 12,
+     *   "formatoA": { ... },
+     *   "asignacion": { ... },
+     *   "historial": null,
+     *   "complete": false,
+     *   "errors": { "historial": "timeout" },
+     *   "timestamp": "2025-10-15T10:30:00Z"
+     * }
+     */
+    @GetMapping("/{id}/overview")
+    public Mono<ResponseEntity<Map<String, Object>>> overview(@PathVariable("id") long id,
+                                                              ServerWebExchange exchange) {
+        String token = jwtUtils.extractTokenFromHeader(
+                exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        Map<String, String> claims = token != null ? claimsCache.getClaims(token) : Map.of();
+        if (claims.isEmpty()) {
+            return Mono.just(error(HttpStatus.UNAUTHORIZED, "Unauthorized", "Token invalid or expired"));
+        }
+
+        HttpHeaders forwarded = new HttpHeaders();
+        forwarded.set(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        forwarded.set("X-User-Id", claims.getOrDefault("userId", ""));
+        forwarded.set("X-User-Role", claims.getOrDefault("role", ""));
+        forwarded.set("X-User-Email", claims.getOrDefault("email", ""));
+
+        return aggregator.overview(id, forwarded)
+                .map(overview -> {
+                    if (!aggregator.hasAnySection(overview)) {
+                        log.warn("Vista del proyecto {} sin ninguna sección disponible: {}",
+                                id, overview.get("errors"));
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(overview);
+                    }
+                    return ResponseEntity.ok(overview);
+                });
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String error, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", error);
+        response.put("message", message);
+        response.put("timestamp", Instant.now().toString());
+        return ResponseEntity.status(status).body(response);
+    }
+}
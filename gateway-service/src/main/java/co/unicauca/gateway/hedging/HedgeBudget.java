@@ -0,0 +1,67 @@
+package co.unicauca.gateway.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Presupuesto de peticiones duplicadas (hedges) de una ruta.
+ *
+ * Cada petición original deposita ratio fichas (p.ej. 0.05 para un 5%) y
+ * cada hedge consume una ficha completa, de modo que a largo plazo los
+ * duplicados nunca superan ese porcentaje de carga extra sobre el backend.
+ * El saldo está acotado por maxBalance para permitir pequeñas ráfagas sin
+ * acumular crédito durante horas de tráfico tranquilo.
+ *
+ * Las fichas se guardan como milésimas en un AtomicLong (sin locks).
+ *
+ * @author Gateway Team
+ */
+public class HedgeBudget {
+
+    private static final long SCALE = 1_000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance = new AtomicLong();
+
+    /**
+     * @param ratio      Fracción de peticiones que pueden duplicarse (0.05 = 5%)
+     * @param maxBalance Máximo de hedges acumulables para ráfagas
+     */
+    public HedgeBudget(double ratio, int maxBalance) {
+        this.depositPerRequest = Math.max(0, Math.round(ratio * SCALE));
+        this.maxBalance = Math.max(1, maxBalance) * SCALE;
+    }
+
+    /**
+     * Registra una petición original.
+     */
+    public void deposit() {
+        if (depositPerRequest == 0) {
+            return;
+        }
+        balance.getAndUpdate(current -> Math.min(maxBalance, current + depositPerRequest));
+    }
+
+    /**
+     * Intenta reservar un hedge.
+     *
+     * @return true si hay presupuesto y se descontó
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    /**
+     * Hedges disponibles actualmente (con decimales).
+     */
+    public double available() {
+        return balance.get() / (double) SCALE;
+    }
+}
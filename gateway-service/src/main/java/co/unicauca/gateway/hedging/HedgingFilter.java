@@ -0,0 +1,480 @@
+package co.unicauca.gateway.hedging;
+
+import co.unicauca.gateway.loadbalancer.LoadBalancingGlobalFilter;
+import co.unicauca.gateway.loadbalancer.ServiceEndpoint;
+import co.unicauca.gateway.loadbalancer.ServiceInstanceRegistry;
+import co.unicauca.gateway.security.PathTrie;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+
+/**
+ * Peticiones duplicadas (hedged requests) para consultas GET idempotentes.
+ *
+ * Si la réplica elegida por el balanceador no empieza a responder dentro del
+ * percentil configurado de latencia de la ruta (p95 por defecto), se envía
+ * la misma consulta a otra réplica y se usa la primera respuesta que llegue:
+ * - Si responde primero la original, el duplicado se cancela (o no llega a enviarse)
+ * - Si responde primero el duplicado, la original se cancela y su conexión se libera
+ *
+ * La carrera se decide por el primer byte de respuesta: la original se
+ * transmite sin buffer en cuanto empieza a escribir; el duplicado se lee
+ * completo (consultas JSON pequeñas) y se descarta si es un 5xx.
+ *
+ * Salvaguardas:
+ * - Solo GET y solo los patrones configurados (opt-in por ruta)
+ * - Presupuesto de duplicados ({@link HedgeBudget}, 5% por defecto)
+ * - Sin duplicados hasta tener minSamples latencias para estimar el percentil
+ * - Requiere una ruta lb:// con al menos dos réplicas
+ *
+ * El histograma registra la latencia de la original al ganar; si gana el
+ * duplicado la original se cancela y se registra el tiempo transcurrido hasta
+ * entonces (cota inferior de su latencia). Sin esa muestra censurada las
+ * originales lentas no contarían, el percentil bajaría y los duplicados
+ * saldrían cada vez antes hasta agotar el presupuesto.
+ *
+ * Métricas (tag name): gateway.hedging.requests (result=issued|won|budget-exhausted)
+ *
+ * @author Gateway Team
+ */
+@Component
+public class HedgingFilter extends AbstractGatewayFilterFactory<HedgingFilter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(HedgingFilter.class);
+
+    // Headers de la petición original que no se reenvían en el duplicado
+    private static final List<String> EXCLUDED_REQUEST_HEADERS = List.of(
+            HttpHeaders.HOST,
+            HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONNECTION,
+            HttpHeaders.UPGRADE,
+            HttpHeaders.TE,
+            "Keep-Alive");
+
+    // Headers de la respuesta del duplicado que no se copian al cliente
+    private static final List<String> EXCLUDED_RESPONSE_HEADERS = List.of(
+            HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONNECTION,
+            "Keep-Alive");
+
+    private final ServiceInstanceRegistry registry;
+    private final WebClient webClient;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, HedgeState> states = new ConcurrentHashMap<>();
+
+    public HedgingFilter(ServiceInstanceRegistry registry, WebClient webClient, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.registry = registry;
+        this.webClient = webClient;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        PathTrie<Boolean> hedgedPaths = new PathTrie<>();
+        config.getPaths().forEach(pattern -> hedgedPaths.put(pattern, Boolean.TRUE));
+        HedgeState state = states.computeIfAbsent(config.getName(), name -> new HedgeState(name, config));
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (!HttpMethod.GET.equals(request.getMethod()) || hedgedPaths.match(request.getURI().getPath()) == null) {
+                return chain.filter(exchange);
+            }
+
+            state.budget.deposit();
+            Race race = new Race(exchange.getResponse(), state.histogram);
+            Mono<Void> primary = chain.filter(exchange.mutate().response(race).build())
+                    .takeUntilOther(race.hedgeWon.asMono());
+
+            long delayNanos = hedgeDelayNanos(state, config);
+            if (delayNanos < 0) {
+                // Aún sin muestras suficientes: solo se mide la latencia
+                return primary;
+            }
+
+            Mono<Void> hedge = Mono.delay(Duration.ofNanos(delayNanos))
+                    .flatMap(tick -> sendHedge(exchange, state, race))
+                    .takeUntilOther(race.primaryWon.asMono())
+                    .onErrorResume(e -> {
+                        log.debug("Petición duplicada fallida para {}: {}", request.getURI().getPath(), e.toString());
+                        return Mono.empty();
+                    });
+
+            return Mono.when(primary, hedge);
+        };
+    }
+
+    /**
+     * Histograma de latencias de una configuración (o null si no hay rutas que la usen).
+     */
+    public LatencyHistogram histogramFor(String name) {
+        HedgeState state = states.get(name);
+        return state != null ? state.histogram : null;
+    }
+
+    /**
+     * Retardo antes de enviar el duplicado: el percentil configurado acotado
+     * a [minDelayMs, maxDelayMs], o -1 si aún no hay muestras suficientes.
+     */
+    private static long hedgeDelayNanos(HedgeState state, Config config) {
+        long percentile = state.histogram.percentileNanos(config.getPercentile(), config.getMinSamples());
+        if (percentile < 0) {
+            return -1;
+        }
+        long min = TimeUnit.MILLISECONDS.toNanos(config.getMinDelayMs());
+        long max = TimeUnit.MILLISECONDS.toNanos(config.getMaxDelayMs());
+        return Math.max(min, Math.min(max, percentile));
+    }
+
+    private Mono<Void> sendHedge(ServerWebExchange exchange, HedgeState state, Race race) {
+        URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        ServiceEndpoint primaryEndpoint = exchange.getAttribute(LoadBalancingGlobalFilter.ENDPOINT_ATTR);
+        if (race.isDecided() || url == null || primaryEndpoint == null) {
+            return Mono.empty();
+        }
+
+        ServiceEndpoint alternate = registry.chooseExcluding(primaryEndpoint.getServiceId(), primaryEndpoint);
+        if (alternate == null) {
+            return Mono.empty();
+        }
+        if (!state.budget.tryWithdraw()) {
+            state.budgetExhausted.increment();
+            return Mono.empty();
+        }
+
+        state.issued.increment();
+        URI hedgeUrl = LoadBalancingGlobalFilter.reconstructUri(url, alternate.getUri());
+        HttpHeaders requestHeaders = exchange.getRequest().getHeaders();
+        log.debug("Sin respuesta de {} tras el p{}; enviando duplicado a {}",
+                primaryEndpoint, (int) (state.percentile * 100), alternate);
+
+        // Se libera la réplica al recibir la respuesta, o al fallar o cancelarse antes
+        AtomicBoolean released = new AtomicBoolean(false);
+        long start = System.nanoTime();
+        Consumer<Boolean> release = failed -> {
+            if (released.compareAndSet(false, true)) {
+                registry.release(alternate, System.nanoTime() - start, failed);
+            }
+        };
+        registry.acquire(alternate);
+
+        return webClient.get()
+                .uri(hedgeUrl)
+                .headers(headers -> requestHeaders.forEach((name, values) -> {
+                    if (EXCLUDED_REQUEST_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                        headers.addAll(name, values);
+                    }
+                }))
+                .exchangeToMono(response -> {
+                    release.accept(response.statusCode().is5xxServerError());
+                    return response.bodyToMono(byte[].class)
+                            .defaultIfEmpty(new byte[0])
+                            .map(body -> new HedgeResponse(response.statusCode(),
+                                    response.headers().asHttpHeaders(), body));
+                })
+                .doOnError(e -> release.accept(true))
+                .doOnCancel(() -> release.accept(false))
+                // Un 5xx del duplicado no compite: se sigue esperando a la original
+                .filter(response -> !response.status().is5xxServerError())
+                .flatMap(response -> {
+                    if (!race.claimForHedge()) {
+                        return Mono.empty();
+                    }
+                    state.won.increment();
+                    return response.writeTo(exchange.getResponse());
+                });
+    }
+
+    /**
+     * Estado compartido por las rutas con el mismo nombre de configuración.
+     */
+    private final class HedgeState {
+        private final double percentile;
+        private final LatencyHistogram histogram;
+        private final HedgeBudget budget;
+        private final Counter issued;
+        private final Counter won;
+        private final Counter budgetExhausted;
+
+        private HedgeState(String name, Config config) {
+            this.percentile = config.getPercentile();
+            this.histogram = new LatencyHistogram(config.getWindowSeconds());
+            this.budget = new HedgeBudget(config.getBudgetPercent() / 100.0, config.getMaxBurst());
+            this.issued = counter(name, "issued");
+            this.won = counter(name, "won");
+            this.budgetExhausted = counter(name, "budget-exhausted");
+            log.info("Hedging para {}: p{} acotado a [{}ms, {}ms], presupuesto {}%",
+                    name, (int) (config.getPercentile() * 100), config.getMinDelayMs(),
+                    config.getMaxDelayMs(), config.getBudgetPercent());
+        }
+
+        private Counter counter(String name, String result) {
+            return Counter.builder("gateway.hedging.requests")
+                    .description("Peticiones duplicadas hacia otra réplica")
+                    .tag("name", name)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Respuesta completa del duplicado.
+     */
+    private record HedgeResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+
+        private Mono<Void> writeTo(ServerHttpResponse response) {
+            response.setStatusCode(status);
+            headers.forEach((name, values) -> {
+                if (EXCLUDED_RESPONSE_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                    response.getHeaders().put(name, new ArrayList<>(values));
+                }
+            });
+            if (body.length == 0) {
+                return response.setComplete();
+            }
+            response.getHeaders().setContentLength(body.length);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }
+    }
+
+    /**
+     * Respuesta de la petición original mientras dura la carrera.
+     *
+     * Estado y headers se guardan aparte hasta que la original empieza a
+     * escribir el cuerpo; solo entonces, si el duplicado no ganó, se copian a
+     * la respuesta real y el cuerpo se transmite sin buffer.
+     */
+    private static final class Race extends ServerHttpResponseDecorator {
+
+        private static final int RACING = 0;
+        private static final int PRIMARY = 1;
+        private static final int HEDGE = 2;
+
+        private final AtomicInteger winner = new AtomicInteger(RACING);
+        private final Sinks.One<Boolean> primaryWon = Sinks.one();
+        private final Sinks.One<Boolean> hedgeWon = Sinks.one();
+        private final LatencyHistogram histogram;
+        private final long startNanos = System.nanoTime();
+        private final HttpHeaders pendingHeaders = new HttpHeaders();
+        private volatile HttpStatusCode pendingStatus;
+
+        private Race(ServerHttpResponse delegate, LatencyHistogram histogram) {
+            super(delegate);
+            this.histogram = histogram;
+        }
+
+        private boolean isDecided() {
+            return winner.get() != RACING;
+        }
+
+        private boolean claimForHedge() {
+            if (winner.compareAndSet(RACING, HEDGE)) {
+                // La original tarda al menos lo transcurrido: muestra censurada
+                histogram.record(System.nanoTime() - startNanos);
+                hedgeWon.tryEmitValue(Boolean.TRUE);
+                return true;
+            }
+            return false;
+        }
+
+        private boolean claimForPrimary() {
+            if (winner.compareAndSet(RACING, PRIMARY)) {
+                histogram.record(System.nanoTime() - startNanos);
+                if (pendingStatus != null) {
+                    getDelegate().setStatusCode(pendingStatus);
+                }
+                getDelegate().getHeaders().putAll(pendingHeaders);
+                primaryWon.tryEmitValue(Boolean.TRUE);
+            }
+            return winner.get() == PRIMARY;
+        }
+
+        @Override
+        public boolean setStatusCode(HttpStatusCode status) {
+            if (winner.get() == PRIMARY) {
+                return getDelegate().setStatusCode(status);
+            }
+            pendingStatus = status;
+            return true;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return winner.get() == PRIMARY ? getDelegate().getStatusCode() : pendingStatus;
+        }
+
+        @Override
+        @Deprecated
+        public boolean setRawStatusCode(Integer value) {
+            return setStatusCode(value != null ? HttpStatusCode.valueOf(value) : null);
+        }
+
+        @Override
+        @Deprecated
+        public Integer getRawStatusCode() {
+            HttpStatusCode status = getStatusCode();
+            return status != null ? status.value() : null;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return winner.get() == PRIMARY ? getDelegate().getHeaders() : pendingHeaders;
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return winner.get() == PRIMARY && getDelegate().isCommitted();
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (claimForPrimary()) {
+                return getDelegate().writeWith(body);
+            }
+            return Flux.from(body).doOnNext(DataBufferUtils::release).then();
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            if (claimForPrimary()) {
+                return getDelegate().writeAndFlushWith(body);
+            }
+            return Flux.from(body).flatMap(Flux::from).doOnNext(DataBufferUtils::release).then();
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            if (claimForPrimary()) {
+                return getDelegate().setComplete();
+            }
+            return Mono.empty();
+        }
+    }
+
+    /**
+     * Configuración por ruta.
+     */
+    public static class Config {
+        // Nombre para métricas y para compartir histograma y presupuesto entre rutas
+        private String name = "default";
+        // Patrones de path GET elegibles (admite "*" y "**")
+        private List<String> paths = new ArrayList<>();
+        // Percentil de latencia tras el que se envía el duplicado
+        private double percentile = 0.95;
+        private long minDelayMs = 10;
+        private long maxDelayMs = 2000;
+        // Carga extra máxima en porcentaje de las peticiones elegibles
+        private double budgetPercent = 5;
+        // Duplicados acumulables para ráfagas
+        private int maxBurst = 10;
+        // Latencias necesarias antes de empezar a duplicar
+        private long minSamples = 50;
+        // Duración de cada ventana del histograma
+        private long windowSeconds = 60;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public long getMinDelayMs() {
+            return minDelayMs;
+        }
+
+        public void setMinDelayMs(long minDelayMs) {
+            this.minDelayMs = minDelayMs;
+        }
+
+        public long getMaxDelayMs() {
+            return maxDelayMs;
+        }
+
+        public void setMaxDelayMs(long maxDelayMs) {
+            this.maxDelayMs = maxDelayMs;
+        }
+
+        public double getBudgetPercent() {
+            return budgetPercent;
+        }
+
+        public void setBudgetPercent(double budgetPercent) {
+            this.budgetPercent = budgetPercent;
+        }
+
+        public int getMaxBurst() {
+            return maxBurst;
+        }
+
+        public void setMaxBurst(int maxBurst) {
+            this.maxBurst = maxBurst;
+        }
+
+        public long getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(long minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        public long getWindowSeconds() {
+            return windowSeconds;
+        }
+
+        public void setWindowSeconds(long windowSeconds) {
+            this.windowSeconds = windowSeconds;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package co.unicauca.gateway.hedging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Histograma de latencias con ventana deslizante para estimar percentiles.
+ *
+ * Usa cubetas logarítmicas (cada una un 20% más ancha que la anterior, de
+ * 1µs a ~80s), por lo que el percentil se obtiene con un error relativo
+ * máximo del 20% y sin guardar muestras individuales. Registrar es un
+ * incremento atómico; no hay locks en el camino de la petición.
+ *
+ * Para seguir los cambios de comportamiento del backend se mantienen dos
+ * ventanas (actual y anterior) que rotan cada windowSeconds: el percentil
+ * se calcula sobre ambas, de modo que las muestras antiguas se olvidan tras
+ * dos ventanas.
+ *
+ * @author Gateway Team
+ */
+public class LatencyHistogram {
+
+    private static final double GROWTH = 1.2;
+    private static final double LOG_GROWTH = Math.log(GROWTH);
+    private static final int BUCKETS = 100;
+
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+
+    private volatile Window current;
+    private volatile Window previous;
+
+    public LatencyHistogram(long windowSeconds) {
+        this(windowSeconds, System::nanoTime);
+    }
+
+    LatencyHistogram(long windowSeconds, LongSupplier nanoClock) {
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+        this.nanoClock = nanoClock;
+        this.current = new Window(nanoClock.getAsLong());
+        this.previous = new Window(nanoClock.getAsLong());
+    }
+
+    /**
+     * Registra una latencia observada.
+     */
+    public void record(long nanos) {
+        Window window = rotateIfNeeded();
+        window.counts.incrementAndGet(bucketOf(nanos));
+    }
+
+    /**
+     * Estima el percentil indicado sobre las dos últimas ventanas.
+     *
+     * @param percentile Percentil entre 0 y 1 (p.ej. 0.95)
+     * @param minSamples Muestras mínimas para considerar fiable la estimación
+     * @return Límite superior de la cubeta del percentil en nanosegundos,
+     *         o -1 si no hay suficientes muestras
+     */
+    public long percentileNanos(double percentile, long minSamples) {
+        rotateIfNeeded();
+        Window now = current;
+        Window before = previous;
+
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = now.counts.get(i) + before.counts.get(i);
+            total += counts[i];
+        }
+        if (total == 0 || total < minSamples) {
+            return -1;
+        }
+
+        long target = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return upperBoundNanos(i);
+            }
+        }
+        return upperBoundNanos(BUCKETS - 1);
+    }
+
+    private Window rotateIfNeeded() {
+        Window window = current;
+        long now = nanoClock.getAsLong();
+        if (now - window.startNanos < windowNanos) {
+            return window;
+        }
+        synchronized (this) {
+            window = current;
+            if (now - window.startNanos >= windowNanos) {
+                // Si pasó más de una ventana sin tráfico, la anterior también está obsoleta
+                previous = now - window.startNanos >= 2 * windowNanos ? new Window(now) : window;
+                window = new Window(now);
+                current = window;
+            }
+            return window;
+        }
+    }
+
+    static int bucketOf(long nanos) {
+        long micros = nanos / 1_000;
+        if (micros <= 1) {
+            return 0;
+        }
+        int bucket = (int) (Math.log(micros) / LOG_GROWTH);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    static long upperBoundNanos(int bucket) {
+        return (long) (Math.pow(GROWTH, bucket + 1) * 1_000);
+    }
+
+    private static final class Window {
+        private final long startNanos;
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+        private Window(long startNanos) {
+            this.startNanos = startNanos;
+        }
+    }
+}
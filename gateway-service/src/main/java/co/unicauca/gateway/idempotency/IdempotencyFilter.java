@@ -0,0 +1,340 @@
+package co.unicauca.gateway.idempotency;
+
+import co.unicauca.gateway.cache.BoundedCache;
+import co.unicauca.gateway.cache.CachedResponse;
+import co.unicauca.gateway.cache.CapturingResponseDecorator;
+import co.unicauca.gateway.security.PathTrie;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Soporte del header Idempotency-Key para escrituras reintentadas.
+ *
+ * Los clientes con conexiones inestables reintentan las subidas de Formato A
+ * y de nuevas versiones; cada reintento vuelve a enviar el PDF y el backend
+ * puede crear proyectos o archivos duplicados. Con este filtro:
+ * - Clave: X-User-Id (añadido por JwtGatewayFilter) + método + path + Idempotency-Key
+ * - La primera petición queda registrada "en curso" hasta que responde
+ * - Un duplicado concurrente recibe 409 Conflict con Retry-After
+ * - Un duplicado de una petición terminada recibe, sin pasar por el backend,
+ *   el mismo estado y cuerpo, con el header Idempotent-Replayed: true
+ * - Junto al resultado se guarda la huella de la petición ({@link RequestFingerprint}:
+ *   método, path, query y cuerpo, sin el boundary multipart). Si la clave se
+ *   reutiliza con otra petición (otro PDF, por ejemplo) se responde 422 en
+ *   lugar de reproducir un resultado que no le corresponde
+ *
+ * Solo se guardan resultados definitivos (2xx y 4xx salvo 408/409/425/429).
+ * Ante 5xx, errores, cancelaciones, respuestas demasiado grandes para
+ * guardarse o respuestas enviadas antes de leer todo el cuerpo (sin huella
+ * completa) la clave se libera y el cliente puede reintentar normalmente.
+ *
+ * Las peticiones sin Idempotency-Key no se modifican. Debe ubicarse después
+ * de JwtGatewayFilter y antes del rate limiting para que las repeticiones no
+ * consuman tokens de subida.
+ *
+ * Métricas: gateway.idempotency.requests (result=new|replayed|conflict|mismatch|invalid),
+ * gateway.idempotency.keys
+ *
+ * @author Gateway Team
+ */
+@Component
+public class IdempotencyFilter extends AbstractGatewayFilterFactory<IdempotencyFilter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final BoundedCache<IdempotencyRecord> store;
+    private final Counter fresh;
+    private final Counter replayed;
+    private final Counter conflicts;
+    private final Counter mismatches;
+    private final Counter invalid;
+
+    public IdempotencyFilter(MeterRegistry meterRegistry,
+                             @Value("${gateway.idempotency.max-keys:10000}") int maxKeys) {
+        super(Config.class);
+        this.store = new BoundedCache<>(maxKeys);
+
+        this.fresh = requestCounter(meterRegistry, "new");
+        this.replayed = requestCounter(meterRegistry, "replayed");
+        this.conflicts = requestCounter(meterRegistry, "conflict");
+        this.mismatches = requestCounter(meterRegistry, "mismatch");
+        this.invalid = requestCounter(meterRegistry, "invalid");
+        Gauge.builder("gateway.idempotency.keys", store, BoundedCache::size)
+                .description("Claves de idempotencia en curso o con resultado guardado")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry registry, String result) {
+        return Counter.builder("gateway.idempotency.requests")
+                .description("Peticiones con Idempotency-Key evaluadas por el gateway")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        PathTrie<Boolean> idempotentPaths = new PathTrie<>();
+        config.getPaths().forEach(pattern -> idempotentPaths.put(pattern, Boolean.TRUE));
+        long ttlMillis = config.getTtlSeconds() * 1000;
+        long inFlightMillis = config.getInFlightTimeoutSeconds() * 1000;
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String idempotencyKey = request.getHeaders().getFirst(IDEMPOTENCY_KEY_HEADER);
+
+            if (idempotencyKey == null || !appliesTo(config, request)
+                    || idempotentPaths.match(request.getURI().getPath()) == null) {
+                return chain.filter(exchange);
+            }
+
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+                invalid.increment();
+                return error(exchange.getResponse(), HttpStatus.BAD_REQUEST, "Bad Request",
+                        "Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters");
+            }
+
+            String key = storeKey(request, idempotencyKey);
+            IdempotencyRecord inFlight = new IdempotencyRecord(null, null);
+            IdempotencyRecord existing = store.putIfAbsent(key, inFlight, inFlightMillis);
+
+            if (existing != null && existing.response() != null) {
+                return fingerprintOf(request).flatMap(fingerprint -> {
+                    if (!fingerprint.equals(existing.fingerprint())) {
+                        mismatches.increment();
+                        log.warn("Idempotency-Key reutilizada con otra petición, rechazada: {}", key);
+                        return error(exchange.getResponse(), HttpStatus.UNPROCESSABLE_ENTITY, "Unprocessable Entity",
+                                "This Idempotency-Key was already used with a different request");
+                    }
+                    replayed.increment();
+                    log.info("Idempotency-Key repetida, respuesta reproducida: {}", key);
+                    exchange.getResponse().getHeaders().set(REPLAYED_HEADER, "true");
+                    return existing.response().writeTo(exchange.getResponse());
+                });
+            }
+            if (existing != null) {
+                conflicts.increment();
+                log.warn("Idempotency-Key en curso, duplicado concurrente rechazado: {}", key);
+                exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                return error(exchange.getResponse(), HttpStatus.CONFLICT, "Conflict",
+                        "A request with this Idempotency-Key is already in progress");
+            }
+
+            fresh.increment();
+            String path = request.getURI().getPath();
+
+            // Huella calculada mientras el backend lee el cuerpo
+            RequestFingerprint requestFingerprint = new RequestFingerprint(request);
+            AtomicReference<String> fingerprint = new AtomicReference<>();
+            ServerHttpRequest fingerprinted = request;
+            if (hasBody(request)) {
+                fingerprinted = new ServerHttpRequestDecorator(request) {
+                    @Override
+                    public Flux<DataBuffer> getBody() {
+                        return super.getBody()
+                                .doOnNext(buffer -> update(requestFingerprint, buffer))
+                                .doOnComplete(() -> fingerprint.set(requestFingerprint.finish()));
+                    }
+                };
+            } else {
+                fingerprint.set(requestFingerprint.finish());
+            }
+
+            CapturingResponseDecorator decorated = new CapturingResponseDecorator(
+                    exchange.getResponse(), config.getMaxBodyBytes(), new CapturingResponseDecorator.Handler() {
+                        @Override
+                        public byte[] onCaptured(ServerHttpResponse response, byte[] body) {
+                            String completed = fingerprint.get();
+                            if (isFinal(response.getStatusCode()) && completed != null) {
+                                store.put(key, new IdempotencyRecord(
+                                        CachedResponse.capture(path, response, body), completed), ttlMillis);
+                            } else {
+                                store.remove(key, inFlight);
+                            }
+                            return body;
+                        }
+
+                        @Override
+                        public void onNotCaptured(ServerHttpResponse response) {
+                            store.remove(key, inFlight);
+                        }
+                    });
+
+            return chain.filter(exchange.mutate().request(fingerprinted).response(decorated).build())
+                    .doOnError(e -> store.remove(key, inFlight))
+                    .doOnCancel(() -> store.remove(key, inFlight));
+        };
+    }
+
+    /**
+     * Número de claves en curso o con resultado guardado.
+     */
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * Las claves son por usuario: dos usuarios pueden usar el mismo valor sin colisionar.
+     */
+    static String storeKey(ServerHttpRequest request, String idempotencyKey) {
+        String userId = request.getHeaders().getFirst("X-User-Id");
+        return (userId != null && !userId.isEmpty() ? userId : "anonymous")
+                + '|' + request.getMethod().name()
+                + '|' + request.getURI().getRawPath()
+                + '|' + idempotencyKey;
+    }
+
+    /**
+     * Huella de un duplicado: lee su cuerpo completo (no llega al backend) y lo descarta.
+     */
+    private static Mono<String> fingerprintOf(ServerHttpRequest request) {
+        RequestFingerprint fingerprint = new RequestFingerprint(request);
+        if (!hasBody(request)) {
+            return Mono.just(fingerprint.finish());
+        }
+        return request.getBody()
+                .doOnNext(buffer -> {
+                    try {
+                        update(fingerprint, buffer);
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                })
+                .then(Mono.fromSupplier(fingerprint::finish));
+    }
+
+    private static void update(RequestFingerprint fingerprint, DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+            while (chunks.hasNext()) {
+                fingerprint.update(chunks.next());
+            }
+        }
+    }
+
+    private static boolean hasBody(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return headers.getContentLength() > 0 || headers.containsKey(HttpHeaders.TRANSFER_ENCODING);
+    }
+
+    /**
+     * Resultado definitivo que se puede reproducir: 2xx o 4xx que no invite a reintentar.
+     */
+    private static boolean isFinal(HttpStatusCode status) {
+        if (status == null) {
+            return false;
+        }
+        int code = status.value();
+        if (code == 408 || code == 409 || code == 425 || code == 429) {
+            return false;
+        }
+        return status.is2xxSuccessful() || status.is4xxClientError();
+    }
+
+    private static boolean appliesTo(Config config, ServerHttpRequest request) {
+        String method = request.getMethod().name();
+        for (String configured : config.getMethods()) {
+            if (configured.equalsIgnoreCase(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Mono<Void> error(ServerHttpResponse response, HttpStatus status, String error, String message) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        String jsonResponse = String.format("{\"error\":\"%s\",\"message\":\"%s\"}", error, message);
+        DataBuffer buffer = response.bufferFactory().wrap(jsonResponse.getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    /**
+     * Estado de una clave: en curso (response null) o con resultado guardado y
+     * la huella de la petición que lo produjo.
+     */
+    private record IdempotencyRecord(CachedResponse response, String fingerprint) {
+    }
+
+    /**
+     * Configuración por ruta.
+     */
+    public static class Config {
+        // Patrones de path a los que se aplica (admite "*" y "**")
+        private List<String> paths = new ArrayList<>();
+        private List<String> methods = new ArrayList<>(List.of("POST", "PATCH"));
+        // Tiempo durante el que se reproduce el resultado de una clave
+        private long ttlSeconds = 86400;
+        // Cota de seguridad para claves en curso (subidas lentas incluidas)
+        private long inFlightTimeoutSeconds = 300;
+        private int maxBodyBytes = 64 * 1024;
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+
+        public long getInFlightTimeoutSeconds() {
+            return inFlightTimeoutSeconds;
+        }
+
+        public void setInFlightTimeoutSeconds(long inFlightTimeoutSeconds) {
+            this.inFlightTimeoutSeconds = inFlightTimeoutSeconds;
+        }
+
+        public int getMaxBodyBytes() {
+            return maxBodyBytes;
+        }
+
+        public void setMaxBodyBytes(int maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package co.unicauca.gateway.idempotency;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Huella SHA-256 de una petición (método, path, query, tipo de contenido y
+ * cuerpo), calculada en streaming mientras el cuerpo pasa por el gateway.
+ *
+ * En multipart el boundary cambia en cada reintento aunque el formulario sea
+ * el mismo, así que sus apariciones se eliminan del cuerpo antes de calcular
+ * la huella (KMP, tolerante a que el boundary quede partido entre dos
+ * fragmentos). Una instancia corresponde a un único cuerpo y no es
+ * thread-safe (los fragmentos de un cuerpo llegan en secuencia).
+ *
+ * @author Gateway Team
+ */
+class RequestFingerprint {
+
+    private static final int FLUSH_BYTES = 8 * 1024;
+
+    private final MessageDigest digest;
+    private final byte[] boundary;
+    private final int[] failure;
+    private final byte[] pending = new byte[FLUSH_BYTES];
+    private int pendingLength;
+    private int matched;
+
+    RequestFingerprint(ServerHttpRequest request) {
+        this.digest = sha256();
+        MediaType contentType = request.getHeaders().getContentType();
+        String boundaryParam = contentType != null && "multipart".equalsIgnoreCase(contentType.getType())
+                ? contentType.getParameter("boundary") : null;
+        if (boundaryParam != null && boundaryParam.length() > 1
+                && boundaryParam.startsWith("\"") && boundaryParam.endsWith("\"")) {
+            boundaryParam = boundaryParam.substring(1, boundaryParam.length() - 1);
+        }
+        this.boundary = boundaryParam == null || boundaryParam.isEmpty()
+                ? null : boundaryParam.getBytes(StandardCharsets.US_ASCII);
+        this.failure = boundary != null ? failureFunction(boundary) : null;
+
+        String header = request.getMethod().name() + '\n'
+                + request.getURI().getRawPath() + '\n'
+                + (request.getURI().getRawQuery() != null ? request.getURI().getRawQuery() : "") + '\n'
+                + (contentType != null ? contentType.getType() + '/' + contentType.getSubtype() : "") + '\n';
+        digest.update(header.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Añade el siguiente fragmento del cuerpo (sin modificar su posición).
+     */
+    void update(ByteBuffer chunk) {
+        if (boundary == null) {
+            digest.update(chunk.duplicate());
+            return;
+        }
+        for (int i = chunk.position(); i < chunk.limit(); i++) {
+            onByte(chunk.get(i));
+        }
+    }
+
+    /**
+     * Termina la huella; la instancia no debe usarse después.
+     *
+     * @return SHA-256 en hexadecimal
+     */
+    String finish() {
+        if (boundary != null) {
+            // Lo que quedaba como posible inicio del boundary es cuerpo
+            emit(boundary, matched);
+            flush();
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void onByte(byte b) {
+        int next = matched;
+        while (next > 0 && boundary[next] != b) {
+            next = failure[next - 1];
+        }
+        if (boundary[next] == b) {
+            next++;
+        }
+
+        // Pendientes: boundary[0..matched) + b; quedan pendientes boundary[0..next) y el resto es cuerpo
+        int confirmed = matched + 1 - next;
+        if (confirmed > matched) {
+            emit(boundary, matched);
+            emit(b);
+        } else if (confirmed > 0) {
+            emit(boundary, confirmed);
+        }
+        matched = next == boundary.length ? 0 : next;
+    }
+
+    private void emit(byte[] bytes, int length) {
+        for (int i = 0; i < length; i++) {
+            emit(bytes[i]);
+        }
+    }
+
+    private void emit(byte b) {
+        if (pendingLength == pending.length) {
+            flush();
+        }
+        pending[pendingLength++] = b;
+    }
+
+    private void flush() {
+        digest.update(pending, 0, pendingLength);
+        pendingLength = 0;
+    }
+
+    private static int[] failureFunction(byte[] pattern) {
+        int[] table = new int[pattern.length];
+        int k = 0;
+        for (int i = 1; i < pattern.length; i++) {
+            while (k > 0 && pattern[i] != pattern[k]) {
+                k = table[k - 1];
+            }
+            if (pattern[i] == pattern[k]) {
+                k++;
+            }
+            table[i] = k;
+        }
+        return table;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
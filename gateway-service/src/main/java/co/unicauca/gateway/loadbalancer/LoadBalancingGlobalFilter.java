@@ -0,0 +1,118 @@
+package co.unicauca.gateway.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
+
+/**
+ * Resuelve las rutas lb://&lt;servicio&gt; a una réplica concreta.
+ *
+ * Se ejecuta justo después de RouteToRequestUrlFilter (que construye la URL
+ * destino a partir de la URI de la ruta) y antes del cliente Netty:
+ * 1. Elige una réplica con {@link ServiceInstanceRegistry#choose(String)}
+ * 2. Sustituye esquema, host y puerto de la URL conservando path y query
+ * 3. Al terminar, informa al registro de la latencia y de si la réplica falló
+ *
+ * Se considera fallo de la réplica un error de conexión o un 502/503/504.
+ * Los 500 son errores de negocio y no provocan expulsión.
+ *
+ * Si el servicio no tiene instancias se emite un NotFoundException (503),
+ * que el circuit breaker de la ruta deriva a su fallback.
+ *
+ * @author Gateway Team
+ */
+@Component
+public class LoadBalancingGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadBalancingGlobalFilter.class);
+
+    public static final int ORDER = RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 1;
+
+    /**
+     * Atributo del exchange con la {@link ServiceEndpoint} elegida.
+     */
+    public static final String ENDPOINT_ATTR = LoadBalancingGlobalFilter.class.getName() + ".endpoint";
+
+    private static final String LB_SCHEME = "lb";
+
+    private final ServiceInstanceRegistry registry;
+
+    public LoadBalancingGlobalFilter(ServiceInstanceRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        if (url == null || !LB_SCHEME.equals(url.getScheme())) {
+            return chain.filter(exchange);
+        }
+
+        String serviceId = url.getHost();
+        ServiceEndpoint endpoint = registry.choose(serviceId);
+        if (endpoint == null) {
+            return Mono.error(NotFoundException.create(false, "No hay instancias disponibles para " + serviceId));
+        }
+
+        addOriginalRequestUrl(exchange, url);
+        URI requestUrl = reconstructUri(url, endpoint.getUri());
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, requestUrl);
+        exchange.getAttributes().put(ENDPOINT_ATTR, endpoint);
+        log.debug("{} → {}", url, requestUrl);
+
+        registry.acquire(endpoint);
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            long rtt = System.nanoTime() - start;
+            if (signal == SignalType.CANCEL) {
+                // Cancelación por timeout del circuit breaker o desconexión del cliente:
+                // el tiempo transcurrido es una cota inferior de la latencia y sí se
+                // muestrea para que una réplica lenta deje de parecer rápida
+                registry.release(endpoint, rtt, false);
+                return;
+            }
+            registry.release(endpoint, rtt, signal == SignalType.ON_ERROR || isUnavailable(exchange));
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    /**
+     * Sustituye esquema, host y puerto de la URL lb:// por los de la réplica.
+     */
+    public static URI reconstructUri(URI original, URI instance) {
+        return UriComponentsBuilder.fromUri(original)
+                .scheme(instance.getScheme())
+                .host(instance.getHost())
+                .port(instance.getPort())
+                .build(true)
+                .toUri();
+    }
+
+    private static boolean isUnavailable(ServerWebExchange exchange) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (status == null) {
+            return false;
+        }
+        int code = status.value();
+        return code == 502 || code == 503 || code == 504;
+    }
+}
@@ -0,0 +1,138 @@
+package co.unicauca.gateway.loadbalancer;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Réplica concreta de un servicio backend y sus estadísticas en vivo.
+ *
+ * Mantiene lo necesario para el balanceo power-of-two-choices:
+ * - Peticiones en vuelo hacia la réplica
+ * - Latencia media móvil exponencial (EWMA) de las respuestas
+ * - Fallos consecutivos e instante hasta el que la réplica está expulsada
+ *
+ * Todos los campos se actualizan sin locks desde el event loop. Las
+ * estadísticas sobreviven a las recargas del registro mientras la URI
+ * siga configurada.
+ *
+ * @author Gateway Team
+ */
+public final class ServiceEndpoint {
+
+    // Peso de la última muestra en la EWMA de latencia
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final String serviceId;
+    private final URI uri;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    // Bits del double con la EWMA en nanosegundos (0 = sin muestras)
+    private final AtomicLong ewmaBits = new AtomicLong(Double.doubleToRawLongBits(0.0));
+    private volatile long ejectedUntilNanos;
+    private volatile boolean ejected;
+
+    public ServiceEndpoint(String serviceId, URI uri) {
+        this.serviceId = serviceId;
+        this.uri = uri;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    /**
+     * Latencia EWMA en nanosegundos (0 si aún no hay muestras).
+     */
+    public double getEwmaNanos() {
+        return Double.longBitsToDouble(ewmaBits.get());
+    }
+
+    /**
+     * Indica si la réplica puede recibir tráfico (no está expulsada).
+     */
+    public boolean isAvailable(long nowNanos) {
+        return !ejected || nowNanos - ejectedUntilNanos >= 0;
+    }
+
+    /**
+     * Coste estimado de enviar una petición más: (en vuelo + 1) * latencia.
+     *
+     * @param defaultLatencyNanos Latencia supuesta si la réplica aún no tiene muestras
+     */
+    double score(double defaultLatencyNanos) {
+        double ewma = getEwmaNanos();
+        return (inFlight.get() + 1) * (ewma > 0 ? ewma : defaultLatencyNanos);
+    }
+
+    void acquire() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Registra el fin de una petición.
+     *
+     * @param rttNanos              Duración observada, o un valor negativo para no muestrear
+     * @param failed                true si la réplica respondió con error (o no respondió)
+     * @param nowNanos              Instante actual (System.nanoTime)
+     * @param failureThreshold      Fallos consecutivos que provocan la expulsión
+     * @param ejectionDurationNanos Tiempo que la réplica permanece expulsada
+     * @return true si esta petición provocó la expulsión de la réplica
+     */
+    boolean release(long rttNanos, boolean failed, long nowNanos, int failureThreshold, long ejectionDurationNanos) {
+        inFlight.decrementAndGet();
+        if (rttNanos >= 0) {
+            recordLatency(rttNanos);
+        }
+
+        if (!failed) {
+            consecutiveFailures.set(0);
+            ejected = false;
+            return false;
+        }
+
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold && isAvailable(nowNanos)) {
+            consecutiveFailures.set(0);
+            ejectedUntilNanos = nowNanos + ejectionDurationNanos;
+            ejected = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Inicializa la EWMA de una réplica nueva (p.ej. con la media de sus pares)
+     * para que no reciba todo el tráfico hasta obtener su primera muestra.
+     */
+    void seedLatency(double ewmaNanos) {
+        ewmaBits.compareAndSet(Double.doubleToRawLongBits(0.0), Double.doubleToRawLongBits(ewmaNanos));
+    }
+
+    private void recordLatency(long rttNanos) {
+        long current;
+        long next;
+        do {
+            current = ewmaBits.get();
+            double ewma = Double.longBitsToDouble(current);
+            double updated = ewma > 0 ? ewma + EWMA_ALPHA * (rttNanos - ewma) : rttNanos;
+            next = Double.doubleToRawLongBits(updated);
+        } while (!ewmaBits.compareAndSet(current, next));
+    }
+
+    @Override
+    public String toString() {
+        return serviceId + "@" + uri;
+    }
+}
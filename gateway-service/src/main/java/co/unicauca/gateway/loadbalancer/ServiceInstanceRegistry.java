@@ -0,0 +1,435 @@
+package co.unicauca.gateway.loadbalancer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Registro de réplicas por servicio y selección de instancia para rutas lb://.
+ *
+ * Las instancias de cada servicio se resuelven, de mayor a menor prioridad, desde:
+ * 1. El fichero de registro local (gateway.loadbalancer.registry-file), en JSON:
+ *    <pre>{"submission-service": ["http://submission-1:8082", "http://submission-2:8082"]}</pre>
+ *    Se vuelve a leer cuando cambia su fecha de modificación.
+ * 2. gateway.loadbalancer.instances.&lt;servicio&gt; (lista o valores separados por coma)
+ * 3. services.&lt;nombre&gt;.url como única réplica de &lt;nombre&gt;-service
+ *
+ * La selección es power-of-two-choices: se eligen dos réplicas al azar y gana
+ * la de menor coste (en vuelo + 1) * latencia EWMA. Las réplicas con
+ * consecutive-failures fallos seguidos se expulsan durante duration-seconds
+ * (expulsión pasiva, sin health checks). Si todas están expulsadas se entra
+ * en modo pánico y se reparte entre todas.
+ *
+ * Métricas (tags service, instance):
+ * - gateway.loadbalancer.in-flight
+ * - gateway.loadbalancer.latency.ewma (ms)
+ * - gateway.loadbalancer.ejections (solo tag service)
+ *
+ * @author Gateway Team
+ */
+@Component
+public class ServiceInstanceRegistry implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceInstanceRegistry.class);
+
+    private static final String PREFIX = "gateway.loadbalancer";
+    private static final String SERVICES_PREFIX = "services";
+
+    // Latencia supuesta para réplicas sin muestras cuando ninguna del servicio tiene
+    private static final double DEFAULT_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String registryFile;
+    private final long refreshSeconds;
+    private final int failureThreshold;
+    private final long ejectionDurationNanos;
+    private final LongSupplier nanoClock;
+
+    private final Map<String, Counter> ejectionCounters = new HashMap<>();
+    private final Map<ServiceEndpoint, List<Meter>> endpointMeters = new HashMap<>();
+
+    private volatile Map<String, List<ServiceEndpoint>> services = Collections.emptyMap();
+    private volatile long registryFileModified = Long.MIN_VALUE;
+    private Map<String, List<String>> registryFileInstances = Collections.emptyMap();
+    private ScheduledExecutorService poller;
+
+    @Autowired
+    public ServiceInstanceRegistry(
+            Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.loadbalancer.registry-file:}") String registryFile,
+            @Value("${gateway.loadbalancer.registry-refresh-seconds:5}") long refreshSeconds,
+            @Value("${gateway.loadbalancer.ejection.consecutive-failures:3}") int failureThreshold,
+            @Value("${gateway.loadbalancer.ejection.duration-seconds:10}") long ejectionSeconds) {
+        this(environment, meterRegistry, registryFile, refreshSeconds, failureThreshold, ejectionSeconds,
+                System::nanoTime);
+    }
+
+    ServiceInstanceRegistry(Environment environment, MeterRegistry meterRegistry, String registryFile,
+                            long refreshSeconds, int failureThreshold, long ejectionSeconds,
+                            LongSupplier nanoClock) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.registryFile = registryFile;
+        this.refreshSeconds = refreshSeconds;
+        this.failureThreshold = failureThreshold;
+        this.ejectionDurationNanos = TimeUnit.SECONDS.toNanos(ejectionSeconds);
+        this.nanoClock = nanoClock;
+        reload();
+    }
+
+    /**
+     * Elige la réplica que atenderá la próxima petición al servicio.
+     *
+     * @return La réplica elegida, o null si el servicio no tiene instancias
+     */
+    public ServiceEndpoint choose(String serviceId) {
+        return choose(services.get(serviceId));
+    }
+
+    /**
+     * Elige una réplica del servicio distinta de la indicada (p.ej. para una
+     * petición duplicada que no debe ir a la misma instancia lenta).
+     *
+     * @return La réplica elegida, o null si el servicio no tiene otra instancia
+     */
+    public ServiceEndpoint chooseExcluding(String serviceId, ServiceEndpoint excluded) {
+        List<ServiceEndpoint> endpoints = services.get(serviceId);
+        if (endpoints == null || endpoints.size() < 2) {
+            return null;
+        }
+        return choose(endpoints.stream().filter(endpoint -> endpoint != excluded).toList());
+    }
+
+    private ServiceEndpoint choose(List<ServiceEndpoint> endpoints) {
+        if (endpoints == null || endpoints.isEmpty()) {
+            return null;
+        }
+        int size = endpoints.size();
+        if (size == 1) {
+            return endpoints.get(0);
+        }
+
+        long now = nanoClock.getAsLong();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        ServiceEndpoint a = endpoints.get(first);
+        ServiceEndpoint b = endpoints.get(second);
+        boolean aAvailable = a.isAvailable(now);
+        boolean bAvailable = b.isAvailable(now);
+
+        if (aAvailable && bAvailable) {
+            return cheaper(a, b);
+        }
+        if (aAvailable) {
+            return a;
+        }
+        if (bAvailable) {
+            return b;
+        }
+
+        // Ambas expulsadas: buscar la mejor disponible; si no hay ninguna, modo pánico
+        ServiceEndpoint best = null;
+        for (ServiceEndpoint endpoint : endpoints) {
+            if (endpoint.isAvailable(now) && (best == null || cheaper(endpoint, best) == endpoint)) {
+                best = endpoint;
+            }
+        }
+        return best != null ? best : cheaper(a, b);
+    }
+
+    /**
+     * Marca el inicio de una petición hacia la réplica.
+     */
+    public void acquire(ServiceEndpoint endpoint) {
+        endpoint.acquire();
+    }
+
+    /**
+     * Marca el fin de una petición y aplica la expulsión pasiva si corresponde.
+     *
+     * @param rttNanos Duración observada, o un valor negativo para no muestrear la latencia
+     * @param failed   true si la réplica falló (error de conexión, 502, 503 o 504)
+     */
+    public void release(ServiceEndpoint endpoint, long rttNanos, boolean failed) {
+        long now = nanoClock.getAsLong();
+        if (endpoint.release(rttNanos, failed, now, failureThreshold, ejectionDurationNanos)) {
+            ejectionCounter(endpoint.getServiceId()).increment();
+            log.warn("Réplica {} expulsada durante {}s tras {} fallos consecutivos",
+                    endpoint, TimeUnit.NANOSECONDS.toSeconds(ejectionDurationNanos), failureThreshold);
+        }
+    }
+
+    /**
+     * Réplicas configuradas actualmente para un servicio.
+     */
+    public List<ServiceEndpoint> endpoints(String serviceId) {
+        return services.getOrDefault(serviceId, Collections.emptyList());
+    }
+
+    /**
+     * Recarga las instancias cuando cambian propiedades services.* o gateway.loadbalancer.*.
+     */
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        boolean affected = event.getKeys().stream()
+                .anyMatch(key -> key.startsWith(PREFIX) || key.startsWith(SERVICES_PREFIX + "."));
+        if (affected) {
+            log.info("Cambios en la configuración de instancias detectados, recargando registro");
+            reload();
+        }
+    }
+
+    /**
+     * Vuelve a resolver las instancias de todos los servicios.
+     *
+     * Las réplicas que siguen configuradas conservan sus estadísticas; las
+     * nuevas arrancan con la latencia media de sus pares.
+     */
+    public synchronized void reload() {
+        Map<String, List<URI>> resolved = new LinkedHashMap<>();
+        Binder binder = Binder.get(environment);
+
+        binder.bind(SERVICES_PREFIX, Bindable.mapOf(String.class, ServiceUrl.class))
+                .orElse(Collections.emptyMap())
+                .forEach((name, service) -> {
+                    List<URI> uris = parseUris(name + "-service",
+                            service.url() != null ? List.of(service.url()) : List.of());
+                    if (!uris.isEmpty()) {
+                        resolved.put(name + "-service", uris);
+                    }
+                });
+
+        binder.bind(PREFIX + ".instances", Bindable.mapOf(String.class, String[].class))
+                .orElse(Collections.emptyMap())
+                .forEach((serviceId, instances) -> putIfPresent(resolved, serviceId, List.of(instances)));
+
+        readRegistryFile().forEach((serviceId, instances) -> putIfPresent(resolved, serviceId, instances));
+
+        apply(resolved);
+    }
+
+    /**
+     * Recarga el registro si el fichero cambió desde la última lectura.
+     */
+    void reloadIfRegistryFileChanged() {
+        Path path = registryPath();
+        if (path == null) {
+            return;
+        }
+        try {
+            long modified = Files.exists(path) ? Files.getLastModifiedTime(path).toMillis() : Long.MIN_VALUE;
+            if (modified != registryFileModified) {
+                log.info("Fichero de registro {} modificado, recargando instancias", path);
+                reload();
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo consultar el fichero de registro {}: {}", path, e.toString());
+        }
+    }
+
+    private void putIfPresent(Map<String, List<URI>> resolved, String serviceId, List<String> instances) {
+        List<URI> uris = parseUris(serviceId, instances);
+        if (!uris.isEmpty()) {
+            resolved.put(serviceId, uris);
+        }
+    }
+
+    private Map<String, List<String>> readRegistryFile() {
+        Path path = registryPath();
+        if (path == null) {
+            return Collections.emptyMap();
+        }
+        try {
+            if (!Files.exists(path)) {
+                registryFileModified = Long.MIN_VALUE;
+                registryFileInstances = Collections.emptyMap();
+                log.warn("El fichero de registro {} no existe; se usa la configuración", path);
+                return Collections.emptyMap();
+            }
+            registryFileModified = Files.getLastModifiedTime(path).toMillis();
+            Map<String, List<String>> content = objectMapper.readValue(path.toFile(),
+                    new TypeReference<Map<String, List<String>>>() { });
+            registryFileInstances = content != null ? content : Collections.emptyMap();
+        } catch (IOException e) {
+            // Un fichero a medio escribir no debe dejar al servicio sin réplicas:
+            // se conserva el contenido de la última lectura válida
+            log.error("Fichero de registro {} inválido, se mantiene la versión anterior: {}", path, e.toString());
+        }
+        return registryFileInstances;
+    }
+
+    private Path registryPath() {
+        return registryFile == null || registryFile.isBlank() ? null : Path.of(registryFile.trim());
+    }
+
+    private static List<URI> parseUris(String serviceId, List<String> instances) {
+        List<URI> uris = new ArrayList<>();
+        for (String instance : instances) {
+            if (instance == null || instance.isBlank()) {
+                continue;
+            }
+            try {
+                URI uri = URI.create(instance.trim());
+                if (uri.getScheme() == null || uri.getHost() == null) {
+                    throw new IllegalArgumentException("se esperaba http(s)://host:puerto");
+                }
+                if (!uris.contains(uri)) {
+                    uris.add(uri);
+                }
+            } catch (IllegalArgumentException e) {
+                log.warn("Instancia '{}' de {} ignorada: {}", instance, serviceId, e.getMessage());
+            }
+        }
+        return uris;
+    }
+
+    private void apply(Map<String, List<URI>> resolved) {
+        Map<String, List<ServiceEndpoint>> previous = services;
+        Map<String, List<ServiceEndpoint>> next = new HashMap<>();
+
+        resolved.forEach((serviceId, uris) -> {
+            List<ServiceEndpoint> existing = previous.getOrDefault(serviceId, Collections.emptyList());
+            double peerLatency = averageLatency(existing);
+
+            List<ServiceEndpoint> endpoints = new ArrayList<>(uris.size());
+            for (URI uri : uris) {
+                ServiceEndpoint endpoint = existing.stream()
+                        .filter(candidate -> candidate.getUri().equals(uri))
+                        .findFirst()
+                        .orElseGet(() -> newEndpoint(serviceId, uri, peerLatency));
+                endpoints.add(endpoint);
+            }
+            next.put(serviceId, List.copyOf(endpoints));
+        });
+
+        this.services = Collections.unmodifiableMap(next);
+
+        // Retirar métricas de réplicas que ya no están configuradas
+        previous.forEach((serviceId, endpoints) -> endpoints.stream()
+                .filter(endpoint -> !next.getOrDefault(serviceId, Collections.emptyList()).contains(endpoint))
+                .forEach(this::removeMeters));
+
+        next.forEach((serviceId, endpoints) -> log.info("Instancias de {}: {}", serviceId,
+                endpoints.stream().map(ServiceEndpoint::getUri).toList()));
+    }
+
+    private ServiceEndpoint newEndpoint(String serviceId, URI uri, double peerLatency) {
+        ServiceEndpoint endpoint = new ServiceEndpoint(serviceId, uri);
+        if (peerLatency > 0) {
+            endpoint.seedLatency(peerLatency);
+        }
+
+        Tags tags = Tags.of("service", serviceId, "instance", uri.getAuthority());
+        List<Meter> meters = List.of(
+                Gauge.builder("gateway.loadbalancer.in-flight", endpoint, ServiceEndpoint::getInFlight)
+                        .description("Peticiones en vuelo hacia la réplica")
+                        .tags(tags)
+                        .register(meterRegistry),
+                Gauge.builder("gateway.loadbalancer.latency.ewma", endpoint, e -> e.getEwmaNanos() / 1_000_000.0)
+                        .description("Latencia EWMA de la réplica en milisegundos")
+                        .tags(tags)
+                        .baseUnit("milliseconds")
+                        .register(meterRegistry));
+        endpointMeters.put(endpoint, meters);
+        return endpoint;
+    }
+
+    private void removeMeters(ServiceEndpoint endpoint) {
+        List<Meter> meters = endpointMeters.remove(endpoint);
+        if (meters != null) {
+            meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    private synchronized Counter ejectionCounter(String serviceId) {
+        return ejectionCounters.computeIfAbsent(serviceId, id -> Counter.builder("gateway.loadbalancer.ejections")
+                .description("Réplicas expulsadas por fallos consecutivos")
+                .tag("service", id)
+                .register(meterRegistry));
+    }
+
+    private static double averageLatency(List<ServiceEndpoint> endpoints) {
+        return endpoints.stream()
+                .mapToDouble(ServiceEndpoint::getEwmaNanos)
+                .filter(ewma -> ewma > 0)
+                .average()
+                .orElse(0);
+    }
+
+    private static ServiceEndpoint cheaper(ServiceEndpoint a, ServiceEndpoint b) {
+        return a.score(DEFAULT_LATENCY_NANOS) <= b.score(DEFAULT_LATENCY_NANOS) ? a : b;
+    }
+
+    @Override
+    public void start() {
+        if (registryPath() == null) {
+            return;
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gateway-registry-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::reloadIfRegistryFileChanged,
+                refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        log.info("Vigilando el fichero de registro {} cada {}s", registryFile, refreshSeconds);
+    }
+
+    @Override
+    public void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return poller != null;
+    }
+
+    /**
+     * Entrada services.&lt;nombre&gt; de la configuración.
+     */
+    public record ServiceUrl(String url) {
+    }
+}
@@ -0,0 +1,24 @@
+package co.unicauca.gateway.logging;
+
+/**
+ * Registro de acceso de forma fija producido por RequestResponseLoggingFilter.
+ *
+ * Solo contiene valores ya extraídos de la petición (sin referencias al
+ * exchange), de modo que puede procesarse en otro hilo sin retener buffers.
+ *
+ * @param timestampMillis Inicio de la petición (epoch millis)
+ * @param routeId         Id de la ruta del gateway
+ * @param method          Método HTTP
+ * @param path            Path (con query si el filtro la incluye)
+ * @param status          Código HTTP de la respuesta (0 si no llegó a fijarse)
+ * @param durationNanos   Tiempo de procesamiento medido con System.nanoTime
+ * @param userId          X-User-Id, o null si la petición es anónima
+ * @param remoteIp        IP del cliente
+ * @param sampled         Si el registro debe escribirse en el log (los no muestreados
+ *                        solo alimentan las métricas de latencia)
+ * @author Gateway Team
+ */
+public record AccessLogRecord(long timestampMillis, String routeId, String method, String path,
+                              int status, long durationNanos, String userId, String remoteIp,
+                              boolean sampled) {
+}
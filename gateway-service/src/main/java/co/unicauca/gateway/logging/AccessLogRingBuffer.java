@@ -0,0 +1,102 @@
+package co.unicauca.gateway.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Buffer circular acotado, sin locks, para varios productores y un consumidor.
+ *
+ * Los hilos del event loop publican con offer(), que nunca bloquea: reservan
+ * una posición con CAS sobre tail y escriben el slot. Si el buffer está lleno
+ * el registro se descarta y se contabiliza (perder una línea de log es
+ * preferible a frenar el event loop).
+ *
+ * Un único hilo consumidor (AccessLogWriter) vacía el buffer con drain().
+ * El consumidor limpia cada slot antes de avanzar head, por lo que un
+ * productor nunca sobrescribe un slot pendiente de leer.
+ *
+ * @param <T> Tipo de elemento
+ * @author Gateway Team
+ */
+public final class AccessLogRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param capacity Capacidad deseada (se redondea a la siguiente potencia de 2)
+     */
+    public AccessLogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Publica un elemento sin bloquear.
+     *
+     * @return false si el buffer estaba lleno y el elemento se descartó
+     */
+    public boolean offer(T element) {
+        long position;
+        do {
+            position = tail.get();
+            if (position - head.get() >= slots.length()) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!tail.compareAndSet(position, position + 1));
+
+        slots.lazySet((int) position & mask, element);
+        return true;
+    }
+
+    /**
+     * Entrega al consumidor hasta maxElements elementos publicados, en orden.
+     *
+     * Solo debe invocarse desde un único hilo.
+     *
+     * @return Número de elementos entregados
+     */
+    public int drain(Consumer<? super T> consumer, int maxElements) {
+        long position = head.get();
+        int count = 0;
+
+        while (count < maxElements) {
+            int index = (int) position & mask;
+            T element = slots.get(index);
+            if (element == null) {
+                // Vacío, o el productor reservó la posición pero aún no escribió
+                break;
+            }
+            slots.lazySet(index, null);
+            position++;
+            head.lazySet(position);
+            consumer.accept(element);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Elementos publicados pendientes de consumir (aproximado).
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Total de elementos descartados por buffer lleno.
+     */
+    public long droppedCount() {
+        return dropped.get();
+    }
+}
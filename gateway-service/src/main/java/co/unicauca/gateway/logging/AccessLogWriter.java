@@ -0,0 +1,189 @@
+package co.unicauca.gateway.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escritor en segundo plano de los registros de acceso del gateway.
+ *
+ * RequestResponseLoggingFilter solo publica un AccessLogRecord en un
+ * AccessLogRingBuffer (sin locks ni E/S en el event loop). Un hilo dedicado
+ * vacía el buffer por lotes y:
+ * - Escribe una línea por registro muestreado en el logger "co.unicauca.gateway.access"
+ * - Registra la latencia de todos los registros en un Timer por ruta con
+ *   percentiles p50/p95/p99 (histogramas HDR de Micrometer), visible en
+ *   /actuator/metrics/gateway.route.latency
+ *
+ * Muestreo por ruta (solo afecta a las líneas de log, no a las métricas):
+ * <pre>
+ * gateway:
+ *   access-log:
+ *     default-sample-rate: 1.0
+ *     sampling:
+ *       submission-service: 0.1
+ * </pre>
+ *
+ * Métricas propias: gateway.access-log.dropped, gateway.access-log.pending
+ *
+ * @author Gateway Team
+ */
+@Component
+public class AccessLogWriter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLogWriter.class);
+    private static final Logger accessLog = LoggerFactory.getLogger("co.unicauca.gateway.access");
+
+    private final AccessLogRingBuffer<AccessLogRecord> buffer;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Double> sampleRates;
+    private final double defaultSampleRate;
+    private final int batchSize;
+    private final long idleParkNanos;
+
+    // Solo se accede desde el hilo escritor
+    private final Map<String, Timer> latencyTimers = new HashMap<>();
+    private final StringBuilder line = new StringBuilder(256);
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AccessLogWriter(
+            MeterRegistry meterRegistry,
+            Environment environment,
+            @Value("${gateway.access-log.buffer-size:8192}") int bufferSize,
+            @Value("${gateway.access-log.batch-size:512}") int batchSize,
+            @Value("${gateway.access-log.flush-interval-ms:100}") long flushIntervalMs,
+            @Value("${gateway.access-log.default-sample-rate:1.0}") double defaultSampleRate) {
+        this.buffer = new AccessLogRingBuffer<>(bufferSize);
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.idleParkNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.defaultSampleRate = defaultSampleRate;
+        this.sampleRates = Binder.get(environment)
+                .bind("gateway.access-log.sampling", Bindable.mapOf(String.class, Double.class))
+                .map(Collections::unmodifiableMap)
+                .orElse(Collections.emptyMap());
+
+        FunctionCounter.builder("gateway.access-log.dropped", buffer, AccessLogRingBuffer::droppedCount)
+                .description("Registros de acceso descartados por buffer lleno")
+                .register(meterRegistry);
+        Gauge.builder("gateway.access-log.pending", buffer, AccessLogRingBuffer::size)
+                .description("Registros de acceso pendientes de escribir")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publica un registro sin bloquear; se descarta si el buffer está lleno.
+     */
+    public void submit(AccessLogRecord record) {
+        buffer.offer(record);
+    }
+
+    /**
+     * Decide si la próxima petición de la ruta debe escribirse en el log.
+     */
+    public boolean shouldSample(String routeId) {
+        double rate = routeId != null ? sampleRates.getOrDefault(routeId, defaultSampleRate) : defaultSampleRate;
+        return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * Vacía hasta batchSize registros del buffer.
+     *
+     * @return Número de registros procesados
+     */
+    int drainBatch() {
+        return buffer.drain(this::process, batchSize);
+    }
+
+    private void process(AccessLogRecord record) {
+        String route = record.routeId() != null ? record.routeId() : "unknown";
+        latencyTimers.computeIfAbsent(route, this::latencyTimer)
+                .record(record.durationNanos(), TimeUnit.NANOSECONDS);
+
+        if (record.sampled() && accessLog.isInfoEnabled()) {
+            line.setLength(0);
+            line.append("ACCESS | timestamp=").append(Instant.ofEpochMilli(record.timestampMillis()))
+                    .append(" | route=").append(route)
+                    .append(" | method=").append(record.method())
+                    .append(" | path=").append(record.path())
+                    .append(" | status=").append(record.status())
+                    .append(" | duration=").append(record.durationNanos() / 1_000_000)
+                    .append('.').append(String.format("%03d", (record.durationNanos() / 1_000) % 1_000))
+                    .append("ms | userId=").append(record.userId() != null ? record.userId() : "anonymous")
+                    .append(" | remoteIP=").append(record.remoteIp());
+            accessLog.info(line.toString());
+        }
+    }
+
+    private Timer latencyTimer(String route) {
+        return Timer.builder("gateway.route.latency")
+                .description("Latencia de las peticiones atendidas por el gateway, por ruta")
+                .tag("route", route)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                if (drainBatch() == 0) {
+                    LockSupport.parkNanos(idleParkNanos);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Error escribiendo registros de acceso: {}", e.toString());
+            }
+        }
+        // Vaciar lo pendiente al detenerse
+        while (drainBatch() > 0) {
+            // continuar hasta vaciar
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::runLoop, "gateway-access-log");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("AccessLogWriter iniciado: buffer={}, batch={}, muestreo por defecto={}, por ruta={}",
+                buffer.capacity(), batchSize, defaultSampleRate, sampleRates);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -1,27 +1,30 @@
 package co.unicauca.gateway.logging;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.server.reactive.ServerHttpRequest;
-import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
-import reactor.core.publisher.Mono;
 
-import java.time.Instant;
+import java.net.InetSocketAddress;
 
 /**
  * Filtro para logging estructurado de peticiones y respuestas.
  *
  * Registra información de cada petición que pasa por el gateway:
  * - Timestamp de la petición
- * - Método HTTP (GET, POST, etc.)
- * - Path de la petición
+ * - Ruta del gateway, método HTTP (GET, POST, etc.) y path
  * - UserId (si está disponible en headers X-User-Id)
  * - IP remota del cliente
  * - Código de estado HTTP de la respuesta
- * - Tiempo de procesamiento en milisegundos
+ * - Tiempo de procesamiento (medido con System.nanoTime)
+ *
+ * El filtro no escribe en el log desde el event loop: al terminar la petición
+ * publica un AccessLogRecord en el buffer de AccessLogWriter, que lo escribe
+ * por lotes en segundo plano y alimenta los histogramas de latencia por ruta.
+ * El muestreo de líneas de log se configura por ruta (gateway.access-log.sampling).
  *
  * NOTA DE SEGURIDAD:
  * - No loguea el body de las peticiones (puede contener información sensible)
@@ -36,77 +39,59 @@ import java.time.Instant;
 public class RequestResponseLoggingFilter
         extends AbstractGatewayFilterFactory<RequestResponseLoggingFilter.Config> {
 
-    private static final Logger log = LoggerFactory.getLogger(RequestResponseLoggingFilter.class);
+    private final AccessLogWriter accessLogWriter;
 
-    public RequestResponseLoggingFilter() {
+    public RequestResponseLoggingFilter(AccessLogWriter accessLogWriter) {
         super(Config.class);
+        this.accessLogWriter = accessLogWriter;
     }
 
     @Override
     public GatewayFilter apply(Config config) {
         return (exchange, chain) -> {
             ServerHttpRequest request = exchange.getRequest();
+            long startNanos = System.nanoTime();
+            long timestamp = System.currentTimeMillis();
 
-            // Capturar información de la petición
-            String method = request.getMethod().name();
-            String path = request.getURI().getPath();
-            String queryParams = request.getURI().getQuery();
-            String remoteAddress = extractRemoteAddress(request);
-            long startTime = System.currentTimeMillis();
-            Instant timestamp = Instant.now();
+            // Continuar con la cadena de filtros y registrar al terminar (éxito, error o cancelación)
+            return chain.filter(exchange).doFinally(signal -> {
+                long duration = System.nanoTime() - startNanos;
 
-            // Log de petición entrante
-            logRequest(method, path, queryParams, remoteAddress, timestamp);
+                Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+                String routeId = route != null ? route.getId() : null;
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
 
-            // Continuar con la cadena de filtros y capturar la respuesta
-            return chain.filter(exchange).then(Mono.fromRunnable(() -> {
-                ServerHttpResponse response = exchange.getResponse();
-                long duration = System.currentTimeMillis() - startTime;
+                String path = request.getURI().getPath();
+                String query = request.getURI().getRawQuery();
+                if (config.isLogQueryParams() && query != null) {
+                    path = path + "?" + query;
+                }
 
                 // Extraer userId si está disponible (añadido por JwtGatewayFilter)
                 String userId = request.getHeaders().getFirst("X-User-Id");
 
-                // Log de respuesta
-                logResponse(method, path, response.getStatusCode().value(),
-                        duration, userId, remoteAddress);
-            }));
+                accessLogWriter.submit(new AccessLogRecord(
+                        timestamp, routeId, request.getMethod().name(), path,
+                        status != null ? status.value() : 0, duration,
+                        userId, extractRemoteAddress(request),
+                        accessLogWriter.shouldSample(routeId)));
+            });
         };
     }
 
-    /**
-     * Loguea información de la petición entrante.
-     */
-    private void logRequest(String method, String path, String queryParams,
-                            String remoteAddress, Instant timestamp) {
-        String fullPath = queryParams != null ? path + "?" + queryParams : path;
-
-        log.info("INCOMING REQUEST | timestamp={} | method={} | path={} | remoteIP={}",
-                timestamp, method, fullPath, remoteAddress);
-    }
-
-    /**
-     * Loguea información de la respuesta.
-     */
-    private void logResponse(String method, String path, int statusCode,
-                             long duration, String userId, String remoteAddress) {
-        String userInfo = userId != null ? "userId=" + userId : "userId=anonymous";
-
-        log.info("OUTGOING RESPONSE | method={} | path={} | status={} | duration={}ms | {} | remoteIP={}",
-                method, path, statusCode, duration, userInfo, remoteAddress);
-    }
-
     /**
      * Extrae la dirección IP remota del cliente.
      *
      * Considera headers de proxy (X-Forwarded-For, X-Real-IP) para obtener
      * la IP original del cliente cuando el gateway está detrás de un load balancer.
      */
-    private String extractRemoteAddress(ServerHttpRequest request) {
+    static String extractRemoteAddress(ServerHttpRequest request) {
         // Intentar obtener IP real desde headers de proxy
         String xForwardedFor = request.getHeaders().getFirst("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
             // X-Forwarded-For puede contener múltiples IPs: "client, proxy1, proxy2"
-            return xForwardedFor.split(",")[0].trim();
+            int comma = xForwardedFor.indexOf(',');
+            return (comma < 0 ? xForwardedFor : xForwardedFor.substring(0, comma)).trim();
         }
 
         String xRealIp = request.getHeaders().getFirst("X-Real-IP");
@@ -115,8 +100,9 @@ public class RequestResponseLoggingFilter
         }
 
         // Fallback a la IP directa
-        if (request.getRemoteAddress() != null) {
-            return request.getRemoteAddress().getAddress().getHostAddress();
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress != null && remoteAddress.getAddress() != null) {
+            return remoteAddress.getAddress().getHostAddress();
         }
 
         return "unknown";
@@ -0,0 +1,99 @@
+package co.unicauca.gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets en memoria, válidos para una única instancia del gateway.
+ *
+ * Cada clave se actualiza con ConcurrentHashMap.compute, que es atómico por
+ * clave y no bloquea otras claves. La recarga de tokens se calcula de forma
+ * perezosa a partir del tiempo transcurrido (no hay tareas programadas).
+ *
+ * El número de claves está acotado por maxKeys: al llenarse se descartan
+ * primero los buckets ya recargados por completo (equivalentes a uno nuevo)
+ * y luego claves arbitrarias.
+ *
+ * @author Gateway Team
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+
+    public InMemoryRateLimitStore(int maxKeys) {
+        this(maxKeys, System::nanoTime);
+    }
+
+    InMemoryRateLimitStore(int maxKeys, LongSupplier nanoClock) {
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<RateLimitDecision> tryConsume(String key, RateLimitPolicy policy) {
+        return Mono.fromSupplier(() -> consume(key, policy));
+    }
+
+    /**
+     * Versión síncrona de tryConsume (no realiza E/S).
+     */
+    public RateLimitDecision consume(String key, RateLimitPolicy policy) {
+        long now = nanoClock.getAsLong();
+        if (!buckets.containsKey(key)) {
+            makeRoom(now);
+        }
+
+        Bucket bucket = buckets.compute(key, (k, current) -> {
+            double tokens = current == null
+                    ? policy.burstCapacity()
+                    : current.tokensAt(now, policy);
+            boolean allowed = tokens >= policy.requestedTokens();
+            return new Bucket(allowed ? tokens - policy.requestedTokens() : tokens, now, allowed,
+                    policy.replenishRate(), policy.burstCapacity());
+        });
+
+        return RateLimitDecision.of(bucket.allowed, bucket.tokens, policy);
+    }
+
+    /**
+     * Número de buckets en memoria.
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    private void makeRoom(long now) {
+        if (buckets.size() < maxKeys) {
+            return;
+        }
+
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+
+        Iterator<String> it = buckets.keySet().iterator();
+        while (buckets.size() >= maxKeys && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private record Bucket(double tokens, long updatedNanos, boolean allowed,
+                          double replenishRate, long burstCapacity) {
+
+        private double tokensAt(long now, RateLimitPolicy policy) {
+            double elapsedSeconds = (now - updatedNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+            return Math.min(policy.burstCapacity(), tokens + Math.max(0, elapsedSeconds) * policy.replenishRate());
+        }
+
+        private boolean isFull(long now) {
+            double elapsedSeconds = (now - updatedNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+            return tokens + elapsedSeconds * replenishRate >= burstCapacity;
+        }
+    }
+}
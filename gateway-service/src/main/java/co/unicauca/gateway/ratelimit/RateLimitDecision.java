@@ -0,0 +1,32 @@
+package co.unicauca.gateway.ratelimit;
+
+/**
+ * Resultado de consumir tokens de un bucket.
+ *
+ * @param allowed           Si la petición puede continuar
+ * @param remaining         Tokens enteros que quedan en el bucket
+ * @param resetSeconds      Segundos hasta que el bucket vuelva a estar lleno
+ * @param retryAfterSeconds Segundos hasta que haya tokens suficientes (0 si allowed)
+ * @author Gateway Team
+ */
+public record RateLimitDecision(boolean allowed, long remaining, long resetSeconds, long retryAfterSeconds) {
+
+    /**
+     * Construye la decisión a partir de los tokens que quedan tras el intento.
+     */
+    public static RateLimitDecision of(boolean allowed, double tokensLeft, RateLimitPolicy policy) {
+        double tokens = Math.max(0, tokensLeft);
+        long reset = (long) Math.ceil((policy.burstCapacity() - tokens) / policy.replenishRate());
+        long retryAfter = allowed
+                ? 0
+                : Math.max(1, (long) Math.ceil((policy.requestedTokens() - tokens) / policy.replenishRate()));
+        return new RateLimitDecision(allowed, (long) Math.floor(tokens), Math.max(0, reset), retryAfter);
+    }
+
+    /**
+     * Decisión permisiva usada cuando el almacén compartido no responde.
+     */
+    public static RateLimitDecision unlimited(RateLimitPolicy policy) {
+        return new RateLimitDecision(true, policy.burstCapacity(), 0, 0);
+    }
+}
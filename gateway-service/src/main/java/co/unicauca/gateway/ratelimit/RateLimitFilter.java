@@ -0,0 +1,276 @@
+package co.unicauca.gateway.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limiting reactivo por usuario y por ruta (token bucket).
+ *
+ * Protege a los servicios backend de clientes que reintentan en bucle (por
+ * ejemplo, subidas multipart de 15MB a submission-service) antes de que
+ * ocupen hilos de Tomcat detrás del gateway:
+ * - Clave: nombre de la política + X-User-Id (añadido por JwtGatewayFilter)
+ *   o, en rutas sin JWT, la IP del cliente
+ * - Límites por ruta definidos en RouteConfig (replenishRate, burstCapacity)
+ * - Opcionalmente restringido a ciertos métodos HTTP (p.ej. solo POST/PUT)
+ *   y tipos de contenido (p.ej. solo multipart/*)
+ * - El almacén de buckets es intercambiable (ver RateLimitStore)
+ *
+ * Headers de respuesta (draft IETF "RateLimit header fields for HTTP"):
+ * - RateLimit-Limit: capacidad del bucket
+ * - RateLimit-Remaining: tokens restantes
+ * - RateLimit-Reset: segundos hasta recargar el bucket por completo
+ * - RateLimit-Policy: "capacidad;w=ventana"
+ * Las peticiones rechazadas reciben 429 con Retry-After.
+ *
+ * Métricas: gateway.rate-limit.requests (tags policy, result=allowed|rejected)
+ *
+ * @author Gateway Team
+ */
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    public static final String LIMIT_HEADER = "RateLimit-Limit";
+    public static final String REMAINING_HEADER = "RateLimit-Remaining";
+    public static final String RESET_HEADER = "RateLimit-Reset";
+    public static final String POLICY_HEADER = "RateLimit-Policy";
+
+    private final RateLimitStore store;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${gateway.rate-limit.enabled:true}")
+    private boolean enabled = true;
+
+    // Solo tiene sentido si el gateway está detrás de un proxy de confianza
+    @Value("${gateway.rate-limit.trust-forwarded-headers:false}")
+    private boolean trustForwardedHeaders;
+
+    public RateLimitFilter(RateLimitStore store, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.store = store;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        RateLimitPolicy policy = new RateLimitPolicy(
+                config.getReplenishRate(), config.getBurstCapacity(), config.getRequestedTokens());
+        String policyHeader = policy.burstCapacity() + ";w=" + policy.windowSeconds();
+        Counter allowedCounter = requestCounter(config.getName(), "allowed");
+        Counter rejectedCounter = requestCounter(config.getName(), "rejected");
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+
+            if (!enabled || !appliesTo(config, request)) {
+                return chain.filter(exchange);
+            }
+
+            String key = config.getName() + ':' + resolveClient(config, request);
+
+            return store.tryConsume(key, policy).flatMap(decision -> {
+                HttpHeaders headers = exchange.getResponse().getHeaders();
+                headers.set(LIMIT_HEADER, Long.toString(policy.burstCapacity()));
+                headers.set(REMAINING_HEADER, Long.toString(decision.remaining()));
+                headers.set(RESET_HEADER, Long.toString(decision.resetSeconds()));
+                headers.set(POLICY_HEADER, policyHeader);
+
+                if (decision.allowed()) {
+                    allowedCounter.increment();
+                    return chain.filter(exchange);
+                }
+
+                rejectedCounter.increment();
+                log.warn("Rate limit excedido: policy={}, client={}, path={}, retryAfter={}s",
+                        config.getName(), key, request.getURI().getPath(), decision.retryAfterSeconds());
+                return tooManyRequests(exchange, decision.retryAfterSeconds());
+            });
+        };
+    }
+
+    private Counter requestCounter(String policy, String result) {
+        return Counter.builder("gateway.rate-limit.requests")
+                .description("Peticiones evaluadas por el rate limiter del gateway")
+                .tag("policy", policy)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static boolean appliesTo(Config config, ServerHttpRequest request) {
+        return matchesMethod(config, request) && matchesContentType(config, request);
+    }
+
+    private static boolean matchesMethod(Config config, ServerHttpRequest request) {
+        if (config.getMethods().isEmpty()) {
+            return true;
+        }
+        String method = request.getMethod().name();
+        for (String configured : config.getMethods()) {
+            if (configured.equalsIgnoreCase(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesContentType(Config config, ServerHttpRequest request) {
+        if (config.getContentTypes().isEmpty()) {
+            return true;
+        }
+        MediaType contentType = request.getHeaders().getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        for (String configured : config.getContentTypes()) {
+            if (MediaType.parseMediaType(configured).includes(contentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Identifica al cliente: X-User-Id si la ruta pasa por JwtGatewayFilter,
+     * o la IP de origen en caso contrario.
+     */
+    String resolveClient(Config config, ServerHttpRequest request) {
+        if (config.isKeyByUser()) {
+            String userId = request.getHeaders().getFirst("X-User-Id");
+            if (userId != null && !userId.isEmpty()) {
+                return "user:" + userId;
+            }
+        }
+        return "ip:" + clientIp(request);
+    }
+
+    private String clientIp(ServerHttpRequest request) {
+        if (trustForwardedHeaders) {
+            String forwardedFor = request.getHeaders().getFirst("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isEmpty()) {
+                // "client, proxy1, proxy2": solo interesa el primero
+                int comma = forwardedFor.indexOf(',');
+                return (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+            }
+        }
+
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress != null && remoteAddress.getAddress() != null) {
+            return remoteAddress.getAddress().getHostAddress();
+        }
+        return "unknown";
+    }
+
+    /**
+     * Genera una respuesta 429 Too Many Requests con cuerpo JSON.
+     */
+    private Mono<Void> tooManyRequests(ServerWebExchange exchange, long retryAfterSeconds) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+
+        String jsonResponse = String.format(
+                "{\"error\":\"Too Many Requests\",\"message\":\"Rate limit exceeded. Retry after %d seconds\"}",
+                retryAfterSeconds
+        );
+
+        DataBuffer buffer = response.bufferFactory()
+                .wrap(jsonResponse.getBytes(StandardCharsets.UTF_8));
+
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    /**
+     * Configuración por ruta.
+     */
+    public static class Config {
+        // Nombre de la política: prefijo de la clave del bucket y tag de métricas
+        private String name = "default";
+        private double replenishRate = 10;
+        private long burstCapacity = 20;
+        private long requestedTokens = 1;
+        // Métodos a los que aplica; vacío = todos
+        private List<String> methods = new ArrayList<>();
+        // Tipos de contenido a los que aplica (admite comodines, p.ej. "multipart/*"); vacío = todos
+        private List<String> contentTypes = new ArrayList<>();
+        // false en rutas sin JwtGatewayFilter, donde X-User-Id lo controla el cliente
+        private boolean keyByUser = true;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public double getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(double replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public long getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(long burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public long getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public void setRequestedTokens(long requestedTokens) {
+            this.requestedTokens = requestedTokens;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public List<String> getContentTypes() {
+            return contentTypes;
+        }
+
+        public void setContentTypes(List<String> contentTypes) {
+            this.contentTypes = contentTypes;
+        }
+
+        public boolean isKeyByUser() {
+            return keyByUser;
+        }
+
+        public void setKeyByUser(boolean keyByUser) {
+            this.keyByUser = keyByUser;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package co.unicauca.gateway.ratelimit;
+
+/**
+ * Parámetros de un token bucket.
+ *
+ * @param replenishRate   Tokens repuestos por segundo (tasa sostenida)
+ * @param burstCapacity   Capacidad máxima del bucket (ráfaga permitida)
+ * @param requestedTokens Tokens que consume cada petición
+ * @author Gateway Team
+ */
+public record RateLimitPolicy(double replenishRate, long burstCapacity, long requestedTokens) {
+
+    public RateLimitPolicy {
+        if (replenishRate <= 0) {
+            throw new IllegalArgumentException("replenishRate debe ser mayor que 0");
+        }
+        if (burstCapacity < 1 || requestedTokens < 1 || requestedTokens > burstCapacity) {
+            throw new IllegalArgumentException(
+                    "burstCapacity y requestedTokens deben cumplir 1 <= requestedTokens <= burstCapacity");
+        }
+    }
+
+    /**
+     * Segundos que tarda un bucket vacío en llenarse (ventana del header RateLimit-Policy).
+     */
+    public long windowSeconds() {
+        return Math.max(1, (long) Math.ceil(burstCapacity / replenishRate));
+    }
+}
@@ -0,0 +1,24 @@
+package co.unicauca.gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Almacén de buckets de rate limiting.
+ *
+ * Implementaciones:
+ * - InMemoryRateLimitStore: buckets locales a la instancia (un solo gateway)
+ * - RedisRateLimitStore: buckets compartidos entre réplicas del gateway
+ *
+ * Se selecciona con gateway.rate-limit.store=memory|redis.
+ *
+ * @author Gateway Team
+ */
+public interface RateLimitStore {
+
+    /**
+     * Intenta consumir policy.requestedTokens() del bucket identificado por key.
+     *
+     * La operación es atómica por clave y no bloquea el hilo del event loop.
+     */
+    Mono<RateLimitDecision> tryConsume(String key, RateLimitPolicy policy);
+}
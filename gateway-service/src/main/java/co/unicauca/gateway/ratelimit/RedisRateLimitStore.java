@@ -0,0 +1,67 @@
+package co.unicauca.gateway.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Token buckets compartidos en Redis para varias réplicas del gateway.
+ *
+ * Cada consulta ejecuta un script Lua (scripts/gateway_rate_limit.lua) que
+ * recarga y consume tokens de forma atómica en el servidor, usando el reloj
+ * de Redis como referencia común. Las claves expiran cuando el bucket se
+ * habría recargado por completo, así que Redis no acumula buckets inactivos.
+ *
+ * Si Redis no responde dentro de timeout, la petición se deja pasar
+ * (fail-open): una caída de Redis no debe tumbar el gateway.
+ *
+ * @author Gateway Team
+ */
+public class RedisRateLimitStore implements RateLimitStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisRateLimitStore.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/gateway_rate_limit.lua"), List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Duration timeout;
+
+    public RedisRateLimitStore(ReactiveStringRedisTemplate redisTemplate, Duration timeout) {
+        this.redisTemplate = redisTemplate;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public Mono<RateLimitDecision> tryConsume(String key, RateLimitPolicy policy) {
+        List<String> keys = List.of("gateway:rate-limit:{" + key + "}");
+        List<String> args = List.of(
+                Double.toString(policy.replenishRate()),
+                Long.toString(policy.burstCapacity()),
+                Long.toString(policy.requestedTokens()));
+
+        return redisTemplate.execute(SCRIPT, keys, args)
+                .next()
+                .map(result -> toDecision(result, policy))
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    log.warn("Rate limiting en Redis no disponible, se permite la petición: {}", e.toString());
+                    return Mono.just(RateLimitDecision.unlimited(policy));
+                })
+                .defaultIfEmpty(RateLimitDecision.unlimited(policy));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static RateLimitDecision toDecision(List result, RateLimitPolicy policy) {
+        boolean allowed = Long.valueOf(1L).equals(result.get(0));
+        double tokens = Double.parseDouble(String.valueOf(result.get(1)));
+        return RateLimitDecision.of(allowed, tokens, policy);
+    }
+}
@@ -0,0 +1,191 @@
+package co.unicauca.gateway.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pools de conexiones hacia los backends, uno por nombre de pool.
+ *
+ * Spring Cloud Gateway comparte por defecto un único pool de Reactor Netty
+ * entre todas las rutas: un submission-service lento acapara conexiones y las
+ * peticiones a identity-service esperan en la misma cola. Aquí cada ruta usa
+ * el pool indicado en su metadata {@link #POOL_METADATA} (por defecto, el id
+ * de la ruta), con límites propios:
+ * - max-connections: conexiones simultáneas hacia el backend
+ * - pending-acquire-max-count / pending-acquire-timeout-ms: cola de espera;
+ *   al agotarse la petición falla de inmediato y el circuit breaker de la
+ *   ruta responde con su fallback
+ * - max-idle-time-ms / max-life-time-ms / evict-in-background-ms: expulsión
+ *   de conexiones inactivas o viejas (evita reutilizar conexiones que el
+ *   backend ya cerró)
+ * - h2c: HTTP/2 sin TLS con conocimiento previo, multiplexando las peticiones
+ *   sobre pocas conexiones (solo para backends que lo soporten)
+ *
+ * Cada valor se busca en gateway.httpclient.pools.&lt;pool&gt;.* y, si no
+ * está, en gateway.httpclient.pool.*. El resto de la configuración del
+ * cliente (timeouts, SSL, proxy, compresión) es la de
+ * spring.cloud.gateway.httpclient, igual que en el cliente compartido.
+ *
+ * Métricas de Reactor Netty por pool (tag name=gateway-&lt;pool&gt;):
+ * reactor.netty.connection.provider.{total,active,idle,pending,max}.connections
+ * y reactor.netty.connection.provider.pending.connections.time (latencia de adquisición)
+ *
+ * @author Gateway Team
+ */
+@Component
+public class BackendConnectionPools implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BackendConnectionPools.class);
+
+    /**
+     * Metadata de ruta con el nombre del pool (rutas hacia el mismo backend pueden compartirlo).
+     */
+    public static final String POOL_METADATA = "connection-pool";
+
+    private static final String POOL_PREFIX = "gateway.httpclient.pools.";
+    private static final String DEFAULT_PREFIX = "gateway.httpclient.pool.";
+
+    private final Environment environment;
+    private final HttpClientProperties properties;
+    private final ServerProperties serverProperties;
+    private final HttpClientSslConfigurer sslConfigurer;
+    private final List<HttpClientCustomizer> customizers;
+    private final Map<String, PooledClient> clients = new ConcurrentHashMap<>();
+
+    public BackendConnectionPools(Environment environment,
+                                  HttpClientProperties properties,
+                                  ServerProperties serverProperties,
+                                  HttpClientSslConfigurer sslConfigurer,
+                                  List<HttpClientCustomizer> customizers) {
+        this.environment = environment;
+        this.properties = properties;
+        this.serverProperties = serverProperties;
+        this.sslConfigurer = sslConfigurer;
+        this.customizers = customizers;
+    }
+
+    /**
+     * Cliente HTTP con el pool de la ruta (se crea en el primer uso).
+     */
+    public HttpClient clientFor(Route route) {
+        return clients.computeIfAbsent(poolName(route), this::create).client();
+    }
+
+    /**
+     * Nombre del pool de una ruta: metadata connection-pool o, si no existe, el id de la ruta.
+     */
+    public static String poolName(Route route) {
+        Object pool = route.getMetadata().get(POOL_METADATA);
+        return pool != null ? pool.toString() : route.getId();
+    }
+
+    /**
+     * Ajustes efectivos de un pool.
+     */
+    PoolSettings settings(String pool) {
+        return new PoolSettings(
+                intProperty(pool, "max-connections", 100),
+                intProperty(pool, "pending-acquire-max-count", 200),
+                Duration.ofMillis(longProperty(pool, "pending-acquire-timeout-ms", 2000)),
+                Duration.ofMillis(longProperty(pool, "max-idle-time-ms", 30000)),
+                Duration.ofMillis(longProperty(pool, "max-life-time-ms", 300000)),
+                Duration.ofMillis(longProperty(pool, "evict-in-background-ms", 30000)),
+                booleanProperty(pool, "h2c"));
+    }
+
+    private PooledClient create(String pool) {
+        PoolSettings settings = settings(pool);
+        ConnectionProvider provider = ConnectionProvider.builder("gateway-" + pool)
+                .maxConnections(settings.maxConnections())
+                .pendingAcquireMaxCount(settings.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(settings.pendingAcquireTimeout())
+                .maxIdleTime(settings.maxIdleTime())
+                .maxLifeTime(settings.maxLifeTime())
+                .evictInBackground(settings.evictInBackground())
+                .metrics(true)
+                .build();
+
+        HttpClient client = new PoolHttpClientFactory(
+                properties, serverProperties, sslConfigurer, customizers, provider).create();
+        if (settings.h2c()) {
+            client = client.protocol(HttpProtocol.H2C);
+        }
+        log.info("Pool de conexiones '{}' creado: {}", pool, settings);
+        return new PooledClient(provider, client);
+    }
+
+    private int intProperty(String pool, String name, int defaultValue) {
+        Integer value = environment.getProperty(POOL_PREFIX + pool + '.' + name, Integer.class);
+        return value != null ? value : environment.getProperty(DEFAULT_PREFIX + name, Integer.class, defaultValue);
+    }
+
+    private long longProperty(String pool, String name, long defaultValue) {
+        Long value = environment.getProperty(POOL_PREFIX + pool + '.' + name, Long.class);
+        return value != null ? value : environment.getProperty(DEFAULT_PREFIX + name, Long.class, defaultValue);
+    }
+
+    private boolean booleanProperty(String pool, String name) {
+        Boolean value = environment.getProperty(POOL_PREFIX + pool + '.' + name, Boolean.class);
+        return value != null ? value : environment.getProperty(DEFAULT_PREFIX + name, Boolean.class, false);
+    }
+
+    @Override
+    public void destroy() {
+        Flux.fromIterable(clients.values())
+                .flatMap(pooled -> pooled.provider().disposeLater())
+                .blockLast(Duration.ofSeconds(5));
+        clients.clear();
+    }
+
+    /**
+     * Límites de un pool.
+     */
+    record PoolSettings(int maxConnections, int pendingAcquireMaxCount, Duration pendingAcquireTimeout,
+                        Duration maxIdleTime, Duration maxLifeTime, Duration evictInBackground, boolean h2c) {
+    }
+
+    private record PooledClient(ConnectionProvider provider, HttpClient client) {
+    }
+
+    /**
+     * Reutiliza la construcción del cliente de Spring Cloud Gateway sustituyendo solo el pool.
+     */
+    private static class PoolHttpClientFactory extends HttpClientFactory {
+
+        private final ConnectionProvider provider;
+
+        PoolHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                              HttpClientSslConfigurer sslConfigurer, List<HttpClientCustomizer> customizers,
+                              ConnectionProvider provider) {
+            super(properties, serverProperties, sslConfigurer, customizers);
+            this.provider = provider;
+        }
+
+        @Override
+        protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+            return provider;
+        }
+
+        HttpClient create() {
+            return createInstance();
+        }
+    }
+}
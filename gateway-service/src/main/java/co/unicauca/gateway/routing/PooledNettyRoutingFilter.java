@@ -0,0 +1,59 @@
+package co.unicauca.gateway.routing;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+
+/**
+ * NettyRoutingFilter que envía cada ruta por su propio pool de conexiones.
+ *
+ * Mismo comportamiento que el filtro estándar (headers, timeouts por ruta,
+ * escritura de la respuesta), pero el cliente HTTP se obtiene de
+ * {@link BackendConnectionPools} según la ruta en lugar del cliente compartido.
+ *
+ * Se ejecuta justo antes del NettyRoutingFilter estándar, que al encontrar la
+ * petición ya enrutada no hace nada; además se desactiva con
+ * spring.cloud.gateway.server.webflux.global-filter.netty-routing.enabled=false.
+ *
+ * @author Gateway Team
+ */
+@Component
+public class PooledNettyRoutingFilter extends NettyRoutingFilter {
+
+    public static final int ORDER = NettyRoutingFilter.ORDER - 1;
+
+    private final BackendConnectionPools pools;
+
+    public PooledNettyRoutingFilter(HttpClient httpClient,
+                                    ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                    HttpClientProperties properties,
+                                    BackendConnectionPools pools) {
+        super(httpClient, headersFilters, properties);
+        this.pools = pools;
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        HttpClient client = pools.clientFor(route);
+        Object connectTimeout = route.getMetadata().get(CONNECT_TIMEOUT_ATTR);
+        if (connectTimeout != null) {
+            client = client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.valueOf(connectTimeout.toString()));
+        }
+        return client;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
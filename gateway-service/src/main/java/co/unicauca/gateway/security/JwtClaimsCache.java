@@ -0,0 +1,176 @@
+package co.unicauca.gateway.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache acotada de claims JWT ya verificados.
+ *
+ * Evita repetir la verificación HMAC cuando llegan ráfagas de peticiones con el
+ * mismo bearer token (por ejemplo, en periodos de carga de documentos):
+ * - La clave es el SHA-256 del token (el token completo no se retiene en memoria)
+ * - Cada entrada vive hasta el "exp" del token, acotado por maxTtlSeconds
+ * - Solo se cachean tokens válidos; los inválidos siempre se re-verifican
+ * - El tamaño está limitado por maxSize; al llenarse se purgan expiradas y luego
+ *   entradas arbitrarias
+ *
+ * Métricas expuestas en /actuator/metrics:
+ * - gateway.jwt.cache.requests (tag result=hit|miss)
+ * - gateway.jwt.cache.evictions
+ * - gateway.jwt.cache.size
+ *
+ * @author Gateway Team
+ */
+@Component
+public class JwtClaimsCache {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtClaimsCache.class);
+
+    private final JwtUtils jwtUtils;
+    private final int maxSize;
+    private final long maxTtlMillis;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public JwtClaimsCache(
+            JwtUtils jwtUtils,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.security.jwt-cache.max-size:10000}") int maxSize,
+            @Value("${gateway.security.jwt-cache.max-ttl-seconds:300}") long maxTtlSeconds) {
+        this.jwtUtils = jwtUtils;
+        this.maxSize = maxSize;
+        this.maxTtlMillis = maxTtlSeconds * 1000;
+
+        this.hits = Counter.builder("gateway.jwt.cache.requests")
+                .description("Consultas a la cache de claims JWT")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("gateway.jwt.cache.requests")
+                .description("Consultas a la cache de claims JWT")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("gateway.jwt.cache.evictions")
+                .description("Entradas expulsadas de la cache de claims JWT")
+                .register(meterRegistry);
+        Gauge.builder("gateway.jwt.cache.size", entries, Map::size)
+                .description("Tokens verificados actualmente en cache")
+                .register(meterRegistry);
+
+        log.info("JwtClaimsCache inicializada: maxSize={}, maxTtl={}s", maxSize, maxTtlSeconds);
+    }
+
+    /**
+     * Devuelve los claims de un token, verificándolo solo si no está en cache.
+     *
+     * @param token El token JWT (sin el prefijo "Bearer ")
+     * @return Map inmutable con los claims, o Map vacío si el token es inválido o expiró
+     */
+    public Map<String, String> getClaims(String token) {
+        String key = digest(token);
+        long now = System.currentTimeMillis();
+
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (entry.expiresAtMillis > now) {
+                hits.increment();
+                return entry.claims;
+            }
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+        }
+
+        misses.increment();
+        JwtUtils.VerifiedToken verified = jwtUtils.verify(token);
+        if (verified == null || verified.claims().isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, String> claims = Collections.unmodifiableMap(verified.claims());
+        long expiresAt = now + maxTtlMillis;
+        if (verified.expiresAtMillis() != null) {
+            expiresAt = Math.min(expiresAt, verified.expiresAtMillis());
+        }
+
+        if (expiresAt > now) {
+            makeRoom(now);
+            entries.put(key, new Entry(claims, expiresAt));
+        }
+        return claims;
+    }
+
+    /**
+     * Número de tokens actualmente en cache.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Elimina todas las entradas (por ejemplo, tras rotar el secret).
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Libera espacio cuando la cache alcanzó su tamaño máximo.
+     *
+     * Primero descarta entradas expiradas; si no es suficiente, expulsa entradas
+     * arbitrarias hasta quedar por debajo del límite.
+     */
+    private void makeRoom(long now) {
+        if (entries.size() < maxSize) {
+            return;
+        }
+
+        entries.entrySet().removeIf(e -> {
+            boolean expired = e.getValue().expiresAtMillis <= now;
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+
+        Iterator<String> it = entries.keySet().iterator();
+        while (entries.size() >= maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Calcula el SHA-256 del token en Base64 (clave de la cache).
+     */
+    private static String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 es obligatorio en toda JVM
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private record Entry(Map<String, String> claims, long expiresAtMillis) {
+    }
+}
@@ -2,7 +2,6 @@ package co.unicauca.gateway.security;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.core.io.buffer.DataBuffer;
@@ -16,8 +15,6 @@ import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -26,11 +23,12 @@ import java.util.Map;
  * Responsabilidades:
  * 1. Verificar la presencia del header Authorization
  * 2. Validar el token JWT (firma y expiración)
- * 3. Extraer claims del token
+ * 3. Extraer claims del token (cacheados por JwtClaimsCache hasta su expiración)
  * 4. Añadir headers X-User-* a la petición reenviada
  * 5. Rechazar peticiones con token inválido (401 Unauthorized)
  *
- * Este filtro NO se aplica a rutas públicas definidas en application.yml.
+ * Este filtro NO se aplica a rutas públicas definidas en application.yml
+ * (gateway.security.publicPaths, resueltas por RouteAuthorizationTable).
  *
  * Headers añadidos a la petición proxy:
  * - X-User-Id: identificador del usuario
@@ -44,20 +42,20 @@ public class JwtGatewayFilter extends AbstractGatewayFilterFactory<JwtGatewayFil
 
     private static final Logger log = LoggerFactory.getLogger(JwtGatewayFilter.class);
 
-    private final List<String> publicPaths;
     private final JwtUtils jwtUtils;
+    private final JwtClaimsCache claimsCache;
+    private final RouteAuthorizationTable authorizationTable;
 
     public JwtGatewayFilter(
             JwtUtils jwtUtils,
-            @Value("${gateway.security.publicPaths:}") List<String> publicPaths) {
+            JwtClaimsCache claimsCache,
+            RouteAuthorizationTable authorizationTable) {
         super(Config.class);
         this.jwtUtils = jwtUtils;
-        this.publicPaths = publicPaths != null ? publicPaths : new ArrayList<>();
+        this.claimsCache = claimsCache;
+        this.authorizationTable = authorizationTable;
 
-        log.info("JwtGatewayFilter inicializado con {} rutas públicas", this.publicPaths.size());
-        if (!this.publicPaths.isEmpty()) {
-            log.debug("Rutas públicas configuradas: {}", this.publicPaths);
-        }
+        log.info("JwtGatewayFilter inicializado con {} rutas públicas", authorizationTable.publicPathCount());
     }
 
     @Override
@@ -67,7 +65,7 @@ public class JwtGatewayFilter extends AbstractGatewayFilterFactory<JwtGatewayFil
             String path = request.getURI().getPath();
 
             // Verificar si la ruta es pública (no requiere JWT)
-            if (isPublicPath(path)) {
+            if (authorizationTable.isPublic(path)) {
                 log.debug("Ruta pública detectada: {}", path);
                 return chain.filter(exchange);
             }
@@ -88,18 +86,12 @@ public class JwtGatewayFilter extends AbstractGatewayFilterFactory<JwtGatewayFil
                 return unauthorizedResponse(exchange, "Invalid token format");
             }
 
-            // Validar token
-            if (!jwtUtils.validateToken(token)) {
-                log.warn("Token JWT inválido o expirado para ruta: {}", path);
-                return unauthorizedResponse(exchange, "Token invalid or expired");
-            }
-
-            // Extraer claims del token
-            Map<String, String> claims = jwtUtils.extractClaims(token);
+            // Validar token y extraer claims (una sola verificación de firma, cacheada hasta "exp")
+            Map<String, String> claims = claimsCache.getClaims(token);
 
             if (claims.isEmpty()) {
-                log.error("No se pudieron extraer claims del token");
-                return unauthorizedResponse(exchange, "Invalid token claims");
+                log.warn("Token JWT inválido o expirado para ruta: {}", path);
+                return unauthorizedResponse(exchange, "Token invalid or expired");
             }
 
             // Crear nueva petición con headers X-User-*
@@ -117,35 +109,6 @@ public class JwtGatewayFilter extends AbstractGatewayFilterFactory<JwtGatewayFil
         };
     }
 
-    /**
-     * Verifica si una ruta es pública (no requiere autenticación).
-     *
-     * Usa pattern matching con wildcards:
-     * - /api/identity/** permite /api/identity/login, /api/identity/register, etc.
-     */
-    private boolean isPublicPath(String path) {
-        if (publicPaths.isEmpty()) {
-            log.warn("No hay rutas públicas configuradas. Todas las rutas requerirán autenticación.");
-            return false;
-        }
-
-        for (String publicPath : publicPaths) {
-            String pattern = publicPath.trim();
-
-            // Convertir pattern con ** a regex
-            if (pattern.endsWith("/**")) {
-                String prefix = pattern.substring(0, pattern.length() - 3);
-                if (path.startsWith(prefix)) {
-                    return true;
-                }
-            } else if (pattern.equals(path)) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
     /**
      * Genera una respuesta 401 Unauthorized con cuerpo JSON.
      *
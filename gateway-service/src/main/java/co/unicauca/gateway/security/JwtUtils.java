@@ -38,6 +38,9 @@ public class JwtUtils {
     @Value("${jwt.secret}")
     private String jwtSecret;
 
+    // Clave y parser derivados del secret; se construyen una sola vez (inmutables y thread-safe)
+    private volatile JwtParser parser;
+
     /**
      * Obtiene la clave de firma para JWT
      *
@@ -48,6 +51,23 @@ public class JwtUtils {
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
+    /**
+     * Obtiene el parser JWT configurado con la clave de firma.
+     *
+     * Se inicializa de forma perezosa porque el secret se inyecta por campo
+     * después de la construcción del bean.
+     */
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build();
+            parser = current;
+        }
+        return current;
+    }
+
     /**
      * Valida un token JWT verificando firma y expiración.
      *
@@ -56,10 +76,7 @@ public class JwtUtils {
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
+            getParser().parseSignedClaims(token);
 
             log.debug("Token validado correctamente");
             return true;
@@ -94,46 +111,71 @@ public class JwtUtils {
      * @return Map con los claims extraídos, o Map vacío si el token es inválido
      */
     public Map<String, String> extractClaims(String token) {
-        Map<String, String> claims = new HashMap<>();
-
         try {
-            Claims jwtClaims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-
-            // Subject (email del usuario)
-            String email = jwtClaims.getSubject();
-            if (email != null) {
-                claims.put("email", email);
-            }
-
-            // Claim personalizado: userId
-            Object userIdObj = jwtClaims.get("userId");
-            if (userIdObj != null) {
-                claims.put("userId", String.valueOf(userIdObj));
-            }
-
-            // Claim personalizado: rol (SIN 'e' - importante!)
-            Object rolObj = jwtClaims.get("rol");
-            if (rolObj != null) {
-                claims.put("role", String.valueOf(rolObj)); // Guardamos como "role" para compatibilidad interna
-            }
-
-            // Claim personalizado: programa
-            Object programaObj = jwtClaims.get("programa");
-            if (programaObj != null) {
-                claims.put("programa", String.valueOf(programaObj));
-            }
-
-            log.debug("Claims extraídos del token: userId={}, rol={}",
-                    claims.get("userId"), claims.get("role"));
-
+            return toClaimsMap(getParser().parseSignedClaims(token).getPayload());
         } catch (JwtException e) {
             log.error("Error al extraer claims del token: {}", e.getMessage());
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * Valida el token y extrae sus claims con un único parseo de la firma.
+     *
+     * Equivale a {@link #validateToken(String)} seguido de {@link #extractClaims(String)},
+     * pero verificando la firma HMAC una sola vez. Incluye además la expiración del
+     * token para que el llamador pueda cachear el resultado hasta ese instante.
+     *
+     * @param token El token JWT
+     * @return Los claims verificados, o null si el token es inválido o expiró
+     */
+    public VerifiedToken verify(String token) {
+        try {
+            Claims jwtClaims = getParser().parseSignedClaims(token).getPayload();
+            Date expiration = jwtClaims.getExpiration();
+
+            return new VerifiedToken(
+                    toClaimsMap(jwtClaims),
+                    expiration != null ? expiration.getTime() : null);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("Token JWT rechazado: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Convierte los claims del JWT al mapa usado internamente por el gateway.
+     */
+    private Map<String, String> toClaimsMap(Claims jwtClaims) {
+        Map<String, String> claims = new HashMap<>();
+
+        // Subject (email del usuario)
+        String email = jwtClaims.getSubject();
+        if (email != null) {
+            claims.put("email", email);
+        }
+
+        // Claim personalizado: userId
+        Object userIdObj = jwtClaims.get("userId");
+        if (userIdObj != null) {
+            claims.put("userId", String.valueOf(userIdObj));
         }
 
+        // Claim personalizado: rol (SIN 'e' - importante!)
+        Object rolObj = jwtClaims.get("rol");
+        if (rolObj != null) {
+            claims.put("role", String.valueOf(rolObj)); // Guardamos como "role" para compatibilidad interna
+        }
+
+        // Claim personalizado: programa
+        Object programaObj = jwtClaims.get("programa");
+        if (programaObj != null) {
+            claims.put("programa", String.valueOf(programaObj));
+        }
+
+        log.debug("Claims extraídos del token: userId={}, rol={}",
+                claims.get("userId"), claims.get("role"));
+
         return claims;
     }
 
@@ -186,4 +228,13 @@ public class JwtUtils {
         Map<String, String> claims = extractClaims(token);
         return claims.get("email");
     }
-}
\ No newline at end of file
+
+    /**
+     * Resultado de una verificación exitosa de token.
+     *
+     * @param claims Claims extraídos (userId, role, email, programa)
+     * @param expiresAtMillis Expiración del token en epoch millis, o null si no declara "exp"
+     */
+    public record VerifiedToken(Map<String, String> claims, Long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,147 @@
+package co.unicauca.gateway.security;
+
+import java.util.Arrays;
+
+/**
+ * Árbol de prefijos (trie) de segmentos de path para resolver reglas por ruta.
+ *
+ * Patrones soportados:
+ * - Segmentos literales: /api/submissions/formatoA
+ * - "*" coincide con exactamente un segmento: /api/submissions/formatoA/*
+ * - "**" al final coincide con cero o más segmentos: /swagger-ui/**
+ *
+ * Precedencia al resolver: segmento literal, luego "*", y como último recurso
+ * el "**" más profundo encontrado en el recorrido. Los segmentos vacíos
+ * (barras duplicadas o finales) se ignoran.
+ *
+ * La búsqueda es O(número de segmentos) y no reserva memoria: compara los
+ * segmentos directamente sobre el String del path con regionMatches, sin
+ * substring ni split. El trie es inmutable una vez construido.
+ *
+ * @param <T> Tipo del valor asociado a cada patrón
+ * @author Gateway Team
+ */
+public final class PathTrie<T> {
+
+    private final Node<T> root = new Node<>();
+
+    /**
+     * Registra un patrón con su valor asociado.
+     *
+     * Solo debe invocarse durante la construcción; el trie no es thread-safe
+     * para escrituras concurrentes con lecturas.
+     *
+     * @return El valor previamente asociado al mismo patrón, o null
+     */
+    public T put(String pattern, T value) {
+        Node<T> node = root;
+
+        for (String segment : pattern.trim().split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if ("**".equals(segment)) {
+                if (node.doubleWildcard == null) {
+                    node.doubleWildcard = new Node<>();
+                }
+                node = node.doubleWildcard;
+                // "**" siempre termina el patrón
+                break;
+            }
+            node = "*".equals(segment) ? node.wildcardChild() : node.literalChild(segment);
+        }
+
+        T previous = node.value;
+        node.value = value;
+        return previous;
+    }
+
+    /**
+     * Busca el valor del patrón que mejor coincide con el path.
+     *
+     * @param path Path de la petición (sin query string)
+     * @return El valor asociado, o null si ningún patrón coincide
+     */
+    public T match(String path) {
+        Node<T> node = root;
+        T fallback = valueOf(root.doubleWildcard);
+
+        int length = path.length();
+        int start = 0;
+
+        while (start < length) {
+            // Saltar barras (segmentos vacíos)
+            if (path.charAt(start) == '/') {
+                start++;
+                continue;
+            }
+
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+
+            Node<T> next = node.findLiteral(path, start, end - start);
+            if (next == null) {
+                next = node.wildcard;
+            }
+            if (next == null) {
+                return fallback;
+            }
+
+            node = next;
+            T deeper = valueOf(node.doubleWildcard);
+            if (deeper != null) {
+                fallback = deeper;
+            }
+            start = end;
+        }
+
+        return node.value != null ? node.value : fallback;
+    }
+
+    private static <T> T valueOf(Node<T> node) {
+        return node != null ? node.value : null;
+    }
+
+    private static final class Node<T> {
+
+        @SuppressWarnings("unchecked")
+        private Node<T>[] children = new Node[0];
+        private String[] segments = new String[0];
+        private Node<T> wildcard;
+        private Node<T> doubleWildcard;
+        private T value;
+
+        private Node<T> literalChild(String segment) {
+            for (int i = 0; i < segments.length; i++) {
+                if (segments[i].equals(segment)) {
+                    return children[i];
+                }
+            }
+
+            segments = Arrays.copyOf(segments, segments.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            segments[segments.length - 1] = segment;
+            children[children.length - 1] = new Node<>();
+            return children[children.length - 1];
+        }
+
+        private Node<T> wildcardChild() {
+            if (wildcard == null) {
+                wildcard = new Node<>();
+            }
+            return wildcard;
+        }
+
+        private Node<T> findLiteral(String path, int offset, int length) {
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.length() == length && path.regionMatches(offset, segment, 0, length)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -15,9 +15,7 @@ import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Filtro opcional para autorización basada en roles a nivel de gateway.
@@ -33,7 +31,8 @@ import java.util.Map;
  * - Bloquear acceso a /api/submission/formatoA si el rol no es DOCENTE
  * - Bloquear acceso a endpoints administrativos si no es COORDINADOR
  *
- * Los requisitos de rol por endpoint se configuran en el mapa roleRequirements.
+ * Los requisitos de rol por endpoint y método se configuran en
+ * gateway.security.roleRules y se resuelven mediante RouteAuthorizationTable.
  *
  * @author Gateway Team
  */
@@ -45,22 +44,11 @@ public class RoleFilter extends AbstractGatewayFilterFactory<RoleFilter.Config>
     @Value("${gateway.security.enforceRoleCheck:false}")
     private boolean enforceRoleCheck;
 
-    // Mapa de endpoints y roles requeridos
-    // Formato: path -> lista de roles permitidos
-    private static final Map<String, List<String>> roleRequirements = new HashMap<>();
+    private final RouteAuthorizationTable authorizationTable;
 
-    static {
-        // Definir requisitos de rol para endpoints específicos
-        roleRequirements.put("/api/submission/formatoA", List.of("DOCENTE"));
-        roleRequirements.put("/api/submission/anteproyecto", List.of("ESTUDIANTE", "DOCENTE"));
-
-        // Ejemplos adicionales (ajustar según necesidades del sistema)
-        // roleRequirements.put("/api/submission/aprobar", List.of("COORDINADOR", "JEFE_DEPARTAMENTO"));
-        // roleRequirements.put("/api/notification/broadcast", List.of("COORDINADOR"));
-    }
-
-    public RoleFilter() {
+    public RoleFilter(RouteAuthorizationTable authorizationTable) {
         super(Config.class);
+        this.authorizationTable = authorizationTable;
     }
 
     @Override
@@ -76,7 +64,7 @@ public class RoleFilter extends AbstractGatewayFilterFactory<RoleFilter.Config>
             String path = request.getURI().getPath();
 
             // Verificar si este endpoint tiene requisitos de rol
-            List<String> requiredRoles = getRequiredRoles(path);
+            List<String> requiredRoles = authorizationTable.requiredRoles(request.getMethod(), path);
 
             if (requiredRoles == null || requiredRoles.isEmpty()) {
                 log.debug("No hay requisitos de rol para: {}", path);
@@ -104,33 +92,6 @@ public class RoleFilter extends AbstractGatewayFilterFactory<RoleFilter.Config>
         };
     }
 
-    /**
-     * Obtiene los roles requeridos para un path específico.
-     *
-     * Soporta matching exacto y con wildcards.
-     */
-    private List<String> getRequiredRoles(String path) {
-        // Primero intentar match exacto
-        if (roleRequirements.containsKey(path)) {
-            return roleRequirements.get(path);
-        }
-
-        // Intentar match con prefijos (para paths dinámicos)
-        for (Map.Entry<String, List<String>> entry : roleRequirements.entrySet()) {
-            String pattern = entry.getKey();
-
-            // Soportar wildcards al final: /api/submission/*
-            if (pattern.endsWith("/*") || pattern.endsWith("/**")) {
-                String prefix = pattern.substring(0, pattern.lastIndexOf('/'));
-                if (path.startsWith(prefix)) {
-                    return entry.getValue();
-                }
-            }
-        }
-
-        return null;
-    }
-
     /**
      * Genera una respuesta 403 Forbidden con cuerpo JSON.
      */
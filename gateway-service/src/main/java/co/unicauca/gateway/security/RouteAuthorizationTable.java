@@ -0,0 +1,211 @@
+package co.unicauca.gateway.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tabla de autorización por ruta compilada a partir de la configuración.
+ *
+ * Reúne en una sola estructura lo que antes eran recorridos lineales en cada
+ * petición (lista de rutas públicas en JwtGatewayFilter y mapa estático de roles
+ * en RoleFilter). Se compila al arrancar en dos {@link PathTrie}:
+ * - Rutas públicas: gateway.security.publicPaths
+ * - Roles requeridos por ruta y método: gateway.security.roleRules
+ *
+ * Ejemplo de configuración:
+ * <pre>
+ * gateway:
+ *   security:
+ *     publicPaths:
+ *       - /api/auth/login
+ *       - /swagger-ui/**
+ *     roleRules:
+ *       - path: /api/submissions/formatoA
+ *         methods: [POST]          # vacío = todos los métodos
+ *         roles: [DOCENTE]
+ * </pre>
+ *
+ * La tabla se recompila en caliente cuando Spring Cloud publica un
+ * EnvironmentChangeEvent que afecta a gateway.security.* (por ejemplo, tras
+ * /actuator/refresh). El reemplazo es atómico: las peticiones en curso siguen
+ * usando la versión anterior.
+ *
+ * @author Gateway Team
+ */
+@Component
+public class RouteAuthorizationTable {
+
+    private static final Logger log = LoggerFactory.getLogger(RouteAuthorizationTable.class);
+
+    private static final String PREFIX = "gateway.security";
+
+    // Orden fijo de métodos HTTP usado para indexar los roles por método
+    private static final String[] METHODS = {"GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE"};
+
+    private final Environment environment;
+    private volatile Snapshot snapshot;
+
+    public RouteAuthorizationTable(Environment environment) {
+        this.environment = environment;
+        reload();
+    }
+
+    /**
+     * Indica si el path es público (no requiere JWT).
+     */
+    public boolean isPublic(String path) {
+        return snapshot.publicPaths.match(path) != null;
+    }
+
+    /**
+     * Obtiene los roles permitidos para un método y path.
+     *
+     * @return Lista inmutable de roles, o null si la ruta no tiene requisitos de rol
+     */
+    public List<String> requiredRoles(HttpMethod method, String path) {
+        MethodRoles rule = snapshot.roleRules.match(path);
+        return rule != null ? rule.forMethod(method) : null;
+    }
+
+    /**
+     * Número de rutas públicas configuradas.
+     */
+    public int publicPathCount() {
+        return snapshot.publicPathCount;
+    }
+
+    /**
+     * Recompila la tabla cuando cambian propiedades gateway.security.*.
+     */
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        boolean affected = event.getKeys().stream().anyMatch(key -> key.startsWith(PREFIX));
+        if (affected) {
+            log.info("Cambios en {}.* detectados, recompilando tabla de autorización", PREFIX);
+            reload();
+        }
+    }
+
+    /**
+     * Lee la configuración actual del Environment y recompila la tabla.
+     */
+    public void reload() {
+        Binder binder = Binder.get(environment);
+
+        List<String> publicPaths = binder.bind(PREFIX + ".public-paths", Bindable.listOf(String.class))
+                .orElse(Collections.emptyList());
+        List<RoleRule> roleRules = binder.bind(PREFIX + ".role-rules", Bindable.listOf(RoleRule.class))
+                .orElse(Collections.emptyList());
+
+        compile(publicPaths, roleRules);
+    }
+
+    /**
+     * Compila las reglas dadas y reemplaza atómicamente la tabla vigente.
+     */
+    public void compile(List<String> publicPaths, List<RoleRule> roleRules) {
+        PathTrie<Boolean> publicTrie = new PathTrie<>();
+        int publicCount = 0;
+        for (String publicPath : publicPaths) {
+            if (publicPath != null && !publicPath.isBlank()) {
+                publicTrie.put(publicPath, Boolean.TRUE);
+                publicCount++;
+            }
+        }
+
+        // Agrupar reglas del mismo patrón (p.ej. roles distintos para GET y POST)
+        Map<String, MethodRoles> byPattern = new LinkedHashMap<>();
+        for (RoleRule rule : roleRules) {
+            if (rule.path() == null || rule.path().isBlank() || rule.roles() == null || rule.roles().isEmpty()) {
+                log.warn("Regla de rol ignorada por incompleta: {}", rule);
+                continue;
+            }
+            byPattern.computeIfAbsent(rule.path().trim(), pattern -> new MethodRoles()).add(rule);
+        }
+
+        PathTrie<MethodRoles> roleTrie = new PathTrie<>();
+        byPattern.forEach(roleTrie::put);
+
+        this.snapshot = new Snapshot(publicTrie, roleTrie, publicCount);
+
+        log.info("Tabla de autorización compilada: {} rutas públicas, {} reglas de rol",
+                publicCount, roleRules.size());
+        if (publicCount == 0) {
+            log.warn("No hay rutas públicas configuradas. Todas las rutas requerirán autenticación.");
+        }
+    }
+
+    private static int methodIndex(String method) {
+        for (int i = 0; i < METHODS.length; i++) {
+            if (METHODS[i].equalsIgnoreCase(method)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Regla de rol tal como se declara en configuración.
+     *
+     * @param path    Patrón de path (admite "*" y "**")
+     * @param methods Métodos HTTP a los que aplica; vacío o null = todos
+     * @param roles   Roles permitidos
+     */
+    public record RoleRule(String path, List<String> methods, List<String> roles) {
+    }
+
+    /**
+     * Roles permitidos por método HTTP para un patrón concreto.
+     */
+    private static final class MethodRoles {
+
+        private final List<String>[] byMethod;
+        private List<String> anyMethod;
+
+        @SuppressWarnings("unchecked")
+        private MethodRoles() {
+            this.byMethod = new List[METHODS.length];
+        }
+
+        private void add(RoleRule rule) {
+            List<String> roles = List.copyOf(rule.roles());
+            if (rule.methods() == null || rule.methods().isEmpty()) {
+                anyMethod = roles;
+                return;
+            }
+            for (String method : rule.methods()) {
+                int index = methodIndex(method);
+                if (index < 0) {
+                    log.warn("Método HTTP desconocido '{}' en regla de rol para {}", method, rule.path());
+                    continue;
+                }
+                byMethod[index] = roles;
+            }
+        }
+
+        private List<String> forMethod(HttpMethod method) {
+            if (method != null) {
+                int index = methodIndex(method.name());
+                if (index >= 0 && byMethod[index] != null) {
+                    return byMethod[index];
+                }
+            }
+            return anyMethod;
+        }
+    }
+
+    private record Snapshot(PathTrie<Boolean> publicPaths, PathTrie<MethodRoles> roleRules, int publicPathCount) {
+    }
+}
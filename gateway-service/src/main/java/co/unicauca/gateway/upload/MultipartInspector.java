@@ -0,0 +1,260 @@
+package co.unicauca.gateway.upload;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Máquina de estados que inspecciona un cuerpo multipart/form-data en
+ * streaming, fragmento a fragmento, sin copiarlo ni agregarlo.
+ *
+ * Por cada fragmento recibido:
+ * - Suma los bytes totales y los compara con maxRequestBytes (413)
+ * - Localiza los delimitadores "--boundary" (KMP, tolerante a que un
+ *   delimitador quede partido entre dos fragmentos)
+ * - Lee los headers de cada parte; las partes con filename no vacío son
+ *   archivos y se comprueba que sus primeros bytes sean el magic number
+ *   "%PDF-" (415, si requirePdf) y que no superen maxPartBytes (413)
+ *
+ * Los campos de formulario (sin filename) solo cuentan para el total.
+ * Una instancia corresponde a un único cuerpo y no es thread-safe (los
+ * fragmentos de un cuerpo llegan en secuencia).
+ *
+ * @author Gateway Team
+ */
+public class MultipartInspector {
+
+    static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+    // Límite de los headers de una parte; más allá se ignoran
+    private static final int MAX_HEADER_BYTES = 8 * 1024;
+
+    private enum State { BODY, AFTER_DELIMITER, HEADERS, EPILOGUE }
+
+    private final byte[] delimiter;
+    private final int[] failure;
+    private final long maxRequestBytes;
+    private final long maxPartBytes;
+    private final boolean requirePdf;
+
+    private State state = State.BODY;
+    private long totalBytes;
+
+    // Búsqueda del delimitador
+    private int matched;
+
+    // Estado de la línea tras el delimitador ("--" final o CRLF)
+    private int afterDelimiterCount;
+    private boolean closingDelimiter;
+
+    // Headers de la parte actual
+    private final byte[] headers = new byte[MAX_HEADER_BYTES];
+    private int headerLength;
+    private int headerTerminator;
+
+    // Parte actual
+    private boolean filePart;
+    private long partBytes;
+    private final byte[] sniff = new byte[PDF_MAGIC.length];
+    private boolean sniffDecided;
+    private String fileName;
+    private int fileParts;
+
+    public MultipartInspector(String boundary, long maxRequestBytes, long maxPartBytes, boolean requirePdf) {
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.US_ASCII);
+        this.failure = failureFunction(delimiter);
+        this.maxRequestBytes = maxRequestBytes;
+        this.maxPartBytes = maxPartBytes;
+        this.requirePdf = requirePdf;
+        // El primer delimitador puede no ir precedido de CRLF
+        this.matched = 2;
+    }
+
+    /**
+     * Inspecciona el siguiente fragmento del cuerpo (sin modificar su posición).
+     *
+     * @throws UploadRejectedException si se excede un límite o un archivo no es PDF
+     */
+    public void inspect(ByteBuffer chunk) {
+        int start = chunk.position();
+        int end = chunk.limit();
+
+        totalBytes += end - start;
+        if (totalBytes > maxRequestBytes) {
+            throw UploadRejectedException.tooLarge(
+                    "Request body exceeds the maximum allowed size of " + maxRequestBytes + " bytes");
+        }
+
+        for (int i = start; i < end && state != State.EPILOGUE; i++) {
+            byte b = chunk.get(i);
+            switch (state) {
+                case BODY -> onBodyByte(b);
+                case AFTER_DELIMITER -> onAfterDelimiterByte(b);
+                case HEADERS -> onHeaderByte(b);
+                default -> {
+                    // EPILOGUE: el resto se ignora
+                }
+            }
+        }
+    }
+
+    /**
+     * Bytes vistos hasta ahora.
+     */
+    public long totalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Partes de archivo encontradas hasta ahora.
+     */
+    public int filePartCount() {
+        return fileParts;
+    }
+
+    private void onBodyByte(byte b) {
+        while (matched > 0 && delimiter[matched] != b) {
+            matched = failure[matched - 1];
+        }
+        if (delimiter[matched] == b) {
+            matched++;
+        }
+
+        if (filePart) {
+            partBytes++;
+            if (partBytes <= sniff.length) {
+                sniff[(int) partBytes - 1] = b;
+            }
+            // Los primeros bytes son cuerpo confirmado cuando no pueden ser inicio del delimitador
+            if (!sniffDecided && partBytes - matched >= sniff.length) {
+                decideSniff(sniff.length);
+            }
+            if (partBytes - matched > maxPartBytes) {
+                throw UploadRejectedException.tooLarge(
+                        "File '" + fileName + "' exceeds the maximum allowed size of " + maxPartBytes + " bytes");
+            }
+        }
+
+        if (matched == delimiter.length) {
+            endPart();
+            matched = 0;
+            afterDelimiterCount = 0;
+            closingDelimiter = false;
+            state = State.AFTER_DELIMITER;
+        }
+    }
+
+    private void endPart() {
+        if (filePart && !sniffDecided) {
+            long bodyLength = partBytes - delimiter.length;
+            // Un archivo vacío lo valida el backend; uno con contenido debe ser PDF
+            if (bodyLength > 0) {
+                decideSniff((int) Math.min(bodyLength, sniff.length));
+            }
+        }
+        filePart = false;
+    }
+
+    private void decideSniff(int available) {
+        sniffDecided = true;
+        if (available < PDF_MAGIC.length) {
+            throw notPdf();
+        }
+        for (int i = 0; i < PDF_MAGIC.length; i++) {
+            if (sniff[i] != PDF_MAGIC[i]) {
+                throw notPdf();
+            }
+        }
+    }
+
+    private UploadRejectedException notPdf() {
+        return UploadRejectedException.unsupportedType("File '" + fileName + "' is not a PDF document");
+    }
+
+    private void onAfterDelimiterByte(byte b) {
+        afterDelimiterCount++;
+        if (afterDelimiterCount <= 2 && b == '-') {
+            closingDelimiter = afterDelimiterCount == 2 || closingDelimiter;
+            if (closingDelimiter) {
+                state = State.EPILOGUE;
+            }
+            return;
+        }
+        if (b == '\n') {
+            headerLength = 0;
+            // El salto de línea del delimitador cuenta para detectar una parte sin headers
+            headerTerminator = 1;
+            state = State.HEADERS;
+        }
+    }
+
+    private void onHeaderByte(byte b) {
+        if (headerLength < headers.length) {
+            headers[headerLength++] = b;
+        }
+
+        // Fin de headers: línea vacía (CRLF CRLF; se acepta también LF LF)
+        if (b == '\n') {
+            headerTerminator++;
+        } else if (b != '\r') {
+            headerTerminator = 0;
+        }
+        if (headerTerminator == 2) {
+            startPart(new String(headers, 0, headerLength, StandardCharsets.UTF_8));
+        }
+    }
+
+    private void startPart(String rawHeaders) {
+        fileName = fileName(rawHeaders);
+        filePart = fileName != null && !fileName.isEmpty();
+        if (filePart) {
+            fileParts++;
+        }
+        partBytes = 0;
+        sniffDecided = !requirePdf;
+        matched = 0;
+        state = State.BODY;
+    }
+
+    /**
+     * Extrae el filename del header Content-Disposition de una parte.
+     *
+     * @return El nombre (posiblemente vacío), o null si la parte no es un archivo
+     */
+    static String fileName(String rawHeaders) {
+        for (String line : rawHeaders.split("\r?\n")) {
+            int colon = line.indexOf(':');
+            if (colon < 0 || !line.substring(0, colon).trim().equalsIgnoreCase("Content-Disposition")) {
+                continue;
+            }
+            String value = line.substring(colon + 1);
+            int index = value.toLowerCase(Locale.ROOT).indexOf("filename=");
+            if (index < 0) {
+                return null;
+            }
+            String name = value.substring(index + "filename=".length()).trim();
+            if (name.startsWith("\"")) {
+                int close = name.indexOf('"', 1);
+                return close > 0 ? name.substring(1, close) : name.substring(1);
+            }
+            int semicolon = name.indexOf(';');
+            return semicolon >= 0 ? name.substring(0, semicolon).trim() : name;
+        }
+        return null;
+    }
+
+    private static int[] failureFunction(byte[] pattern) {
+        int[] table = new int[pattern.length];
+        int k = 0;
+        for (int i = 1; i < pattern.length; i++) {
+            while (k > 0 && pattern[i] != pattern[k]) {
+                k = table[k - 1];
+            }
+            if (pattern[i] == pattern[k]) {
+                k++;
+            }
+            table[i] = k;
+        }
+        return table;
+    }
+}
@@ -0,0 +1,211 @@
+package co.unicauca.gateway.upload;
+
+import co.unicauca.gateway.security.PathTrie;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validación temprana de subidas multipart (Formato A, anteproyecto).
+ *
+ * Rechaza en el gateway las subidas que submission-service rechazaría de
+ * todas formas, sin que lleguen a ocupar ancho de banda ni hilos de Tomcat:
+ * - 413 si Content-Length supera maxRequestBytes (antes de leer el cuerpo)
+ * - 413 si los bytes recibidos superan maxRequestBytes (cuerpos chunked) o
+ *   un archivo supera maxFileBytes
+ * - 415 si un archivo no empieza con el magic number "%PDF-"
+ *
+ * El cuerpo no se agrega: cada fragmento pasa por MultipartInspector y se
+ * reenvía al backend tal cual. Si el problema se detecta a mitad del envío,
+ * la petición al backend se aborta con UploadRejectedException.
+ *
+ * En rutas con circuit breaker, el fallback recibe la excepción (ver
+ * HealthController) y responde con el mismo 413/415; el circuit breaker
+ * de submissionService la ignora para no contarla como fallo del backend.
+ *
+ * Métricas: gateway.upload.rejections (tag reason=too_large|unsupported_type)
+ *
+ * @author Gateway Team
+ */
+@Component
+public class MultipartUploadFilter extends AbstractGatewayFilterFactory<MultipartUploadFilter.Config> {
+
+    private static final Logger log = LoggerFactory.getLogger(MultipartUploadFilter.class);
+
+    private final Counter tooLarge;
+    private final Counter unsupportedType;
+
+    public MultipartUploadFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.tooLarge = rejectionCounter(meterRegistry, "too_large");
+        this.unsupportedType = rejectionCounter(meterRegistry, "unsupported_type");
+    }
+
+    private static Counter rejectionCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("gateway.upload.rejections")
+                .description("Subidas multipart rechazadas en el gateway")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        PathTrie<Boolean> uploadPaths = new PathTrie<>();
+        config.getPaths().forEach(pattern -> uploadPaths.put(pattern, Boolean.TRUE));
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            HttpMethod method = request.getMethod();
+
+            if (!(HttpMethod.POST.equals(method) || HttpMethod.PUT.equals(method))
+                    || uploadPaths.match(request.getURI().getPath()) == null) {
+                return chain.filter(exchange);
+            }
+
+            MediaType contentType = request.getHeaders().getContentType();
+            if (contentType == null || !MediaType.MULTIPART_FORM_DATA.isCompatibleWith(contentType)) {
+                return chain.filter(exchange);
+            }
+
+            long contentLength = request.getHeaders().getContentLength();
+            if (contentLength > config.getMaxRequestBytes()) {
+                return reject(exchange, UploadRejectedException.tooLarge(
+                        "Request body exceeds the maximum allowed size of " + config.getMaxRequestBytes() + " bytes"));
+            }
+
+            String boundary = boundary(contentType);
+            if (boundary == null) {
+                // Multipart mal formado: lo resuelve el backend
+                return chain.filter(exchange);
+            }
+
+            MultipartInspector inspector = new MultipartInspector(
+                    boundary, config.getMaxRequestBytes(), config.getMaxFileBytes(), config.isRequirePdf());
+            ServerHttpRequest inspected = new ServerHttpRequestDecorator(request) {
+                @Override
+                public Flux<DataBuffer> getBody() {
+                    return super.getBody().map(buffer -> inspect(inspector, buffer));
+                }
+            };
+
+            return chain.filter(exchange.mutate().request(inspected).build())
+                    .onErrorResume(
+                            error -> UploadRejectedException.find(error) != null
+                                    && !exchange.getResponse().isCommitted(),
+                            error -> reject(exchange, UploadRejectedException.find(error)));
+        };
+    }
+
+    private static DataBuffer inspect(MultipartInspector inspector, DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+            while (chunks.hasNext()) {
+                ByteBuffer chunk = chunks.next();
+                inspector.inspect(chunk);
+            }
+        } catch (UploadRejectedException e) {
+            DataBufferUtils.release(buffer);
+            throw e;
+        }
+        return buffer;
+    }
+
+    private static String boundary(MediaType contentType) {
+        String boundary = contentType.getParameter("boundary");
+        if (boundary == null || boundary.isEmpty()) {
+            return null;
+        }
+        if (boundary.length() > 1 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+            boundary = boundary.substring(1, boundary.length() - 1);
+        }
+        return boundary;
+    }
+
+    /**
+     * Genera la respuesta 413/415 con cuerpo JSON y contabiliza el rechazo.
+     */
+    private Mono<Void> reject(ServerWebExchange exchange, UploadRejectedException rejection) {
+        HttpStatus status = HttpStatus.valueOf(rejection.getStatusCode().value());
+        (status == HttpStatus.PAYLOAD_TOO_LARGE ? tooLarge : unsupportedType).increment();
+        log.warn("Subida rechazada en el gateway ({}): {} | path={}",
+                status.value(), rejection.getReason(), exchange.getRequest().getURI().getPath());
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        String jsonResponse = String.format(
+                "{\"error\":\"%s\",\"message\":\"%s\"}",
+                status.getReasonPhrase(),
+                rejection.getReason().replace("\"", "'")
+        );
+
+        DataBuffer buffer = response.bufferFactory()
+                .wrap(jsonResponse.getBytes(StandardCharsets.UTF_8));
+
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    /**
+     * Configuración por ruta.
+     */
+    public static class Config {
+        // Patrones de path de subida (POST/PUT multipart)
+        private List<String> paths = new ArrayList<>();
+        // Equivalentes a spring.servlet.multipart.max-request-size / max-file-size de submission-service
+        private long maxRequestBytes = 20L * 1024 * 1024;
+        private long maxFileBytes = 15L * 1024 * 1024;
+        private boolean requirePdf = true;
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public long getMaxRequestBytes() {
+            return maxRequestBytes;
+        }
+
+        public void setMaxRequestBytes(long maxRequestBytes) {
+            this.maxRequestBytes = maxRequestBytes;
+        }
+
+        public long getMaxFileBytes() {
+            return maxFileBytes;
+        }
+
+        public void setMaxFileBytes(long maxFileBytes) {
+            this.maxFileBytes = maxFileBytes;
+        }
+
+        public boolean isRequirePdf() {
+            return requirePdf;
+        }
+
+        public void setRequirePdf(boolean requirePdf) {
+            this.requirePdf = requirePdf;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package co.unicauca.gateway.upload;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Subida rechazada por el gateway (413 tamaño excedido, 415 tipo no permitido).
+ *
+ * Se lanza como señal de error del cuerpo de la petición mientras se reenvía
+ * al backend, por lo que puede llegar envuelta en otras excepciones; usar
+ * {@link #find(Throwable)} para localizarla.
+ *
+ * @author Gateway Team
+ */
+public class UploadRejectedException extends ResponseStatusException {
+
+    public UploadRejectedException(HttpStatus status, String reason) {
+        super(status, reason);
+    }
+
+    public static UploadRejectedException tooLarge(String reason) {
+        return new UploadRejectedException(HttpStatus.PAYLOAD_TOO_LARGE, reason);
+    }
+
+    public static UploadRejectedException unsupportedType(String reason) {
+        return new UploadRejectedException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, reason);
+    }
+
+    /**
+     * Busca una UploadRejectedException en la cadena de causas.
+     *
+     * @return La excepción encontrada, o null
+     */
+    public static UploadRejectedException find(Throwable error) {
+        Throwable current = error;
+        for (int depth = 0; current != null && depth < 10; depth++) {
+            if (current instanceof UploadRejectedException rejected) {
+                return rejected;
+            }
+            current = current.getCause();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+-- Token bucket atómico para RedisRateLimitStore.
+-- KEYS[1]: hash del bucket (campos tokens, ts)
+-- ARGV[1]: tokens repuestos por segundo
+-- ARGV[2]: capacidad del bucket
+-- ARGV[3]: tokens solicitados
+-- Devuelve { allowed (0|1), tokens restantes (string) }.
+-- Se usa el reloj de Redis para que todas las réplicas compartan la misma referencia.
+
+local rate = tonumber(ARGV[1])
+local capacity = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(bucket[1])
+local ts = tonumber(bucket[2])
+if tokens == nil or ts == nil then
+  tokens = capacity
+  ts = now
+end
+
+tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000)
+
+local allowed = 0
+if tokens >= requested then
+  tokens = tokens - requested
+  allowed = 1
+end
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate * 1000) + 1000)
+
+return { allowed, tostring(tokens) }
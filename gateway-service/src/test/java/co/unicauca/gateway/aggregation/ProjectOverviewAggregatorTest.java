@@ -0,0 +1,179 @@
+package co.unicauca.gateway.aggregation;
+
+import co.unicauca.gateway.loadbalancer.ServiceInstanceRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ProjectOverviewAggregator.
+ *
+ * Verifica:
+ * - Que las secciones se consultan en paralelo y se combinan en un documento
+ * - Las respuestas parciales por timeout o error de una sección
+ * - Que cada sección se consulta con el tipo de id que espera su servicio
+ * - El reenvío de los headers de identidad
+ *
+ * @author Gateway Team
+ */
+class ProjectOverviewAggregatorTest {
+
+    private MockEnvironment environment;
+    private MeterRegistry meterRegistry;
+    private Map<String, Duration> delays;
+    private Map<String, HttpStatus> statuses;
+    private Map<String, ClientRequest> requests;
+    private Map<String, String> resources;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment()
+                .withProperty("services.submission.url", "http://submission:8082")
+                .withProperty("services.review.url", "http://review:8084")
+                .withProperty("services.progress.url", "http://tracking:8085");
+        meterRegistry = new SimpleMeterRegistry();
+        delays = new ConcurrentHashMap<>();
+        statuses = new ConcurrentHashMap<>();
+        requests = new ConcurrentHashMap<>();
+        // Recursos que existen en los servicios: el proyecto 12 tiene el anteproyecto 40
+        resources = new ConcurrentHashMap<>();
+        resources.put("/api/submissions/formatoA/proyecto/12", "");
+        resources.put("/api/submissions/anteproyecto/proyecto/12", "\"id\":40,");
+        resources.put("/review/asignaciones/anteproyecto/40", "");
+        resources.put("/api/progress/proyectos/12/historial", "");
+    }
+
+    private ProjectOverviewAggregator aggregator() {
+        ServiceInstanceRegistry registry = new ServiceInstanceRegistry(environment, meterRegistry, "", 5, 3, 10);
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    String host = request.url().getHost();
+                    String path = request.url().getPath();
+                    requests.put(host, request);
+                    // Un id de otro tipo no corresponde a ningún recurso del servicio: 404
+                    String fields = resources.get(path);
+                    HttpStatus status = statuses.getOrDefault(host, fields != null ? HttpStatus.OK : HttpStatus.NOT_FOUND);
+                    ClientResponse response = ClientResponse.create(status)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body("{" + (fields != null ? fields : "") + "\"host\":\"" + host
+                                    + "\",\"path\":\"" + path + "\"}")
+                            .build();
+                    return Mono.delay(delays.getOrDefault(host, Duration.ZERO)).thenReturn(response);
+                })
+                .build();
+        return new ProjectOverviewAggregator(registry, webClient, meterRegistry,
+                Duration.ofMillis(500), Duration.ofMillis(500), Duration.ofMillis(200));
+    }
+
+    private static HttpHeaders identity() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, "Bearer token");
+        headers.set("X-User-Id", "7");
+        headers.set("X-User-Role", "COORDINADOR");
+        return headers;
+    }
+
+    /**
+     * Test: las tres secciones se consultan en paralelo (latencia ≈ la más lenta,
+     * incluida la resolución del anteproyecto).
+     */
+    @Test
+    void testOverview_AllSections_MergedConcurrently() {
+        delays.put("submission", Duration.ofMillis(150));
+        delays.put("review", Duration.ofMillis(150));
+        delays.put("tracking", Duration.ofMillis(150));
+        ProjectOverviewAggregator aggregator = aggregator();
+
+        long start = System.nanoTime();
+        Map<String, Object> overview = aggregator.overview(12, identity()).block(Duration.ofSeconds(5));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertNotNull(overview);
+        assertEquals(12L, overview.get("projectId"));
+        assertEquals(Boolean.TRUE, overview.get("complete"));
+        assertTrue(((Map<?, ?>) overview.get("errors")).isEmpty());
+        assertEquals("/api/submissions/formatoA/proyecto/12", jsonField(overview, "formatoA", "path"));
+        assertEquals("/review/asignaciones/anteproyecto/40", jsonField(overview, "asignacion", "path"));
+        assertEquals("/api/progress/proyectos/12/historial", jsonField(overview, "historial", "path"));
+        // En secuencia serían 4 llamadas (600ms); en paralelo, la cadena más larga (300ms)
+        assertTrue(elapsedMs < 500, "Las secciones deberían ejecutarse en paralelo (" + elapsedMs + "ms)");
+    }
+
+    /**
+     * Test: sin anteproyecto la asignación queda como not_found sin consultar review-service.
+     */
+    @Test
+    void testOverview_ProjectWithoutAnteproyecto_AsignacionNotFound() {
+        resources.remove("/api/submissions/anteproyecto/proyecto/12");
+        ProjectOverviewAggregator aggregator = aggregator();
+
+        Map<String, Object> overview = aggregator.overview(12, identity()).block(Duration.ofSeconds(5));
+
+        assertNotNull(overview);
+        assertNotNull(overview.get("formatoA"));
+        assertNotNull(overview.get("historial"));
+        assertNull(overview.get("asignacion"));
+        assertEquals(Map.of("asignacion", "not_found"), overview.get("errors"));
+        assertFalse(requests.containsKey("review"));
+    }
+
+    /**
+     * Test: una sección lenta o con error no impide responder con las demás.
+     */
+    @Test
+    void testOverview_SlowAndMissingSections_PartialResponse() {
+        delays.put("tracking", Duration.ofSeconds(2));
+        statuses.put("review", HttpStatus.NOT_FOUND);
+        ProjectOverviewAggregator aggregator = aggregator();
+
+        Map<String, Object> overview = aggregator.overview(12, identity()).block(Duration.ofSeconds(5));
+
+        assertNotNull(overview);
+        assertEquals(Boolean.FALSE, overview.get("complete"));
+        assertNotNull(overview.get("formatoA"));
+        assertNull(overview.get("asignacion"));
+        assertNull(overview.get("historial"));
+        assertEquals(Map.of("asignacion", "not_found", "historial", "timeout"), overview.get("errors"));
+        assertTrue(aggregator.hasAnySection(overview));
+        assertEquals(1.0, meterRegistry.get("gateway.aggregation.sections")
+                .tag("section", "historial").tag("result", "timeout").counter().count());
+    }
+
+    /**
+     * Test: se reenvían los headers de identidad y un servicio sin instancias queda como unavailable.
+     */
+    @Test
+    void testOverview_ForwardsIdentityHeaders() {
+        environment = new MockEnvironment()
+                .withProperty("services.submission.url", "http://submission:8082");
+        ProjectOverviewAggregator aggregator = aggregator();
+
+        Map<String, Object> overview = aggregator.overview(12, identity()).block(Duration.ofSeconds(5));
+
+        ClientRequest request = requests.get("submission");
+        assertEquals("Bearer token", request.headers().getFirst(HttpHeaders.AUTHORIZATION));
+        assertEquals("7", request.headers().getFirst("X-User-Id"));
+        assertEquals("COORDINADOR", request.headers().getFirst("X-User-Role"));
+        assertEquals("unavailable", ((Map<?, ?>) overview.get("errors")).get("asignacion"));
+    }
+
+    private static String jsonField(Map<String, Object> overview, String section, String field) {
+        return ((JsonNode) overview.get(section)).get(field).asText();
+    }
+}
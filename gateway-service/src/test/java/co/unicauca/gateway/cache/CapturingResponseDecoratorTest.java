@@ -0,0 +1,124 @@
+package co.unicauca.gateway.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para CapturingResponseDecorator.
+ *
+ * Verifica:
+ * - Que un cuerpo dentro del límite se entrega completo al handler
+ * - Que un cuerpo que supera el límite pasa en streaming sin capturarse ni
+ *   acumularse en memoria
+ *
+ * @author Gateway Team
+ */
+class CapturingResponseDecoratorTest {
+
+    private static final int CHUNK_BYTES = 1024;
+
+    private AtomicReference<byte[]> captured;
+    private AtomicInteger notCaptured;
+    private CapturingResponseDecorator.Handler handler;
+
+    @BeforeEach
+    void setUp() {
+        captured = new AtomicReference<>();
+        notCaptured = new AtomicInteger();
+        handler = new CapturingResponseDecorator.Handler() {
+            @Override
+            public byte[] onCaptured(ServerHttpResponse response, byte[] body) {
+                captured.set(body);
+                return body;
+            }
+
+            @Override
+            public void onNotCaptured(ServerHttpResponse response) {
+                notCaptured.incrementAndGet();
+            }
+        };
+    }
+
+    private static DataBuffer chunk(int index) {
+        byte[] bytes = new byte[CHUNK_BYTES];
+        Arrays.fill(bytes, (byte) index);
+        return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+    }
+
+    /**
+     * Test: un cuerpo en varios fragmentos dentro del límite se captura completo.
+     */
+    @Test
+    void testWriteWith_BodyWithinLimit_Captured() {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        CapturingResponseDecorator decorated = new CapturingResponseDecorator(response, 4 * CHUNK_BYTES, handler);
+
+        decorated.writeWith(Flux.range(0, 3).map(CapturingResponseDecoratorTest::chunk)).block(Duration.ofSeconds(5));
+
+        assertEquals(0, notCaptured.get());
+        assertNotNull(captured.get());
+        assertEquals(3 * CHUNK_BYTES, captured.get().length);
+        assertEquals(3L * CHUNK_BYTES, response.getHeaders().getContentLength());
+        assertEquals(3 * CHUNK_BYTES, response.getBodyAsString()
+                .map(body -> body.getBytes(StandardCharsets.ISO_8859_1).length).block());
+    }
+
+    /**
+     * Test: un cuerpo muy grande que supera el límite se escribe en streaming,
+     * en orden y sin capturarse ni leerse por completo.
+     */
+    @Test
+    void testWriteWith_BodyOverLimit_StreamedWithoutCollecting() {
+        AtomicInteger produced = new AtomicInteger();
+        Flux<DataBuffer> large = Flux.<DataBuffer>generate(sink -> sink.next(chunk(produced.getAndIncrement())))
+                .take(10_000);
+
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        AtomicReference<List<Integer>> written = new AtomicReference<>();
+        // El cliente lee los primeros 10 fragmentos y corta
+        response.setWriteHandler(body -> body.take(10)
+                .map(buffer -> (int) buffer.getByte(buffer.readPosition()))
+                .collectList()
+                .doOnNext(written::set)
+                .then());
+        CapturingResponseDecorator decorated = new CapturingResponseDecorator(response, 4 * CHUNK_BYTES, handler);
+
+        decorated.writeWith(large).block(Duration.ofSeconds(5));
+
+        assertEquals(1, notCaptured.get());
+        assertNull(captured.get(), "Un cuerpo que supera el límite no debería capturarse");
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), written.get());
+        assertTrue(produced.get() < 100, "El cuerpo no debería leerse más allá de lo escrito (" + produced.get() + ")");
+    }
+
+    /**
+     * Test: un cuerpo vacío devuelto por el handler se escribe sin Content-Length.
+     */
+    @Test
+    void testWriteWith_HandlerReturnsEmptyBody_NoContent() {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        response.getHeaders().setContentLength(CHUNK_BYTES);
+        CapturingResponseDecorator decorated = new CapturingResponseDecorator(response, 4 * CHUNK_BYTES,
+                (res, body) -> new byte[0]);
+
+        decorated.writeWith(Mono.just(chunk(1))).block(Duration.ofSeconds(5));
+
+        assertEquals(-1, response.getHeaders().getContentLength());
+        assertEquals("", response.getBodyAsString().defaultIfEmpty("").block());
+    }
+}
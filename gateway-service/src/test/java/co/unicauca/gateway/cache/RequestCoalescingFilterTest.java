@@ -0,0 +1,173 @@
+package co.unicauca.gateway.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para RequestCoalescingFilter.
+ *
+ * Verifica:
+ * - GETs idénticos concurrentes generan una sola llamada al backend
+ * - Respuestas demasiado grandes no se comparten (cada petición llama por su cuenta)
+ *   ni se acumulan completas en memoria
+ * - Las peticiones con distinto rol no se agrupan
+ *
+ * @author Gateway Team
+ */
+class RequestCoalescingFilterTest {
+
+    private static final String BODY = "{\"content\":[{\"id\":1}],\"totalElements\":1}";
+
+    private MeterRegistry meterRegistry;
+    private RequestCoalescingFilter factory;
+    private AtomicInteger backendCalls;
+    private Sinks.Empty<Void> release;
+    private GatewayFilterChain backend;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        factory = new RequestCoalescingFilter(meterRegistry);
+
+        backendCalls = new AtomicInteger();
+        release = Sinks.empty();
+        // El backend no responde hasta que el test lo libera, para mantener a la líder en vuelo
+        backend = exchange -> release.asMono().then(Mono.defer(() -> {
+            backendCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            byte[] bytes = BODY.getBytes(StandardCharsets.UTF_8);
+            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(bytes)));
+        }));
+    }
+
+    private GatewayFilter filter(int maxBodyBytes) {
+        return factory.apply(c -> {
+            c.setPaths(List.of("/api/submissions/formatoA"));
+            c.setMaxBodyBytes(maxBodyBytes);
+        });
+    }
+
+    private static MockServerWebExchange exchange(String role) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/submissions/formatoA?page=0&size=20")
+                .header("X-User-Role", role));
+    }
+
+    private List<MockServerWebExchange> sendConcurrently(GatewayFilter filter, String... roles) {
+        List<MockServerWebExchange> exchanges = new ArrayList<>();
+        List<Mono<Void>> pending = new ArrayList<>();
+        for (String role : roles) {
+            MockServerWebExchange exchange = exchange(role);
+            exchanges.add(exchange);
+            pending.add(filter.filter(exchange, backend).cache());
+        }
+        pending.forEach(Mono::subscribe);
+
+        release.tryEmitEmpty();
+        pending.forEach(Mono::block);
+        return exchanges;
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("gateway.coalescing.requests").tag("result", result).counter().count();
+    }
+
+    /**
+     * Test: tres peticiones idénticas en vuelo producen una sola llamada.
+     */
+    @Test
+    void testFilter_ConcurrentIdenticalGets_SingleBackendCall() {
+        List<MockServerWebExchange> exchanges =
+                sendConcurrently(filter(1024), "COORDINADOR", "COORDINADOR", "COORDINADOR");
+
+        assertEquals(1, backendCalls.get());
+        for (MockServerWebExchange exchange : exchanges) {
+            assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+            assertEquals(BODY, exchange.getResponse().getBodyAsString().block());
+        }
+        assertEquals(1.0, count("leader"));
+        assertEquals(2.0, count("coalesced"));
+        assertEquals(0, factory.inFlightCount());
+    }
+
+    /**
+     * Test: si la respuesta supera el límite, las que esperaban llaman por su cuenta.
+     */
+    @Test
+    void testFilter_ResponseTooLarge_FallsBackToOwnCall() {
+        List<MockServerWebExchange> exchanges = sendConcurrently(filter(8), "COORDINADOR", "COORDINADOR");
+
+        assertEquals(2, backendCalls.get());
+        assertEquals(BODY, exchanges.get(1).getResponse().getBodyAsString().block());
+        assertEquals(1.0, count("fallback"));
+    }
+
+    /**
+     * Test: con un cuerpo en streaming mayor que el límite, la que esperaba llama
+     * por su cuenta antes de que la líder termine de leer el suyo.
+     */
+    @Test
+    void testFilter_StreamedResponseOverLimit_WaiterReissuedBeforeBodyIsRead() {
+        int chunks = 256;
+        int chunkBytes = 1024;
+        AtomicInteger leaderProduced = new AtomicInteger();
+        AtomicInteger leaderProducedAtFallback = new AtomicInteger(-1);
+        backend = exchange -> release.asMono().then(Mono.defer(() -> {
+            boolean leader = backendCalls.incrementAndGet() == 1;
+            AtomicInteger produced = leader ? leaderProduced : new AtomicInteger();
+            if (!leader) {
+                leaderProducedAtFallback.set(leaderProduced.get());
+            }
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            Flux<DataBuffer> body = Flux.<DataBuffer>generate(sink -> {
+                produced.incrementAndGet();
+                byte[] bytes = new byte[chunkBytes];
+                Arrays.fill(bytes, (byte) 'a');
+                sink.next(exchange.getResponse().bufferFactory().wrap(bytes));
+            }).take(chunks);
+            return exchange.getResponse().writeWith(body);
+        }));
+
+        List<MockServerWebExchange> exchanges = sendConcurrently(filter(4 * chunkBytes), "COORDINADOR", "COORDINADOR");
+
+        assertEquals(2, backendCalls.get());
+        assertEquals(1.0, count("coalesced"));
+        assertEquals(1.0, count("fallback"));
+        assertTrue(leaderProducedAtFallback.get() < chunks,
+                "La que esperaba debería liberarse al superar el límite, no al leer todo el cuerpo ("
+                        + leaderProducedAtFallback.get() + ")");
+        for (MockServerWebExchange exchange : exchanges) {
+            assertEquals(chunks * chunkBytes, exchange.getResponse().getBodyAsString().block().length());
+        }
+        assertEquals(0, factory.inFlightCount());
+    }
+
+    /**
+     * Test: distinto rol, distinta clave.
+     */
+    @Test
+    void testFilter_DifferentRoles_NotCoalesced() {
+        sendConcurrently(filter(1024), "COORDINADOR", "DOCENTE");
+
+        assertEquals(2, backendCalls.get());
+        assertEquals(0.0, count("coalesced"));
+    }
+}
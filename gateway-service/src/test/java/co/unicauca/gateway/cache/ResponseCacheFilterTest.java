@@ -0,0 +1,133 @@
+package co.unicauca.gateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ResponseCacheFilter.
+ *
+ * Verifica:
+ * - MISS seguido de HIT sin volver a invocar al backend
+ * - Respuesta 304 cuando If-None-Match coincide con el ETag
+ * - Invalidación por familia de recurso
+ *
+ * @author Gateway Team
+ */
+class ResponseCacheFilterTest {
+
+    private static final String BODY = "{\"content\":[],\"totalElements\":0}";
+
+    private ResponseCacheFilter factory;
+    private GatewayFilter filter;
+    private AtomicInteger backendCalls;
+    private GatewayFilterChain backend;
+
+    @BeforeEach
+    void setUp() {
+        factory = new ResponseCacheFilter(new SimpleMeterRegistry(), 100);
+        filter = factory.apply(c -> c.setPaths(List.of("/api/submissions/formatoA", "/api/submissions/formatoA/*")));
+
+        backendCalls = new AtomicInteger();
+        backend = exchange -> {
+            backendCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            byte[] bytes = BODY.getBytes(StandardCharsets.UTF_8);
+            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(bytes)));
+        };
+    }
+
+    private MockServerWebExchange get(String path, String ifNoneMatch) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path)
+                .header("X-User-Role", "COORDINADOR");
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    /**
+     * Test: la segunda petición se sirve desde cache con el mismo ETag.
+     */
+    @Test
+    void testFilter_SecondRequestIsServedFromCache() {
+        MockServerWebExchange first = get("/api/submissions/formatoA?page=0", null);
+        filter.filter(first, backend).block();
+
+        MockServerWebExchange second = get("/api/submissions/formatoA?page=0", null);
+        filter.filter(second, backend).block();
+
+        assertEquals(1, backendCalls.get(), "El backend solo debería recibir una petición");
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(BODY, second.getResponse().getBodyAsString().block());
+        assertEquals(first.getResponse().getHeaders().getETag(), second.getResponse().getHeaders().getETag());
+    }
+
+    /**
+     * Test: If-None-Match coincidente responde 304 sin cuerpo.
+     */
+    @Test
+    void testFilter_IfNoneMatch_ReturnsNotModified() {
+        MockServerWebExchange first = get("/api/submissions/formatoA/7", null);
+        filter.filter(first, backend).block();
+        String etag = first.getResponse().getHeaders().getETag();
+        assertNotNull(etag);
+
+        MockServerWebExchange conditional = get("/api/submissions/formatoA/7", etag);
+        filter.filter(conditional, backend).block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, conditional.getResponse().getStatusCode());
+        assertEquals(1, backendCalls.get());
+    }
+
+    /**
+     * Test: una ruta no configurada no se cachea.
+     */
+    @Test
+    void testFilter_NonCacheablePath_AlwaysHitsBackend() {
+        filter.filter(get("/api/submissions/health", null), backend).block();
+        filter.filter(get("/api/submissions/health", null), backend).block();
+
+        assertEquals(2, backendCalls.get());
+        assertEquals(0, factory.size());
+    }
+
+    /**
+     * Test: invalidar la familia elimina las entradas relacionadas.
+     */
+    @Test
+    void testInvalidate_RemovesResourceFamily() {
+        filter.filter(get("/api/submissions/formatoA", null), backend).block();
+        filter.filter(get("/api/submissions/formatoA/7", null), backend).block();
+
+        assertEquals(2, factory.invalidate("/api/submissions/formatoA"));
+
+        filter.filter(get("/api/submissions/formatoA/7", null), backend).block();
+        assertEquals(3, backendCalls.get());
+    }
+
+    /**
+     * Test: cálculo de la raíz del recurso para invalidar tras escrituras.
+     */
+    @Test
+    void testResourceRoot() {
+        assertEquals("/api/submissions/formatoA", ResponseCacheFilter.resourceRoot("/api/submissions/formatoA/15/estado"));
+        assertEquals("/api/submissions/formatoA", ResponseCacheFilter.resourceRoot("/api/submissions/formatoA"));
+    }
+}
@@ -0,0 +1,180 @@
+package co.unicauca.gateway.cache;
+
+import co.unicauca.gateway.loadbalancer.LoadBalancingGlobalFilter;
+import co.unicauca.gateway.loadbalancer.ServiceEndpoint;
+import co.unicauca.gateway.loadbalancer.ServiceInstanceRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+
+/**
+ * Tests unitarios para StaleResponseFilter.
+ *
+ * Verifica:
+ * - Que el fallback del circuit breaker se sustituye por la última respuesta buena
+ *   con Warning, Age y X-Cache: STALE
+ * - Que sin copia (o con otra credencial) el fallback llega sin cambios
+ * - El refresco en segundo plano al pasar el circuito a HALF_OPEN
+ *
+ * @author Gateway Team
+ */
+class StaleResponseFilterTest {
+
+    private static final String ROLES = "{\"roles\":[\"ESTUDIANTE\",\"DOCENTE\"]}";
+    private static final String FALLBACK = "{\"error\":\"Service Unavailable\"}";
+
+    private CircuitBreakerRegistry circuitBreakers;
+    private ServiceInstanceRegistry registry;
+    private MeterRegistry meterRegistry;
+    private AtomicReference<ClientRequest> refreshRequest;
+    private StaleResponseFilter factory;
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new ServiceInstanceRegistry(
+                new MockEnvironment().withProperty("services.identity.url", "http://identity:8081"),
+                meterRegistry, "", 5, 3, 10);
+        refreshRequest = new AtomicReference<>();
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    refreshRequest.set(request);
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body("{\"roles\":[\"ESTUDIANTE\",\"DOCENTE\",\"COORDINADOR\"]}")
+                            .build());
+                })
+                .build();
+
+        factory = new StaleResponseFilter(circuitBreakers, registry, webClient, meterRegistry, 100, 1000);
+        filter = factory.apply(c -> {
+            c.setName("identityService");
+            c.setPaths(List.of("/api/auth/roles"));
+            c.setKeyByCredential(true);
+        });
+    }
+
+    private static MockServerWebExchange get(String token) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/auth/roles")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+
+    /**
+     * Backend que responde 200 a través de la réplica elegida por el balanceador.
+     */
+    private GatewayFilterChain backend(String body) {
+        return exchange -> {
+            ServiceEndpoint endpoint = registry.choose("identity-service");
+            exchange.getAttributes().put(LoadBalancingGlobalFilter.ENDPOINT_ATTR, endpoint);
+            exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR,
+                    URI.create("http://identity:8081/api/auth/roles"));
+            return write(exchange, HttpStatus.OK, body);
+        };
+    }
+
+    /**
+     * Fallback del circuit breaker abierto (/api/gateway/fallback/identity).
+     */
+    private static GatewayFilterChain openCircuit() {
+        return exchange -> {
+            exchange.getAttributes().put(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR,
+                    CallNotPermittedException.createCallNotPermittedException(
+                            CircuitBreaker.ofDefaults("identityService")));
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "30");
+            return write(exchange, HttpStatus.SERVICE_UNAVAILABLE, FALLBACK);
+        };
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, HttpStatus status, String body) {
+        exchange.getResponse().setStatusCode(status);
+        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(bytes)));
+    }
+
+    /**
+     * Test: con el circuito abierto se sirve la última respuesta buena marcada como stale.
+     */
+    @Test
+    void testFilter_OpenCircuit_ServesLastGoodResponse() {
+        filter.filter(get("token-a"), backend(ROLES)).block();
+
+        MockServerWebExchange stale = get("token-a");
+        filter.filter(stale, openCircuit()).block();
+
+        assertEquals(HttpStatus.OK, stale.getResponse().getStatusCode());
+        assertEquals(ROLES, stale.getResponse().getBodyAsString().block());
+        HttpHeaders headers = stale.getResponse().getHeaders();
+        assertEquals(StaleResponseFilter.STALE_WARNING, headers.getFirst(HttpHeaders.WARNING));
+        assertNotNull(headers.getFirst("Age"));
+        assertEquals("STALE", headers.getFirst("X-Cache"));
+        assertNull(headers.getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.get("gateway.stale.responses").tag("result", "served").counter().count());
+    }
+
+    /**
+     * Test: sin copia para la credencial, el fallback se entrega sin cambios.
+     */
+    @Test
+    void testFilter_NoCopyForCredential_FallbackPassesThrough() {
+        filter.filter(get("token-a"), backend(ROLES)).block();
+
+        MockServerWebExchange other = get("token-b");
+        filter.filter(other, openCircuit()).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, other.getResponse().getStatusCode());
+        assertEquals(FALLBACK, other.getResponse().getBodyAsString().block());
+        assertNull(other.getResponse().getHeaders().getFirst(HttpHeaders.WARNING));
+    }
+
+    /**
+     * Test: al pasar el circuito a HALF_OPEN se refrescan las copias servidas.
+     */
+    @Test
+    void testHalfOpen_RefreshesServedCopiesInBackground() {
+        filter.filter(get("token-a"), backend(ROLES)).block();
+        filter.filter(get("token-a"), openCircuit()).block();
+
+        CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker("identityService");
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+
+        ClientRequest request = refreshRequest.get();
+        assertNotNull(request, "Debería haberse lanzado el refresco");
+        assertEquals("http://identity:8081/api/auth/roles", request.url().toString());
+        assertEquals("Bearer token-a", request.headers().getFirst(HttpHeaders.AUTHORIZATION));
+        assertEquals(1.0, meterRegistry.get("gateway.stale.responses").tag("result", "refreshed").counter().count());
+
+        MockServerWebExchange stale = get("token-a");
+        filter.filter(stale, openCircuit()).block();
+        assertTrue(stale.getResponse().getBodyAsString().block().contains("COORDINADOR"));
+    }
+}
@@ -0,0 +1,152 @@
+package co.unicauca.gateway.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para AdaptiveConcurrencyFilter y AdaptiveConcurrencyLimit.
+ *
+ * Verifica:
+ * - 503 + Retry-After al superar el límite, con prioridad para lecturas
+ * - Reducción del límite ante fallos del backend
+ * - Crecimiento del límite con latencia estable y uso alto
+ *
+ * @author Gateway Team
+ */
+class AdaptiveConcurrencyFilterTest {
+
+    private MeterRegistry meterRegistry;
+    private AdaptiveConcurrencyFilter factory;
+    private Sinks.Empty<Void> release;
+    private GatewayFilterChain slowBackend;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        factory = new AdaptiveConcurrencyFilter(meterRegistry);
+
+        release = Sinks.empty();
+        // Mantiene las peticiones en vuelo hasta que el test las libera
+        slowBackend = exchange -> release.asMono().then(Mono.fromRunnable(
+                () -> exchange.getResponse().setStatusCode(HttpStatus.OK)));
+    }
+
+    private GatewayFilter filter(int initialLimit) {
+        return factory.apply(c -> {
+            c.setName("submission-service");
+            c.setInitialLimit(initialLimit);
+            c.setMinLimit(1);
+            c.setWriteShare(0.5);
+            c.setRetryAfterSeconds(2);
+        });
+    }
+
+    private static MockServerWebExchange post() {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/api/submissions/anteproyecto"));
+    }
+
+    private static MockServerWebExchange get() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/submissions/anteproyecto"));
+    }
+
+    /**
+     * Test: las escrituras se descartan al ocupar su cuota; las lecturas siguen entrando.
+     */
+    @Test
+    void testFilter_WritesShedBeforeReads() {
+        GatewayFilter filter = filter(4);
+
+        Disposable first = filter.filter(post(), slowBackend).subscribe();
+        Disposable second = filter.filter(post(), slowBackend).subscribe();
+
+        MockServerWebExchange shedWrite = post();
+        filter.filter(shedWrite, slowBackend).block();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shedWrite.getResponse().getStatusCode());
+        assertEquals("2", shedWrite.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        Disposable read = filter.filter(get(), slowBackend).subscribe();
+        assertEquals(3, factory.limitFor("submission-service").getInFlight());
+
+        release.tryEmitEmpty();
+        assertEquals(0, factory.limitFor("submission-service").getInFlight());
+        assertEquals(1.0, meterRegistry.get("gateway.concurrency.rejections")
+                .tag("service", "submission-service").tag("priority", "write").counter().count());
+
+        first.dispose();
+        second.dispose();
+        read.dispose();
+    }
+
+    /**
+     * Test: los fallos del backend reducen el límite multiplicativamente.
+     */
+    @Test
+    void testLimit_FailuresDecreaseLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 2, 200, 0.5);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire(false));
+            limit.onComplete(TimeUnit.MILLISECONDS.toNanos(50), true);
+        }
+
+        assertTrue(limit.getLimit() < 10, "El límite debería bajar tras fallos: " + limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    /**
+     * Test: con latencia estable y el límite en uso, el límite crece.
+     */
+    @Test
+    void testLimit_StableLatencyUnderLoad_Grows() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 200, 0.5);
+
+        for (int round = 0; round < 20; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire(false)) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.onComplete(TimeUnit.MILLISECONDS.toNanos(20), false);
+            }
+        }
+
+        assertTrue(limit.getLimit() > 10, "El límite debería crecer: " + limit.getLimit());
+    }
+
+    /**
+     * Test: una latencia mucho mayor que la habitual reduce el límite.
+     */
+    @Test
+    void testLimit_LatencySpike_Decreases() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(40, 2, 200, 0.5);
+        for (int i = 0; i < 40; i++) {
+            limit.tryAcquire(false);
+        }
+        for (int i = 0; i < 20; i++) {
+            limit.onComplete(TimeUnit.MILLISECONDS.toNanos(20), false);
+        }
+        int before = limit.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            limit.tryAcquire(false);
+            limit.onComplete(TimeUnit.MILLISECONDS.toNanos(500), false);
+        }
+
+        assertTrue(limit.getLimit() < before, "El límite debería bajar: " + before + " -> " + limit.getLimit());
+    }
+}
@@ -0,0 +1,207 @@
+package co.unicauca.gateway.hedging;
+
+import co.unicauca.gateway.loadbalancer.LoadBalancingGlobalFilter;
+import co.unicauca.gateway.loadbalancer.ServiceInstanceRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+
+/**
+ * Tests unitarios para HedgingFilter, LatencyHistogram y HedgeBudget.
+ *
+ * Verifica:
+ * - Que una respuesta lenta se reemplaza por el duplicado enviado a otra réplica
+ * - Que una respuesta rápida no genera duplicados
+ * - Que el presupuesto limita los duplicados
+ * - La estimación de percentiles del histograma
+ *
+ * @author Gateway Team
+ */
+class HedgingFilterTest {
+
+    private MeterRegistry meterRegistry;
+    private ServiceInstanceRegistry registry;
+    private AtomicInteger hedgeCalls;
+    private AtomicReference<URI> hedgeUri;
+    private HedgingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("gateway.loadbalancer.instances.submission-service",
+                        "http://submission-1:8082,http://submission-2:8082");
+        registry = new ServiceInstanceRegistry(environment, meterRegistry, "", 5, 3, 10);
+
+        hedgeCalls = new AtomicInteger();
+        hedgeUri = new AtomicReference<>();
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    hedgeCalls.incrementAndGet();
+                    hedgeUri.set(request.url());
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body("{\"source\":\"hedge\"}")
+                            .build());
+                })
+                .build();
+
+        filter = new HedgingFilter(registry, webClient, meterRegistry);
+    }
+
+    private GatewayFilter apply(double budgetPercent) {
+        GatewayFilter gatewayFilter = filter.apply(c -> {
+            c.setName("submission-service");
+            c.setPaths(List.of("/api/submissions/formatoA/*"));
+            c.setMinDelayMs(20);
+            c.setBudgetPercent(budgetPercent);
+            c.setMaxBurst(1);
+            c.setMinSamples(10);
+        });
+        // Latencia habitual ~5ms: el duplicado sale a los 20ms (mínimo configurado)
+        for (int i = 0; i < 20; i++) {
+            filter.histogramFor("submission-service").record(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        return gatewayFilter;
+    }
+
+    /**
+     * Backend simulado: la réplica elegida tarda delay en responder.
+     */
+    private GatewayFilterChain backend(Duration delay) {
+        return exchange -> {
+            var endpoint = registry.endpoints("submission-service").get(0);
+            exchange.getAttributes().put(LoadBalancingGlobalFilter.ENDPOINT_ATTR, endpoint);
+            exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR,
+                    URI.create("http://submission-1:8082/api/submissions/formatoA/7"));
+            return Mono.delay(delay).then(Mono.defer(() -> {
+                exchange.getResponse().setStatusCode(HttpStatus.OK);
+                exchange.getResponse().getHeaders().set("X-Source", "primary");
+                byte[] body = "{\"source\":\"primary\"}".getBytes(StandardCharsets.UTF_8);
+                return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+            }));
+        };
+    }
+
+    private static MockServerWebExchange get(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                .build());
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("gateway.hedging.requests").tag("result", result).counter().count();
+    }
+
+    /**
+     * Test: si la réplica original tarda, gana el duplicado enviado a la otra réplica.
+     */
+    @Test
+    void testFilter_SlowPrimary_HedgeWins() {
+        GatewayFilter gatewayFilter = apply(100);
+        MockServerWebExchange exchange = get("/api/submissions/formatoA/7");
+
+        gatewayFilter.filter(exchange, backend(Duration.ofSeconds(2))).block(Duration.ofSeconds(5));
+
+        assertEquals("{\"source\":\"hedge\"}", exchange.getResponse().getBodyAsString().block());
+        assertNull(exchange.getResponse().getHeaders().getFirst("X-Source"));
+        assertEquals(URI.create("http://submission-2:8082/api/submissions/formatoA/7"), hedgeUri.get());
+        assertEquals(1.0, count("issued"));
+        assertEquals(1.0, count("won"));
+        // La original cancelada libera su réplica
+        assertEquals(0, registry.endpoints("submission-service").get(1).getInFlight());
+        // Y su latencia se registra censurada (al menos el retardo del duplicado)
+        LatencyHistogram histogram = filter.histogramFor("submission-service");
+        assertTrue(histogram.percentileNanos(1.0, 21) >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    /**
+     * Test: una respuesta dentro del percentil no genera duplicado.
+     */
+    @Test
+    void testFilter_FastPrimary_NoHedge() {
+        GatewayFilter gatewayFilter = apply(100);
+        MockServerWebExchange exchange = get("/api/submissions/formatoA/7");
+
+        gatewayFilter.filter(exchange, backend(Duration.ZERO)).block(Duration.ofSeconds(5));
+
+        assertEquals("{\"source\":\"primary\"}", exchange.getResponse().getBodyAsString().block());
+        assertEquals("primary", exchange.getResponse().getHeaders().getFirst("X-Source"));
+        assertEquals(0, hedgeCalls.get());
+        assertEquals(0.0, count("issued"));
+    }
+
+    /**
+     * Test: sin presupuesto no se duplica aunque la original sea lenta.
+     */
+    @Test
+    void testFilter_BudgetExhausted_WaitsForPrimary() {
+        GatewayFilter gatewayFilter = apply(50);
+
+        // Primera petición: 0.5 fichas, insuficiente para un duplicado
+        ServerWebExchange first = get("/api/submissions/formatoA/7");
+        gatewayFilter.filter(first, backend(Duration.ofMillis(100))).block(Duration.ofSeconds(5));
+        assertEquals(0, hedgeCalls.get());
+        assertEquals(1.0, count("budget-exhausted"));
+
+        // Segunda petición: completa la ficha y se permite un duplicado
+        MockServerWebExchange second = get("/api/submissions/formatoA/7");
+        gatewayFilter.filter(second, backend(Duration.ofSeconds(2))).block(Duration.ofSeconds(5));
+        assertEquals(1, hedgeCalls.get());
+        assertEquals("{\"source\":\"hedge\"}", second.getResponse().getBodyAsString().block());
+    }
+
+    /**
+     * Test: percentiles del histograma y presupuesto de duplicados.
+     */
+    @Test
+    void testHistogramAndBudget() {
+        LatencyHistogram histogram = new LatencyHistogram(60);
+        assertEquals(-1, histogram.percentileNanos(0.95, 1));
+
+        for (int i = 0; i < 95; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        for (int i = 0; i < 5; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(500));
+        }
+
+        long p95 = histogram.percentileNanos(0.95, 50);
+        long p99 = histogram.percentileNanos(0.99, 50);
+        assertTrue(p95 >= TimeUnit.MILLISECONDS.toNanos(10) && p95 <= TimeUnit.MILLISECONDS.toNanos(12), "p95=" + p95);
+        assertTrue(p99 >= TimeUnit.MILLISECONDS.toNanos(500) && p99 <= TimeUnit.MILLISECONDS.toNanos(600), "p99=" + p99);
+        assertEquals(-1, histogram.percentileNanos(0.95, 200));
+
+        HedgeBudget budget = new HedgeBudget(0.05, 10);
+        for (int i = 0; i < 40; i++) {
+            budget.deposit();
+        }
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+}
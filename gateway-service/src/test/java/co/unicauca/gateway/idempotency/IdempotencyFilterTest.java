@@ -0,0 +1,202 @@
+package co.unicauca.gateway.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para IdempotencyFilter.
+ *
+ * Verifica:
+ * - Que un reintento con la misma clave reproduce estado y cuerpo sin llamar al backend
+ * - El rechazo 409 de duplicados concurrentes
+ * - Que los errores 5xx liberan la clave y que las claves son por usuario
+ * - El rechazo 422 al reutilizar una clave con otro cuerpo (salvo el boundary multipart)
+ *
+ * @author Gateway Team
+ */
+class IdempotencyFilterTest {
+
+    private static final String CREATED = "{\"id\":15,\"estado\":\"EN_EVALUACION\"}";
+
+    private IdempotencyFilter factory;
+    private GatewayFilter filter;
+    private AtomicInteger backendCalls;
+
+    @BeforeEach
+    void setUp() {
+        factory = new IdempotencyFilter(new SimpleMeterRegistry(), 100);
+        filter = factory.apply(c -> c.setPaths(List.of(
+                "/api/submissions/formatoA", "/api/submissions/formatoA/*/nueva-version")));
+        backendCalls = new AtomicInteger();
+    }
+
+    private GatewayFilterChain backend(HttpStatus status, String body) {
+        return exchange -> {
+            backendCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(status);
+            exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(bytes)));
+        };
+    }
+
+    /**
+     * Backend que, como el real, lee el cuerpo completo antes de responder.
+     */
+    private GatewayFilterChain readingBackend(HttpStatus status, String body) {
+        GatewayFilterChain backend = backend(status, body);
+        return exchange -> exchange.getRequest().getBody()
+                .doOnNext(DataBufferUtils::release)
+                .then(backend.filter(exchange));
+    }
+
+    private static MockServerWebExchange upload(String idempotencyKey, String boundary, String pdf) {
+        String body = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"formatoA.pdf\"\r\n"
+                + "Content-Type: application/pdf\r\n\r\n"
+                + pdf + "\r\n--" + boundary + "--\r\n";
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/api/submissions/formatoA")
+                .header("X-User-Id", "7")
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .contentType(MediaType.parseMediaType("multipart/form-data; boundary=" + boundary))
+                .contentLength(bytes.length)
+                .body(body));
+    }
+
+    private static MockServerWebExchange post(String userId, String idempotencyKey) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/api/submissions/formatoA")
+                .header("X-User-Id", userId)
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey));
+    }
+
+    /**
+     * Test: el reintento recibe la respuesta guardada sin pasar por el backend.
+     */
+    @Test
+    void testFilter_RetryWithSameKey_ReplaysStoredResponse() {
+        MockServerWebExchange first = post("7", "abc-123");
+        filter.filter(first, backend(HttpStatus.CREATED, CREATED)).block();
+
+        MockServerWebExchange retry = post("7", "abc-123");
+        filter.filter(retry, backend(HttpStatus.CREATED, "{\"id\":16}")).block();
+
+        assertEquals(1, backendCalls.get(), "El backend solo debería recibir la primera petición");
+        assertEquals(HttpStatus.CREATED, retry.getResponse().getStatusCode());
+        assertEquals(CREATED, retry.getResponse().getBodyAsString().block());
+        assertEquals("true", retry.getResponse().getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getResponse().getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    /**
+     * Test: un duplicado mientras la primera petición sigue en curso recibe 409.
+     */
+    @Test
+    void testFilter_ConcurrentDuplicate_ReturnsConflict() {
+        Sinks.Empty<Void> upload = Sinks.empty();
+        Disposable inFlight = filter.filter(post("7", "abc-123"), exchange -> upload.asMono()).subscribe();
+
+        MockServerWebExchange duplicate = post("7", "abc-123");
+        filter.filter(duplicate, backend(HttpStatus.CREATED, CREATED)).block();
+
+        assertEquals(HttpStatus.CONFLICT, duplicate.getResponse().getStatusCode());
+        assertNotNull(duplicate.getResponse().getHeaders().getFirst("Retry-After"));
+        assertEquals(0, backendCalls.get());
+
+        // Si el cliente original se desconecta, la clave queda libre
+        inFlight.dispose();
+        filter.filter(post("7", "abc-123"), backend(HttpStatus.CREATED, CREATED)).block();
+        assertEquals(1, backendCalls.get());
+    }
+
+    /**
+     * Test: un 5xx no se guarda y la misma clave de otro usuario no colisiona.
+     */
+    @Test
+    void testFilter_ServerErrorReleasesKey_KeysArePerUser() {
+        filter.filter(post("7", "abc-123"), backend(HttpStatus.SERVICE_UNAVAILABLE, "{}")).block();
+        MockServerWebExchange retry = post("7", "abc-123");
+        filter.filter(retry, backend(HttpStatus.CREATED, CREATED)).block();
+
+        assertEquals(2, backendCalls.get());
+        assertEquals(HttpStatus.CREATED, retry.getResponse().getStatusCode());
+
+        filter.filter(post("8", "abc-123"), backend(HttpStatus.CREATED, CREATED)).block();
+        assertEquals(3, backendCalls.get());
+    }
+
+    /**
+     * Test: un reintento con otro boundary multipart pero el mismo contenido se reproduce.
+     */
+    @Test
+    void testFilter_RetryWithDifferentBoundary_ReplaysStoredResponse() {
+        filter.filter(upload("abc-123", "----boundaryA1", "%PDF-1.7 contenido"),
+                readingBackend(HttpStatus.CREATED, CREATED)).block();
+
+        MockServerWebExchange retry = upload("abc-123", "----otroBoundaryB22", "%PDF-1.7 contenido");
+        filter.filter(retry, readingBackend(HttpStatus.CREATED, "{\"id\":16}")).block();
+
+        assertEquals(1, backendCalls.get());
+        assertEquals(CREATED, retry.getResponse().getBodyAsString().block());
+        assertEquals("true", retry.getResponse().getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    /**
+     * Test: reutilizar la clave con otro archivo se rechaza con 422 sin reproducir el resultado.
+     */
+    @Test
+    void testFilter_SameKeyWithDifferentBody_ReturnsUnprocessableEntity() {
+        filter.filter(upload("abc-123", "----boundaryA1", "%PDF-1.7 primer formato"),
+                readingBackend(HttpStatus.CREATED, CREATED)).block();
+
+        MockServerWebExchange other = upload("abc-123", "----boundaryA1", "%PDF-1.7 otro formato");
+        filter.filter(other, readingBackend(HttpStatus.CREATED, "{\"id\":16}")).block();
+
+        assertEquals(1, backendCalls.get());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, other.getResponse().getStatusCode());
+        assertNull(other.getResponse().getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    /**
+     * Test: si el backend responde sin leer todo el cuerpo, no hay huella y la clave se libera.
+     */
+    @Test
+    void testFilter_ResponseBeforeBodyIsRead_ReleasesKey() {
+        filter.filter(upload("abc-123", "----boundaryA1", "%PDF-1.7 contenido"),
+                backend(HttpStatus.CREATED, CREATED)).block();
+
+        filter.filter(upload("abc-123", "----boundaryA1", "%PDF-1.7 contenido"),
+                readingBackend(HttpStatus.CREATED, CREATED)).block();
+
+        assertEquals(2, backendCalls.get());
+    }
+
+    /**
+     * Test: una clave vacía o demasiado larga se rechaza con 400.
+     */
+    @Test
+    void testFilter_InvalidKey_ReturnsBadRequest() {
+        MockServerWebExchange exchange = post("7", "x".repeat(300));
+        filter.filter(exchange, backend(HttpStatus.CREATED, CREATED)).block();
+
+        assertEquals(HttpStatus.BAD_REQUEST, exchange.getResponse().getStatusCode());
+        assertEquals(0, backendCalls.get());
+    }
+}
@@ -0,0 +1,55 @@
+package co.unicauca.gateway.idempotency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para RequestFingerprint.
+ *
+ * Verifica que la huella ignora el boundary multipart aunque llegue partido
+ * entre fragmentos, y que distingue cuerpos y paths distintos.
+ *
+ * @author Gateway Team
+ */
+class RequestFingerprintTest {
+
+    private static String fingerprint(String path, String boundary, String content, int splitAt) {
+        RequestFingerprint fingerprint = new RequestFingerprint(MockServerHttpRequest.post(path)
+                .contentType(MediaType.parseMediaType("multipart/form-data; boundary=" + boundary))
+                .build());
+        byte[] body = ("--" + boundary + "\r\n\r\n" + content + "\r\n--" + boundary + "--\r\n")
+                .getBytes(StandardCharsets.UTF_8);
+        fingerprint.update(ByteBuffer.wrap(body, 0, splitAt));
+        fingerprint.update(ByteBuffer.wrap(body, splitAt, body.length - splitAt));
+        return fingerprint.finish();
+    }
+
+    /**
+     * Test: mismo contenido con boundaries distintos, partidos en cualquier posición.
+     */
+    @Test
+    void testFinish_DifferentBoundaries_SameFingerprint() {
+        String expected = fingerprint("/api/submissions/formatoA", "aaab", "%PDF-1.7 aaa", 0);
+        for (int split = 0; split < 30; split++) {
+            assertEquals(expected, fingerprint("/api/submissions/formatoA", "xyz123", "%PDF-1.7 aaa", split),
+                    "split=" + split);
+        }
+    }
+
+    /**
+     * Test: contenido o path distintos producen huellas distintas.
+     */
+    @Test
+    void testFinish_DifferentContentOrPath_DifferentFingerprint() {
+        String base = fingerprint("/api/submissions/formatoA", "b1", "%PDF-1.7 uno", 5);
+
+        assertNotEquals(base, fingerprint("/api/submissions/formatoA", "b1", "%PDF-1.7 dos", 5));
+        assertNotEquals(base, fingerprint("/api/submissions/formatoA/1/nueva-version", "b1", "%PDF-1.7 uno", 5));
+    }
+}
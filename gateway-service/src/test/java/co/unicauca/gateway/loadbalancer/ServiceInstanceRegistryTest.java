@@ -0,0 +1,175 @@
+package co.unicauca.gateway.loadbalancer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ServiceInstanceRegistry y LoadBalancingGlobalFilter.
+ *
+ * Verifica:
+ * - Resolución de instancias desde services.*.url y gateway.loadbalancer.instances
+ * - Que power-of-two-choices prefiere la réplica con menos carga y latencia
+ * - La expulsión pasiva tras fallos consecutivos y el modo pánico
+ * - La recarga del fichero de registro conservando estadísticas
+ * - La reescritura de URLs lb://
+ *
+ * @author Gateway Team
+ */
+class ServiceInstanceRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MockEnvironment environment;
+    private MeterRegistry meterRegistry;
+    private AtomicLong clock;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment()
+                .withProperty("services.identity.url", "http://identity:8081")
+                .withProperty("services.submission.url", "http://submission:8082")
+                .withProperty("gateway.loadbalancer.instances.submission-service",
+                        "http://submission-1:8082,http://submission-2:8082");
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    }
+
+    private ServiceInstanceRegistry registry(String registryFile) {
+        return new ServiceInstanceRegistry(environment, meterRegistry, registryFile, 5, 3, 10, clock::get);
+    }
+
+    private static List<String> hosts(List<ServiceEndpoint> endpoints) {
+        return endpoints.stream().map(endpoint -> endpoint.getUri().getHost()).toList();
+    }
+
+    /**
+     * Test: services.*.url es la réplica por defecto y la lista de instancias la reemplaza.
+     */
+    @Test
+    void testReload_ResolvesInstancesFromConfiguration() {
+        ServiceInstanceRegistry registry = registry("");
+
+        assertEquals(List.of("identity"), hosts(registry.endpoints("identity-service")));
+        assertEquals(List.of("submission-1", "submission-2"), hosts(registry.endpoints("submission-service")));
+        assertNull(registry.choose("notification-service"));
+    }
+
+    /**
+     * Test: con dos réplicas siempre gana la de menor (en vuelo + 1) * latencia.
+     */
+    @Test
+    void testChoose_PrefersLessLoadedAndFasterInstance() {
+        ServiceInstanceRegistry registry = registry("");
+        ServiceEndpoint first = registry.endpoints("submission-service").get(0);
+        ServiceEndpoint second = registry.endpoints("submission-service").get(1);
+
+        registry.acquire(first);
+        registry.release(first, TimeUnit.MILLISECONDS.toNanos(500), false);
+        registry.acquire(second);
+        registry.release(second, TimeUnit.MILLISECONDS.toNanos(20), false);
+
+        for (int i = 0; i < 20; i++) {
+            assertSame(second, registry.choose("submission-service"));
+        }
+
+        // Con suficiente carga en vuelo, la réplica rápida deja de ser la más barata
+        for (int i = 0; i < 30; i++) {
+            registry.acquire(second);
+        }
+        assertSame(first, registry.choose("submission-service"));
+    }
+
+    /**
+     * Test: tras 3 fallos seguidos la réplica se expulsa y vuelve al expirar la expulsión.
+     */
+    @Test
+    void testRelease_ConsecutiveFailures_EjectsInstance() {
+        ServiceInstanceRegistry registry = registry("");
+        ServiceEndpoint first = registry.endpoints("submission-service").get(0);
+        ServiceEndpoint second = registry.endpoints("submission-service").get(1);
+
+        for (int i = 0; i < 3; i++) {
+            registry.acquire(first);
+            registry.release(first, TimeUnit.MILLISECONDS.toNanos(5), true);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertSame(second, registry.choose("submission-service"));
+        }
+        assertEquals(1.0, meterRegistry.get("gateway.loadbalancer.ejections")
+                .tag("service", "submission-service").counter().count());
+
+        // Modo pánico: con todas expulsadas se sigue eligiendo alguna
+        for (int i = 0; i < 3; i++) {
+            registry.acquire(second);
+            registry.release(second, TimeUnit.MILLISECONDS.toNanos(5), true);
+        }
+        assertNotNull(registry.choose("submission-service"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        assertTrue(first.isAvailable(clock.get()));
+        assertTrue(second.isAvailable(clock.get()));
+    }
+
+    /**
+     * Test: el fichero de registro tiene prioridad, se recarga al cambiar y conserva
+     * las estadísticas de las réplicas que siguen configuradas.
+     */
+    @Test
+    void testRegistryFile_ReloadsAndKeepsStats() throws IOException {
+        Path file = tempDir.resolve("registry.json");
+        Files.writeString(file, "{\"submission-service\": [\"http://submission-1:8082\"]}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1_000));
+
+        ServiceInstanceRegistry registry = registry(file.toString());
+        ServiceEndpoint original = registry.choose("submission-service");
+        assertEquals(List.of("submission-1"), hosts(registry.endpoints("submission-service")));
+
+        registry.acquire(original);
+        registry.release(original, TimeUnit.MILLISECONDS.toNanos(40), false);
+
+        Files.writeString(file, "{\"submission-service\": [\"http://submission-1:8082\", \"http://submission-3:8082\"]}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(2_000));
+        registry.reloadIfRegistryFileChanged();
+
+        List<ServiceEndpoint> endpoints = registry.endpoints("submission-service");
+        assertEquals(List.of("submission-1", "submission-3"), hosts(endpoints));
+        assertSame(original, endpoints.get(0));
+        // La réplica nueva arranca con la latencia de sus pares
+        assertEquals(original.getEwmaNanos(), endpoints.get(1).getEwmaNanos());
+
+        // Un fichero inválido no deja al servicio sin réplicas
+        Files.writeString(file, "{\"submission-service\": [");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(3_000));
+        registry.reloadIfRegistryFileChanged();
+        assertEquals(2, registry.endpoints("submission-service").size());
+    }
+
+    /**
+     * Test: la URL lb:// conserva path y query y toma esquema, host y puerto de la réplica.
+     */
+    @Test
+    void testReconstructUri_ReplacesAuthority() {
+        URI url = URI.create("lb://submission-service/api/submissions/formatoA?estado=EN%20REVISION");
+
+        URI result = LoadBalancingGlobalFilter.reconstructUri(url, URI.create("http://submission-2:8082"));
+
+        assertEquals("http://submission-2:8082/api/submissions/formatoA?estado=EN%20REVISION", result.toString());
+    }
+}
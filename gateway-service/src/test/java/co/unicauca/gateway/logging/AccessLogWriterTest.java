@@ -0,0 +1,119 @@
+package co.unicauca.gateway.logging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para AccessLogRingBuffer y AccessLogWriter.
+ *
+ * Verifica:
+ * - Orden FIFO y descarte cuando el buffer está lleno
+ * - Publicación concurrente sin pérdidas mientras hay espacio
+ * - Registro de latencias por ruta y muestreo configurado por ruta
+ *
+ * @author Gateway Team
+ */
+class AccessLogWriterTest {
+
+    private MeterRegistry meterRegistry;
+    private AccessLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("gateway.access-log.sampling.submission-service", "0.0");
+        writer = new AccessLogWriter(meterRegistry, environment, 64, 16, 10, 1.0);
+    }
+
+    private static AccessLogRecord record(String routeId, long durationMillis) {
+        return new AccessLogRecord(System.currentTimeMillis(), routeId, "GET", "/api/submissions/formatoA",
+                200, TimeUnit.MILLISECONDS.toNanos(durationMillis), "7", "10.0.0.1", true);
+    }
+
+    /**
+     * Test: el buffer entrega en orden y descarta al llenarse.
+     */
+    @Test
+    void testRingBuffer_FifoAndDropWhenFull() {
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(1, buffer.droppedCount());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(4, buffer.drain(drained::add, 10));
+        assertEquals(List.of(0, 1, 2, 3), drained);
+
+        assertTrue(buffer.offer(5));
+        assertEquals(1, buffer.size());
+    }
+
+    /**
+     * Test: varios productores concurrentes sin pérdidas mientras cabe todo.
+     */
+    @Test
+    void testRingBuffer_ConcurrentProducers() throws InterruptedException {
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(4096);
+        int producers = 4;
+        int perProducer = 1000;
+        CountDownLatch done = new CountDownLatch(producers);
+
+        for (int p = 0; p < producers; p++) {
+            new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.offer(i);
+                }
+                done.countDown();
+            }).start();
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        int[] total = {0};
+        while (buffer.drain(element -> total[0]++, 512) > 0) {
+            // vaciar
+        }
+        assertEquals(producers * perProducer, total[0]);
+        assertEquals(0, buffer.droppedCount());
+    }
+
+    /**
+     * Test: cada registro alimenta el Timer de su ruta.
+     */
+    @Test
+    void testDrainBatch_RecordsLatencyPerRoute() {
+        writer.submit(record("submission-service", 10));
+        writer.submit(record("submission-service", 30));
+        writer.submit(record("identity-service", 5));
+
+        assertEquals(3, writer.drainBatch());
+
+        Timer submission = meterRegistry.get("gateway.route.latency").tag("route", "submission-service").timer();
+        assertEquals(2, submission.count());
+        assertEquals(40, submission.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, meterRegistry.get("gateway.route.latency").tag("route", "identity-service").timer().count());
+    }
+
+    /**
+     * Test: muestreo por ruta con valor por defecto para las demás.
+     */
+    @Test
+    void testShouldSample_PerRouteRate() {
+        assertFalse(writer.shouldSample("submission-service"));
+        assertTrue(writer.shouldSample("identity-service"));
+        assertTrue(writer.shouldSample(null));
+    }
+}
@@ -0,0 +1,172 @@
+package co.unicauca.gateway.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para RateLimitFilter con InMemoryRateLimitStore.
+ *
+ * Verifica:
+ * - Ráfaga permitida hasta burstCapacity y 429 con Retry-After al agotarse
+ * - Headers RateLimit-* en cada respuesta
+ * - Recarga de tokens con el paso del tiempo
+ * - Buckets independientes por usuario y filtro por método HTTP
+ *
+ * @author Gateway Team
+ */
+class RateLimitFilterTest {
+
+    private AtomicLong clock;
+    private MeterRegistry meterRegistry;
+    private RateLimitFilter factory;
+    private AtomicInteger backendCalls;
+    private GatewayFilterChain backend;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(0);
+        meterRegistry = new SimpleMeterRegistry();
+        factory = new RateLimitFilter(new InMemoryRateLimitStore(100, clock::get), meterRegistry);
+
+        backendCalls = new AtomicInteger();
+        backend = exchange -> {
+            backendCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return exchange.getResponse().setComplete();
+        };
+    }
+
+    private GatewayFilter filter(double rate, long burst, List<String> methods) {
+        return factory.apply(c -> {
+            c.setName("submission-service");
+            c.setReplenishRate(rate);
+            c.setBurstCapacity(burst);
+            c.setMethods(methods);
+        });
+    }
+
+    private MockServerWebExchange send(GatewayFilter filter, MockServerHttpRequest request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        filter.filter(exchange, backend).block();
+        return exchange;
+    }
+
+    private MockServerHttpRequest get(String userId) {
+        return MockServerHttpRequest.get("/api/submissions/formatoA").header("X-User-Id", userId).build();
+    }
+
+    /**
+     * Test: se permite la ráfaga completa y luego se responde 429.
+     */
+    @Test
+    void testFilter_BurstExhausted_Returns429() {
+        GatewayFilter filter = filter(1, 2, List.of());
+
+        MockServerWebExchange first = send(filter, get("7"));
+        MockServerWebExchange second = send(filter, get("7"));
+        MockServerWebExchange third = send(filter, get("7"));
+
+        assertEquals(HttpStatus.OK, first.getResponse().getStatusCode());
+        assertEquals("2", first.getResponse().getHeaders().getFirst(RateLimitFilter.LIMIT_HEADER));
+        assertEquals("1", first.getResponse().getHeaders().getFirst(RateLimitFilter.REMAINING_HEADER));
+        assertEquals("2;w=2", first.getResponse().getHeaders().getFirst(RateLimitFilter.POLICY_HEADER));
+        assertEquals("0", second.getResponse().getHeaders().getFirst(RateLimitFilter.REMAINING_HEADER));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, third.getResponse().getStatusCode());
+        assertEquals("1", third.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("2", third.getResponse().getHeaders().getFirst(RateLimitFilter.RESET_HEADER));
+        assertEquals(2, backendCalls.get());
+        assertEquals(1.0, meterRegistry.get("gateway.rate-limit.requests")
+                .tag("policy", "submission-service").tag("result", "rejected").counter().count());
+    }
+
+    /**
+     * Test: los tokens se recargan según replenishRate.
+     */
+    @Test
+    void testFilter_AfterRefill_AllowsAgain() {
+        GatewayFilter filter = filter(1, 1, List.of());
+
+        send(filter, get("7"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, send(filter, get("7")).getResponse().getStatusCode());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(HttpStatus.OK, send(filter, get("7")).getResponse().getStatusCode());
+    }
+
+    /**
+     * Test: cada usuario tiene su propio bucket.
+     */
+    @Test
+    void testFilter_DifferentUsers_IndependentBuckets() {
+        GatewayFilter filter = filter(1, 1, List.of());
+
+        send(filter, get("7"));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, send(filter, get("7")).getResponse().getStatusCode());
+        assertEquals(HttpStatus.OK, send(filter, get("8")).getResponse().getStatusCode());
+    }
+
+    /**
+     * Test: una política restringida a POST no limita las consultas GET.
+     */
+    @Test
+    void testFilter_MethodRestrictedPolicy_IgnoresOtherMethods() {
+        GatewayFilter filter = filter(1, 1, List.of("POST"));
+
+        for (int i = 0; i < 5; i++) {
+            MockServerWebExchange exchange = send(filter, get("7"));
+            assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+            assertNull(exchange.getResponse().getHeaders().getFirst(RateLimitFilter.LIMIT_HEADER));
+        }
+
+        MockServerHttpRequest upload = MockServerHttpRequest.post("/api/submissions/formatoA")
+                .header("X-User-Id", "7").build();
+        assertEquals(HttpStatus.OK, send(filter, upload).getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, send(filter, upload).getResponse().getStatusCode());
+    }
+
+    /**
+     * Test: una política de subidas (multipart/*) no limita las escrituras JSON.
+     */
+    @Test
+    void testFilter_ContentTypeRestrictedPolicy_IgnoresNonMultipartWrites() {
+        GatewayFilter filter = factory.apply(c -> {
+            c.setName("submission-uploads");
+            c.setReplenishRate(1);
+            c.setBurstCapacity(1);
+            c.setMethods(List.of("POST", "PUT"));
+            c.setContentTypes(List.of("multipart/*"));
+        });
+
+        for (int i = 0; i < 5; i++) {
+            MockServerHttpRequest json = MockServerHttpRequest.put("/api/submissions/formatoA/7/estado")
+                    .header("X-User-Id", "7").contentType(MediaType.APPLICATION_JSON).build();
+            assertEquals(HttpStatus.OK, send(filter, json).getResponse().getStatusCode());
+        }
+
+        MockServerHttpRequest upload = MockServerHttpRequest.post("/api/submissions/formatoA")
+                .header("X-User-Id", "7")
+                .contentType(MediaType.parseMediaType("multipart/form-data; boundary=abc")).build();
+        assertEquals(HttpStatus.OK, send(filter, upload).getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, send(filter, upload).getResponse().getStatusCode());
+    }
+}
@@ -0,0 +1,104 @@
+package co.unicauca.gateway.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.ssl.DefaultSslBundleRegistry;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para BackendConnectionPools.
+ *
+ * Verifica:
+ * - La resolución de ajustes por pool con valores por defecto comunes
+ * - Que las rutas con el mismo pool comparten cliente y las demás no
+ *
+ * @author Gateway Team
+ */
+class BackendConnectionPoolsTest {
+
+    private BackendConnectionPools pools;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("gateway.httpclient.pool.max-connections", "80")
+                .withProperty("gateway.httpclient.pool.pending-acquire-timeout-ms", "1500")
+                .withProperty("gateway.httpclient.pools.submission-service.max-connections", "20")
+                .withProperty("gateway.httpclient.pools.submission-service.h2c", "true");
+        HttpClientProperties properties = new HttpClientProperties();
+        ServerProperties serverProperties = new ServerProperties();
+        pools = new BackendConnectionPools(environment, properties, serverProperties,
+                new HttpClientSslConfigurer(properties.getSsl(), serverProperties, new DefaultSslBundleRegistry()),
+                List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        pools.destroy();
+    }
+
+    private static Route route(String id, String pool) {
+        Route.AsyncBuilder builder = Route.async()
+                .id(id)
+                .uri("lb://" + id)
+                .predicate(exchange -> true);
+        if (pool != null) {
+            builder.metadata(BackendConnectionPools.POOL_METADATA, pool);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Test: cada pool toma sus propios valores y hereda el resto de los comunes.
+     */
+    @Test
+    void testSettings_PerPoolOverridesAndDefaults() {
+        BackendConnectionPools.PoolSettings submission = pools.settings("submission-service");
+        BackendConnectionPools.PoolSettings identity = pools.settings("identity-service");
+
+        assertEquals(20, submission.maxConnections());
+        assertTrue(submission.h2c());
+        assertEquals(Duration.ofMillis(1500), submission.pendingAcquireTimeout());
+
+        assertEquals(80, identity.maxConnections());
+        assertFalse(identity.h2c());
+        assertEquals(200, identity.pendingAcquireMaxCount());
+        assertEquals(Duration.ofSeconds(30), identity.maxIdleTime());
+    }
+
+    /**
+     * Test: las rutas de un mismo pool comparten cliente y las de otro pool no.
+     */
+    @Test
+    void testClientFor_RoutesSharingPoolShareClient() {
+        HttpClient identity = pools.clientFor(route("identity-service", "identity-service"));
+        HttpClient shortcut = pools.clientFor(route("identity-service-shortcut", "identity-service"));
+        HttpClient submission = pools.clientFor(route("submission-service", "submission-service"));
+
+        assertSame(identity, shortcut);
+        assertNotSame(identity, submission);
+        assertNotSame(identity.configuration().connectionProvider(),
+                submission.configuration().connectionProvider());
+    }
+
+    /**
+     * Test: sin metadata el pool se llama como la ruta.
+     */
+    @Test
+    void testPoolName_DefaultsToRouteId() {
+        assertEquals("notification-service", BackendConnectionPools.poolName(route("notification-service", null)));
+        assertEquals("identity-service",
+                BackendConnectionPools.poolName(route("identity-service-shortcut", "identity-service")));
+    }
+}
@@ -0,0 +1,113 @@
+package co.unicauca.gateway.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para JwtClaimsCache.
+ *
+ * Verifica:
+ * - Hits y misses al reutilizar el mismo token
+ * - Que los tokens inválidos no se cachean
+ * - El límite de tamaño y el contador de expulsiones
+ *
+ * @author Gateway Team
+ */
+class JwtClaimsCacheTest {
+
+    private static final String SECRET = "test-secret-key-for-jwt-validation-minimum-256-bits";
+
+    private SecretKey signingKey;
+    private MeterRegistry meterRegistry;
+    private JwtClaimsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        signingKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        meterRegistry = new SimpleMeterRegistry();
+
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+
+        cache = new JwtClaimsCache(jwtUtils, meterRegistry, 2, 300);
+    }
+
+    private String token(String email, long ttlMillis) {
+        return Jwts.builder()
+                .subject(email)
+                .claim("userId", 123)
+                .claim("rol", "DOCENTE")
+                .expiration(new Date(System.currentTimeMillis() + ttlMillis))
+                .signWith(signingKey)
+                .compact();
+    }
+
+    private double count(String name, String result) {
+        return meterRegistry.get(name).tag("result", result).counter().count();
+    }
+
+    /**
+     * Test: el segundo acceso con el mismo token debe ser un hit.
+     */
+    @Test
+    void testGetClaims_SameToken_SecondCallIsHit() {
+        String token = token("docente@unicauca.edu.co", 60000);
+
+        Map<String, String> first = cache.getClaims(token);
+        Map<String, String> second = cache.getClaims(token);
+
+        assertEquals("123", first.get("userId"));
+        assertEquals("DOCENTE", first.get("role"));
+        assertEquals(first, second);
+        assertEquals(1.0, count("gateway.jwt.cache.requests", "miss"));
+        assertEquals(1.0, count("gateway.jwt.cache.requests", "hit"));
+    }
+
+    /**
+     * Test: un token inválido retorna mapa vacío y no se cachea.
+     */
+    @Test
+    void testGetClaims_InvalidToken_NotCached() {
+        assertTrue(cache.getClaims("invalid.jwt.token").isEmpty());
+        assertTrue(cache.getClaims("invalid.jwt.token").isEmpty());
+
+        assertEquals(0, cache.size());
+        assertEquals(2.0, count("gateway.jwt.cache.requests", "miss"));
+    }
+
+    /**
+     * Test: un token expirado es rechazado.
+     */
+    @Test
+    void testGetClaims_ExpiredToken_ReturnsEmpty() {
+        String token = token("docente@unicauca.edu.co", -1000);
+
+        assertTrue(cache.getClaims(token).isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Test: al superar maxSize se expulsan entradas.
+     */
+    @Test
+    void testGetClaims_OverMaxSize_Evicts() {
+        cache.getClaims(token("a@unicauca.edu.co", 60000));
+        cache.getClaims(token("b@unicauca.edu.co", 60000));
+        cache.getClaims(token("c@unicauca.edu.co", 60000));
+
+        assertTrue(cache.size() <= 2, "La cache no debería superar su tamaño máximo");
+        assertTrue(meterRegistry.get("gateway.jwt.cache.evictions").counter().count() >= 1.0);
+    }
+}
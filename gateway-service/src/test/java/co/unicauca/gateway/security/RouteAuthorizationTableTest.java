@@ -0,0 +1,94 @@
+package co.unicauca.gateway.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para RouteAuthorizationTable y PathTrie.
+ *
+ * Verifica:
+ * - Rutas públicas exactas y con "**"
+ * - Roles por ruta, por método y con "*"
+ * - Recompilación en caliente ante EnvironmentChangeEvent
+ *
+ * @author Gateway Team
+ */
+class RouteAuthorizationTableTest {
+
+    private MockEnvironment environment;
+    private RouteAuthorizationTable table;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment()
+                .withProperty("gateway.security.publicPaths[0]", "/api/auth/login")
+                .withProperty("gateway.security.publicPaths[1]", "/swagger-ui/**")
+                .withProperty("gateway.security.roleRules[0].path", "/api/submissions/formatoA")
+                .withProperty("gateway.security.roleRules[0].methods[0]", "POST")
+                .withProperty("gateway.security.roleRules[0].roles[0]", "DOCENTE")
+                .withProperty("gateway.security.roleRules[1].path", "/api/submissions/formatoA")
+                .withProperty("gateway.security.roleRules[1].roles[0]", "DOCENTE")
+                .withProperty("gateway.security.roleRules[1].roles[1]", "COORDINADOR")
+                .withProperty("gateway.security.roleRules[2].path", "/api/submissions/formatoA/*/estado")
+                .withProperty("gateway.security.roleRules[2].roles[0]", "COORDINADOR");
+
+        table = new RouteAuthorizationTable(environment);
+    }
+
+    /**
+     * Test: rutas públicas exactas y con comodín "**".
+     */
+    @Test
+    void testIsPublic_ExactAndWildcard() {
+        assertTrue(table.isPublic("/api/auth/login"));
+        assertTrue(table.isPublic("/swagger-ui"));
+        assertTrue(table.isPublic("/swagger-ui/index.html"));
+
+        assertFalse(table.isPublic("/api/auth/login/extra"));
+        assertFalse(table.isPublic("/api/submissions/formatoA"));
+        assertEquals(2, table.publicPathCount());
+    }
+
+    /**
+     * Test: la regla específica del método tiene prioridad sobre la genérica.
+     */
+    @Test
+    void testRequiredRoles_MethodSpecificRule() {
+        assertEquals(List.of("DOCENTE"),
+                table.requiredRoles(HttpMethod.POST, "/api/submissions/formatoA"));
+        assertEquals(List.of("DOCENTE", "COORDINADOR"),
+                table.requiredRoles(HttpMethod.GET, "/api/submissions/formatoA"));
+    }
+
+    /**
+     * Test: "*" coincide con un único segmento.
+     */
+    @Test
+    void testRequiredRoles_SingleSegmentWildcard() {
+        assertEquals(List.of("COORDINADOR"),
+                table.requiredRoles(HttpMethod.PATCH, "/api/submissions/formatoA/15/estado"));
+        assertNull(table.requiredRoles(HttpMethod.GET, "/api/submissions/formatoA/15"));
+        assertNull(table.requiredRoles(HttpMethod.GET, "/api/notifications"));
+    }
+
+    /**
+     * Test: la tabla se recompila al cambiar propiedades gateway.security.*.
+     */
+    @Test
+    void testOnEnvironmentChange_ReloadsTable() {
+        environment.setProperty("gateway.security.publicPaths[2]", "/api/gateway/health");
+
+        table.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("gateway.security.publicPaths[2]")));
+
+        assertTrue(table.isPublic("/api/gateway/health"));
+        assertEquals(3, table.publicPathCount());
+    }
+}
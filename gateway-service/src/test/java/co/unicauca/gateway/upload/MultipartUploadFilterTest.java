@@ -0,0 +1,178 @@
+package co.unicauca.gateway.upload;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para MultipartUploadFilter y MultipartInspector.
+ *
+ * Verifica:
+ * - Una subida PDF válida llega íntegra al backend aunque el delimitador
+ *   quede partido entre fragmentos
+ * - 415 para archivos que no son PDF
+ * - 413 por Content-Length y por bytes recibidos en streaming
+ *
+ * @author Gateway Team
+ */
+class MultipartUploadFilterTest {
+
+    private static final String BOUNDARY = "----gatewayBoundary7MA4YWxk";
+
+    private GatewayFilter filter;
+    private AtomicInteger backendCalls;
+    private AtomicReference<byte[]> receivedBody;
+    private GatewayFilterChain backend;
+
+    @BeforeEach
+    void setUp() {
+        MultipartUploadFilter factory = new MultipartUploadFilter(new SimpleMeterRegistry());
+        filter = factory.apply(c -> {
+            c.setPaths(List.of("/api/submissions/formatoA"));
+            c.setMaxRequestBytes(4096);
+            c.setMaxFileBytes(1024);
+        });
+
+        backendCalls = new AtomicInteger();
+        receivedBody = new AtomicReference<>();
+        // El backend lee todo el cuerpo, como lo haría el cliente HTTP del gateway
+        backend = exchange -> DataBufferUtils.join(exchange.getRequest().getBody())
+                .doOnNext(buffer -> {
+                    backendCalls.incrementAndGet();
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    receivedBody.set(bytes);
+                    exchange.getResponse().setStatusCode(HttpStatus.CREATED);
+                })
+                .then(Mono.defer(() -> exchange.getResponse().setComplete()));
+    }
+
+    private static byte[] multipart(byte[] pdf, String fileName) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"titulo\"\r\n\r\n"
+                + "Sistema de gestión\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"pdf\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: application/pdf\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(pdf);
+        out.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    private static byte[] pdf(int size) {
+        byte[] bytes = new byte[size];
+        Arrays.fill(bytes, (byte) 'x');
+        System.arraycopy(MultipartInspector.PDF_MAGIC, 0, bytes, 0, MultipartInspector.PDF_MAGIC.length);
+        return bytes;
+    }
+
+    /**
+     * Envía el cuerpo en fragmentos de chunkSize bytes (sin Content-Length si chunked).
+     */
+    private MockServerWebExchange upload(byte[] body, int chunkSize, boolean chunked) {
+        List<DataBuffer> chunks = new ArrayList<>();
+        for (int offset = 0; offset < body.length; offset += chunkSize) {
+            byte[] chunk = Arrays.copyOfRange(body, offset, Math.min(body.length, offset + chunkSize));
+            chunks.add(DefaultDataBufferFactory.sharedInstance.wrap(chunk));
+        }
+
+        MockServerHttpRequest.BodyBuilder request = MockServerHttpRequest.post("/api/submissions/formatoA")
+                .header(HttpHeaders.CONTENT_TYPE, "multipart/form-data; boundary=" + BOUNDARY);
+        if (!chunked) {
+            request.contentLength(body.length);
+        }
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(request.body(Flux.fromIterable(chunks)));
+        filter.filter(exchange, backend).block();
+        return exchange;
+    }
+
+    /**
+     * Test: PDF válido en fragmentos pequeños llega íntegro al backend.
+     */
+    @Test
+    void testFilter_ValidPdf_StreamedUnchanged() {
+        byte[] body = multipart(pdf(600), "formatoA.pdf");
+
+        MockServerWebExchange exchange = upload(body, 7, false);
+
+        assertEquals(HttpStatus.CREATED, exchange.getResponse().getStatusCode());
+        assertArrayEquals(body, receivedBody.get());
+    }
+
+    /**
+     * Test: un archivo que no empieza con %PDF- se rechaza con 415.
+     */
+    @Test
+    void testFilter_NotPdf_Returns415() {
+        byte[] body = multipart("PK\u0003\u0004 zip content".getBytes(StandardCharsets.ISO_8859_1), "formatoA.docx");
+
+        MockServerWebExchange exchange = upload(body, 16, false);
+
+        assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, exchange.getResponse().getStatusCode());
+        assertTrue(exchange.getResponse().getBodyAsString().block().contains("not a PDF"));
+        assertEquals(0, backendCalls.get());
+    }
+
+    /**
+     * Test: Content-Length excesivo se rechaza sin leer el cuerpo.
+     */
+    @Test
+    void testFilter_ContentLengthTooLarge_Returns413WithoutBackend() {
+        byte[] body = multipart(pdf(5000), "formatoA.pdf");
+
+        MockServerWebExchange exchange = upload(body, 512, false);
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, exchange.getResponse().getStatusCode());
+        assertEquals(0, backendCalls.get());
+    }
+
+    /**
+     * Test: archivo mayor que maxFileBytes en un cuerpo chunked se rechaza con 413.
+     */
+    @Test
+    void testFilter_ChunkedFileTooLarge_Returns413() {
+        byte[] body = multipart(pdf(2000), "formatoA.pdf");
+
+        MockServerWebExchange exchange = upload(body, 100, true);
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, exchange.getResponse().getStatusCode());
+        assertEquals(0, backendCalls.get());
+    }
+
+    /**
+     * Test: un input de archivo vacío (filename="") no se valida como PDF.
+     */
+    @Test
+    void testFilter_EmptyOptionalFile_Passes() {
+        byte[] body = multipart(new byte[0], "");
+
+        MockServerWebExchange exchange = upload(body, 5, true);
+
+        assertEquals(HttpStatus.CREATED, exchange.getResponse().getStatusCode());
+        assertArrayEquals(body, receivedBody.get());
+    }
+}
@@ -0,0 +1,55 @@
+package com.unicauca.identity.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de BCrypt (encode en el registro, matches en el login) según la
+ * fuerza configurada en identity.password-hashing.bcrypt-strength.
+ *
+ * Cada punto de fuerza duplica el tiempo. Con el pool de hash dimensionado a
+ * un hilo por núcleo, la capacidad de logins por segundo es aproximadamente
+ * núcleos / tiempo de matches: conviene la mayor fuerza que mantenga esa
+ * capacidad por encima del pico esperado.
+ *
+ * Ejecución:
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="PasswordHashing"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "Unicauca2024*";
+
+    @Param({"8", "10", "12"})
+    public int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, hash);
+    }
+}
@@ -3,12 +3,14 @@ package com.unicauca.identity;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Clase principal del microservicio de identidad
  */
 @SpringBootApplication
 @EnableJpaAuditing
+@EnableScheduling
 public class IdentityServiceApplication {
 
     public static void main(String[] args) {
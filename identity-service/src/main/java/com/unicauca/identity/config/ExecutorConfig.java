@@ -0,0 +1,27 @@
+package com.unicauca.identity.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Configuración de los ejecutores compartidos del servicio
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Ejecutor de hilos virtuales compartido para tareas en paralelo (p. ej. verificación de tokens en lote).
+     * Se cierra con el contexto; sus métricas se publican como identity.virtual.executor.*
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService virtualThreadExecutor(MeterRegistry meterRegistry) {
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("identity-vt-", 0).factory());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "identity.virtual");
+    }
+}
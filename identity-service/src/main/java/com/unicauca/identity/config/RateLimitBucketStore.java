@@ -0,0 +1,155 @@
+package com.unicauca.identity.config;
+
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Almacén acotado de buckets de rate limiting por clave de cliente.
+ *
+ * Sustituye a un ConcurrentHashMap que nunca se vaciaba: con muchas IPs
+ * distintas (ataques de credential stuffing, eventos en la red del campus) la
+ * memoria crecía sin límite. Aquí:
+ * - Las claves se reparten en shards con su propio lock, para no serializar
+ *   todas las peticiones en un único lock
+ * - Cada shard es un LRU con capacidad maxBuckets / shards: al llenarse se
+ *   descarta el bucket usado hace más tiempo
+ * - Un bucket sin uso durante idleExpiry se elimina al acceder al shard. Si
+ *   idleExpiry es al menos el tiempo de recarga completa, eliminarlo equivale
+ *   a dejarlo lleno, así que no relaja el límite
+ *
+ * Métricas: identity.ratelimit.buckets (buckets vivos) e
+ * identity.ratelimit.evictions{reason=idle|capacity}
+ */
+public class RateLimitBucketStore {
+
+    private final Shard[] shards;
+    private final long idleExpiryNanos;
+    private final Supplier<Bucket> bucketFactory;
+    private final LongSupplier nanoClock;
+    private final Counter idleEvictions;
+    private final Counter capacityEvictions;
+
+    public RateLimitBucketStore(int maxBuckets, int shardCount, Duration idleExpiry,
+                                Supplier<Bucket> bucketFactory, MeterRegistry meterRegistry) {
+        this(maxBuckets, shardCount, idleExpiry, bucketFactory, meterRegistry, System::nanoTime);
+    }
+
+    RateLimitBucketStore(int maxBuckets, int shardCount, Duration idleExpiry,
+                         Supplier<Bucket> bucketFactory, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        int count = Integer.highestOneBit(Math.max(1, shardCount));
+        int perShard = Math.max(1, (maxBuckets + count - 1) / count);
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(perShard);
+        }
+        this.idleExpiryNanos = idleExpiry.toNanos();
+        this.bucketFactory = bucketFactory;
+        this.nanoClock = nanoClock;
+        this.idleEvictions = Counter.builder("identity.ratelimit.evictions")
+                .tag("reason", "idle")
+                .register(meterRegistry);
+        this.capacityEvictions = Counter.builder("identity.ratelimit.evictions")
+                .tag("reason", "capacity")
+                .register(meterRegistry);
+        Gauge.builder("identity.ratelimit.buckets", this, RateLimitBucketStore::size).register(meterRegistry);
+    }
+
+    /**
+     * Obtiene el bucket de una clave, creándolo si no existe o si caducó por inactividad
+     */
+    public Bucket bucketFor(String key) {
+        return bucketFor(key, bucketFactory);
+    }
+
+    /**
+     * Obtiene el bucket de una clave creándolo, si hace falta, con otra
+     * configuración (por ejemplo, un límite más amplio para una clase de claves)
+     */
+    public Bucket bucketFor(String key, Supplier<Bucket> factory) {
+        Shard shard = shards[spread(key.hashCode()) & (shards.length - 1)];
+        long now = nanoClock.getAsLong();
+        shard.lock.lock();
+        try {
+            shard.expireIdle(now);
+            Entry entry = shard.entries.get(key);
+            if (entry == null) {
+                entry = new Entry(factory.get());
+                shard.entries.put(key, entry);
+            }
+            entry.lastAccess = now;
+            return entry.bucket;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Número de buckets vivos
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                size += shard.entries.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Entry {
+        private final Bucket bucket;
+        private long lastAccess;
+
+        private Entry(Bucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+
+    private final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, Entry> entries;
+
+        private Shard(int capacity) {
+            // Orden de acceso: el primero es siempre el usado hace más tiempo
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    if (size() > capacity) {
+                        capacityEvictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private void expireIdle(long now) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry eldest = iterator.next();
+                if (now - eldest.lastAccess < idleExpiryNanos) {
+                    return;
+                }
+                iterator.remove();
+                idleEvictions.increment();
+            }
+        }
+    }
+}
@@ -1,5 +1,12 @@
 package com.unicauca.identity.config;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unicauca.identity.dto.request.VerifyTokenBatchRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,10 +14,16 @@ import org.springframework.http.HttpMethod;
 import org.springframework.security.web.servlet.util.matcher.MvcRequestMatcher;
 import org.springframework.web.servlet.handler.HandlerMappingIntrospector;
 
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Supplier;
 
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
@@ -24,7 +37,18 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
 /**
- * Configuración para limitar el número de solicitudes por IP
+ * Configuración para limitar el número de solicitudes por IP.
+ *
+ * Los buckets se guardan en un {@link RateLimitBucketStore} acotado (max-buckets)
+ * que elimina los buckets inactivos. Con login-key-by-email cada /login consume
+ * de dos buckets: uno por IP + email y otro por IP, login-ip-capacity-factor
+ * veces más amplio. Muchos usuarios detrás de la misma IP (NAT del campus) no
+ * comparten un único bucket, pero una IP que prueba contraseñas contra muchas
+ * cuentas sigue limitada por su bucket de IP.
+ *
+ * /verify-token/batch usa un bucket por IP propio, verify-token-batch-capacity-factor
+ * veces más amplio, del que cada petición consume un token por cada JWT del lote:
+ * verificar N tokens en lote cuesta lo mismo que N llamadas a /verify-token.
  */
 @Configuration
 public class RateLimitingConfig implements WebMvcConfigurer {
@@ -41,6 +65,40 @@ public class RateLimitingConfig implements WebMvcConfigurer {
     @Value("${rate-limiting.refill-duration:1}")
     private int refillDuration;
 
+    @Value("${rate-limiting.max-buckets:100000}")
+    private int maxBuckets = 100000;
+
+    @Value("${rate-limiting.shards:16}")
+    private int shards = 16;
+
+    // 0: el tiempo de recarga completa del bucket
+    @Value("${rate-limiting.idle-expiry-seconds:0}")
+    private long idleExpirySeconds;
+
+    @Value("${rate-limiting.login-key-by-email:false}")
+    private boolean loginKeyByEmail;
+
+    // Capacidad del bucket de IP de /login, en múltiplos de capacity, cuando también se limita por email
+    @Value("${rate-limiting.login-ip-capacity-factor:5}")
+    private int loginIpCapacityFactor = 5;
+
+    // Capacidad del bucket de /verify-token/batch (en tokens verificados), en múltiplos de capacity;
+    // nunca menor que un lote completo
+    @Value("${rate-limiting.verify-token-batch-capacity-factor:5}")
+    private int verifyTokenBatchCapacityFactor = 5;
+
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    private static final int MAX_LOGIN_BODY_BYTES = 8192;
+    // Un lote completo de JWT cabe con holgura
+    private static final int MAX_BATCH_BODY_BYTES = 256 * 1024;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @Bean
     public OncePerRequestFilter rateLimitFilter(HandlerMappingIntrospector introspector) {
         // Matcher para rutas sensibles que queremos limitar
@@ -50,43 +108,75 @@ public class RateLimitingConfig implements WebMvcConfigurer {
         MvcRequestMatcher verifyTokenMatcher = new MvcRequestMatcher(introspector, "/api/auth/verify-token");
         verifyTokenMatcher.setMethod(HttpMethod.POST);
 
+        MvcRequestMatcher verifyTokenBatchMatcher = new MvcRequestMatcher(introspector, "/api/auth/verify-token/batch");
+        verifyTokenBatchMatcher.setMethod(HttpMethod.POST);
+
+        RateLimitBucketStore buckets = new RateLimitBucketStore(
+                maxBuckets, shards, idleExpiry(), this::createBucket, meterRegistry);
+        Counter loginRejections = rejectionCounter("login");
+        Counter verifyTokenRejections = rejectionCounter("verify-token");
+        Counter verifyTokenBatchRejections = rejectionCounter("verify-token-batch");
+        int loginIpFactor = Math.max(1, loginIpCapacityFactor);
+        Supplier<Bucket> loginIpBucketFactory = () -> createBucket(loginIpFactor);
+        int batchFactor = Math.max(Math.max(1, verifyTokenBatchCapacityFactor),
+                (VerifyTokenBatchRequest.MAX_BATCH_SIZE + capacity - 1) / Math.max(1, capacity));
+        Supplier<Bucket> batchBucketFactory = () -> createBucket(batchFactor);
+
         return new OncePerRequestFilter() {
-            private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
 
             @Override
             protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
                     throws ServletException, IOException {
 
                 // Si el rate limiting está deshabilitado o no es una ruta sensible, continuamos
-                if (!enabled || (!loginMatcher.matches(request) && !verifyTokenMatcher.matches(request))) {
+                if (!enabled || (!loginMatcher.matches(request) && !verifyTokenMatcher.matches(request)
+                        && !verifyTokenBatchMatcher.matches(request))) {
                     filterChain.doFilter(request, response);
                     return;
                 }
 
                 // Obtener la IP real del cliente (considerando proxies)
-                String ip = getClientIP(request);
+                String key = getClientIP(request);
+                boolean login = loginMatcher.matches(request);
+                boolean batch = verifyTokenBatchMatcher.matches(request);
 
-                // Crear o obtener el bucket para esta IP
-                Bucket bucket = buckets.computeIfAbsent(ip, key -> createBucket());
+                boolean allowed;
+                long contentLength = request.getContentLengthLong();
+                if (batch) {
+                    // Un token del bucket del lote por cada JWT a verificar. Sin tamaño conocido o
+                    // demasiado grande para leerlo, se cobra un lote completo
+                    int cost = VerifyTokenBatchRequest.MAX_BATCH_SIZE;
+                    if (contentLength > 0 && contentLength <= MAX_BATCH_BODY_BYTES) {
+                        CachedBodyRequest cached = CachedBodyRequest.of(request);
+                        request = cached;
+                        cost = cached.tokenCount();
+                    }
+                    allowed = buckets.bucketFor("verify-batch|" + key, batchBucketFactory).tryConsume(cost);
+                } else if (login && loginKeyByEmail && contentLength > 0 && contentLength <= MAX_LOGIN_BODY_BYTES) {
+                    // En /login, bucket de IP (más amplio) y bucket de IP + email: hace falta token en ambos.
+                    // El cuerpo se guarda para el controlador
+                    CachedBodyRequest cached = CachedBodyRequest.of(request);
+                    request = cached;
+                    String email = cached.email();
+                    allowed = buckets.bucketFor("login-ip|" + key, loginIpBucketFactory).tryConsume(1)
+                            && (email == null || buckets.bucketFor(key + "|" + email).tryConsume(1));
+                } else {
+                    // Crear u obtener el bucket de la IP y consumir un token
+                    allowed = buckets.bucketFor(key).tryConsume(1);
+                }
 
-                // Consumir un token del bucket
-                if (bucket.tryConsume(1)) {
+                if (allowed) {
                     // Si hay tokens disponibles, continuamos
                     filterChain.doFilter(request, response);
                 } else {
                     // Si no hay tokens, devolvemos un error 429 Too Many Requests
+                    (login ? loginRejections : batch ? verifyTokenBatchRejections : verifyTokenRejections).increment();
                     response.setStatus(429); // Código para Too Many Requests
                     response.setContentType("application/json");
                     response.getWriter().write("{\"success\":false,\"message\":\"Demasiadas solicitudes. Intente de nuevo más tarde.\"}");
                 }
             }
 
-            private Bucket createBucket() {
-                Refill refill = Refill.intervally(refillTokens, java.time.Duration.ofSeconds(refillDuration));
-                Bandwidth limit = Bandwidth.classic(capacity, refill);
-                return Bucket.builder().addLimit(limit).build();
-            }
-
             private String getClientIP(HttpServletRequest request) {
                 String ip = request.getHeader("X-Forwarded-For");
                 if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
@@ -108,4 +198,120 @@ public class RateLimitingConfig implements WebMvcConfigurer {
             }
         };
     }
+
+    private Bucket createBucket() {
+        return createBucket(1);
+    }
+
+    /**
+     * Bucket con capacidad y recarga multiplicadas por factor (mismo tiempo de recarga completa)
+     */
+    private Bucket createBucket(int factor) {
+        Refill refill = Refill.intervally((long) refillTokens * factor, Duration.ofSeconds(refillDuration));
+        Bandwidth limit = Bandwidth.classic((long) capacity * factor, refill);
+        return Bucket.builder().addLimit(limit).build();
+    }
+
+    /**
+     * Inactividad tras la que se elimina un bucket: la configurada o, por defecto,
+     * lo que tarda en recargarse por completo (eliminarlo antes relajaría el límite)
+     */
+    private Duration idleExpiry() {
+        if (idleExpirySeconds > 0) {
+            return Duration.ofSeconds(idleExpirySeconds);
+        }
+        long refills = (capacity + refillTokens - 1) / Math.max(1, refillTokens);
+        return Duration.ofSeconds(Math.max(1, refills * refillDuration));
+    }
+
+    private Counter rejectionCounter(String endpoint) {
+        return Counter.builder("identity.ratelimit.rejections")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Petición con el cuerpo leído en memoria, para extraer el email o el número
+     * de tokens y seguir entregándolo al controlador
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        static CachedBodyRequest of(HttpServletRequest request) throws IOException {
+            return new CachedBodyRequest(request, request.getInputStream().readAllBytes());
+        }
+
+        String email() {
+            try {
+                JsonNode email = OBJECT_MAPPER.readTree(body).get("email");
+                return email != null && email.isTextual() ? email.asText().trim().toLowerCase() : null;
+            } catch (IOException e) {
+                // JSON inválido: se limita solo por IP y el controlador responde el error
+                return null;
+            }
+        }
+
+        /**
+         * Número de JWT del lote, entre 1 y MAX_BATCH_SIZE (un lote mayor se cobra
+         * completo; el controlador lo rechaza igualmente)
+         */
+        int tokenCount() {
+            try {
+                JsonNode tokens = OBJECT_MAPPER.readTree(body).get("tokens");
+                int count = tokens != null && tokens.isArray() ? tokens.size() : 1;
+                return Math.min(Math.max(count, 1), VerifyTokenBatchRequest.MAX_BATCH_SIZE);
+            } catch (IOException e) {
+                // JSON inválido: un solo token y el controlador responde el error
+                return 1;
+            }
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // El cuerpo ya está en memoria: todo está disponible de inmediato
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
 }
@@ -1,8 +1,12 @@
 package com.unicauca.identity.config;
 
+import com.unicauca.identity.security.BoundedPasswordEncoder;
 import com.unicauca.identity.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -15,6 +19,8 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import java.time.Duration;
+
 /**
  * Configuración de seguridad para Spring Security
  */
@@ -38,10 +44,14 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         // Endpoints públicos (sin autenticación)
-                        .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/verify-token").permitAll()
+                        .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/verify-token", "/api/auth/verify-token/batch").permitAll()
                         .requestMatchers("/api/auth/users/search").permitAll() // ✅ PERMITIDO SIN AUTENTICACIÓN
+                        .requestMatchers(HttpMethod.GET, "/api/auth/roles/*/holders").permitAll() // Llamadas entre servicios, como search
                         .requestMatchers("/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                         .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                        .requestMatchers("/api/auth/admin/**").hasRole("ADMIN")
+                        // Directorio completo para réplicas de otros servicios: solo con cuenta de servicio ADMIN
+                        .requestMatchers(HttpMethod.GET, "/api/auth/users/snapshot").hasRole("ADMIN")
                         // Todos los demás endpoints requieren autenticación
                         .anyRequest().authenticated()
                 )
@@ -51,9 +61,18 @@ public class SecurityConfig {
                 .build();
     }
 
+    /**
+     * BCrypt ejecutado en un pool dedicado y acotado, fuera de los hilos de Tomcat.
+     * Con el pool saturado las operaciones se rechazan con 503.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10);
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${identity.password-hashing.bcrypt-strength:10}") int strength,
+                                           @Value("${identity.password-hashing.threads:0}") int threads,
+                                           @Value("${identity.password-hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${identity.password-hashing.timeout-ms:5000}") long timeoutMs) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads, queueCapacity,
+                Duration.ofMillis(timeoutMs), meterRegistry);
     }
 
     @Bean
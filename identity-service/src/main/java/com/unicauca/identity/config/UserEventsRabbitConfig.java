@@ -0,0 +1,26 @@
+package com.unicauca.identity.config;
+
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de RabbitMQ para los eventos de cambios de usuarios.
+ *
+ * Exchange topic durable con routing keys user.registered, user.updated y
+ * user.role-changed; cada consumidor (submission-service, review-service)
+ * declara su propia cola enlazada a las claves que necesita.
+ *
+ * Se activa con identity.events.enabled=true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "identity.events.enabled", havingValue = "true")
+public class UserEventsRabbitConfig {
+
+    @Bean
+    public TopicExchange userEventsExchange(@Value("${identity.events.exchange:identity-exchange}") String exchange) {
+        return new TopicExchange(exchange, true, false);
+    }
+}
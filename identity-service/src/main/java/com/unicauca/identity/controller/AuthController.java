@@ -2,27 +2,44 @@ package com.unicauca.identity.controller;
 
 import com.unicauca.identity.dto.request.LoginRequest;
 import com.unicauca.identity.dto.request.RegisterRequest;
+import com.unicauca.identity.dto.request.UserBatchRequest;
+import com.unicauca.identity.dto.request.VerifyTokenBatchRequest;
 import com.unicauca.identity.dto.request.VerifyTokenRequest;
 import com.unicauca.identity.dto.response.ApiResponse;
+import com.unicauca.identity.dto.response.KeysetPage;
 import com.unicauca.identity.dto.response.LoginResponse;
+import com.unicauca.identity.dto.response.RoleHoldersResponse;
 import com.unicauca.identity.dto.response.RolesResponse;
 import com.unicauca.identity.dto.response.TokenVerificationResponse;
+import com.unicauca.identity.dto.response.UserBatchResponse;
+import com.unicauca.identity.dto.response.UserImportResponse;
 import com.unicauca.identity.dto.response.UserResponse;
+import com.unicauca.identity.dto.response.UserSnapshotEntry;
 import com.unicauca.identity.enums.Programa;
 import com.unicauca.identity.enums.Rol;
 import com.unicauca.identity.service.AuthService;
+import com.unicauca.identity.service.RoleRosterService;
+import com.unicauca.identity.service.UserImportService;
 import com.unicauca.identity.util.PaginationUtil;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Controlador REST para operaciones de autenticación
  */
@@ -31,11 +48,22 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Autenticación", description = "Operaciones de autenticación y gestión de identidad")
 public class AuthController {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_SNAPSHOT_PAGE_SIZE = 1000;
+
     private final AuthService authService;
+    private final RoleRosterService roleRosterService;
+    private final UserImportService userImportService;
+    private final long holdersMaxAgeSeconds;
 
     // Constructor explícito para la inyección de dependencias
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, RoleRosterService roleRosterService,
+                          UserImportService userImportService,
+                          @Value("${identity.role-roster.max-age-seconds:60}") long holdersMaxAgeSeconds) {
         this.authService = authService;
+        this.roleRosterService = roleRosterService;
+        this.userImportService = userImportService;
+        this.holdersMaxAgeSeconds = holdersMaxAgeSeconds;
     }
 
     @PostMapping("/register")
@@ -80,6 +108,29 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success(rolesAndPrograms));
     }
 
+    @GetMapping("/roles/{rol}/holders")
+    @Operation(summary = "Obtener usuarios con un rol",
+               description = "Devuelve los usuarios con un rol de gestión (p. ej. COORDINADOR, JEFE_DEPARTAMENTO), "
+                       + "opcionalmente por programa. Responde con ETag y admite If-None-Match (304)")
+    public ResponseEntity<ApiResponse<RoleHoldersResponse>> getRoleHolders(
+            @PathVariable Rol rol,
+            @RequestParam(required = false) Programa programa) {
+        RoleRosterService.Holders holders = roleRosterService.getHolders(rol, programa);
+        // Con If-None-Match coincidente Spring responde 304 sin cuerpo
+        return ResponseEntity.ok()
+                .eTag(holders.etag())
+                .cacheControl(CacheControl.maxAge(holdersMaxAgeSeconds, TimeUnit.SECONDS).cachePrivate())
+                .body(ApiResponse.success(holders.response()));
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Cerrar sesión",
+               description = "Revoca el token JWT de la petición: deja de ser válido en verify-token (requiere token JWT)")
+    public ResponseEntity<ApiResponse<Void>> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        authService.logout(authorization.substring("Bearer ".length()));
+        return ResponseEntity.ok(ApiResponse.success(null, "Sesión cerrada exitosamente"));
+    }
+
     @PostMapping("/verify-token")
     @Operation(summary = "Verificar token JWT",
                description = "Verifica si un token JWT es válido y devuelve los datos asociados")
@@ -88,17 +139,73 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/verify-token/batch")
+    @Operation(summary = "Verificar tokens JWT en lote",
+               description = "Verifica hasta " + VerifyTokenBatchRequest.MAX_BATCH_SIZE
+                       + " tokens y devuelve una verificación por token, en el mismo orden")
+    public ResponseEntity<List<TokenVerificationResponse>> verifyTokens(@Valid @RequestBody VerifyTokenBatchRequest request) {
+        List<TokenVerificationResponse> response = authService.verifyTokens(request);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/users/search")
     @Operation(summary = "Buscar usuarios",
-               description = "Busca usuarios según criterios y devuelve resultados paginados (requiere token JWT)")
+               description = "Busca usuarios según criterios y devuelve resultados paginados (requiere token JWT). "
+                       + "Con afterId se pagina por cursor sobre el id (0 para la primera página), sin totales")
     public ResponseEntity<?> searchUsers(
             @RequestParam(required = false) String query,
             @RequestParam(required = false) Rol rol,
             @RequestParam(required = false) Programa programa,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Long afterId) {
+
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        if (afterId != null) {
+            KeysetPage<UserResponse> keysetPage = authService.searchUsersAfter(query, rol, programa, afterId, pageSize);
+            return PaginationUtil.createKeysetResponse(keysetPage);
+        }
 
-        Page<UserResponse> userPage = authService.searchUsers(query, rol, programa, page, size);
+        Page<UserResponse> userPage = authService.searchUsers(query, rol, programa, Math.max(0, page), pageSize);
         return PaginationUtil.createPaginatedResponse(userPage);
     }
+
+    @PostMapping("/users/batch")
+    @Operation(summary = "Resolver usuarios en lote",
+               description = "Devuelve los datos básicos de hasta " + UserBatchRequest.MAX_BATCH_SIZE
+                       + " usuarios por id y/o email en una sola consulta (requiere token JWT)")
+    public ResponseEntity<ApiResponse<UserBatchResponse>> findUsersBatch(@Valid @RequestBody UserBatchRequest request) {
+        UserBatchResponse response = authService.findUsersBatch(request);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping("/users/snapshot")
+    @Operation(summary = "Snapshot del directorio de usuarios",
+               description = "Estado actual de cada usuario con su versión (sequence del último evento), "
+                       + "paginado por cursor sobre el id. Para inicializar réplicas locales: suscribirse a los "
+                       + "eventos, cargar el snapshot y aplicar solo eventos con sequence mayor que la versión "
+                       + "(requiere rol ADMIN)")
+    public ResponseEntity<?> getUserSnapshot(
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "500") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_SNAPSHOT_PAGE_SIZE));
+        KeysetPage<UserSnapshotEntry> snapshot = authService.getUserSnapshot(afterId, pageSize);
+        return PaginationUtil.createKeysetResponse(snapshot);
+    }
+
+    @PostMapping(value = "/admin/users/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Importar usuarios en lote",
+               description = "Crea usuarios desde un CSV (con cabecera) o NDJSON, validados como en el registro. "
+                       + "Los emails existentes se omiten, así que repetir la importación o indicar startRow "
+                       + "la reanuda (requiere rol ADMIN)")
+    public ResponseEntity<ApiResponse<UserImportResponse>> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(defaultValue = "1") long startRow,
+            InputStream body) {
+        UserImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? UserImportService.Format.NDJSON
+                : UserImportService.Format.CSV;
+        UserImportResponse response = userImportService.importUsers(body, format, startRow);
+        return ResponseEntity.ok(ApiResponse.success(response, "Importación finalizada"));
+    }
 }
@@ -5,8 +5,10 @@ import com.unicauca.identity.exception.BusinessException;
 import com.unicauca.identity.exception.EmailAlreadyExistsException;
 import com.unicauca.identity.exception.InvalidCredentialsException;
 import com.unicauca.identity.exception.InvalidTokenException;
+import com.unicauca.identity.exception.ServiceUnavailableException;
 import com.unicauca.identity.exception.UserNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -116,6 +118,19 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error("No tienes permisos para acceder a este recurso"));
     }
 
+    /**
+     * Maneja el rechazo por saturación (p. ej. pool de hash de contraseñas lleno)
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponse<Void>> handleServiceUnavailable(ServiceUnavailableException ex) {
+        log.warn("Solicitud rechazada por saturación: {}", ex.getMessage());
+
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
     /**
      * Maneja excepciones genéricas de negocio
      */
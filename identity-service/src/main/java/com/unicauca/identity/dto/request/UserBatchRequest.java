@@ -0,0 +1,28 @@
+package com.unicauca.identity.dto.request;
+
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO para la resolución de varios usuarios en una sola petición (Java 21 Record)
+ */
+public record UserBatchRequest(
+    @Size(max = UserBatchRequest.MAX_BATCH_SIZE,
+          message = "Se permiten como máximo " + UserBatchRequest.MAX_BATCH_SIZE + " ids por petición")
+    List<Long> ids,
+
+    @Size(max = UserBatchRequest.MAX_BATCH_SIZE,
+          message = "Se permiten como máximo " + UserBatchRequest.MAX_BATCH_SIZE + " emails por petición")
+    List<String> emails
+) {
+    /**
+     * Número máximo de ids (y de emails) por petición
+     */
+    public static final int MAX_BATCH_SIZE = 200;
+
+    public UserBatchRequest {
+        ids = ids != null ? ids : List.of();
+        emails = emails != null ? emails : List.of();
+    }
+}
@@ -0,0 +1,22 @@
+package com.unicauca.identity.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO para la verificación de varios tokens en una sola petición (Java 21 Record)
+ */
+public record VerifyTokenBatchRequest(
+    @NotEmpty(message = "Debe enviar al menos un token")
+    @Size(max = VerifyTokenBatchRequest.MAX_BATCH_SIZE,
+          message = "Se permiten como máximo " + VerifyTokenBatchRequest.MAX_BATCH_SIZE + " tokens por petición")
+    List<@NotBlank(message = "El token es obligatorio") String> tokens
+) {
+    /**
+     * Número máximo de tokens por petición
+     */
+    public static final int MAX_BATCH_SIZE = 100;
+}
@@ -0,0 +1,22 @@
+package com.unicauca.identity.dto.response;
+
+import java.util.List;
+
+/**
+ * Página de resultados paginada por cursor (Java 21 Record).
+ * No incluye totales: se obtiene sin consulta COUNT.
+ *
+ * @param content Elementos de la página, ordenados por id ascendente
+ * @param nextAfterId Cursor para pedir la página siguiente (afterId), o null si no hay más
+ * @param size Tamaño de página solicitado
+ * @param <T> Tipo de los elementos
+ */
+public record KeysetPage<T>(
+    List<T> content,
+    Long nextAfterId,
+    int size
+) {
+    public boolean hasNext() {
+        return nextAfterId != null;
+    }
+}
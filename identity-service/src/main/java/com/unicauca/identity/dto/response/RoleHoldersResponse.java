@@ -0,0 +1,23 @@
+package com.unicauca.identity.dto.response;
+
+import com.unicauca.identity.enums.Programa;
+import com.unicauca.identity.enums.Rol;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO con los usuarios que tienen un rol, opcionalmente filtrados por programa (Java 21 Record)
+ *
+ * @param rol Rol consultado
+ * @param programa Programa consultado, o null para todos
+ * @param holders Usuarios con el rol, ordenados por id
+ * @param refreshedAt Momento en que se cargó el roster desde la base de datos
+ */
+public record RoleHoldersResponse(
+    Rol rol,
+    Programa programa,
+    List<UserSummary> holders,
+    Instant refreshedAt
+) {
+}
@@ -0,0 +1,20 @@
+package com.unicauca.identity.dto.response;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO para la respuesta de resolución de usuarios en lote (Java 21 Record)
+ *
+ * @param users Usuarios encontrados, indexados por id
+ * @param idsByEmail Id de cada email solicitado que existe
+ * @param notFoundIds Ids solicitados que no existen
+ * @param notFoundEmails Emails solicitados que no existen
+ */
+public record UserBatchResponse(
+    Map<Long, UserSummary> users,
+    Map<String, Long> idsByEmail,
+    List<Long> notFoundIds,
+    List<String> notFoundEmails
+) {
+}
@@ -0,0 +1,35 @@
+package com.unicauca.identity.dto.response;
+
+import java.util.List;
+
+/**
+ * DTO para el resultado de una importación masiva de usuarios (Java 21 Record)
+ *
+ * @param processed Filas procesadas (desde startRow)
+ * @param imported Usuarios creados
+ * @param skipped Filas cuyo email ya existía (p. ej. al repetir una importación)
+ * @param failed Filas rechazadas
+ * @param lastRow Última fila procesada; una importación interrumpida se reanuda con startRow = lastRow + 1
+ * @param errors Errores por fila (como máximo identity.user-import.max-errors)
+ * @param errorsTruncated Si se omitieron errores por superar ese máximo
+ */
+public record UserImportResponse(
+    long processed,
+    long imported,
+    long skipped,
+    long failed,
+    long lastRow,
+    List<RowError> errors,
+    boolean errorsTruncated
+) {
+
+    /**
+     * Error de validación o de inserción de una fila
+     *
+     * @param row Número de fila de datos (la cabecera CSV no cuenta)
+     * @param email Email de la fila, si se pudo leer
+     * @param messages Mensajes de error
+     */
+    public record RowError(long row, String email, List<String> messages) {
+    }
+}
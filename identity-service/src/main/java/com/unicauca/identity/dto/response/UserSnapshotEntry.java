@@ -0,0 +1,21 @@
+package com.unicauca.identity.dto.response;
+
+import com.unicauca.identity.enums.Programa;
+import com.unicauca.identity.enums.Rol;
+
+/**
+ * Estado actual de un usuario en el snapshot del directorio (Java 21 Record).
+ *
+ * @param version Sequence del último evento del usuario (0 si no hay eventos retenidos).
+ *                Los eventos con sequence menor o igual ya están incluidos
+ */
+public record UserSnapshotEntry(
+    Long id,
+    String email,
+    String nombres,
+    String apellidos,
+    Rol rol,
+    Programa programa,
+    Long version
+) {
+}
@@ -0,0 +1,18 @@
+package com.unicauca.identity.dto.response;
+
+import com.unicauca.identity.enums.Programa;
+import com.unicauca.identity.enums.Rol;
+
+/**
+ * Proyección compacta de un usuario para resolución en lote (Java 21 Record).
+ * Se construye directamente en la consulta JPQL, sin cargar la entidad completa.
+ */
+public record UserSummary(
+    Long id,
+    String email,
+    String nombres,
+    String apellidos,
+    Rol rol,
+    Programa programa
+) {
+}
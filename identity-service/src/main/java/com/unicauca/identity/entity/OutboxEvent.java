@@ -0,0 +1,54 @@
+package com.unicauca.identity.entity;
+
+import com.unicauca.identity.event.UserEventType;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de usuario pendiente de publicar (outbox transaccional).
+ * El id, secuencial, es también la versión del usuario que envían los eventos.
+ */
+@Entity
+@Table(name = "user_outbox", indexes = {
+    @Index(name = "idx_user_outbox_published_at", columnList = "published_at, id"),
+    @Index(name = "idx_user_outbox_aggregate_id", columnList = "aggregate_id, id")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 50)
+    private UserEventType eventType;
+
+    @Column(name = "payload", nullable = false, length = 4000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    public OutboxEvent(Long aggregateId, UserEventType eventType, String payload, LocalDateTime createdAt) {
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    public void markPublished(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+}
@@ -0,0 +1,39 @@
+package com.unicauca.identity.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Token revocado por logout, identificado por el SHA-256 del token.
+ * Se conserva hasta la expiración del token para que sobreviva a reinicios y
+ * lo vean todas las instancias.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+    @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"),
+    @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class RevokedToken {
+
+    @Id
+    @Column(name = "token_digest", length = 64)
+    private String tokenDigest;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    public RevokedToken(String tokenDigest, Instant expiresAt, Instant revokedAt) {
+        this.tokenDigest = tokenDigest;
+        this.expiresAt = expiresAt;
+        this.revokedAt = revokedAt;
+    }
+}
@@ -3,6 +3,7 @@ package com.unicauca.identity.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.unicauca.identity.enums.Programa;
 import com.unicauca.identity.enums.Rol;
+import com.unicauca.identity.util.SearchTextUtil;
 import com.unicauca.identity.validation.InstitutionalEmail;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
@@ -72,6 +73,10 @@ public class User {
     @JsonIgnore
     private String passwordHash;
 
+    @Column(name = "search_text", nullable = false, length = 500)
+    @JsonIgnore
+    private String searchText;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     @CreatedDate
     private LocalDateTime createdAt;
@@ -80,6 +85,15 @@ public class User {
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
+    /**
+     * Mantiene la columna de búsqueda normalizada (índice de trigramas en PostgreSQL)
+     */
+    @PrePersist
+    @PreUpdate
+    void updateSearchText() {
+        this.searchText = SearchTextUtil.searchText(nombres, apellidos, email);
+    }
+
     // Getters y setters explícitos para evitar problemas con Lombok
     public Long getId() {
         return id;
@@ -145,6 +159,10 @@ public class User {
         this.passwordHash = passwordHash;
     }
 
+    public String getSearchText() {
+        return searchText;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,32 @@
+package com.unicauca.identity.event;
+
+import com.unicauca.identity.dto.response.UserSummary;
+import com.unicauca.identity.enums.Rol;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mensaje publicado en RabbitMQ por cada cambio de usuario (Java 21 Record).
+ *
+ * Lleva el estado completo del usuario, así que aplicarlo es un upsert. Los
+ * consumidores deben ignorar un evento cuya sequence no supere la versión que
+ * ya tienen del usuario (la entrega es al menos una vez y el snapshot trae
+ * esa versión).
+ *
+ * @param sequence Id del evento en el outbox: creciente por usuario, sirve de versión
+ * @param type Nombre del evento (UserRegistered, UserUpdated, UserRoleChanged)
+ * @param occurredAt Momento del cambio
+ * @param user Estado del usuario tras el cambio
+ * @param previousRol Rol anterior (solo en UserRoleChanged)
+ */
+public record UserEvent(
+    Long sequence,
+    String type,
+    LocalDateTime occurredAt,
+    UserSummary user,
+    Rol previousRol
+) {
+    public UserEvent withSequence(Long sequence) {
+        return new UserEvent(sequence, type, occurredAt, user, previousRol);
+    }
+}
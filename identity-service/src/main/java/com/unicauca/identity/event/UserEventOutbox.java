@@ -0,0 +1,82 @@
+package com.unicauca.identity.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unicauca.identity.dto.response.UserSummary;
+import com.unicauca.identity.entity.OutboxEvent;
+import com.unicauca.identity.entity.User;
+import com.unicauca.identity.enums.Rol;
+import com.unicauca.identity.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Escribe los eventos de cambios de usuarios en el outbox.
+ *
+ * Debe llamarse dentro de la transacción que guarda el usuario: el evento se
+ * confirma o se descarta junto con el cambio, y {@link UserEventRelay} lo
+ * publica después. Con identity.events.enabled=false no se escribe nada.
+ */
+@Component
+public class UserEventOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    // Constructor explícito para la inyección de dependencias
+    public UserEventOutbox(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper,
+                           @Value("${identity.events.enabled:false}") boolean enabled) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Registra un evento de un usuario
+     *
+     * @param type Tipo de evento
+     * @param user Usuario tras el cambio (ya guardado, con id)
+     * @param previousRol Rol anterior en USER_ROLE_CHANGED; null en otro caso
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(UserEventType type, User user, Rol previousRol) {
+        if (enabled) {
+            outboxEventRepository.save(toOutboxEvent(type, summaryOf(user), previousRol, LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Registra el mismo tipo de evento para varios usuarios (importación masiva)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(UserEventType type, Collection<UserSummary> users) {
+        if (enabled && !users.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> events = users.stream()
+                    .map(user -> toOutboxEvent(type, user, null, now))
+                    .toList();
+            outboxEventRepository.saveAll(events);
+        }
+    }
+
+    private OutboxEvent toOutboxEvent(UserEventType type, UserSummary user, Rol previousRol, LocalDateTime now) {
+        UserEvent event = new UserEvent(null, type.getEventName(), now, user, previousRol);
+        try {
+            return new OutboxEvent(user.id(), type, objectMapper.writeValueAsString(event), now);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento " + type, e);
+        }
+    }
+
+    private static UserSummary summaryOf(User user) {
+        return new UserSummary(user.getId(), user.getEmail(), user.getNombres(), user.getApellidos(),
+                user.getRol(), user.getPrograma());
+    }
+}
@@ -0,0 +1,138 @@
+package com.unicauca.identity.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unicauca.identity.entity.OutboxEvent;
+import com.unicauca.identity.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publica en RabbitMQ los eventos pendientes del outbox.
+ *
+ * Cada lote se bloquea (SKIP LOCKED), se publica esperando las confirmaciones
+ * del broker (spring.rabbitmq.publisher-confirm-type=simple) y se marca como
+ * publicado en la misma transacción. Si la publicación falla, la transacción
+ * se revierte y el lote se reintenta en la siguiente ejecución: la entrega es
+ * al menos una vez. Los eventos publicados se purgan pasado retention-hours.
+ *
+ * Se activa con identity.events.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "identity.events.enabled", havingValue = "true")
+public class UserEventRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final String exchange;
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+    private final long retentionHours;
+    private final Counter published;
+    private final Counter failures;
+
+    // Logger estático para esta clase
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(UserEventRelay.class);
+
+    // Constructor explícito para la inyección de dependencias
+    public UserEventRelay(OutboxEventRepository outboxEventRepository, RabbitTemplate rabbitTemplate,
+                          PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${identity.events.exchange:identity-exchange}") String exchange,
+                          @Value("${identity.events.relay-batch-size:100}") int batchSize,
+                          @Value("${identity.events.confirm-timeout-ms:5000}") long confirmTimeoutMs,
+                          @Value("${identity.events.retention-hours:168}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.exchange = exchange;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.retentionHours = retentionHours;
+        this.published = Counter.builder("identity.events.published").register(meterRegistry);
+        this.failures = Counter.builder("identity.events.relay.failures").register(meterRegistry);
+    }
+
+    /**
+     * Publica los eventos pendientes, lote a lote, hasta vaciar el outbox
+     */
+    @Scheduled(fixedDelayString = "${identity.events.relay-interval-ms:1000}",
+               initialDelayString = "${identity.events.relay-interval-ms:1000}")
+    public void relayPending() {
+        try {
+            Integer count;
+            do {
+                count = transactionTemplate.execute(status -> publishBatch());
+            } while (count != null && count == batchSize);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("No se pudieron publicar los eventos de usuarios, se reintentará: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Elimina los eventos ya publicados más antiguos que retention-hours
+     */
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void purgePublished() {
+        int deleted = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.debug("Eventos de usuarios publicados purgados: {}", deleted);
+        }
+    }
+
+    private int publishBatch() {
+        List<OutboxEvent> pending = outboxEventRepository.findPendingForUpdate(PageRequest.of(0, batchSize));
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        rabbitTemplate.invoke(operations -> {
+            for (OutboxEvent event : pending) {
+                operations.send(exchange, event.getEventType().getRoutingKey(), toMessage(event));
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        pending.forEach(event -> event.markPublished(now));
+        published.increment(pending.size());
+        log.debug("Eventos de usuarios publicados: {}", pending.size());
+        return pending.size();
+    }
+
+    private Message toMessage(OutboxEvent event) {
+        try {
+            UserEvent userEvent = objectMapper.readValue(event.getPayload(), UserEvent.class).withSequence(event.getId());
+            return MessageBuilder.withBody(objectMapper.writeValueAsBytes(userEvent))
+                    .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                    .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                    .setMessageId(event.getId().toString())
+                    .setType(event.getEventType().getEventName())
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Evento de outbox ilegible: " + event.getId(), e);
+        }
+    }
+}
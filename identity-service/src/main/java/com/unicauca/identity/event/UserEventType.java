@@ -0,0 +1,26 @@
+package com.unicauca.identity.event;
+
+/**
+ * Tipos de evento de cambios de usuarios, con su nombre público y routing key
+ */
+public enum UserEventType {
+    USER_REGISTERED("UserRegistered", "user.registered"),
+    USER_UPDATED("UserUpdated", "user.updated"),
+    USER_ROLE_CHANGED("UserRoleChanged", "user.role-changed");
+
+    private final String eventName;
+    private final String routingKey;
+
+    UserEventType(String eventName, String routingKey) {
+        this.eventName = eventName;
+        this.routingKey = routingKey;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public String getRoutingKey() {
+        return routingKey;
+    }
+}
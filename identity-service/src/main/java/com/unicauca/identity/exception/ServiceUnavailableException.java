@@ -0,0 +1,19 @@
+package com.unicauca.identity.exception;
+
+/**
+ * Excepción lanzada cuando el servicio está saturado y rechaza la operación
+ * en lugar de encolarla (se responde 503 con Retry-After)
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,47 @@
+package com.unicauca.identity.repository;
+
+import com.unicauca.identity.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio del outbox de eventos de usuarios
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Bloquea y devuelve los eventos pendientes más antiguos.
+     * Con SKIP LOCKED varias instancias del relay se reparten los eventos sin esperarse.
+     *
+     * @param pageable Tamaño del lote
+     * @return Eventos pendientes, por id
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM OutboxEvent o WHERE o.publishedAt IS NULL ORDER BY o.id")
+    List<OutboxEvent> findPendingForUpdate(Pageable pageable);
+
+    /**
+     * Elimina los eventos publicados antes de una fecha
+     *
+     * @param before Fecha límite
+     * @return Número de eventos eliminados
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvent o WHERE o.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
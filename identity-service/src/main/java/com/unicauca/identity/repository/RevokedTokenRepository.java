@@ -0,0 +1,40 @@
+package com.unicauca.identity.repository;
+
+import com.unicauca.identity.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repositorio de los tokens revocados por logout
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * Obtiene las revocaciones registradas desde un instante que aún no han expirado
+     *
+     * @param since Instante desde el que se buscan revocaciones
+     * @param now Instante actual
+     * @return Tokens revocados vigentes
+     */
+    @Query("SELECT t FROM RevokedToken t WHERE t.revokedAt >= :since AND t.expiresAt > :now")
+    List<RevokedToken> findActiveRevokedSince(@Param("since") Instant since, @Param("now") Instant now);
+
+    /**
+     * Elimina las revocaciones de tokens ya expirados
+     *
+     * @param now Instante actual
+     * @return Número de revocaciones eliminadas
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -1,11 +1,20 @@
 package com.unicauca.identity.repository;
 
+import com.unicauca.identity.dto.response.UserSnapshotEntry;
+import com.unicauca.identity.dto.response.UserSummary;
 import com.unicauca.identity.entity.User;
+import com.unicauca.identity.enums.Rol;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Repositorio para operaciones CRUD de la entidad User
@@ -28,4 +37,80 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
      * @return true si existe un usuario con ese email
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Obtiene la proyección compacta de los usuarios con alguno de los ids o emails dados,
+     * en una sola consulta sobre los índices de id y email
+     *
+     * @param ids Ids a resolver (puede estar vacío)
+     * @param emails Emails a resolver (puede estar vacío)
+     * @return Usuarios encontrados
+     */
+    @Query("SELECT new com.unicauca.identity.dto.response.UserSummary(" +
+           "u.id, u.email, u.nombres, u.apellidos, u.rol, u.programa) " +
+           "FROM User u WHERE u.id IN :ids OR u.email IN :emails")
+    List<UserSummary> findSummariesByIdInOrEmailIn(@Param("ids") Collection<Long> ids,
+                                                   @Param("emails") Collection<String> emails);
+
+    /**
+     * Obtiene la proyección compacta de los usuarios con un rol, ordenados por id
+     *
+     * @param rol Rol a buscar
+     * @return Usuarios con el rol
+     */
+    @Query("SELECT new com.unicauca.identity.dto.response.UserSummary(" +
+           "u.id, u.email, u.nombres, u.apellidos, u.rol, u.programa) " +
+           "FROM User u WHERE u.rol = :rol ORDER BY u.id")
+    List<UserSummary> findSummariesByRol(@Param("rol") Rol rol);
+
+    /**
+     * Obtiene cuáles de los ids dados corresponden a usuarios existentes, en una sola consulta
+     *
+     * @param ids Ids a comprobar
+     * @return Ids existentes
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Obtiene los ids de todos los usuarios, para reconstruir el registro de usuarios vivos
+     *
+     * @return Ids de los usuarios
+     */
+    @Query("SELECT u.id FROM User u")
+    List<Long> findAllIds();
+
+    /**
+     * Obtiene cuáles de los emails dados ya están registrados, en una sola consulta
+     *
+     * @param emails Emails a comprobar
+     * @return Emails existentes
+     */
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Obtiene la proyección compacta de los usuarios con los emails dados
+     *
+     * @param emails Emails a buscar
+     * @return Usuarios encontrados
+     */
+    @Query("SELECT new com.unicauca.identity.dto.response.UserSummary(" +
+           "u.id, u.email, u.nombres, u.apellidos, u.rol, u.programa) " +
+           "FROM User u WHERE u.email IN :emails")
+    List<UserSummary> findSummariesByEmailIn(@Param("emails") Collection<String> emails);
+
+    /**
+     * Página del snapshot del directorio de usuarios, por cursor sobre el id.
+     * Cada usuario lleva como versión el id de su último evento en el outbox.
+     *
+     * @param afterId Id a partir del cual (exclusivo) se devuelven usuarios
+     * @param pageable Tamaño de la página
+     * @return Usuarios ordenados por id
+     */
+    @Query("SELECT new com.unicauca.identity.dto.response.UserSnapshotEntry(" +
+           "u.id, u.email, u.nombres, u.apellidos, u.rol, u.programa, " +
+           "(SELECT COALESCE(MAX(o.id), 0) FROM OutboxEvent o WHERE o.aggregateId = u.id)) " +
+           "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSnapshotEntry> findSnapshotAfter(@Param("afterId") long afterId, Pageable pageable);
 }
@@ -1,5 +1,6 @@
 package com.unicauca.identity.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,6 +14,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Instant;
 
 /**
  * Filtro para interceptar todas las solicitudes HTTP y validar el token JWT
@@ -22,14 +24,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsServiceImpl userDetailsService;
+    private final LiveUserRegistry liveUserRegistry;
 
     // Logger estático para esta clase
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     // Constructor explícito para la inyección de dependencias
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsServiceImpl userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsServiceImpl userDetailsService,
+                                   LiveUserRegistry liveUserRegistry) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.liveUserRegistry = liveUserRegistry;
     }
 
     @Override
@@ -41,9 +46,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
+            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt) && !isRevoked(jwt)) {
                 String userEmail = tokenProvider.getUserEmailFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+                // Primero la caché: en estado estable la petición no consulta la base de datos
+                UserDetails userDetails = userDetailsService.loadUserByEmailCached(userEmail);
 
                 UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(
@@ -65,6 +71,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Comprueba si el token fue revocado (logout o baja del usuario)
+     */
+    private boolean isRevoked(String jwt) {
+        Claims claims = tokenProvider.getAllClaimsFromToken(jwt);
+        Long userId = Long.valueOf(claims.get("userId").toString());
+        Instant issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+        if (liveUserRegistry.isRevoked(jwt, userId, issuedAt)) {
+            log.debug("Token revocado para el usuario {}", userId);
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Extrae el token JWT del encabezado Authorization
      *
@@ -0,0 +1,315 @@
+package com.unicauca.identity.security;
+
+import com.unicauca.identity.entity.RevokedToken;
+import com.unicauca.identity.repository.RevokedTokenRepository;
+import com.unicauca.identity.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro en memoria de los usuarios vivos y de los tokens revocados, para
+ * verificar tokens sin consultar la base de datos.
+ *
+ * - Usuarios vivos: un BitSet indexado por id. Los ids son secuenciales
+ *   (IDENTITY), así que ocupa un bit por id emitido y la respuesta es exacta,
+ *   sin los falsos positivos de un filtro de Bloom
+ * - Revocación por usuario: los tokens emitidos antes del instante de la
+ *   baja o desactivación dejan de ser válidos
+ * - Revocación por token (logout): se guarda el SHA-256 del token hasta su
+ *   expiración, en memoria y en la tabla revoked_tokens. Así sobrevive a los
+ *   reinicios y el resto de instancias la recogen cada
+ *   revocation-refresh-seconds
+ *
+ * Se mantiene con los eventos de alta, desactivación y baja de usuarios (tras
+ * el commit si hay transacción) y se reconcilia periódicamente con la tabla
+ * usuarios, para recoger cambios hechos fuera de esta instancia. Hasta la
+ * primera carga {@link #isReady()} devuelve false y los llamadores deben
+ * consultar la base de datos.
+ */
+@Component
+public class LiveUserRegistry {
+
+    private final UserRepository userRepository;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final boolean enabled;
+    private final Duration tokenLifetime;
+    private final Clock clock;
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<Long, Instant> revokedUsers = new ConcurrentHashMap<>();
+    private final Counter reconcileDrift;
+
+    // Copia inmutable: cada cambio publica un BitSet nuevo y las lecturas no toman lock
+    private volatile BitSet liveIds = new BitSet();
+    private volatile boolean ready;
+    // Última carga de revocaciones desde la base de datos (null: ninguna todavía)
+    private volatile Instant revocationsLoadedAt;
+    // Protegidos por "this": eventos recibidos mientras se recarga desde la base de datos
+    private Set<Long> addedDuringReload;
+    private Set<Long> removedDuringReload;
+
+    private static final Duration REVOCATION_REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    // Logger estático para esta clase
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(LiveUserRegistry.class);
+
+    // Constructor explícito para la inyección de dependencias
+    @Autowired
+    public LiveUserRegistry(UserRepository userRepository, RevokedTokenRepository revokedTokenRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${identity.live-users.enabled:true}") boolean enabled,
+                            @Value("${jwt.expiration}") long jwtExpirationInMs) {
+        this(userRepository, revokedTokenRepository, meterRegistry, enabled, Duration.ofMillis(jwtExpirationInMs),
+                Clock.systemUTC());
+    }
+
+    LiveUserRegistry(UserRepository userRepository, RevokedTokenRepository revokedTokenRepository,
+                     MeterRegistry meterRegistry, boolean enabled, Duration tokenLifetime, Clock clock) {
+        this.userRepository = userRepository;
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.enabled = enabled;
+        this.tokenLifetime = tokenLifetime;
+        this.clock = clock;
+        this.reconcileDrift = Counter.builder("identity.live_users.reconcile.drift").register(meterRegistry);
+        Gauge.builder("identity.live_users.size", this, LiveUserRegistry::size).register(meterRegistry);
+        Gauge.builder("identity.live_users.revoked_tokens", revokedTokens, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Indica si el registro ya está cargado y puede responder sin la base de datos
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Indica si el usuario existe y no está desactivado
+     */
+    public boolean isLive(long userId) {
+        return userId >= 0 && userId <= Integer.MAX_VALUE && liveIds.get((int) userId);
+    }
+
+    /**
+     * Indica si un token fue revocado, por logout o por baja de su usuario
+     *
+     * @param token Token JWT ya validado
+     * @param userId Usuario del token
+     * @param issuedAt Claim iat del token (puede ser null)
+     */
+    public boolean isRevoked(String token, long userId, Instant issuedAt) {
+        Instant revokedAt = revokedUsers.get(userId);
+        // iat tiene precisión de segundos: ante la duda se considera anterior a la revocación
+        if (revokedAt != null && (issuedAt == null || !issuedAt.isAfter(revokedAt.truncatedTo(ChronoUnit.SECONDS)))) {
+            return true;
+        }
+        return !revokedTokens.isEmpty() && revokedTokens.containsKey(digest(token));
+    }
+
+    /**
+     * Notifica el alta de un usuario
+     */
+    public void onUserCreated(long userId) {
+        onUsersCreated(List.of(userId));
+    }
+
+    /**
+     * Notifica el alta de varios usuarios (importación masiva) con un único cambio del registro
+     */
+    public void onUsersCreated(Collection<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            afterCommit(() -> markLive(userIds));
+        }
+    }
+
+    /**
+     * Notifica la desactivación o baja de un usuario: deja de estar vivo y se
+     * revocan los tokens que tenga emitidos
+     */
+    public void onUserRemoved(long userId) {
+        Instant removedAt = clock.instant();
+        afterCommit(() -> {
+            revokedUsers.put(userId, removedAt);
+            markRemoved(userId);
+        });
+    }
+
+    /**
+     * Revoca un token concreto hasta su expiración. La revocación se guarda en
+     * la base de datos antes de aplicarla: si no se puede guardar, falla
+     */
+    public void revokeToken(String token, Instant expiresAt) {
+        Instant now = clock.instant();
+        if (expiresAt != null && expiresAt.isAfter(now)) {
+            String digest = digest(token);
+            revokedTokenRepository.save(new RevokedToken(digest, expiresAt, now));
+            revokedTokens.put(digest, expiresAt);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    /**
+     * Recarga los ids vivos desde la tabla usuarios y purga las revocaciones
+     * que ya no afectan a ningún token vigente
+     */
+    @Scheduled(fixedDelayString = "${identity.live-users.reconcile-seconds:300}",
+               initialDelayString = "${identity.live-users.reconcile-seconds:300}",
+               timeUnit = TimeUnit.SECONDS)
+    public void reconcile() {
+        purgeRevocations();
+        loadRevocations(Instant.EPOCH);
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (this) {
+            addedDuringReload = new HashSet<>();
+            removedDuringReload = new HashSet<>();
+        }
+        BitSet loaded = new BitSet();
+        try {
+            List<Long> ids = userRepository.findAllIds();
+            for (Long id : ids) {
+                loaded.set(Math.toIntExact(id));
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                addedDuringReload = null;
+                removedDuringReload = null;
+            }
+            log.error("No se pudo reconciliar el registro de usuarios vivos", e);
+            return;
+        }
+
+        synchronized (this) {
+            // Los eventos recibidos durante la consulta prevalecen sobre lo leído
+            addedDuringReload.forEach(id -> loaded.set(Math.toIntExact(id)));
+            removedDuringReload.forEach(id -> loaded.clear(Math.toIntExact(id)));
+            addedDuringReload = null;
+            removedDuringReload = null;
+
+            if (ready) {
+                BitSet drift = (BitSet) loaded.clone();
+                drift.xor(liveIds);
+                if (!drift.isEmpty()) {
+                    reconcileDrift.increment(drift.cardinality());
+                    log.info("Registro de usuarios vivos corregido en la reconciliación: {} ids", drift.cardinality());
+                }
+            }
+            liveIds = loaded;
+            ready = true;
+        }
+        log.debug("Registro de usuarios vivos cargado: {} usuarios", size());
+    }
+
+    /**
+     * Recoge las revocaciones de tokens registradas desde la última carga,
+     * también las hechas por otras instancias
+     */
+    @Scheduled(fixedDelayString = "${identity.live-users.revocation-refresh-seconds:5}",
+               initialDelayString = "${identity.live-users.revocation-refresh-seconds:5}",
+               timeUnit = TimeUnit.SECONDS)
+    public void refreshRevocations() {
+        Instant loadedAt = revocationsLoadedAt;
+        // Margen para los relojes desfasados entre instancias; volver a cargar una revocación no tiene efecto
+        loadRevocations(loadedAt == null ? Instant.EPOCH : loadedAt.minus(REVOCATION_REFRESH_OVERLAP));
+    }
+
+    public int size() {
+        return liveIds.cardinality();
+    }
+
+    private synchronized void markLive(Collection<Long> userIds) {
+        BitSet next = (BitSet) liveIds.clone();
+        userIds.forEach(id -> next.set(Math.toIntExact(id)));
+        liveIds = next;
+        if (addedDuringReload != null) {
+            addedDuringReload.addAll(userIds);
+            removedDuringReload.removeAll(userIds);
+        }
+    }
+
+    private synchronized void markRemoved(long userId) {
+        BitSet next = (BitSet) liveIds.clone();
+        next.clear(Math.toIntExact(userId));
+        liveIds = next;
+        if (removedDuringReload != null) {
+            removedDuringReload.add(userId);
+            addedDuringReload.remove(userId);
+        }
+    }
+
+    private void loadRevocations(Instant since) {
+        Instant now = clock.instant();
+        try {
+            for (RevokedToken revoked : revokedTokenRepository.findActiveRevokedSince(since, now)) {
+                revokedTokens.put(revoked.getTokenDigest(), revoked.getExpiresAt());
+            }
+            revocationsLoadedAt = now;
+        } catch (RuntimeException e) {
+            log.error("No se pudieron cargar los tokens revocados", e);
+        }
+    }
+
+    private void purgeRevocations() {
+        Instant now = clock.instant();
+        revokedTokens.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        try {
+            revokedTokenRepository.deleteExpired(now);
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron purgar los tokens revocados expirados: {}", e.getMessage());
+        }
+        // Pasada la vida máxima de un token, ninguno emitido antes de la revocación sigue vigente
+        revokedUsers.values().removeIf(revokedAt -> revokedAt.plus(tokenLifetime).isBefore(now));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
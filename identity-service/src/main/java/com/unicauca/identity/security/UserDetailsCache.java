@@ -0,0 +1,166 @@
+package com.unicauca.identity.security;
+
+import com.unicauca.identity.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Caché acotada en memoria de los UserDetails usados por JwtAuthenticationFilter.
+ *
+ * Evita la consulta findByEmail en cada petición autenticada. Cada entrada se
+ * indexa por email y por id, caduca a los ttl-seconds y, al superar
+ * max-entries, se descarta la usada hace más tiempo (LRU).
+ *
+ * Toda operación que cree o modifique un usuario debe llamar a {@link #evict(User)}
+ * para que la siguiente petición vuelva a leerlo de la base de datos. El TTL
+ * acota cuánto tarda en verse un cambio hecho fuera de esta instancia.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, Entry> byEmail;
+    private final Map<Long, Entry> byId;
+    private final Counter hits;
+    private final Counter misses;
+
+    // Constructor explícito para la inyección de dependencias
+    public UserDetailsCache(MeterRegistry meterRegistry,
+                            @Value("${identity.user-cache.enabled:true}") boolean enabled,
+                            @Value("${identity.user-cache.max-entries:10000}") int maxEntries,
+                            @Value("${identity.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        // Lo que se descarta de un índice se descarta también del otro
+        this.byEmail = lruMap(maxEntries, this::dropFromIdIndex);
+        this.byId = lruMap(maxEntries, this::dropFromEmailIndex);
+        this.hits = Counter.builder("identity.user_cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("identity.user_cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("identity.user_cache.size", this, UserDetailsCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Busca los detalles de un usuario por email
+     *
+     * @param email Email del usuario
+     * @return Los UserDetails cacheados o null si no están o han caducado
+     */
+    public UserDetails getByEmail(String email) {
+        if (!enabled || email == null) {
+            return null;
+        }
+        synchronized (this) {
+            return hitOrMiss(byEmail.get(email));
+        }
+    }
+
+    /**
+     * Busca los detalles de un usuario por id
+     *
+     * @param id ID del usuario
+     * @return Los UserDetails cacheados o null si no están o han caducado
+     */
+    public UserDetails getById(Long id) {
+        if (!enabled || id == null) {
+            return null;
+        }
+        synchronized (this) {
+            return hitOrMiss(byId.get(id));
+        }
+    }
+
+    /**
+     * Guarda los detalles de un usuario recién leído de la base de datos
+     */
+    public void put(User user, UserDetails userDetails) {
+        if (!enabled || maxEntries <= 0) {
+            return;
+        }
+        Entry entry = new Entry(user.getId(), user.getEmail(), userDetails, System.nanoTime() + ttlNanos);
+        synchronized (this) {
+            remove(byEmail.get(entry.email()));
+            remove(byId.get(entry.id()));
+            byEmail.put(entry.email(), entry);
+            byId.put(entry.id(), entry);
+        }
+    }
+
+    /**
+     * Invalida las entradas de un usuario (por su id y por su email actual)
+     */
+    public void evict(User user) {
+        synchronized (this) {
+            if (user.getId() != null) {
+                remove(byId.get(user.getId()));
+            }
+            if (user.getEmail() != null) {
+                remove(byEmail.get(user.getEmail()));
+            }
+        }
+    }
+
+    /**
+     * Vacía la caché
+     */
+    public synchronized void clear() {
+        byEmail.clear();
+        byId.clear();
+    }
+
+    public synchronized int size() {
+        return byEmail.size();
+    }
+
+    private UserDetails hitOrMiss(Entry entry) {
+        if (entry != null && entry.expiresAt() - System.nanoTime() > 0) {
+            hits.increment();
+            return entry.userDetails();
+        }
+        remove(entry);
+        misses.increment();
+        return null;
+    }
+
+    private void remove(Entry entry) {
+        if (entry != null) {
+            byEmail.remove(entry.email(), entry);
+            byId.remove(entry.id(), entry);
+        }
+    }
+
+    private void dropFromIdIndex(Entry entry) {
+        byId.remove(entry.id(), entry);
+    }
+
+    private void dropFromEmailIndex(Entry entry) {
+        byEmail.remove(entry.email(), entry);
+    }
+
+    private static <K> Map<K, Entry> lruMap(int capacity, Consumer<Entry> onEvict) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                onEvict.accept(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    private record Entry(Long id, String email, UserDetails userDetails, long expiresAt) {
+    }
+}
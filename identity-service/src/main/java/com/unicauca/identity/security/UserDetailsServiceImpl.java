@@ -13,25 +13,39 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.Collections;
 
 /**
- * Implementación de UserDetailsService para cargar los detalles del usuario desde la base de datos
+ * Implementación de UserDetailsService para cargar los detalles del usuario desde la base de datos.
+ * Cada usuario leído se guarda en {@link UserDetailsCache}.
  */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
 
     // Constructor explícito para la inyección de dependencias
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    /**
+     * Obtiene los detalles del usuario desde la caché y, si no están, desde la base de datos
+     *
+     * @param email Email del usuario
+     * @return Detalles del usuario
+     */
+    public UserDetails loadUserByEmailCached(String email) throws UsernameNotFoundException {
+        UserDetails cached = userDetailsCache.getByEmail(email);
+        return cached != null ? cached : loadUserByUsername(email);
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con email: " + email));
 
-        return org.springframework.security.core.userdetails.User
+        UserDetails userDetails = org.springframework.security.core.userdetails.User
                 .withUsername(user.getEmail())
                 .password(user.getPasswordHash())
                 .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRol().name())))
@@ -40,5 +54,8 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 .credentialsExpired(false)
                 .disabled(false)
                 .build();
+
+        userDetailsCache.put(user, userDetails);
+        return userDetails;
     }
 }
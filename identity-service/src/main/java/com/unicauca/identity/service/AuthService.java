@@ -2,11 +2,16 @@ package com.unicauca.identity.service;
 
 import com.unicauca.identity.dto.request.LoginRequest;
 import com.unicauca.identity.dto.request.RegisterRequest;
+import com.unicauca.identity.dto.request.UserBatchRequest;
+import com.unicauca.identity.dto.request.VerifyTokenBatchRequest;
 import com.unicauca.identity.dto.request.VerifyTokenRequest;
+import com.unicauca.identity.dto.response.KeysetPage;
 import com.unicauca.identity.dto.response.LoginResponse;
 import com.unicauca.identity.dto.response.RolesResponse;
 import com.unicauca.identity.dto.response.TokenVerificationResponse;
+import com.unicauca.identity.dto.response.UserBatchResponse;
 import com.unicauca.identity.dto.response.UserResponse;
+import com.unicauca.identity.dto.response.UserSnapshotEntry;
 import com.unicauca.identity.entity.User;
 import com.unicauca.identity.enums.Rol;
 import com.unicauca.identity.enums.Programa;
@@ -59,6 +64,21 @@ public interface AuthService {
      */
     TokenVerificationResponse verifyToken(VerifyTokenRequest request);
 
+    /**
+     * Verifica varios tokens JWT: las firmas en paralelo y la existencia de los usuarios en memoria
+     *
+     * @param request Tokens a verificar
+     * @return Una respuesta de verificación por token, en el mismo orden
+     */
+    List<TokenVerificationResponse> verifyTokens(VerifyTokenBatchRequest request);
+
+    /**
+     * Cierra la sesión revocando el token hasta su expiración
+     *
+     * @param token Token JWT del usuario autenticado
+     */
+    void logout(String token);
+
     /**
      * Obtiene el ID de un usuario por su email
      *
@@ -86,4 +106,34 @@ public interface AuthService {
      * @return Página de usuarios que coinciden con los criterios
      */
     Page<UserResponse> searchUsers(String query, Rol rol, Programa programa, int page, int size);
+
+    /**
+     * Busca usuarios con paginación por cursor sobre el id, sin consulta COUNT
+     *
+     * @param query Texto para buscar en nombres, apellidos o email
+     * @param rol Filtro opcional por rol
+     * @param programa Filtro opcional por programa
+     * @param afterId Devuelve usuarios con id mayor que este (0 para la primera página)
+     * @param size Tamaño de página
+     * @return Página de usuarios y cursor de la siguiente
+     */
+    KeysetPage<UserResponse> searchUsersAfter(String query, Rol rol, Programa programa, long afterId, int size);
+
+    /**
+     * Resuelve varios usuarios por id y/o email en una sola consulta
+     *
+     * @param request Ids y emails a resolver
+     * @return Usuarios encontrados indexados por id y los identificadores no encontrados
+     */
+    UserBatchResponse findUsersBatch(UserBatchRequest request);
+
+    /**
+     * Obtiene una página del snapshot del directorio de usuarios, para que otros
+     * servicios inicialicen su réplica local antes de aplicar los eventos
+     *
+     * @param afterId Cursor: id a partir del cual (exclusivo) se devuelven usuarios
+     * @param size Tamaño de la página
+     * @return Página con el estado actual y la versión de cada usuario
+     */
+    KeysetPage<UserSnapshotEntry> getUserSnapshot(long afterId, int size);
 }
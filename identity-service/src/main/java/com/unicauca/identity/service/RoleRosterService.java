@@ -0,0 +1,161 @@
+package com.unicauca.identity.service;
+
+import com.unicauca.identity.dto.response.RoleHoldersResponse;
+import com.unicauca.identity.dto.response.UserSummary;
+import com.unicauca.identity.enums.Programa;
+import com.unicauca.identity.enums.Rol;
+import com.unicauca.identity.exception.BusinessException;
+import com.unicauca.identity.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Roster en memoria de los usuarios con roles de gestión (coordinadores, jefes de
+ * departamento, administradores), por rol y programa.
+ *
+ * Submission-service consulta el coordinador o el jefe de departamento en cada
+ * envío de Formato A o anteproyecto; con el roster esas consultas no llegan a la
+ * base de datos. Cada rol se recarga tras confirmarse el registro de un usuario
+ * con ese rol y, como máximo, cada refresh-seconds (cambios hechos fuera de esta
+ * instancia). Cada lista lleva un ETag débil calculado sobre sus usuarios.
+ */
+@Service
+public class RoleRosterService {
+
+    private final UserRepository userRepository;
+    private final Set<Rol> roles;
+    private final Duration refreshInterval;
+    private final Clock clock;
+    private final Map<Rol, Roster> rosters = new EnumMap<>(Rol.class);
+
+    // Logger estático para esta clase
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(RoleRosterService.class);
+
+    // Constructor explícito para la inyección de dependencias
+    @Autowired
+    public RoleRosterService(UserRepository userRepository,
+                             @Value("${identity.role-roster.roles:COORDINADOR,JEFE_DEPARTAMENTO,ADMIN}") Set<Rol> roles,
+                             @Value("${identity.role-roster.refresh-seconds:300}") long refreshSeconds) {
+        this(userRepository, roles, Duration.ofSeconds(refreshSeconds), Clock.systemUTC());
+    }
+
+    RoleRosterService(UserRepository userRepository, Set<Rol> roles, Duration refreshInterval, Clock clock) {
+        this.userRepository = userRepository;
+        this.roles = roles.isEmpty() ? EnumSet.noneOf(Rol.class) : EnumSet.copyOf(roles);
+        this.refreshInterval = refreshInterval;
+        this.clock = clock;
+    }
+
+    /**
+     * Obtiene los usuarios con un rol
+     *
+     * @param rol Rol a consultar (debe estar en identity.role-roster.roles)
+     * @param programa Filtro opcional por programa
+     * @return Holders del rol
+     */
+    public Holders getHolders(Rol rol, Programa programa) {
+        if (!roles.contains(rol)) {
+            throw new BusinessException("El rol " + rol + " no está disponible en el roster. Roles disponibles: " + roles);
+        }
+        Roster roster = rosterFor(rol);
+        return programa != null ? roster.byPrograma().get(programa) : roster.all();
+    }
+
+    /**
+     * Notifica que se creó o modificó un usuario con el rol dado.
+     * Si hay una transacción activa, el roster se recarga al confirmarse.
+     */
+    public void onUserChanged(Rol rol) {
+        if (rol == null || !roles.contains(rol)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(rol);
+                }
+            });
+        } else {
+            refresh(rol);
+        }
+    }
+
+    /**
+     * Recarga desde la base de datos el roster de un rol
+     */
+    public void refresh(Rol rol) {
+        List<UserSummary> holders = userRepository.findSummariesByRol(rol);
+        Instant now = clock.instant();
+
+        Map<Programa, Holders> byPrograma = new EnumMap<>(Programa.class);
+        for (Programa programa : Programa.values()) {
+            List<UserSummary> filtered = holders.stream().filter(user -> user.programa() == programa).toList();
+            byPrograma.put(programa, holders(rol, programa, filtered, now));
+        }
+        Roster roster = new Roster(holders(rol, null, holders, now), byPrograma);
+
+        synchronized (rosters) {
+            rosters.put(rol, roster);
+        }
+        log.debug("Roster de {} recargado: {} usuarios", rol, holders.size());
+    }
+
+    private Roster rosterFor(Rol rol) {
+        Roster roster;
+        synchronized (rosters) {
+            roster = rosters.get(rol);
+        }
+        if (roster == null || roster.all().response().refreshedAt().plus(refreshInterval).isBefore(clock.instant())) {
+            refresh(rol);
+            synchronized (rosters) {
+                roster = rosters.get(rol);
+            }
+        }
+        return roster;
+    }
+
+    private static Holders holders(Rol rol, Programa programa, List<UserSummary> users, Instant refreshedAt) {
+        return new Holders(new RoleHoldersResponse(rol, programa, users, refreshedAt), etag(rol, programa, users));
+    }
+
+    private static String etag(Rol rol, Programa programa, List<UserSummary> users) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((rol + "|" + programa + "\n").getBytes(StandardCharsets.UTF_8));
+            for (UserSummary user : users) {
+                digest.update((user.id() + "|" + user.email() + "|" + user.nombres() + "|" + user.apellidos()
+                        + "|" + user.programa() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            // Débil: refreshedAt puede cambiar sin que cambien los usuarios
+            return "W/\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Lista de holders precalculada junto con su ETag
+     */
+    public record Holders(RoleHoldersResponse response, String etag) {
+    }
+
+    private record Roster(Holders all, Map<Programa, Holders> byPrograma) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.unicauca.identity.service;
+
+import com.unicauca.identity.dto.response.UserImportResponse;
+
+import java.io.InputStream;
+
+/**
+ * Interfaz para la importación masiva de usuarios
+ */
+public interface UserImportService {
+
+    /**
+     * Formatos de entrada admitidos
+     */
+    enum Format {
+        /** CSV con cabecera: nombres,apellidos,celular,programa,rol,email,password */
+        CSV,
+        /** Un objeto JSON por línea con los campos de RegisterRequest */
+        NDJSON
+    }
+
+    /**
+     * Importa usuarios desde un flujo CSV o NDJSON.
+     * Cada lote se confirma por separado y las filas cuyo email ya existe se
+     * omiten, de modo que repetir la importación (o indicar startRow) la reanuda.
+     *
+     * @param input Flujo con las filas
+     * @param format Formato del flujo
+     * @param startRow Primera fila de datos a procesar (1 = desde el principio)
+     * @return Resumen de la importación con los errores por fila
+     */
+    UserImportResponse importUsers(InputStream input, Format format, long startRow);
+}
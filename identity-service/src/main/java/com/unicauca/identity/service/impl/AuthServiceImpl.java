@@ -2,21 +2,34 @@ package com.unicauca.identity.service.impl;
 
 import com.unicauca.identity.dto.request.LoginRequest;
 import com.unicauca.identity.dto.request.RegisterRequest;
+import com.unicauca.identity.dto.request.UserBatchRequest;
+import com.unicauca.identity.dto.request.VerifyTokenBatchRequest;
 import com.unicauca.identity.dto.request.VerifyTokenRequest;
+import com.unicauca.identity.dto.response.KeysetPage;
 import com.unicauca.identity.dto.response.LoginResponse;
 import com.unicauca.identity.dto.response.RolesResponse;
 import com.unicauca.identity.dto.response.TokenVerificationResponse;
+import com.unicauca.identity.dto.response.UserBatchResponse;
 import com.unicauca.identity.dto.response.UserResponse;
+import com.unicauca.identity.dto.response.UserSnapshotEntry;
+import com.unicauca.identity.dto.response.UserSummary;
 import com.unicauca.identity.entity.User;
+import com.unicauca.identity.event.UserEventOutbox;
+import com.unicauca.identity.event.UserEventType;
 import com.unicauca.identity.enums.Programa;
 import com.unicauca.identity.enums.Rol;
+import com.unicauca.identity.exception.BusinessException;
 import com.unicauca.identity.exception.EmailAlreadyExistsException;
 import com.unicauca.identity.exception.InvalidCredentialsException;
 import com.unicauca.identity.exception.InvalidTokenException;
 import com.unicauca.identity.exception.UserNotFoundException;
 import com.unicauca.identity.repository.UserRepository;
 import com.unicauca.identity.security.JwtTokenProvider;
+import com.unicauca.identity.security.LiveUserRegistry;
+import com.unicauca.identity.security.UserDetailsCache;
 import com.unicauca.identity.service.AuthService;
+import com.unicauca.identity.service.RoleRosterService;
+import com.unicauca.identity.util.SearchTextUtil;
 import io.jsonwebtoken.Claims;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -28,9 +41,18 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
 
 /**
  * Implementación del servicio de autenticación
@@ -42,15 +64,28 @@ public class AuthServiceImpl implements AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
+    private final UserDetailsCache userDetailsCache;
+    private final RoleRosterService roleRosterService;
+    private final ExecutorService virtualThreadExecutor;
+    private final LiveUserRegistry liveUserRegistry;
+    private final UserEventOutbox userEventOutbox;
 
     // Logger estático para esta clase
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(AuthServiceImpl.class);
 
     // Constructor explícito para la inyección de dependencias
-    public AuthServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtTokenProvider jwtTokenProvider) {
+    public AuthServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                           JwtTokenProvider jwtTokenProvider, UserDetailsCache userDetailsCache,
+                           RoleRosterService roleRosterService, ExecutorService virtualThreadExecutor,
+                           LiveUserRegistry liveUserRegistry, UserEventOutbox userEventOutbox) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.userDetailsCache = userDetailsCache;
+        this.roleRosterService = roleRosterService;
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.liveUserRegistry = liveUserRegistry;
+        this.userEventOutbox = userEventOutbox;
     }
 
     @Override
@@ -73,6 +108,10 @@ public class AuthServiceImpl implements AuthService {
                 .build();
 
         User savedUser = userRepository.save(newUser);
+        userEventOutbox.record(UserEventType.USER_REGISTERED, savedUser, null);
+        userDetailsCache.evict(savedUser);
+        roleRosterService.onUserChanged(savedUser.getRol());
+        liveUserRegistry.onUserCreated(savedUser.getId());
         log.info("Usuario registrado exitosamente: {}", savedUser.getEmail());
 
         return mapUserToUserResponse(savedUser);
@@ -126,44 +165,112 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public TokenVerificationResponse verifyToken(VerifyTokenRequest request) {
-        try {
-            // Utilizar CompletableFuture con Virtual Threads en lugar de start/join directo
-            return java.util.concurrent.CompletableFuture.supplyAsync(() -> {
-                try {
-                    if (!jwtTokenProvider.validateToken(request.token())) {
-                        return TokenVerificationResponse.invalid("Token inválido o expirado");
-                    }
+        ParsedToken parsed = parseToken(request.token());
+        if (parsed.data() == null) {
+            return TokenVerificationResponse.invalid(parsed.error());
+        }
 
-                    Claims claims = jwtTokenProvider.getAllClaimsFromToken(request.token());
-                    Long userId = Long.valueOf(claims.get("userId").toString());
-                    String email = claims.getSubject();
-                    Rol rol = Rol.valueOf(claims.get("rol").toString());
-                    Programa programa = Programa.valueOf(claims.get("programa").toString());
+        // Verificar que el usuario siga existiendo: en memoria una vez cargado el registro y, si no
+        // está (alta en otra instancia o directa en la base de datos), confirmándolo en la base de datos
+        Long userId = parsed.data().getUserId();
+        boolean live = liveUserRegistry.isReady() && liveUserRegistry.isLive(userId);
+        if (!live && userRepository.existsById(userId)) {
+            liveUserRegistry.onUserCreated(userId);
+            live = true;
+        }
+        if (!live) {
+            return TokenVerificationResponse.invalid("Usuario no encontrado");
+        }
+
+        return TokenVerificationResponse.valid(parsed.data());
+    }
 
-                    // Verificar que el usuario siga existiendo
-                    if (!userRepository.existsById(userId)) {
+    @Override
+    @Transactional(readOnly = true)
+    public List<TokenVerificationResponse> verifyTokens(VerifyTokenBatchRequest request) {
+        // Validar firmas y claims en paralelo sobre el ejecutor compartido
+        List<CompletableFuture<ParsedToken>> futures = request.tokens().stream()
+                .map(token -> CompletableFuture.supplyAsync(() -> parseToken(token), virtualThreadExecutor))
+                .toList();
+        List<ParsedToken> parsed = futures.stream().map(CompletableFuture::join).toList();
+
+        // Comprobar que los usuarios siguen existiendo: en memoria y, para los que no están en el
+        // registro (o hasta cargarlo), con una sola consulta IN
+        Set<Long> userIds = parsed.stream()
+                .filter(token -> token.data() != null)
+                .map(token -> token.data().getUserId())
+                .collect(Collectors.toSet());
+        Set<Long> existing = new HashSet<>();
+        Set<Long> unknown = new HashSet<>(userIds);
+        if (liveUserRegistry.isReady()) {
+            userIds.stream().filter(liveUserRegistry::isLive).forEach(existing::add);
+            unknown.removeAll(existing);
+        }
+        if (!unknown.isEmpty()) {
+            Set<Long> found = userRepository.findExistingIds(unknown);
+            existing.addAll(found);
+            if (!found.isEmpty()) {
+                liveUserRegistry.onUsersCreated(found);
+            }
+        }
+
+        return parsed.stream()
+                .map(token -> {
+                    if (token.data() == null) {
+                        return TokenVerificationResponse.invalid(token.error());
+                    }
+                    if (!existing.contains(token.data().getUserId())) {
                         return TokenVerificationResponse.invalid("Usuario no encontrado");
                     }
+                    return TokenVerificationResponse.valid(token.data());
+                })
+                .toList();
+    }
 
-                    return TokenVerificationResponse.valid(
-                            TokenVerificationResponse.TokenData.builder()
-                                    .userId(userId)
-                                    .email(email)
-                                    .rol(rol)
-                                    .programa(programa)
-                                    .build()
-                    );
-                } catch (InvalidTokenException e) {
-                    log.info("Token verificado como inválido: {}", e.getMessage());
-                    return TokenVerificationResponse.invalid(e.getMessage());
-                } catch (Exception e) {
-                    log.error("Error al verificar token", e);
-                    return TokenVerificationResponse.invalid("Error al procesar el token");
-                }
-            }, java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor()).join();
+    @Override
+    public void logout(String token) {
+        Claims claims = jwtTokenProvider.getAllClaimsFromToken(token);
+        liveUserRegistry.revokeToken(token, claims.getExpiration().toInstant());
+        log.info("Sesión cerrada: {}", claims.getSubject());
+    }
+
+    /**
+     * Valida la firma, la revocación y extrae los datos de un token, sin consultar la base de datos
+     */
+    private ParsedToken parseToken(String token) {
+        try {
+            if (!jwtTokenProvider.validateToken(token)) {
+                return ParsedToken.invalid("Token inválido o expirado");
+            }
+
+            Claims claims = jwtTokenProvider.getAllClaimsFromToken(token);
+            Long userId = Long.valueOf(claims.get("userId").toString());
+            Instant issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+            if (liveUserRegistry.isRevoked(token, userId, issuedAt)) {
+                return ParsedToken.invalid("Token revocado");
+            }
+
+            return new ParsedToken(TokenVerificationResponse.TokenData.builder()
+                    .userId(userId)
+                    .email(claims.getSubject())
+                    .rol(Rol.valueOf(claims.get("rol").toString()))
+                    .programa(Programa.valueOf(claims.get("programa").toString()))
+                    .build(), null);
+        } catch (InvalidTokenException e) {
+            log.info("Token verificado como inválido: {}", e.getMessage());
+            return ParsedToken.invalid(e.getMessage());
         } catch (Exception e) {
-            log.error("Error general al verificar token", e);
-            return TokenVerificationResponse.invalid("Error al procesar el token");
+            log.error("Error al verificar token", e);
+            return ParsedToken.invalid("Error al procesar el token");
+        }
+    }
+
+    /**
+     * Resultado de validar un token: sus datos o el motivo por el que es inválido
+     */
+    private record ParsedToken(TokenVerificationResponse.TokenData data, String error) {
+        static ParsedToken invalid(String error) {
+            return new ParsedToken(null, error);
         }
     }
 
@@ -184,17 +291,96 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public Page<UserResponse> searchUsers(String query, Rol rol, Programa programa, int page, int size) {
+        Specification<User> spec = buildSearchSpecification(query, rol, programa);
+
+        // Crear objeto de paginación con ordenamiento por ID
+        Pageable pageable = PageRequest.of(page, size, Sort.by("id").ascending());
+
+        Page<User> users = userRepository.findAll(spec, pageable);
+        return users.map(this::mapUserToUserResponse);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserBatchResponse findUsersBatch(UserBatchRequest request) {
+        Set<Long> ids = new LinkedHashSet<>(request.ids());
+        ids.removeIf(Objects::isNull);
+        Set<String> emails = new LinkedHashSet<>(request.emails());
+        emails.removeIf(email -> email == null || email.isBlank());
+
+        if (ids.isEmpty() && emails.isEmpty()) {
+            throw new BusinessException("Debe indicar al menos un id o un email");
+        }
+
+        List<UserSummary> found = userRepository.findSummariesByIdInOrEmailIn(ids, emails);
+
+        Map<Long, UserSummary> users = new LinkedHashMap<>();
+        Map<String, Long> idsByEmail = new LinkedHashMap<>();
+        for (UserSummary user : found) {
+            users.put(user.id(), user);
+            if (emails.contains(user.email())) {
+                idsByEmail.put(user.email(), user.id());
+            }
+        }
+
+        List<Long> notFoundIds = ids.stream().filter(id -> !users.containsKey(id)).toList();
+        List<String> notFoundEmails = emails.stream().filter(email -> !idsByEmail.containsKey(email)).toList();
+
+        log.debug("Resolución en lote: {} ids, {} emails, {} usuarios encontrados",
+                ids.size(), emails.size(), users.size());
+
+        return new UserBatchResponse(users, idsByEmail, notFoundIds, notFoundEmails);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<UserResponse> searchUsersAfter(String query, Rol rol, Programa programa, long afterId, int size) {
+        Specification<User> spec = buildSearchSpecification(query, rol, programa)
+                .and((root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.greaterThan(root.get("id"), afterId));
+
+        // Se pide un elemento de más para saber si existe una página siguiente sin hacer COUNT
+        List<User> users = userRepository.findBy(spec, q -> q
+                .sortBy(Sort.by("id").ascending())
+                .limit(size + 1)
+                .all());
+
+        boolean hasNext = users.size() > size;
+        List<UserResponse> content = users.stream()
+                .limit(size)
+                .map(this::mapUserToUserResponse)
+                .toList();
+        Long nextAfterId = hasNext ? content.get(content.size() - 1).id() : null;
+
+        return new KeysetPage<>(content, nextAfterId, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<UserSnapshotEntry> getUserSnapshot(long afterId, int size) {
+        // Un elemento de más para saber si hay página siguiente
+        List<UserSnapshotEntry> users = userRepository.findSnapshotAfter(afterId, PageRequest.of(0, size + 1));
+
+        boolean hasNext = users.size() > size;
+        List<UserSnapshotEntry> content = hasNext ? users.subList(0, size) : users;
+        Long nextAfterId = hasNext ? content.get(content.size() - 1).id() : null;
+
+        return new KeysetPage<>(content, nextAfterId, size);
+    }
+
+    /**
+     * Construye el filtro de búsqueda de usuarios.
+     * El texto se busca en la columna normalizada search_text, cubierta por un índice
+     * de trigramas en PostgreSQL (en H2 se ejecuta el mismo LIKE sin índice).
+     */
+    private Specification<User> buildSearchSpecification(String query, Rol rol, Programa programa) {
         Specification<User> spec = Specification.where(null);
 
         // Aplicar filtro de búsqueda por texto si se proporciona
-        if (query != null && !query.trim().isEmpty()) {
-            String searchTerm = "%" + query.toLowerCase() + "%";
+        String searchTerm = SearchTextUtil.normalize(query);
+        if (!searchTerm.isEmpty()) {
+            String pattern = "%" + escapeLike(searchTerm) + "%";
             spec = spec.and((root, criteriaQuery, criteriaBuilder) ->
-                    criteriaBuilder.or(
-                            criteriaBuilder.like(criteriaBuilder.lower(root.get("nombres")), searchTerm),
-                            criteriaBuilder.like(criteriaBuilder.lower(root.get("apellidos")), searchTerm),
-                            criteriaBuilder.like(criteriaBuilder.lower(root.get("email")), searchTerm)
-                    )
+                    criteriaBuilder.like(root.get("searchText"), pattern, '\\')
             );
         }
 
@@ -212,30 +398,10 @@ public class AuthServiceImpl implements AuthService {
             );
         }
 
-        // Crear objeto de paginación con ordenamiento por ID
-        Pageable pageable = PageRequest.of(page, size, Sort.by("id").ascending());
-
-        // Specification y Pageable son finales para poder usarlos dentro de la expresión lambda
-        final Specification<User> finalSpec = spec;
-        final Pageable finalPageable = pageable;
+        return spec;
+    }
 
-        // Utilizando CompletableFuture con Virtual Threads para mejorar el rendimiento
-        try {
-            return java.util.concurrent.CompletableFuture.supplyAsync(() -> {
-                try {
-                    // Ejecutar la consulta en un hilo virtual
-                    Page<User> users = userRepository.findAll(finalSpec, finalPageable);
-                    return users.map(this::mapUserToUserResponse);
-                } catch (Exception e) {
-                    log.error("Error ejecutando búsqueda de usuarios en hilo virtual", e);
-                    throw e;
-                }
-            }, java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor()).join();
-        } catch (Exception e) {
-            log.error("Error en la búsqueda de usuarios con Virtual Thread", e);
-            // Fallback a ejecución normal si hay algún problema
-            Page<User> users = userRepository.findAll(spec, pageable);
-            return users.map(this::mapUserToUserResponse);
-        }
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 }
@@ -0,0 +1,428 @@
+package com.unicauca.identity.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unicauca.identity.dto.request.RegisterRequest;
+import com.unicauca.identity.dto.response.UserImportResponse;
+import com.unicauca.identity.dto.response.UserSummary;
+import com.unicauca.identity.enums.Programa;
+import com.unicauca.identity.event.UserEventOutbox;
+import com.unicauca.identity.event.UserEventType;
+import com.unicauca.identity.enums.Rol;
+import com.unicauca.identity.exception.BusinessException;
+import com.unicauca.identity.exception.ServiceUnavailableException;
+import com.unicauca.identity.repository.UserRepository;
+import com.unicauca.identity.security.LiveUserRegistry;
+import com.unicauca.identity.service.RoleRosterService;
+import com.unicauca.identity.service.UserImportService;
+import com.unicauca.identity.util.SearchTextUtil;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Implementación de la importación masiva de usuarios.
+ *
+ * Las filas se leen en streaming y se procesan en lotes de batch-size:
+ * - Validación con las mismas reglas que el registro (RegisterRequest)
+ * - Una consulta IN por lote para omitir los emails que ya existen
+ * - Hash de contraseñas en paralelo, con como máximo hashing-concurrency
+ *   operaciones en el pool de BCrypt para no dejar sin hilos a los logins
+ * - Un INSERT en batch JDBC por lote, confirmado en su propia transacción
+ *   (con ids IDENTITY, Hibernate insertaría fila a fila) junto con los
+ *   eventos UserRegistered del outbox
+ */
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final String INSERT_SQL = "INSERT INTO usuarios (nombres, apellidos, celular, programa, rol, email, "
+            + "password_hash, search_text, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final List<String> REQUIRED_CSV_COLUMNS =
+            List.of("nombres", "apellidos", "programa", "rol", "email", "password");
+    private static final long RETRY_AFTER_SECONDS = 5;
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService virtualThreadExecutor;
+    private final RoleRosterService roleRosterService;
+    private final LiveUserRegistry liveUserRegistry;
+    private final UserEventOutbox userEventOutbox;
+    private final int batchSize;
+    private final int hashingConcurrency;
+    private final int maxErrors;
+
+    // Logger estático para esta clase
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(UserImportServiceImpl.class);
+
+    // Constructor explícito para la inyección de dependencias
+    public UserImportServiceImpl(UserRepository userRepository, JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 PasswordEncoder passwordEncoder,
+                                 Validator validator, ObjectMapper objectMapper, ExecutorService virtualThreadExecutor,
+                                 RoleRosterService roleRosterService, LiveUserRegistry liveUserRegistry,
+                                 UserEventOutbox userEventOutbox,
+                                 @Value("${identity.user-import.batch-size:500}") int batchSize,
+                                 @Value("${identity.user-import.hashing-concurrency:0}") int hashingConcurrency,
+                                 @Value("${identity.user-import.max-errors:1000}") int maxErrors) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.roleRosterService = roleRosterService;
+        this.liveUserRegistry = liveUserRegistry;
+        this.userEventOutbox = userEventOutbox;
+        this.batchSize = Math.max(1, batchSize);
+        // Por defecto la mitad de los núcleos: el resto del pool de BCrypt queda para los logins
+        this.hashingConcurrency = hashingConcurrency > 0
+                ? hashingConcurrency
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.maxErrors = maxErrors;
+    }
+
+    @Override
+    public UserImportResponse importUsers(InputStream input, Format format, long startRow) {
+        Progress progress = new Progress(maxErrors);
+        progress.lastRow = Math.max(0, startRow - 1);
+        Set<Rol> changedRoles = EnumSet.noneOf(Rol.class);
+        Set<String> seenEmails = new HashSet<>();
+        List<ImportRow> chunk = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, Integer> csvColumns = null;
+            long row = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && csvColumns == null) {
+                    csvColumns = parseCsvHeader(line);
+                    continue;
+                }
+                row++;
+                if (row < startRow) {
+                    continue;
+                }
+                progress.processed++;
+
+                RegisterRequest request = format == Format.CSV
+                        ? parseCsvRow(row, line, csvColumns, progress)
+                        : parseJsonRow(row, line, progress);
+                if (request == null) {
+                    continue;
+                }
+
+                Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+                if (!violations.isEmpty()) {
+                    progress.fail(row, request.email(), violations.stream()
+                            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                            .sorted()
+                            .toList());
+                    continue;
+                }
+                if (!seenEmails.add(request.email())) {
+                    progress.fail(row, request.email(), List.of("email: Duplicado en el archivo"));
+                    continue;
+                }
+
+                chunk.add(new ImportRow(row, request));
+                if (chunk.size() >= batchSize) {
+                    flush(chunk, progress, changedRoles);
+                    chunk.clear();
+                    progress.lastRow = row;
+                }
+            }
+            flush(chunk, progress, changedRoles);
+            progress.lastRow = row;
+        } catch (IOException e) {
+            throw new BusinessException("No se pudo leer el archivo de importación. Reanude con startRow="
+                    + (progress.lastRow + 1), e);
+        } catch (DataAccessException e) {
+            log.error("Importación interrumpida tras la fila {}", progress.lastRow, e);
+            throw new ServiceUnavailableException("Importación interrumpida por un error de base de datos. "
+                    + "Reanude con startRow=" + (progress.lastRow + 1), RETRY_AFTER_SECONDS);
+        } finally {
+            changedRoles.forEach(roleRosterService::onUserChanged);
+        }
+
+        log.info("Importación de usuarios: {} filas, {} creados, {} omitidos, {} con error",
+                progress.processed, progress.imported, progress.skipped, progress.failed);
+
+        return new UserImportResponse(progress.processed, progress.imported, progress.skipped, progress.failed,
+                progress.lastRow, progress.errors, progress.errorsTruncated);
+    }
+
+    /**
+     * Inserta un lote ya validado: omite los emails existentes, calcula los hashes y hace el INSERT en batch
+     */
+    private void flush(List<ImportRow> chunk, Progress progress, Set<Rol> changedRoles) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // Los emails que ya existen se omiten: repetir una importación no duplica usuarios
+        Set<String> existing = userRepository.findExistingEmails(chunk.stream().map(row -> row.request().email()).toList());
+        List<ImportRow> pending = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (existing.contains(row.request().email())) {
+                progress.skipped++;
+            } else {
+                pending.add(row);
+            }
+        }
+
+        List<HashedRow> hashed = hashPasswords(pending, progress);
+        List<UserSummary> created = insert(hashed, progress);
+        if (created.isEmpty()) {
+            return;
+        }
+
+        progress.imported += created.size();
+        created.forEach(user -> changedRoles.add(user.rol()));
+        liveUserRegistry.onUsersCreated(created.stream().map(UserSummary::id).toList());
+    }
+
+    private List<HashedRow> hashPasswords(List<ImportRow> rows, Progress progress) {
+        Semaphore permits = new Semaphore(hashingConcurrency);
+        List<CompletableFuture<String>> futures = rows.stream()
+                .map(row -> CompletableFuture.supplyAsync(() -> hash(row.request().password(), permits), virtualThreadExecutor))
+                .toList();
+
+        List<HashedRow> hashed = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            try {
+                hashed.add(new HashedRow(row.request(), futures.get(i).join()));
+            } catch (CompletionException e) {
+                progress.fail(row.row(), row.request().email(), List.of(e.getCause().getMessage()));
+            }
+        }
+        return hashed;
+    }
+
+    private String hash(String password, Semaphore permits) {
+        permits.acquireUninterruptibly();
+        try {
+            return passwordEncoder.encode(password);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private List<UserSummary> insert(List<HashedRow> rows, Progress progress) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            return transactionTemplate.execute(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> bind(ps, row, now));
+                return recordRegistered(rows);
+            });
+        } catch (DuplicateKeyException e) {
+            // Otro proceso creó alguno de los emails tras la comprobación: se inserta fila a fila
+            log.warn("Conflicto de email en un lote de importación, insertando fila a fila");
+            List<UserSummary> created = new ArrayList<>(rows.size());
+            for (HashedRow row : rows) {
+                try {
+                    created.addAll(transactionTemplate.execute(status -> {
+                        jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, row, now));
+                        return recordRegistered(List.of(row));
+                    }));
+                } catch (DuplicateKeyException duplicate) {
+                    progress.skipped++;
+                }
+            }
+            return created;
+        }
+    }
+
+    /**
+     * Lee los usuarios recién insertados y escribe sus eventos UserRegistered en la misma transacción
+     */
+    private List<UserSummary> recordRegistered(List<HashedRow> rows) {
+        List<UserSummary> created = userRepository.findSummariesByEmailIn(
+                rows.stream().map(row -> row.request().email()).toList());
+        userEventOutbox.recordAll(UserEventType.USER_REGISTERED, created);
+        return created;
+    }
+
+    private static void bind(PreparedStatement ps, HashedRow row, LocalDateTime now) throws SQLException {
+        RegisterRequest request = row.request();
+        ps.setString(1, request.nombres());
+        ps.setString(2, request.apellidos());
+        ps.setString(3, request.celular());
+        ps.setString(4, request.programa().name());
+        ps.setString(5, request.rol().name());
+        ps.setString(6, request.email());
+        ps.setString(7, row.passwordHash());
+        ps.setString(8, SearchTextUtil.searchText(request.nombres(), request.apellidos(), request.email()));
+        ps.setTimestamp(9, Timestamp.valueOf(now));
+        ps.setTimestamp(10, Timestamp.valueOf(now));
+    }
+
+    private static Map<String, Integer> parseCsvHeader(String line) {
+        List<String> names = splitCsvLine(line.replace("\uFEFF", ""));
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.keySet().containsAll(REQUIRED_CSV_COLUMNS)) {
+            throw new BusinessException("La cabecera CSV debe incluir las columnas " + REQUIRED_CSV_COLUMNS
+                    + " (celular es opcional)");
+        }
+        return columns;
+    }
+
+    private static RegisterRequest parseCsvRow(long row, String line, Map<String, Integer> columns, Progress progress) {
+        List<String> values = splitCsvLine(line);
+        String email = csvValue(values, columns, "email");
+        List<String> errors = new ArrayList<>();
+        Programa programa = parseEnum(Programa.class, csvValue(values, columns, "programa"), "programa", errors);
+        Rol rol = parseEnum(Rol.class, csvValue(values, columns, "rol"), "rol", errors);
+        if (!errors.isEmpty()) {
+            progress.fail(row, email, errors);
+            return null;
+        }
+
+        return RegisterRequest.builder()
+                .nombres(csvValue(values, columns, "nombres"))
+                .apellidos(csvValue(values, columns, "apellidos"))
+                .celular(csvValue(values, columns, "celular"))
+                .programa(programa)
+                .rol(rol)
+                .email(email)
+                .password(csvValue(values, columns, "password"))
+                .build();
+    }
+
+    private RegisterRequest parseJsonRow(long row, String line, Progress progress) {
+        try {
+            return objectMapper.readValue(line, RegisterRequest.class);
+        } catch (JsonProcessingException e) {
+            progress.fail(row, null, List.of("JSON inválido: " + e.getOriginalMessage()));
+            return null;
+        }
+    }
+
+    private static String csvValue(List<String> values, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String field, List<String> errors) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            errors.add(field + ": Valor no válido '" + value + "'");
+            return null;
+        }
+    }
+
+    /**
+     * Separa una línea CSV (RFC 4180): campos entre comillas con comas y "" como comilla escapada
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record ImportRow(long row, RegisterRequest request) {
+    }
+
+    private record HashedRow(RegisterRequest request, String passwordHash) {
+    }
+
+    /**
+     * Contadores y errores acumulados durante una importación
+     */
+    private static final class Progress {
+        private final int maxErrors;
+        private final List<UserImportResponse.RowError> errors = new ArrayList<>();
+        private long processed;
+        private long imported;
+        private long skipped;
+        private long failed;
+        private long lastRow;
+        private boolean errorsTruncated;
+
+        private Progress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void fail(long row, String email, List<String> messages) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new UserImportResponse.RowError(row, email, messages));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+}
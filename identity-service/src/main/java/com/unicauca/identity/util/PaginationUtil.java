@@ -1,5 +1,6 @@
 package com.unicauca.identity.util;
 
+import com.unicauca.identity.dto.response.KeysetPage;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
@@ -56,4 +57,33 @@ public class PaginationUtil {
                 .headers(generatePaginationHeaders(page))
                 .body(response);
     }
+
+    /**
+     * Crea un ResponseEntity con datos paginados por cursor (sin totales)
+     *
+     * @param page La página de resultados
+     * @param <T> Tipo de los elementos en la página
+     * @return ResponseEntity con los datos y el cursor de la página siguiente
+     */
+    public static <T> ResponseEntity<Map<String, Object>> createKeysetResponse(KeysetPage<T> page) {
+        Map<String, Object> pagination = new HashMap<>();
+        pagination.put("pageSize", page.size());
+        pagination.put("hasNext", page.hasNext());
+        pagination.put("nextAfterId", page.nextAfterId());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", page.content());
+        response.put("pagination", pagination);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Page-Size", Integer.toString(page.size()));
+        if (page.hasNext()) {
+            headers.add("X-Next-After-Id", Long.toString(page.nextAfterId()));
+        }
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(response);
+    }
 }
@@ -0,0 +1,45 @@
+package com.unicauca.identity.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utilidad para normalizar el texto de búsqueda de usuarios.
+ *
+ * La misma normalización se aplica a la columna usuarios.search_text y a los
+ * términos de búsqueda: minúsculas, sin tildes ni diéresis (ñ pasa a n) y con
+ * los espacios colapsados.
+ */
+public class SearchTextUtil {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SearchTextUtil() {
+        // Constructor privado para evitar instanciación
+    }
+
+    /**
+     * Normaliza un texto para búsqueda
+     *
+     * @param text Texto original
+     * @return Texto normalizado, o cadena vacía si es null
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String withoutDiacritics = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(withoutDiacritics.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Construye el texto de búsqueda de un usuario
+     *
+     * @return nombres, apellidos y email normalizados
+     */
+    public static String searchText(String nombres, String apellidos, String email) {
+        return normalize(nombres + " " + apellidos + " " + email);
+    }
+}
@@ -0,0 +1,60 @@
+package db.migration;
+
+import com.unicauca.identity.util.SearchTextUtil;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Recalcula usuarios.search_text con {@link SearchTextUtil}.
+ *
+ * El backfill SQL de V2 solo quitaba las tildes del español (translate) y no
+ * colapsaba espacios, así que filas con ç, à, ê o espacios dobles no
+ * coincidían con los términos normalizados en Java. Se recalcula desde Java
+ * para que columna y búsquedas usen exactamente la misma normalización; solo
+ * se actualizan las filas cuyo valor cambia.
+ */
+public class V5__RecomputeUsuariosSearchText extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        recompute(context.getConnection());
+    }
+
+    static int recompute(Connection connection) throws Exception {
+        int updated = 0;
+        try (Statement select = connection.createStatement();
+             PreparedStatement update = connection.prepareStatement("UPDATE usuarios SET search_text = ? WHERE id = ?")) {
+            // Lectura por cursor (PostgreSQL lo usa con fetchSize dentro de la transacción de la migración)
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rows = select.executeQuery("SELECT id, nombres, apellidos, email, search_text FROM usuarios")) {
+                int pending = 0;
+                while (rows.next()) {
+                    String searchText = SearchTextUtil.searchText(
+                            rows.getString("nombres"), rows.getString("apellidos"), rows.getString("email"));
+                    if (searchText.equals(rows.getString("search_text"))) {
+                        continue;
+                    }
+                    update.setString(1, searchText);
+                    update.setLong(2, rows.getLong("id"));
+                    update.addBatch();
+                    updated++;
+                    if (++pending == BATCH_SIZE) {
+                        update.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    update.executeBatch();
+                }
+            }
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,17 @@
+-- V3__create_user_outbox_table.sql
+-- Outbox transaccional de eventos de usuarios (UserRegistered, UserUpdated, UserRoleChanged).
+-- Se escribe en la misma transacción que el cambio del usuario y un relay la publica en RabbitMQ.
+
+CREATE TABLE user_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    payload VARCHAR(4000) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP
+);
+
+-- Pendientes de publicar, en orden
+CREATE INDEX idx_user_outbox_published_at ON user_outbox(published_at, id);
+-- Versión de cada usuario en el snapshot (último evento)
+CREATE INDEX idx_user_outbox_aggregate_id ON user_outbox(aggregate_id, id);
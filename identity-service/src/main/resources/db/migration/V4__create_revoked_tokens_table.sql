@@ -0,0 +1,14 @@
+-- V4__create_revoked_tokens_table.sql
+-- Tokens revocados por logout (SHA-256 del token), hasta su expiración.
+-- Cada instancia los carga en memoria al arrancar y recoge periódicamente los nuevos.
+
+CREATE TABLE revoked_tokens (
+    token_digest VARCHAR(64) PRIMARY KEY,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    revoked_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Carga incremental de revocaciones nuevas
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens(revoked_at);
+-- Purga de revocaciones expiradas
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens(expires_at);
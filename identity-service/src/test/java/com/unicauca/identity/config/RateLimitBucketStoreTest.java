@@ -0,0 +1,72 @@
+package com.unicauca.identity.config;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitBucketStoreTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitBucketStore store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new RateLimitBucketStore(8, 2, Duration.ofSeconds(10), RateLimitBucketStoreTest::bucket,
+                meterRegistry, now::get);
+    }
+
+    private static Bucket bucket() {
+        return Bucket.builder()
+                .addLimit(Bandwidth.classic(2, Refill.intervally(1, Duration.ofSeconds(1))))
+                .build();
+    }
+
+    @Test
+    void bucketFor_ShouldReturnSameBucketForSameKey() {
+        Bucket first = store.bucketFor("192.168.1.1");
+        first.tryConsume(2);
+
+        // El mismo cliente sigue sin tokens; otro cliente tiene su propio bucket
+        assertSame(first, store.bucketFor("192.168.1.1"));
+        assertFalse(store.bucketFor("192.168.1.1").tryConsume(1));
+        assertTrue(store.bucketFor("192.168.1.2").tryConsume(1));
+    }
+
+    @Test
+    void bucketFor_ShouldStayBoundedWithManyDistinctClients() {
+        // Cuando hay muchas IPs distintas
+        for (int i = 0; i < 10_000; i++) {
+            store.bucketFor("10.0." + (i / 256) + "." + (i % 256));
+        }
+
+        // Entonces el tamaño no supera el máximo configurado
+        assertTrue(store.size() <= 8, "Buckets vivos: " + store.size());
+        assertTrue(meterRegistry.get("identity.ratelimit.evictions").tag("reason", "capacity").counter().count() > 0);
+        assertEquals(store.size(), meterRegistry.get("identity.ratelimit.buckets").gauge().value());
+    }
+
+    @Test
+    void bucketFor_ShouldExpireIdleBuckets() {
+        Bucket idle = store.bucketFor("192.168.1.1");
+        store.bucketFor("192.168.1.2");
+
+        // Tras 10 segundos sin uso, el siguiente acceso a cada shard descarta los buckets inactivos
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        Bucket renewed = store.bucketFor("192.168.1.1");
+        store.bucketFor("192.168.1.2");
+
+        assertNotSame(idle, renewed);
+        assertEquals(2, store.size());
+        assertEquals(2.0, meterRegistry.get("identity.ratelimit.evictions").tag("reason", "idle").counter().count());
+    }
+}
@@ -1,11 +1,13 @@
 package com.unicauca.identity.config;
 
 import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.mock.web.MockHttpServletRequest;
@@ -17,6 +19,7 @@ import org.springframework.web.servlet.handler.HandlerMappingIntrospector;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
@@ -107,4 +110,111 @@ class RateLimitingTest {
         verify(filterChain, times(5)).doFilter(any(HttpServletRequest.class), any(HttpServletResponse.class));
         assertEquals(200, response.getStatus());
     }
+
+    @Test
+    void shouldLimitLoginPerIpAndEmail_WhenLoginKeyByEmailEnabled() throws ServletException, IOException {
+        // Given - Límite de /login por IP + email
+        ReflectionTestUtils.setField(rateLimitingConfig, "loginKeyByEmail", true);
+        OncePerRequestFilter filter = rateLimitingConfig.rateLimitFilter(introspector);
+
+        // When - Tres usuarios distintos detrás de la misma IP hacen login dos veces cada uno
+        for (String email : new String[]{"a@unicauca.edu.co", "b@unicauca.edu.co", "c@unicauca.edu.co"}) {
+            for (int i = 0; i < 2; i++) {
+                filter.doFilter(loginRequest("192.168.1.4", email), new MockHttpServletResponse(), filterChain);
+            }
+        }
+        MockHttpServletResponse blocked = new MockHttpServletResponse();
+        filter.doFilter(loginRequest("192.168.1.4", "a@unicauca.edu.co"), blocked, filterChain);
+
+        // Then - Cada usuario tiene su bucket y el controlador sigue recibiendo el cuerpo
+        ArgumentCaptor<HttpServletRequest> forwarded = ArgumentCaptor.forClass(HttpServletRequest.class);
+        verify(filterChain, times(6)).doFilter(forwarded.capture(), any(HttpServletResponse.class));
+        assertEquals(429, blocked.getStatus());
+        assertEquals("{\"email\":\"c@unicauca.edu.co\",\"password\":\"x\"}",
+                new String(forwarded.getValue().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldLimitLoginPerIp_WhenOneIpCyclesThroughEmails() throws ServletException, IOException {
+        // Given - Límite de /login por IP + email, con bucket de IP de 2 * 2 tokens
+        ReflectionTestUtils.setField(rateLimitingConfig, "loginKeyByEmail", true);
+        ReflectionTestUtils.setField(rateLimitingConfig, "loginIpCapacityFactor", 2);
+        OncePerRequestFilter filter = rateLimitingConfig.rateLimitFilter(introspector);
+
+        // When - Una IP prueba una contraseña contra cuentas distintas
+        for (int i = 0; i < 4; i++) {
+            filter.doFilter(loginRequest("192.168.1.5", "usuario" + i + "@unicauca.edu.co"),
+                    new MockHttpServletResponse(), filterChain);
+        }
+        MockHttpServletResponse blocked = new MockHttpServletResponse();
+        filter.doFilter(loginRequest("192.168.1.5", "usuario4@unicauca.edu.co"), blocked, filterChain);
+
+        // Then - Cada email tiene tokens, pero el bucket de la IP se agota
+        verify(filterChain, times(4)).doFilter(any(HttpServletRequest.class), any(HttpServletResponse.class));
+        assertEquals(429, blocked.getStatus());
+    }
+
+    @Test
+    void shouldNotifyReadListener_WhenLoginBodyIsCached() throws ServletException, IOException {
+        // Given
+        ReflectionTestUtils.setField(rateLimitingConfig, "loginKeyByEmail", true);
+        OncePerRequestFilter filter = rateLimitingConfig.rateLimitFilter(introspector);
+        filter.doFilter(loginRequest("192.168.1.6", "a@unicauca.edu.co"), new MockHttpServletResponse(), filterChain);
+        ArgumentCaptor<HttpServletRequest> forwarded = ArgumentCaptor.forClass(HttpServletRequest.class);
+        verify(filterChain).doFilter(forwarded.capture(), any(HttpServletResponse.class));
+        ReadListener listener = mock(ReadListener.class);
+
+        // When - Un lector no bloqueante registra su listener
+        forwarded.getValue().getInputStream().setReadListener(listener);
+
+        // Then - El cuerpo en memoria está disponible y completo de inmediato
+        verify(listener).onDataAvailable();
+        verify(listener).onAllDataRead();
+    }
+
+    @Test
+    void shouldChargeBatchVerificationPerToken_WhenVerifyingTokensInBatch() throws ServletException, IOException {
+        // Given - Bucket del lote de 2 * 50 = 100 tokens (ampliado para admitir un lote completo)
+
+        // When - Una IP envía lotes de 25 tokens y otra lotes de 1 token
+        for (int i = 0; i < 4; i++) {
+            rateLimitFilter.doFilter(batchRequest("192.168.1.7", 25), new MockHttpServletResponse(), filterChain);
+        }
+        MockHttpServletResponse blocked = new MockHttpServletResponse();
+        rateLimitFilter.doFilter(batchRequest("192.168.1.7", 1), blocked, filterChain);
+
+        MockHttpServletResponse lastSingle = new MockHttpServletResponse();
+        for (int i = 0; i < 100; i++) {
+            lastSingle = new MockHttpServletResponse();
+            rateLimitFilter.doFilter(batchRequest("192.168.1.8", 1), lastSingle, filterChain);
+        }
+
+        // Then - 4 lotes de 25 agotan lo mismo que 100 lotes de 1, y el cuerpo llega al controlador
+        ArgumentCaptor<HttpServletRequest> forwarded = ArgumentCaptor.forClass(HttpServletRequest.class);
+        verify(filterChain, times(104)).doFilter(forwarded.capture(), any(HttpServletResponse.class));
+        assertEquals(429, blocked.getStatus());
+        assertEquals(200, lastSingle.getStatus());
+        assertEquals("{\"tokens\":[\"t0\"]}",
+                new String(forwarded.getValue().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    private static MockHttpServletRequest batchRequest(String ip, int tokens) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/verify-token/batch");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        StringBuilder body = new StringBuilder("{\"tokens\":[");
+        for (int i = 0; i < tokens; i++) {
+            body.append(i > 0 ? "," : "").append("\"t").append(i).append('"');
+        }
+        request.setContent(body.append("]}").toString().getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static MockHttpServletRequest loginRequest(String ip, String email) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(("{\"email\":\"" + email + "\",\"password\":\"x\"}").getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
 }
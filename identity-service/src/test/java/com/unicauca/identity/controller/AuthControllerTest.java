@@ -12,7 +12,10 @@ import com.unicauca.identity.dto.response.UserResponse;
 import com.unicauca.identity.enums.Programa;
 import com.unicauca.identity.enums.Rol;
 import com.unicauca.identity.exception.EmailAlreadyExistsException;
+import com.unicauca.identity.security.LiveUserRegistry;
 import com.unicauca.identity.service.AuthService;
+import com.unicauca.identity.service.RoleRosterService;
+import com.unicauca.identity.service.UserImportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -51,6 +54,15 @@ class AuthControllerTest {
     @MockBean
     private AuthService authService;
 
+    @MockBean
+    private RoleRosterService roleRosterService;
+
+    @MockBean
+    private LiveUserRegistry liveUserRegistry;
+
+    @MockBean
+    private UserImportService userImportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -0,0 +1,116 @@
+package com.unicauca.identity.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unicauca.identity.dto.request.RegisterRequest;
+import com.unicauca.identity.dto.response.UserResponse;
+import com.unicauca.identity.dto.response.UserSnapshotEntry;
+import com.unicauca.identity.entity.OutboxEvent;
+import com.unicauca.identity.enums.Programa;
+import com.unicauca.identity.enums.Rol;
+import com.unicauca.identity.repository.OutboxEventRepository;
+import com.unicauca.identity.repository.UserRepository;
+import com.unicauca.identity.service.AuthService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "identity.events.enabled=true",
+        // El relay se ejecuta manualmente en la prueba
+        "identity.events.relay-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class UserEventsIntegrationTest {
+
+    private static final String EMAIL = "eventos.test@unicauca.edu.co";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserEventRelay userEventRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private RabbitTemplate rabbitTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // invoke ejecuta el callback sobre el propio mock, sin broker
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(rabbitTemplate));
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void register_ShouldWriteOutboxEventAndRelayShouldPublishIt() throws Exception {
+        // Given
+        RegisterRequest request = RegisterRequest.builder()
+                .nombres("Eventos")
+                .apellidos("Test")
+                .programa(Programa.INGENIERIA_DE_SISTEMAS)
+                .rol(Rol.DOCENTE)
+                .email(EMAIL)
+                .password("Test123!")
+                .build();
+
+        // When
+        UserResponse user = authService.register(request);
+
+        // Then: el evento queda pendiente en la misma transacción que el usuario
+        List<OutboxEvent> events = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAggregateId().equals(user.id()))
+                .toList();
+        assertThat(events).hasSize(1);
+        OutboxEvent event = events.get(0);
+        assertThat(event.getEventType()).isEqualTo(UserEventType.USER_REGISTERED);
+        assertThat(event.getPublishedAt()).isNull();
+
+        // When: se ejecuta el relay
+        userEventRelay.relayPending();
+
+        // Then: se publica con la secuencia del outbox y se marca como publicado
+        ArgumentCaptor<Message> message = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq("identity-exchange"), eq("user.registered"), message.capture());
+        assertThat(message.getValue().getMessageProperties().getType()).isEqualTo("UserRegistered");
+        UserEvent published = objectMapper.readValue(message.getValue().getBody(), UserEvent.class);
+        assertThat(published.sequence()).isEqualTo(event.getId());
+        assertThat(published.user().email()).isEqualTo(EMAIL);
+        assertThat(outboxEventRepository.findById(event.getId()).orElseThrow().getPublishedAt()).isNotNull();
+
+        // Then: el snapshot lleva como versión la secuencia del último evento
+        List<UserSnapshotEntry> snapshot = authService.getUserSnapshot(user.id() - 1, 1).content();
+        assertThat(snapshot).hasSize(1);
+        assertThat(snapshot.get(0).id()).isEqualTo(user.id());
+        assertThat(snapshot.get(0).version()).isEqualTo(event.getId());
+    }
+}
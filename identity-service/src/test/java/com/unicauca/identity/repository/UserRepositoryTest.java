@@ -1,5 +1,6 @@
 package com.unicauca.identity.repository;
 
+import com.unicauca.identity.dto.response.UserSummary;
 import com.unicauca.identity.entity.User;
 import com.unicauca.identity.enums.Programa;
 import com.unicauca.identity.enums.Rol;
@@ -8,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -107,4 +109,38 @@ class UserRepositoryTest {
         assertThat(saved.getId()).isNotNull();
         assertThat(entityManager.find(User.class, saved.getId())).isEqualTo(saved);
     }
+
+    @Test
+    void findSummariesByIdInOrEmailIn_ShouldResolveIdsAndEmailsInOneQuery() {
+        // Given
+        User juan = entityManager.persist(User.builder()
+                .nombres("Juan")
+                .apellidos("Perez")
+                .email("jperez@unicauca.edu.co")
+                .programa(Programa.INGENIERIA_DE_SISTEMAS)
+                .rol(Rol.ESTUDIANTE)
+                .passwordHash("hashedPassword")
+                .build());
+        User maria = entityManager.persist(User.builder()
+                .nombres("Maria")
+                .apellidos("Lopez")
+                .email("mlopez@unicauca.edu.co")
+                .programa(Programa.AUTOMATICA_INDUSTRIAL)
+                .rol(Rol.DOCENTE)
+                .passwordHash("hashedPassword")
+                .build());
+        entityManager.flush();
+
+        // When
+        List<UserSummary> byBoth = userRepository.findSummariesByIdInOrEmailIn(
+                List.of(juan.getId(), 9999L), List.of("mlopez@unicauca.edu.co"));
+        List<UserSummary> byIdsOnly = userRepository.findSummariesByIdInOrEmailIn(
+                List.of(maria.getId()), List.of());
+
+        // Then
+        assertThat(byBoth).extracting(UserSummary::email)
+                .containsExactlyInAnyOrder("jperez@unicauca.edu.co", "mlopez@unicauca.edu.co");
+        assertThat(byIdsOnly).containsExactly(new UserSummary(maria.getId(), "mlopez@unicauca.edu.co",
+                "Maria", "Lopez", Rol.DOCENTE, Programa.AUTOMATICA_INDUSTRIAL));
+    }
 }
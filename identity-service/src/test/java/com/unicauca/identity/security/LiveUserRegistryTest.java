@@ -0,0 +1,143 @@
+package com.unicauca.identity.security;
+
+import com.unicauca.identity.entity.RevokedToken;
+import com.unicauca.identity.repository.RevokedTokenRepository;
+import com.unicauca.identity.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LiveUserRegistryTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-01T12:00:00Z");
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LiveUserRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new LiveUserRegistry(userRepository, revokedTokenRepository, meterRegistry, true, Duration.ofHours(1),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void isReady_ShouldBeFalseUntilFirstReconcile() {
+        assertFalse(registry.isReady());
+
+        when(userRepository.findAllIds()).thenReturn(List.of(1L, 2L, 5L));
+        registry.reconcile();
+
+        assertTrue(registry.isReady());
+        assertEquals(3, registry.size());
+        assertTrue(registry.isLive(5L));
+        assertFalse(registry.isLive(3L));
+    }
+
+    @Test
+    void events_ShouldUpdateLiveUsersAndRevokeRemovedUserTokens() {
+        when(userRepository.findAllIds()).thenReturn(List.of(1L, 2L));
+        registry.reconcile();
+
+        registry.onUserCreated(3L);
+        registry.onUserRemoved(2L);
+
+        assertTrue(registry.isLive(3L));
+        assertFalse(registry.isLive(2L));
+        // Los tokens emitidos antes de la baja quedan revocados
+        assertTrue(registry.isRevoked("token", 2L, NOW.minusSeconds(60)));
+        assertFalse(registry.isRevoked("token", 2L, NOW.plusSeconds(1)));
+        assertFalse(registry.isRevoked("token", 1L, NOW.minusSeconds(60)));
+    }
+
+    @Test
+    void reconcile_ShouldCorrectDriftFromDatabase() {
+        when(userRepository.findAllIds()).thenReturn(List.of(1L, 2L));
+        registry.reconcile();
+
+        // Usuario 2 borrado y usuario 4 creado desde otra instancia
+        when(userRepository.findAllIds()).thenReturn(List.of(1L, 4L));
+        registry.reconcile();
+
+        assertFalse(registry.isLive(2L));
+        assertTrue(registry.isLive(4L));
+        assertEquals(2.0, meterRegistry.get("identity.live_users.reconcile.drift").counter().count());
+    }
+
+    @Test
+    void revokeToken_ShouldRevokeOnlyThatTokenUntilExpiration() {
+        registry.revokeToken("token-a", NOW.plusSeconds(600));
+        registry.revokeToken("token-expirado", NOW.minusSeconds(1));
+
+        assertTrue(registry.isRevoked("token-a", 1L, NOW.minusSeconds(60)));
+        assertFalse(registry.isRevoked("token-b", 1L, NOW.minusSeconds(60)));
+        assertFalse(registry.isRevoked("token-expirado", 1L, NOW.minusSeconds(60)));
+
+        // Solo se persiste la revocación vigente
+        ArgumentCaptor<RevokedToken> saved = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(saved.capture());
+        assertEquals(NOW.plusSeconds(600), saved.getValue().getExpiresAt());
+    }
+
+    @Test
+    void reconcile_ShouldLoadPersistedRevocations_WhenRestartedOrRevokedElsewhere() {
+        // Revocación guardada antes de un reinicio o por otra instancia
+        RevokedToken persisted = new RevokedToken(digestOf("token-a"), NOW.plusSeconds(600), NOW.minusSeconds(30));
+        when(revokedTokenRepository.findActiveRevokedSince(Instant.EPOCH, NOW)).thenReturn(List.of(persisted));
+
+        registry.reconcile();
+
+        assertTrue(registry.isRevoked("token-a", 1L, NOW.minusSeconds(60)));
+        verify(revokedTokenRepository).deleteExpired(NOW);
+    }
+
+    @Test
+    void refreshRevocations_ShouldLoadOnlyRecentRevocations_AfterFirstLoad() {
+        registry.refreshRevocations();
+        RevokedToken persisted = new RevokedToken(digestOf("token-b"), NOW.plusSeconds(600), NOW);
+        when(revokedTokenRepository.findActiveRevokedSince(NOW.minusSeconds(60), NOW)).thenReturn(List.of(persisted));
+
+        registry.refreshRevocations();
+
+        assertTrue(registry.isRevoked("token-b", 1L, NOW.minusSeconds(60)));
+        verify(revokedTokenRepository, never()).save(any());
+        verify(revokedTokenRepository).findActiveRevokedSince(eq(Instant.EPOCH), eq(NOW));
+    }
+
+    private static String digestOf(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
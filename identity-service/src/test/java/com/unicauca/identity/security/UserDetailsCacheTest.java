@@ -0,0 +1,100 @@
+package com.unicauca.identity.security;
+
+import com.unicauca.identity.entity.User;
+import com.unicauca.identity.enums.Programa;
+import com.unicauca.identity.enums.Rol;
+import com.unicauca.identity.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserDetailsCache userDetailsCache;
+    private UserDetailsServiceImpl userDetailsService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        userDetailsCache = new UserDetailsCache(new SimpleMeterRegistry(), true, 2, 300);
+        userDetailsService = new UserDetailsServiceImpl(userRepository, userDetailsCache);
+
+        testUser = user(1L, "jperez@unicauca.edu.co");
+    }
+
+    private static User user(Long id, String email) {
+        return User.builder()
+                .id(id)
+                .nombres("Juan")
+                .apellidos("Perez")
+                .email(email)
+                .programa(Programa.INGENIERIA_DE_SISTEMAS)
+                .rol(Rol.ESTUDIANTE)
+                .passwordHash("hashedPassword")
+                .build();
+    }
+
+    @Test
+    void loadUserByEmailCached_ShouldQueryDatabaseOnlyOnce() {
+        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
+
+        UserDetails first = userDetailsService.loadUserByEmailCached(testUser.getEmail());
+        UserDetails second = userDetailsService.loadUserByEmailCached(testUser.getEmail());
+
+        // La segunda petición se resuelve desde la caché
+        assertSame(first, second);
+        assertSame(first, userDetailsCache.getById(1L));
+        verify(userRepository, times(1)).findByEmail(testUser.getEmail());
+    }
+
+    @Test
+    void evict_ShouldForceReloadFromDatabase() {
+        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
+        userDetailsService.loadUserByEmailCached(testUser.getEmail());
+
+        userDetailsCache.evict(testUser);
+
+        assertNull(userDetailsCache.getByEmail(testUser.getEmail()));
+        assertNull(userDetailsCache.getById(1L));
+        userDetailsService.loadUserByEmailCached(testUser.getEmail());
+        verify(userRepository, times(2)).findByEmail(testUser.getEmail());
+    }
+
+    @Test
+    void put_ShouldEvictLeastRecentlyUsedFromBothIndexes() {
+        UserDetails details = mock(UserDetails.class);
+        userDetailsCache.put(testUser, details);
+        userDetailsCache.put(user(2L, "maria@unicauca.edu.co"), details);
+        userDetailsCache.getByEmail(testUser.getEmail());
+        userDetailsCache.put(user(3L, "pedro@unicauca.edu.co"), details);
+
+        // Se descarta el usuario 2, el menos usado recientemente
+        assertEquals(2, userDetailsCache.size());
+        assertNull(userDetailsCache.getById(2L));
+        assertNull(userDetailsCache.getByEmail("maria@unicauca.edu.co"));
+        assertNotNull(userDetailsCache.getById(1L));
+        assertNotNull(userDetailsCache.getByEmail("pedro@unicauca.edu.co"));
+    }
+
+    @Test
+    void getByEmail_ShouldIgnoreExpiredEntries() {
+        UserDetailsCache expiring = new UserDetailsCache(new SimpleMeterRegistry(), true, 10, 0);
+        expiring.put(testUser, mock(UserDetails.class));
+
+        assertNull(expiring.getByEmail(testUser.getEmail()));
+        assertEquals(0, expiring.size());
+    }
+}
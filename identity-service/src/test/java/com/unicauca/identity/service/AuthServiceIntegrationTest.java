@@ -2,6 +2,7 @@ package com.unicauca.identity.service;
 
 import com.unicauca.identity.dto.request.LoginRequest;
 import com.unicauca.identity.dto.request.RegisterRequest;
+import com.unicauca.identity.dto.response.KeysetPage;
 import com.unicauca.identity.dto.response.LoginResponse;
 import com.unicauca.identity.dto.response.UserResponse;
 import com.unicauca.identity.entity.User;
@@ -197,4 +198,32 @@ class AuthServiceIntegrationTest {
             authService.getProfile(nonExistentUserId);
         });
     }
+
+    @Test
+    void searchUsersAfter_ShouldPageByIdWithoutCount_AndIgnoreAccents() {
+        // Given
+        for (String nombres : new String[]{"José", "Jose Luis", "Josefina", "Andrés"}) {
+            userRepository.save(User.builder()
+                    .nombres(nombres)
+                    .apellidos("Muñoz")
+                    .programa(Programa.INGENIERIA_DE_SISTEMAS)
+                    .rol(Rol.ESTUDIANTE)
+                    .email(nombres.toLowerCase().replace(" ", "") + ".keyset@unicauca.edu.co")
+                    .passwordHash("hashedPassword")
+                    .build());
+        }
+
+        // When
+        KeysetPage<UserResponse> first = authService.searchUsersAfter("JOSÉ", null, null, 0, 2);
+        KeysetPage<UserResponse> second = authService.searchUsersAfter("JOSÉ", null, null, first.nextAfterId(), 2);
+        KeysetPage<UserResponse> bySurname = authService.searchUsersAfter("andres munoz", null, null, 0, 10);
+
+        // Then
+        assertThat(first.content()).extracting(UserResponse::nombres).containsExactly("José", "Jose Luis");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.content()).extracting(UserResponse::nombres).containsExactly("Josefina");
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.nextAfterId()).isNull();
+        assertThat(bySurname.content()).extracting(UserResponse::nombres).containsExactly("Andrés");
+    }
 }
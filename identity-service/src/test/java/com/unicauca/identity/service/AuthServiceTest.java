@@ -2,16 +2,27 @@ package com.unicauca.identity.service;
 
 import com.unicauca.identity.dto.request.LoginRequest;
 import com.unicauca.identity.dto.request.RegisterRequest;
+import com.unicauca.identity.dto.request.UserBatchRequest;
+import com.unicauca.identity.dto.request.VerifyTokenBatchRequest;
+import com.unicauca.identity.dto.request.VerifyTokenRequest;
 import com.unicauca.identity.dto.response.LoginResponse;
+import com.unicauca.identity.dto.response.TokenVerificationResponse;
+import com.unicauca.identity.dto.response.UserBatchResponse;
 import com.unicauca.identity.dto.response.UserResponse;
+import com.unicauca.identity.dto.response.UserSummary;
 import com.unicauca.identity.entity.User;
 import com.unicauca.identity.enums.Programa;
 import com.unicauca.identity.enums.Rol;
+import com.unicauca.identity.exception.BusinessException;
 import com.unicauca.identity.exception.EmailAlreadyExistsException;
 import com.unicauca.identity.exception.InvalidCredentialsException;
 import com.unicauca.identity.repository.UserRepository;
 import com.unicauca.identity.security.JwtTokenProvider;
+import com.unicauca.identity.event.UserEventOutbox;
+import com.unicauca.identity.security.LiveUserRegistry;
+import com.unicauca.identity.security.UserDetailsCache;
 import com.unicauca.identity.service.impl.AuthServiceImpl;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,11 +32,17 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +57,18 @@ class AuthServiceTest {
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private RoleRosterService roleRosterService;
+
+    @Mock
+    private LiveUserRegistry liveUserRegistry;
+
+    @Mock
+    private UserEventOutbox userEventOutbox;
+
     @InjectMocks
     private AuthServiceImpl authService;
 
@@ -150,4 +179,136 @@ class AuthServiceTest {
             authService.login(loginRequest);
         });
     }
+
+    @Test
+    void findUsersBatch_ShouldIndexByIdAndReportMissing() {
+        // Configurar comportamiento de los mocks
+        UserSummary summary = new UserSummary(1L, "jperez@unicauca.edu.co", "Juan", "Perez",
+                Rol.ESTUDIANTE, Programa.INGENIERIA_DE_SISTEMAS);
+        when(userRepository.findSummariesByIdInOrEmailIn(Set.of(1L, 2L), Set.of("jperez@unicauca.edu.co", "nadie@unicauca.edu.co")))
+                .thenReturn(List.of(summary));
+
+        // Ejecutar método a probar (los duplicados se ignoran)
+        UserBatchResponse response = authService.findUsersBatch(new UserBatchRequest(
+                List.of(1L, 2L, 1L), List.of("jperez@unicauca.edu.co", "nadie@unicauca.edu.co")));
+
+        // Verificar resultados
+        assertEquals(summary, response.users().get(1L));
+        assertEquals(1L, response.idsByEmail().get("jperez@unicauca.edu.co"));
+        assertEquals(List.of(2L), response.notFoundIds());
+        assertEquals(List.of("nadie@unicauca.edu.co"), response.notFoundEmails());
+    }
+
+    @Test
+    void findUsersBatch_ShouldThrowException_WhenRequestIsEmpty() {
+        assertThrows(BusinessException.class, () -> authService.findUsersBatch(new UserBatchRequest(null, List.of(" "))));
+    }
+
+    @Test
+    void verifyTokens_ShouldValidateInParallelAndCheckUsersInOneQuery() {
+        // Configurar comportamiento de los mocks
+        when(jwtTokenProvider.validateToken("token-1")).thenReturn(true);
+        when(jwtTokenProvider.validateToken("token-2")).thenReturn(true);
+        when(jwtTokenProvider.validateToken("expirado")).thenReturn(false);
+        when(jwtTokenProvider.getAllClaimsFromToken("token-1")).thenReturn(claims(1L, "jperez@unicauca.edu.co"));
+        when(jwtTokenProvider.getAllClaimsFromToken("token-2")).thenReturn(claims(2L, "borrado@unicauca.edu.co"));
+        when(userRepository.findExistingIds(Set.of(1L, 2L))).thenReturn(Set.of(1L));
+
+        // Ejecutar método a probar con un ejecutor real
+        List<TokenVerificationResponse> responses;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            AuthServiceImpl service = new AuthServiceImpl(userRepository, passwordEncoder, jwtTokenProvider,
+                    userDetailsCache, roleRosterService, executor, liveUserRegistry, userEventOutbox);
+            responses = service.verifyTokens(new VerifyTokenBatchRequest(List.of("token-1", "expirado", "token-2")));
+        }
+
+        // Verificar resultados: mismo orden que la petición
+        assertEquals(3, responses.size());
+        assertTrue(responses.get(0).isValid());
+        assertEquals(1L, responses.get(0).getData().getUserId());
+        assertFalse(responses.get(1).isValid());
+        assertFalse(responses.get(2).isValid());
+        assertEquals("Usuario no encontrado", responses.get(2).getMessage());
+        verify(userRepository, never()).existsById(1L);
+    }
+
+    @Test
+    void verifyToken_ShouldUseLiveUserRegistry_WhenRegistryIsReady() {
+        // Configurar comportamiento de los mocks
+        when(jwtTokenProvider.validateToken("token-1")).thenReturn(true);
+        when(jwtTokenProvider.getAllClaimsFromToken("token-1")).thenReturn(claims(1L, "jperez@unicauca.edu.co"));
+        when(liveUserRegistry.isReady()).thenReturn(true);
+        when(liveUserRegistry.isLive(1L)).thenReturn(true);
+
+        TokenVerificationResponse response = authService.verifyToken(new VerifyTokenRequest("token-1"));
+
+        // Verificar resultados: sin consultar la base de datos
+        assertTrue(response.isValid());
+        verify(userRepository, never()).existsById(any());
+    }
+
+    @Test
+    void verifyToken_ShouldConfirmInDatabaseAndMarkLive_WhenRegistryMisses() {
+        // Configurar comportamiento de los mocks: usuario creado en otra instancia
+        when(jwtTokenProvider.validateToken("token-1")).thenReturn(true);
+        when(jwtTokenProvider.getAllClaimsFromToken("token-1")).thenReturn(claims(1L, "jperez@unicauca.edu.co"));
+        when(liveUserRegistry.isReady()).thenReturn(true);
+        when(liveUserRegistry.isLive(1L)).thenReturn(false);
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        TokenVerificationResponse response = authService.verifyToken(new VerifyTokenRequest("token-1"));
+
+        // Verificar resultados: válido y registrado para las siguientes verificaciones
+        assertTrue(response.isValid());
+        verify(liveUserRegistry).onUserCreated(1L);
+    }
+
+    @Test
+    void verifyTokens_ShouldQueryOnlyRegistryMisses_WhenRegistryIsReady() {
+        // Configurar comportamiento de los mocks
+        when(jwtTokenProvider.validateToken(anyString())).thenReturn(true);
+        when(jwtTokenProvider.getAllClaimsFromToken("token-1")).thenReturn(claims(1L, "jperez@unicauca.edu.co"));
+        when(jwtTokenProvider.getAllClaimsFromToken("token-2")).thenReturn(claims(2L, "nuevo@unicauca.edu.co"));
+        when(jwtTokenProvider.getAllClaimsFromToken("token-3")).thenReturn(claims(3L, "borrado@unicauca.edu.co"));
+        when(liveUserRegistry.isReady()).thenReturn(true);
+        when(liveUserRegistry.isLive(1L)).thenReturn(true);
+        when(userRepository.findExistingIds(Set.of(2L, 3L))).thenReturn(Set.of(2L));
+
+        List<TokenVerificationResponse> responses;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            AuthServiceImpl service = new AuthServiceImpl(userRepository, passwordEncoder, jwtTokenProvider,
+                    userDetailsCache, roleRosterService, executor, liveUserRegistry, userEventOutbox);
+            responses = service.verifyTokens(new VerifyTokenBatchRequest(List.of("token-1", "token-2", "token-3")));
+        }
+
+        // Verificar resultados: el usuario 2 se confirma en la base de datos y el 3 no existe
+        assertTrue(responses.get(0).isValid());
+        assertTrue(responses.get(1).isValid());
+        assertFalse(responses.get(2).isValid());
+        verify(liveUserRegistry).onUsersCreated(Set.of(2L));
+    }
+
+    @Test
+    void verifyToken_ShouldReturnInvalid_WhenTokenIsRevoked() {
+        // Configurar comportamiento de los mocks
+        when(jwtTokenProvider.validateToken("token-1")).thenReturn(true);
+        when(jwtTokenProvider.getAllClaimsFromToken("token-1")).thenReturn(claims(1L, "jperez@unicauca.edu.co"));
+        when(liveUserRegistry.isRevoked("token-1", 1L, null)).thenReturn(true);
+
+        TokenVerificationResponse response = authService.verifyToken(new VerifyTokenRequest("token-1"));
+
+        // Verificar resultados
+        assertFalse(response.isValid());
+        assertEquals("Token revocado", response.getMessage());
+        verify(userRepository, never()).existsById(any());
+    }
+
+    private static io.jsonwebtoken.Claims claims(Long userId, String email) {
+        return Jwts.claims()
+                .subject(email)
+                .add("userId", userId)
+                .add("rol", Rol.ESTUDIANTE.name())
+                .add("programa", Programa.INGENIERIA_DE_SISTEMAS.name())
+                .build();
+    }
 }
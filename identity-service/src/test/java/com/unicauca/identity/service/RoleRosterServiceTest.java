@@ -0,0 +1,112 @@
+package com.unicauca.identity.service;
+
+import com.unicauca.identity.controller.AuthController;
+import com.unicauca.identity.dto.response.UserSummary;
+import com.unicauca.identity.enums.Programa;
+import com.unicauca.identity.enums.Rol;
+import com.unicauca.identity.exception.BusinessException;
+import com.unicauca.identity.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class RoleRosterServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AuthService authService;
+
+    private RoleRosterService roleRosterService;
+
+    private final UserSummary coordinadorSistemas = new UserSummary(3L, "coord.sistemas@unicauca.edu.co",
+            "Ana", "Ruiz", Rol.COORDINADOR, Programa.INGENIERIA_DE_SISTEMAS);
+    private final UserSummary coordinadorTelematica = new UserSummary(8L, "coord.telematica@unicauca.edu.co",
+            "Luis", "Mora", Rol.COORDINADOR, Programa.TECNOLOGIA_EN_TELEMATICA);
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2025-02-03T10:00:00Z"), ZoneOffset.UTC);
+        roleRosterService = new RoleRosterService(userRepository,
+                Set.of(Rol.COORDINADOR, Rol.JEFE_DEPARTAMENTO), Duration.ofMinutes(5), clock);
+    }
+
+    @Test
+    void getHolders_ShouldLoadRoleOnceAndFilterByPrograma() {
+        // Configurar comportamiento de los mocks
+        when(userRepository.findSummariesByRol(Rol.COORDINADOR))
+                .thenReturn(List.of(coordinadorSistemas, coordinadorTelematica));
+
+        // Ejecutar método a probar
+        RoleRosterService.Holders all = roleRosterService.getHolders(Rol.COORDINADOR, null);
+        RoleRosterService.Holders sistemas = roleRosterService.getHolders(Rol.COORDINADOR, Programa.INGENIERIA_DE_SISTEMAS);
+
+        // Verificar resultados: una sola consulta para ambas lecturas
+        assertEquals(List.of(coordinadorSistemas, coordinadorTelematica), all.response().holders());
+        assertEquals(List.of(coordinadorSistemas), sistemas.response().holders());
+        assertNotEquals(all.etag(), sistemas.etag());
+        verify(userRepository, times(1)).findSummariesByRol(Rol.COORDINADOR);
+    }
+
+    @Test
+    void onUserChanged_ShouldRefreshRosterAndChangeEtag() {
+        when(userRepository.findSummariesByRol(Rol.COORDINADOR))
+                .thenReturn(List.of(coordinadorSistemas))
+                .thenReturn(List.of(coordinadorSistemas, coordinadorTelematica));
+        String before = roleRosterService.getHolders(Rol.COORDINADOR, null).etag();
+
+        // Sin transacción activa la recarga es inmediata
+        roleRosterService.onUserChanged(Rol.COORDINADOR);
+        roleRosterService.onUserChanged(Rol.ESTUDIANTE);
+
+        RoleRosterService.Holders after = roleRosterService.getHolders(Rol.COORDINADOR, null);
+        assertEquals(2, after.response().holders().size());
+        assertNotEquals(before, after.etag());
+        verify(userRepository, never()).findSummariesByRol(Rol.ESTUDIANTE);
+    }
+
+    @Test
+    void getHolders_ShouldRejectRolesOutsideRoster() {
+        assertThrows(BusinessException.class, () -> roleRosterService.getHolders(Rol.ESTUDIANTE, null));
+    }
+
+    @Test
+    void holdersEndpoint_ShouldReturnNotModified_WhenEtagMatches() throws Exception {
+        when(userRepository.findSummariesByRol(Rol.JEFE_DEPARTAMENTO)).thenReturn(List.of());
+        MockMvc mockMvc = MockMvcBuilders
+                .standaloneSetup(new AuthController(authService, roleRosterService, null, 60))
+                .build();
+
+        MvcResult first = mockMvc.perform(get("/api/auth/roles/JEFE_DEPARTAMENTO/holders"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=60, private"))
+                .andExpect(jsonPath("$.data.rol").value("JEFE_DEPARTAMENTO"))
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/auth/roles/JEFE_DEPARTAMENTO/holders").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+}
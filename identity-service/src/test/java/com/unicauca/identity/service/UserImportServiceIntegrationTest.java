@@ -0,0 +1,100 @@
+package com.unicauca.identity.service;
+
+import com.unicauca.identity.dto.response.UserImportResponse;
+import com.unicauca.identity.dto.response.UserSummary;
+import com.unicauca.identity.entity.User;
+import com.unicauca.identity.enums.Rol;
+import com.unicauca.identity.repository.UserRepository;
+import com.unicauca.identity.security.LiveUserRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserImportServiceIntegrationTest {
+
+    private static final List<String> EMAILS = List.of(
+            "import.uno@unicauca.edu.co", "import.dos@unicauca.edu.co", "import.tres@unicauca.edu.co");
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private LiveUserRegistry liveUserRegistry;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllById(userRepository.findSummariesByEmailIn(EMAILS).stream().map(UserSummary::id).toList());
+    }
+
+    @Test
+    void importUsers_ShouldInsertValidRowsAndReportRowErrors() {
+        // Given
+        String csv = """
+                nombres,apellidos,celular,programa,rol,email,password
+                Ana,"Gómez",3001234567,INGENIERIA_DE_SISTEMAS,ESTUDIANTE,import.uno@unicauca.edu.co,Clave123!
+                Luis,Pérez,,INGENIERIA_ELECTRONICA_Y_TELECOMUNICACIONES,docente,import.dos@unicauca.edu.co,Clave123!
+                Mal,Correo,,INGENIERIA_DE_SISTEMAS,ESTUDIANTE,mal@gmail.com,Clave123!
+                Sin,Fuerza,,INGENIERIA_DE_SISTEMAS,ESTUDIANTE,import.tres@unicauca.edu.co,debil
+                Ana,Repetida,,INGENIERIA_DE_SISTEMAS,ESTUDIANTE,import.uno@unicauca.edu.co,Clave123!
+                Rol,Raro,,INGENIERIA_DE_SISTEMAS,DECANO,import.tres@unicauca.edu.co,Clave123!
+                """;
+
+        // When
+        UserImportResponse response = userImportService.importUsers(stream(csv), UserImportService.Format.CSV, 1);
+
+        // Then
+        assertThat(response.processed()).isEqualTo(6);
+        assertThat(response.imported()).isEqualTo(2);
+        assertThat(response.failed()).isEqualTo(4);
+        assertThat(response.lastRow()).isEqualTo(6);
+        assertThat(response.errors()).extracting(UserImportResponse.RowError::row).containsExactly(3L, 4L, 5L, 6L);
+
+        User imported = userRepository.findByEmail("import.dos@unicauca.edu.co").orElseThrow();
+        assertThat(imported.getRol()).isEqualTo(Rol.DOCENTE);
+        assertThat(imported.getSearchText()).isEqualTo("luis perez import.dos@unicauca.edu.co");
+        assertThat(passwordEncoder.matches("Clave123!", imported.getPasswordHash())).isTrue();
+        assertThat(liveUserRegistry.isLive(imported.getId())).isTrue();
+    }
+
+    @Test
+    void importUsers_ShouldSkipExistingEmails_WhenImportIsRepeated() {
+        // Given
+        String ndjson = """
+                {"nombres":"Ana","apellidos":"Gomez","programa":"INGENIERIA_DE_SISTEMAS","rol":"ESTUDIANTE","email":"import.uno@unicauca.edu.co","password":"Clave123!"}
+                {"nombres":"Luis","apellidos":"Perez","programa":"INGENIERIA_DE_SISTEMAS","rol":"ESTUDIANTE","email":"import.dos@unicauca.edu.co","password":"Clave123!"}
+                {"nombres":"Eva","apellidos":"Ruiz","programa":"INGENIERIA_DE_SISTEMAS","rol":"ESTUDIANTE","email":"import.tres@unicauca.edu.co","password":"Clave123!"}
+                """;
+        userImportService.importUsers(stream(ndjson), UserImportService.Format.NDJSON, 2);
+
+        // When: se repite la importación completa
+        UserImportResponse response = userImportService.importUsers(stream(ndjson), UserImportService.Format.NDJSON, 1);
+
+        // Then: solo se crea la fila que la primera vez quedó antes de startRow
+        assertThat(response.imported()).isEqualTo(1);
+        assertThat(response.skipped()).isEqualTo(2);
+        assertThat(response.failed()).isZero();
+        assertThat(userRepository.findSummariesByEmailIn(EMAILS)).hasSize(3);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,41 @@
+package db.migration;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class V5__RecomputeUsuariosSearchTextTest {
+
+    @Test
+    void recompute_ShouldApplyJavaNormalization_WhenSqlBackfillDiffers() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:searchtext;DB_CLOSE_DELAY=-1");
+             Statement statement = connection.createStatement()) {
+            // Given: filas con el resultado del backfill SQL (translate, sin colapsar espacios)
+            statement.execute("CREATE TABLE usuarios (id BIGINT PRIMARY KEY, nombres VARCHAR(100), "
+                    + "apellidos VARCHAR(100), email VARCHAR(100), search_text VARCHAR(500))");
+            statement.execute("INSERT INTO usuarios VALUES "
+                    + "(1, 'François', 'Müller', 'fm@unicauca.edu.co', 'françois muller fm@unicauca.edu.co'), "
+                    + "(2, 'Ana  María', 'Gómez', 'ag@unicauca.edu.co', 'ana  maria gomez ag@unicauca.edu.co'), "
+                    + "(3, 'Luis', 'Pérez', 'lp@unicauca.edu.co', 'luis perez lp@unicauca.edu.co')");
+
+            // When
+            int updated = V5__RecomputeUsuariosSearchText.recompute(connection);
+
+            // Then: solo cambian las filas mal normalizadas
+            assertEquals(2, updated);
+            try (ResultSet rows = statement.executeQuery("SELECT search_text FROM usuarios ORDER BY id")) {
+                rows.next();
+                assertEquals("francois muller fm@unicauca.edu.co", rows.getString(1));
+                rows.next();
+                assertEquals("ana maria gomez ag@unicauca.edu.co", rows.getString(1));
+                rows.next();
+                assertEquals("luis perez lp@unicauca.edu.co", rows.getString(1));
+            }
+        }
+    }
+}
@@ -65,6 +65,14 @@ public class AnteproyectoController {
         return ResponseEntity.ok(service.obtenerAnteproyecto(id));
     }
 
+    /**
+     * Anteproyecto de un proyecto de grado (resuelve el anteproyectoId a partir del proyecto).
+     */
+    @GetMapping(path = "/proyecto/{proyectoId}")
+    public ResponseEntity<AnteproyectoView> obtenerAnteproyectoPorProyecto(@PathVariable Long proyectoId) {
+        return ResponseEntity.ok(service.obtenerAnteproyectoPorProyecto(proyectoId));
+    }
+
     /**
      * Cambio de estado de un anteproyecto (invocado por Review/Jefe).
      */
@@ -62,6 +62,14 @@ public class FormatoAController {
         return ResponseEntity.ok(service.obtenerFormatoA(id));
     }
 
+    /**
+     * Última versión del Formato A de un proyecto de grado.
+     */
+    @GetMapping(path = "/proyecto/{proyectoId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<FormatoAView> obtenerUltimoFormatoAPorProyecto(@PathVariable Long proyectoId) {
+        return ResponseEntity.ok(service.obtenerUltimoFormatoAPorProyecto(proyectoId));
+    }
+
     /**
      * Lista Formato A (filtrable por docente).
      */
@@ -10,12 +10,14 @@ public interface ISubmissionService {
     // FORMATO A
     IdResponse crearFormatoA(String userId, FormatoAData data, MultipartFile pdf, MultipartFile carta);
     FormatoAView obtenerFormatoA(Long id);
+    FormatoAView obtenerUltimoFormatoAPorProyecto(Long proyectoId);
     FormatoAPage listarFormatoA(Optional<String> docenteId, int page, int size);
     IdResponse reenviarFormatoA(String userId, Long proyectoId, MultipartFile pdf, MultipartFile carta);
     void cambiarEstadoFormatoA(Long versionId, EvaluacionRequest req);
 
     // ANTEPROYECTO
     IdResponse subirAnteproyecto(String userId, AnteproyectoData data, MultipartFile pdf);
+    AnteproyectoView obtenerAnteproyectoPorProyecto(Long proyectoId);
     AnteproyectoPage listarAnteproyectos(int page, int size);
     void cambiarEstadoAnteproyecto(Long id, CambioEstadoAnteproyectoRequest req);
 }
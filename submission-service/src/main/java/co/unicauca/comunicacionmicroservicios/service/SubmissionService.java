@@ -131,7 +131,23 @@ public class SubmissionService implements ISubmissionService {
     public FormatoAView obtenerFormatoA(Long id) {
         FormatoA fa = formatoRepo.findById(id.intValue())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Formato A no encontrado"));
+        return toFormatoAView(fa);
+    }
+
+    /**
+     * Última versión del Formato A de un proyecto (por número de intento).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public FormatoAView obtenerUltimoFormatoAPorProyecto(Long proyectoId) {
+        ProyectoGrado proyecto = proyectoRepo.findById(proyectoId.intValue())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Proyecto no existe"));
+        FormatoA fa = formatoRepo.findTopByProyectoOrderByNumeroIntentoDesc(proyecto)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Formato A no encontrado"));
+        return toFormatoAView(fa);
+    }
 
+    private FormatoAView toFormatoAView(FormatoA fa) {
         FormatoAView view = new FormatoAView();
         view.setId(fa.getId().longValue());
         view.setProyectoId(fa.getProyecto() != null ? safeParseLong(String.valueOf(fa.getProyecto().getId())) : null);
@@ -377,7 +393,23 @@ public class SubmissionService implements ISubmissionService {
     public AnteproyectoView obtenerAnteproyecto(Long id) {
         Anteproyecto ant = anteproyectoRepo.findById(id.intValue())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Anteproyecto no encontrado"));
+        return toAnteproyectoView(ant);
+    }
+
+    /**
+     * Anteproyecto de un proyecto (cada proyecto tiene a lo sumo uno).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public AnteproyectoView obtenerAnteproyectoPorProyecto(Long proyectoId) {
+        ProyectoGrado proyecto = proyectoRepo.findById(proyectoId.intValue())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Proyecto no existe"));
+        Anteproyecto ant = anteproyectoRepo.findByProyecto(proyecto)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Anteproyecto no encontrado"));
+        return toAnteproyectoView(ant);
+    }
 
+    private AnteproyectoView toAnteproyectoView(Anteproyecto ant) {
         AnteproyectoView v = new AnteproyectoView();
         v.setId(ant.getId().longValue());
         v.setProyectoId(ant.getProyecto() != null ? safeParseLong(String.valueOf(ant.getProyecto().getId())) : null);